@@ -2,6 +2,13 @@ package br.ufal.ic.colligens.models;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.NOT_A_VALID_FILE_C_IN;
 
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -10,6 +17,7 @@ import java.util.List;
 import org.eclipse.cdt.core.model.CModelException;
 import org.eclipse.cdt.core.model.CoreModel;
 import org.eclipse.cdt.core.model.ICProject;
+import org.eclipse.cdt.core.model.IIncludeReference;
 import org.eclipse.cdt.core.model.ISourceRoot;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -30,6 +38,8 @@ public abstract class AbstractHeader {
 
 	private List<String> listAllFiles = null;
 
+	private List<String> sourceFiles = null;
+
 	protected CountDirectives countDirectives = null;
 
 	private ICProject project;
@@ -78,12 +88,12 @@ public abstract class AbstractHeader {
 		}
 	}
 
-	protected List<String> filesAllProject() throws PlatformException {
-		if ((listAllFiles != null) && (listAllFiles.size() > 0)) {
-			return listAllFiles;
+	protected List<String> getSourceFiles() throws PlatformException {
+		if ((sourceFiles != null) && (sourceFiles.size() > 0)) {
+			return sourceFiles;
 		}
 
-		listAllFiles = new ArrayList<String>();
+		sourceFiles = new ArrayList<String>();
 
 		try {
 
@@ -93,16 +103,26 @@ public abstract class AbstractHeader {
 					final ProjectExplorerController explorerController = new ProjectExplorerController();
 					explorerController.addResource(sourceRoots[i].getResource());
 
-					listAllFiles.addAll(explorerController.getListToString());
+					sourceFiles.addAll(explorerController.getListToString());
 				}
 			}
-			if (listAllFiles.isEmpty()) {
+			if (sourceFiles.isEmpty()) {
 				throw new PlatformException("Your project does not have a source folder (ex.: /src).");
 			}
 		} catch (final CModelException e1) {
 			throw new PlatformException("Your project does not have a source folder (ex.: /src).");
 		}
 
+		return sourceFiles;
+	}
+
+	protected List<String> filesAllProject() throws PlatformException {
+		if ((listAllFiles != null) && (listAllFiles.size() > 0)) {
+			return listAllFiles;
+		}
+
+		listAllFiles = new ArrayList<String>(getSourceFiles());
+
 		countDirectives = new CountDirectives();
 
 		countDirectives.directives.add("COLLIGENS");
@@ -121,6 +141,97 @@ public abstract class AbstractHeader {
 		return listAllFiles;
 	}
 
+	/**
+	 * Computes a fingerprint of everything the generated header depends on, i.e., its path, the include paths and compiler settings, and the content of all
+	 * source files.
+	 *
+	 * @return the fingerprint
+	 * @throws PlatformException if the source files cannot be found
+	 */
+	protected String getFingerprint() throws PlatformException {
+		final IPreferenceStore store = Colligens.getDefault().getPreferenceStore();
+		final List<String> keys = new ArrayList<String>();
+		keys.add(getIncludePath());
+		keys.add(store.getString("GCC"));
+		keys.add(store.getString("LIBS"));
+		try {
+			for (final IIncludeReference include : project.getIncludeReferences()) {
+				keys.add(include.getElementName());
+			}
+		} catch (final CModelException e) {
+			Colligens.getDefault().logError(e);
+		}
+		return hash(keys, getSourceFiles());
+	}
+
+	/**
+	 * Checks whether the header was generated for the current state of the project.
+	 *
+	 * @param header the generated header
+	 * @return {@code true} if the header exists and its stored fingerprint matches the current one
+	 * @throws PlatformException if the source files cannot be found
+	 */
+	protected boolean isUpToDate(File header) throws PlatformException {
+		final File fingerprintFile = getFingerprintFile(header);
+		if (!header.exists() || !fingerprintFile.exists()) {
+			return false;
+		}
+		try {
+			return new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8).equals(getFingerprint());
+		} catch (final IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Stores the current fingerprint next to the generated header.
+	 *
+	 * @param header the generated header
+	 * @throws PlatformException if the source files cannot be found
+	 */
+	protected void storeFingerprint(File header) throws PlatformException {
+		try {
+			Files.write(getFingerprintFile(header).toPath(), getFingerprint().getBytes(StandardCharsets.UTF_8));
+		} catch (final IOException e) {
+			Colligens.getDefault().logError(e);
+		}
+	}
+
+	private static File getFingerprintFile(File header) {
+		return new File(header.getPath() + ".sha1");
+	}
+
+	/**
+	 * Computes a SHA-1 hash of the given keys and the content of the given files.
+	 *
+	 * @param keys arbitrary strings
+	 * @param files the paths of the files; missing files are hashed by their path only
+	 * @return the hash as hexadecimal string
+	 */
+	public static String hash(Collection<String> keys, Collection<String> files) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		for (final String key : keys) {
+			digest.update(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		for (final String file : files) {
+			digest.update(file.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			try {
+				digest.update(Files.readAllBytes(new File(file).toPath()));
+			} catch (final IOException e) {
+				digest.update((byte) 1);
+			}
+			digest.update((byte) 0);
+		}
+		return String.format("%040x", new BigInteger(1, digest.digest()));
+	}
+
 	public static IFile getFile(String fileName) {
 		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
 		final IPath location = Path.fromOSString(fileName);
@@ -31,7 +31,7 @@ public class PlatformHeader extends AbstractHeader {
 
 		platform = new File(getIncludePath());
 
-		if (platform.exists()) {
+		if (isUpToDate(platform)) {
 			return;
 		}
 
@@ -183,6 +183,7 @@ public class PlatformHeader extends AbstractHeader {
 			}
 			buffW.close();
 			fileW.close();
+			storeFingerprint(platform);
 		} catch (final IOException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
@@ -64,7 +64,7 @@ public class StubsHeader extends AbstractHeader {
 	public void run() throws PlatformException {
 		final File stubs = new File(getIncludePath());
 
-		if (stubs.exists()) {
+		if (isUpToDate(stubs)) {
 			return;
 		}
 
@@ -110,7 +110,10 @@ public class StubsHeader extends AbstractHeader {
 		}
 
 		final File fileTemp = writeTypesToPlatformHeader();
-		fileTemp.renameTo(new File(getIncludePath()));
+		final File stubs = new File(getIncludePath());
+		stubs.delete();
+		fileTemp.renameTo(stubs);
+		storeFingerprint(stubs);
 
 	}
 
@@ -16,10 +16,21 @@ import java.io.RandomAccessFile;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.cdt.core.model.CModelException;
 import org.eclipse.cdt.core.model.CoreModel;
@@ -30,11 +41,13 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.ui.internal.util.BundleUtility;
 import org.prop4j.Node;
 import org.prop4j.NodeWriter;
 
 import br.ufal.ic.colligens.activator.Colligens;
+import br.ufal.ic.colligens.util.Log;
 import de.fosd.typechef.TypeChefFrontend;
 import de.fosd.typechef.options.FrontendOptions;
 import de.fosd.typechef.options.FrontendOptionsWithConfigFiles;
@@ -48,6 +61,34 @@ import de.ovgu.featureide.fm.ui.FMUIPlugin;
 @SuppressWarnings(RESTRICTION)
 public class TypeChef {
 
+	/**
+	 * The logs of one analyzed file.
+	 */
+	private static class AnalysisResult {
+
+		private final String fingerprint;
+		private final List<Object[]> logs = new ArrayList<Object[]>();
+
+		public AnalysisResult(String fingerprint, List<Log> logs) {
+			this.fingerprint = fingerprint;
+			for (final Log log : logs) {
+				this.logs.add(new Object[] { log.getLine(), log.getColumn(), log.getFeature(), log.getSeverity(), log.getMessage() });
+			}
+		}
+
+		public void restore(FileProxy fileProxy) {
+			for (final Object[] log : logs) {
+				fileProxy.getLogs().add(new Log(fileProxy, (Integer) log[0], (Integer) log[1], (String) log[2], (String) log[3], (String) log[4]));
+			}
+		}
+
+	}
+
+	/**
+	 * The results of the last analysis of each file, which are reused as long as neither the file nor the analysis options change.
+	 */
+	private static final Map<String, AnalysisResult> RESULT_CACHE = new ConcurrentHashMap<String, AnalysisResult>();
+
 	private IProject project;
 	private boolean isFinish = false;
 	private List<FileProxy> fileProxies;
@@ -55,6 +96,9 @@ public class TypeChef {
 	private final AbstractHeader header;
 	private IProgressMonitor monitor = null;
 
+	private Collection<String> headersPath = Collections.emptyList();
+	private final Map<FileProxy, String> fingerprints = new HashMap<FileProxy, String>();
+
 	public TypeChef() {
 		header = AbstractHeader.getInstance();
 	}
@@ -106,7 +150,6 @@ public class TypeChef {
 		paramters.add(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput.c");
 
 		if (Colligens.getDefault().getPreferenceStore().getBoolean("FEATURE_MODEL")) {
-			prepareFeatureModel(); // General processing options String
 			paramters.add("--featureModelFExpr");
 			paramters.add(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "cnf.fm");
 		}
@@ -132,8 +175,6 @@ public class TypeChef {
 
 		}
 
-		final Collection<String> headersPath = header.getIncludes();
-
 		for (final Iterator<String> iterator = headersPath.iterator(); iterator.hasNext();) {
 			paramters.add("-h");
 			paramters.add(iterator.next());
@@ -184,48 +225,158 @@ public class TypeChef {
 
 			header.run();
 
+			headersPath = header.getIncludes();
+
+			if (Colligens.getDefault().getPreferenceStore().getBoolean("FEATURE_MODEL")) {
+				prepareFeatureModel();
+			}
+
 			monitorbeginTask(ANALYZING_SELECTED_FILES, fileProxies.size());
 
+			// reuse the results of unchanged files
+			final String optionsFingerprint = getOptionsFingerprint();
+			final List<FileProxy> changedFiles = new ArrayList<FileProxy>();
 			for (final FileProxy fileProxy : fileProxies) {
-				// Monitor Update
-				monitorWorked(1);
-				monitorSubTask(fileProxy.getFullPath());
-				// end Monitor
-				if (monitorIsCanceled()) {
+				final String fingerprint = AbstractHeader.hash(Arrays.asList(optionsFingerprint), Arrays.asList(fileProxy.getFileReal()));
+				fingerprints.put(fileProxy, fingerprint);
+				final AnalysisResult result = RESULT_CACHE.get(fileProxy.getFileReal());
+				if ((result != null) && result.fingerprint.equals(fingerprint)) {
+					result.restore(fileProxy);
+					monitorWorked(1);
 					isFinish = true;
-					break;
+				} else {
+					changedFiles.add(fileProxy);
 				}
+			}
 
-				try {
+			final int numberOfThreads = Math.min(Colligens.getDefault().getPreferenceStore().getInt("TYPECHEF_THREADS"), changedFiles.size());
+			if (numberOfThreads > 1) {
+				runParallel(changedFiles, numberOfThreads);
+			} else {
+				runSerial(changedFiles);
+			}
+		} catch (final PlatformException e1) {
+			monitor = null;
+			e1.printStackTrace();
+			Colligens.getDefault().logError(e1);
+		}
+		monitor = null;
+	}
+
+	/**
+	 * Analyzes the files one after another within this process.
+	 */
+	private void runSerial(List<FileProxy> files) throws TypeChefException {
+		for (final FileProxy fileProxy : files) {
+			// Monitor Update
+			monitorWorked(1);
+			monitorSubTask(fileProxy.getFullPath());
+			// end Monitor
+			if (monitorIsCanceled()) {
+				isFinish = true;
+				break;
+			}
 
-					final TypeChefFrontend typeChefFrontend = new TypeChefFrontend();
+			try {
 
-					typeChefFrontend.processFile(getOptions(fileProxy), fileProxy);
+				final TypeChefFrontend typeChefFrontend = new TypeChefFrontend();
 
-					isFinish = true;
-				} catch (final OptionException e) {
-					e.printStackTrace();
-					// If the analysis is not performed correctly,
-					// and the analysis made ​​from the command line
-					startCommandLineMode(fileProxy);
+				typeChefFrontend.processFile(getOptions(fileProxy), fileProxy);
 
-					isFinish = true;
-				} catch (final Exception e) {
-					e.printStackTrace();
-					// If the analysis is not performed correctly,
-					// and the analysis made ​​from the command line
-					startCommandLineMode(fileProxy);
+				isFinish = true;
+			} catch (final OptionException e) {
+				e.printStackTrace();
+				// If the analysis is not performed correctly,
+				// and the analysis made ​​from the command line
+				startCommandLineMode(fileProxy, "");
 
-					isFinish = true;
-				}
+				isFinish = true;
+			} catch (final Exception e) {
+				e.printStackTrace();
+				// If the analysis is not performed correctly,
+				// and the analysis made ​​from the command line
+				startCommandLineMode(fileProxy, "");
 
+				isFinish = true;
 			}
-		} catch (final PlatformException e1) {
-			monitor = null;
-			e1.printStackTrace();
-			Colligens.getDefault().logError(e1);
+			storeResult(fileProxy);
 		}
-		monitor = null;
+	}
+
+	/**
+	 * Analyzes the files concurrently. As the TypeChef front end keeps static state, each file is analyzed by a separate TypeChef process, and each worker
+	 * uses its own output files.
+	 */
+	private void runParallel(final List<FileProxy> files, int numberOfThreads) {
+		final AtomicInteger index = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			final List<Future<Void>> futures = new ArrayList<Future<Void>>(numberOfThreads);
+			for (int i = 0; i < numberOfThreads; i++) {
+				final String suffix = Integer.toString(i);
+				futures.add(executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws Exception {
+						for (int j = index.getAndIncrement(); j < files.size(); j = index.getAndIncrement()) {
+							if (monitorIsCanceled()) {
+								break;
+							}
+							final FileProxy fileProxy = files.get(j);
+							monitorWorked(1);
+							monitorSubTask(fileProxy.getFullPath());
+							try {
+								startCommandLineMode(fileProxy, suffix);
+								storeResult(fileProxy);
+							} catch (final TypeChefException e) {
+								Colligens.getDefault().logError(e);
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final ExecutionException e) {
+			Colligens.getDefault().logError(e);
+		} finally {
+			executor.shutdownNow();
+		}
+		isFinish = true;
+	}
+
+	/**
+	 * Computes a fingerprint of all options and inputs that are shared by the analyses of all files.
+	 */
+	private String getOptionsFingerprint() throws PlatformException {
+		final IPreferenceStore store = Colligens.getDefault().getPreferenceStore();
+		final List<String> keys = new ArrayList<String>();
+		keys.add(store.getString("TypeChefPreference"));
+		keys.add(Boolean.toString(store.getBoolean("FEATURE_MODEL")));
+		keys.add(Boolean.toString(store.getBoolean("USE_INCLUDES")));
+		keys.add(Boolean.toString(store.getBoolean("USE_STUBS")));
+
+		final List<String> files = new ArrayList<String>(headersPath);
+		if (store.getBoolean("FEATURE_MODEL")) {
+			files.add(Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "cnf.fm");
+		}
+		if (store.getBoolean("USE_INCLUDES")) {
+			// the included project headers are not tracked per file
+			for (final String file : header.getSourceFiles()) {
+				if (file.endsWith(".h")) {
+					files.add(file);
+				}
+			}
+		}
+		return AbstractHeader.hash(keys, files);
+	}
+
+	private void storeResult(FileProxy fileProxy) {
+		RESULT_CACHE.put(fileProxy.getFileReal(), new AnalysisResult(fingerprints.get(fileProxy), fileProxy.getLogs()));
 	}
 
 	/**
@@ -267,7 +418,7 @@ public class TypeChef {
 	 * @param fileProxy
 	 * @throws TypeChefException
 	 */
-	private void startCommandLineMode(FileProxy fileProxy) throws TypeChefException {
+	private void startCommandLineMode(FileProxy fileProxy, String suffix) throws TypeChefException {
 		final XMLParserTypeChef xmlParser = new XMLParserTypeChef();
 
 		final ArrayList<String> args = new ArrayList<String>();
@@ -275,7 +426,7 @@ public class TypeChef {
 
 		final String typeChefPreference = Colligens.getDefault().getPreferenceStore().getString("TypeChefPreference");
 
-		URL url = BundleUtility.find(Colligens.getDefault().getBundle(), "lib/" + "TypeChef-0.3.5.jar");
+		URL url = BundleUtility.find(Colligens.getDefault().getBundle(), "lib/" + "TypeChef-0.3.6.jar");
 		try {
 			url = FileLocator.toFileURL(url);
 		} catch (final IOException e) {
@@ -284,7 +435,6 @@ public class TypeChef {
 		final Path pathToTypeChef = new Path(url.getFile());
 
 		if (Colligens.getDefault().getPreferenceStore().getBoolean("FEATURE_MODEL")) {
-			prepareFeatureModel(); // General processing options String
 			args.add(0, Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "cnf.fm");
 			args.add(0, "--featureModelFExpr");
 		}
@@ -306,8 +456,6 @@ public class TypeChef {
 
 		}
 
-		final Collection<String> headersPath = header.getIncludes();
-
 		for (final Iterator<String> iterator = headersPath.iterator(); iterator.hasNext();) {
 
 			args.add(0, iterator.next());
@@ -317,7 +465,7 @@ public class TypeChef {
 		args.add(0, typeChefPreference);
 
 		// saved in the' temp directory
-		final String outputFilePath = Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "output";
+		final String outputFilePath = Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "output" + suffix;
 
 		try {
 			RandomAccessFile arq = new RandomAccessFile(outputFilePath, "rw");
@@ -330,7 +478,7 @@ public class TypeChef {
 
 		args.add(0, "--errorXML=" + outputFilePath + ".xml");
 
-		args.add(0, Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput.c");
+		args.add(0, Colligens.getDefault().getConfigDir().getAbsolutePath() + System.getProperty("file.separator") + "lexOutput" + suffix + ".c");
 		args.add(0, "--lexOutput");
 		args.add(0, "--lexNoStdout");
 		args.add(0, "-w");
@@ -343,6 +491,7 @@ public class TypeChef {
 		}
 
 		final ProcessBuilder processBuilder = new ProcessBuilder(args);
+		processBuilder.redirectErrorStream(true);
 
 		BufferedReader input = null;
 		BufferedReader error = null;
@@ -396,6 +545,7 @@ public class TypeChef {
 			}
 		}
 		xmlParser.setFile(fileProxy);
+		xmlParser.setXMLFile(new File(outputFilePath + ".xml"));
 		xmlParser.processFile();
 	}
 
@@ -403,25 +553,25 @@ public class TypeChef {
 		this.monitor = monitor;
 	}
 
-	private boolean monitorIsCanceled() {
+	private synchronized boolean monitorIsCanceled() {
 		return monitor != null ? monitor.isCanceled() : false;
 	}
 
-	private void monitorWorked(int value) {
+	private synchronized void monitorWorked(int value) {
 		if (monitor == null) {
 			return;
 		}
 		monitor.worked(value);
 	}
 
-	private void monitorSubTask(String label) {
+	private synchronized void monitorSubTask(String label) {
 		if (monitor == null) {
 			return;
 		}
 		monitor.subTask(label);
 	}
 
-	private void monitorbeginTask(String label, int size) {
+	private synchronized void monitorbeginTask(String label, int size) {
 		if (monitor == null) {
 			return;
 		}
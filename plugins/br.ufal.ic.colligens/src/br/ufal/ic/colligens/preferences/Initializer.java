@@ -15,6 +15,7 @@ public class Initializer extends AbstractPreferenceInitializer {
 		store.setDefault("USE_INCLUDES", false);
 		store.setDefault("USE_STUBS", true);
 		store.setDefault("TypeChefPreference", "--parse");
+		store.setDefault("TYPECHEF_THREADS", Runtime.getRuntime().availableProcessors());
 
 		// PreferenceGcc
 		store.setDefault("GCC", "gcc");
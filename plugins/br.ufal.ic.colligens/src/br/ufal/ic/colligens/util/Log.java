@@ -57,6 +57,14 @@ public class Log {
 		}
 	}
 
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
 	public String getFeature() {
 		return feature;
 	}
@@ -1,23 +1,82 @@
 package br.ufal.ic.colligens.util.metrics;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.ProcessBuilder.Redirect;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IProject;
+import org.prop4j.And;
+import org.prop4j.Node;
+import org.prop4j.analyses.TWiseConfigurationGenerator;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+
+import br.ufal.ic.colligens.activator.Colligens;
+import de.ovgu.featureide.core.CorePlugin;
+import de.ovgu.featureide.core.IFeatureProject;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Generates the products of a C file by running the preprocessor for each combination of its directives.<br> The products are derived lazily, one
+ * satisfiability check per product. If a feature model is given, only combinations that are valid with respect to the feature model are derived and
+ * directives that are not features of the model can be defined freely. Optionally, only a t-wise sample of the feature model is used.
+ */
 public class ProductGenerator {
 
-	// Check for soundness percent of possible products.
-	private static final double SOUNDNESS = 0.1;
+	// Default number of products to generate per file.
+	public static final int DEFAULT_MAXIMUM_NUMBER_OF_PRODUCTS = 1024;
+
+	private static final int NUMBER_OF_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	private final IFeatureModel featureModel;
+
+	private int maximumNumberOfProducts = DEFAULT_MAXIMUM_NUMBER_OF_PRODUCTS;
+	private int t = 0;
+	private int numberOfThreads = NUMBER_OF_THREADS;
+
+	public ProductGenerator() {
+		this(null);
+	}
+
+	/**
+	 * @param featureModel the feature model restricting the products; may be {@code null}
+	 */
+	public ProductGenerator(IFeatureModel featureModel) {
+		this.featureModel = featureModel;
+	}
+
+	/**
+	 * Creates a product generator that is restricted by the feature model of the given project.
+	 *
+	 * @param project the project containing the C files
+	 * @return a generator using the feature model of the project, or an unrestricted generator if the project is no FeatureIDE project
+	 */
+	public static ProductGenerator forProject(IProject project) {
+		final IFeatureProject featureProject = (project == null) ? null : CorePlugin.getFeatureProject(project);
+		return new ProductGenerator((featureProject == null) ? null : featureProject.getFeatureModel());
+	}
 
 	public static boolean isValidJavaIdentifier(String s) {
 		// An empty or null string cannot be a valid identifier
@@ -41,134 +100,262 @@ public class ProductGenerator {
 
 	// It returns a set with all different directives.
 	public Set<String> getDirectives(File file) throws Exception {
-		final Set<String> directives = new HashSet<String>();
+		final Set<String> directives = new LinkedHashSet<String>();
 
 		final FileInputStream fstream = new FileInputStream(file);
 		final DataInputStream in = new DataInputStream(fstream);
 		final BufferedReader br = new BufferedReader(new InputStreamReader(in));
 		String strLine;
 
-		while ((strLine = br.readLine()) != null) {
+		try {
+			while ((strLine = br.readLine()) != null) {
 
-			strLine = strLine.trim();
+				strLine = strLine.trim();
 
-			if (strLine.startsWith("#if") || strLine.startsWith("#elif")) {
+				if (strLine.startsWith("#if") || strLine.startsWith("#elif")) {
 
-				strLine = strLine.replaceAll("(?:/\\*(?:[^*]|(?:\\*+[^*/]))*\\*+/)|(?://.*)", "");
+					strLine = strLine.replaceAll("(?:/\\*(?:[^*]|(?:\\*+[^*/]))*\\*+/)|(?://.*)", "");
 
-				String directive = strLine.replace("#ifdef", "").replace("#ifndef", "").replace("#if", "");
-				directive = directive.replace("defined", "").replace("(", "").replace(")", "");
-				directive = directive.replace("||", "").replace("&&", "").replace("!", "").replace("<", "").replace(">", "").replace("=", "");
+					String directive = strLine.replace("#ifdef", "").replace("#ifndef", "").replace("#if", "");
+					directive = directive.replace("defined", "").replace("(", "").replace(")", "");
+					directive = directive.replace("||", "").replace("&&", "").replace("!", "").replace("<", "").replace(">", "").replace("=", "");
 
-				final String[] directivesStr = directive.split(" ");
+					final String[] directivesStr = directive.split(" ");
 
-				for (int i = 0; i < directivesStr.length; i++) {
-					if (!directivesStr[i].trim().equals("") && ProductGenerator.isValidJavaIdentifier(directivesStr[i].trim())) {
-						directives.add(directivesStr[i].trim());
+					for (int i = 0; i < directivesStr.length; i++) {
+						if (!directivesStr[i].trim().equals("") && ProductGenerator.isValidJavaIdentifier(directivesStr[i].trim())) {
+							directives.add(directivesStr[i].trim());
+						}
 					}
 				}
 			}
+		} finally {
+			in.close();
 		}
-		in.close();
 		return directives;
 	}
 
-	// It generates combinatorial for each possible product.
-	public <T> Set<Set<T>> powerSet(Set<T> originalSet) {
-		final Set<Set<T>> sets = new HashSet<Set<T>>();
-		if (originalSet.isEmpty()) {
-			sets.add(new HashSet<T>());
-			return sets;
+	/**
+	 * Returns the products for the given directives. Each product is the set of defined directives and is derived not before it is requested.
+	 *
+	 * @param directives the directives
+	 * @return the products, at most {@link #getMaximumNumberOfProducts()}
+	 */
+	public Iterable<Set<String>> getProducts(Set<String> directives) {
+		final List<String> directiveList = new ArrayList<String>(directives);
+		final List<String> variables = new ArrayList<String>();
+		final Node cnf;
+		if (featureModel != null) {
+			cnf = AdvancedNodeCreator.createRegularCNF(featureModel);
+			variables.addAll(Functional.mapToList(featureModel.getFeatures(), FeatureUtils.GET_FEATURE_NAME));
+		} else {
+			cnf = new And();
 		}
-		final List<T> list = new ArrayList<T>(originalSet);
-		final T head = list.get(0);
-		final Set<T> rest = new HashSet<T>(list.subList(1, list.size()));
-		for (final Set<T> set : powerSet(rest)) {
-			final Set<T> newSet = new HashSet<T>();
-			newSet.add(head);
-			newSet.addAll(set);
-			sets.add(newSet);
-			sets.add(set);
+		final Set<String> variableSet = new HashSet<String>(variables);
+		for (final String directive : directiveList) {
+			if (variableSet.add(directive)) {
+				variables.add(directive);
+			}
 		}
-		return sets;
-	}
+		final SatInstance satInstance = new SatInstance(cnf, variables);
 
-	// It executes external commands.
-	public String runCommand(String cmd) {
-		String result = "";
-		try {
-			final Runtime rt = Runtime.getRuntime();
-			final Process pr = rt.exec(cmd);
+		final int[] directiveVariables = new int[directiveList.size()];
+		for (int i = 0; i < directiveVariables.length; i++) {
+			directiveVariables[i] = satInstance.getVariable(directiveList.get(i));
+		}
 
-			final BufferedReader input = new BufferedReader(new InputStreamReader(pr.getInputStream()));
+		if (t > 0) {
+			return getSample(satInstance, directiveList, directiveVariables);
+		}
+		return new Iterable<Set<String>>() {
 
-			String line = null;
+			@Override
+			public Iterator<Set<String>> iterator() {
+				return new ProductIterator(satInstance, directiveList, directiveVariables);
+			}
+		};
+	}
 
-			while ((line = input.readLine()) != null) {
-				result += line + "\n";
+	private List<Set<String>> getSample(SatInstance satInstance, List<String> directiveList, int[] directiveVariables) {
+		final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(satInstance, t, maximumNumberOfProducts);
+		final List<List<String>> configurations = LongRunningWrapper.runMethod(generator);
+		final Set<Set<String>> products = new LinkedHashSet<Set<String>>();
+		if (configurations != null) {
+			for (final List<String> configuration : configurations) {
+				final Set<String> product = new HashSet<String>(configuration);
+				product.retainAll(directiveList);
+				products.add(product);
 			}
+		}
+		return new ArrayList<Set<String>>(products);
+	}
 
-			final int exitVal = pr.waitFor();
-			if (exitVal != 0) {
-				System.out.println("Problem running external command!");
+	/**
+	 * Derives one product after another by blocking the directives of each found product in the solver.
+	 */
+	private class ProductIterator implements Iterator<Set<String>> {
+
+		private final List<String> directiveList;
+		private final int[] directiveVariables;
+
+		private BasicSolver solver;
+		private Set<String> nextProduct;
+		private int count = 0;
+
+		public ProductIterator(SatInstance satInstance, List<String> directiveList, int[] directiveVariables) {
+			this.directiveList = directiveList;
+			this.directiveVariables = directiveVariables;
+			try {
+				solver = new BasicSolver(satInstance);
+			} catch (final ContradictionException e) {
+				solver = null;
 			}
+		}
 
-		} catch (final Exception e) {
-			System.out.println(e.toString());
-			e.printStackTrace();
+		@Override
+		public boolean hasNext() {
+			if (nextProduct == null) {
+				nextProduct = findNextProduct();
+			}
+			return nextProduct != null;
 		}
-		return result;
-	}
 
-	// It saves a String to a file, replacing the file's contents.
-	public void saveToFile(String filePath, String textToSave) {
-		final File file = new File(filePath);
-		if (file.exists()) {
-			file.delete();
+		@Override
+		public Set<String> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Set<String> product = nextProduct;
+			nextProduct = null;
+			return product;
 		}
-		try {
-			final BufferedWriter out = new BufferedWriter(new FileWriter(file));
-			out.write(textToSave);
-			out.close();
-		} catch (final IOException e) {
-			e.printStackTrace();
+
+		private Set<String> findNextProduct() {
+			if ((solver == null) || (count >= maximumNumberOfProducts) || (solver.isSatisfiable() != SatResult.TRUE)) {
+				return null;
+			}
+			final int[] model = solver.getModel();
+			final boolean[] selection = new boolean[model.length + 1];
+			for (final int literal : model) {
+				selection[Math.abs(literal)] = literal > 0;
+			}
+
+			final Set<String> product = new HashSet<String>();
+			final int[] blockingClause = new int[directiveVariables.length];
+			for (int i = 0; i < directiveVariables.length; i++) {
+				final int variable = directiveVariables[i];
+				final boolean selected = (variable < selection.length) && selection[variable];
+				if (selected) {
+					product.add(directiveList.get(i));
+				}
+				blockingClause[i] = selected ? -variable : variable;
+			}
+			count++;
+
+			try {
+				if (blockingClause.length > 0) {
+					solver.getInternalSolver().addClause(new VecInt(blockingClause));
+				} else {
+					solver = null;
+				}
+			} catch (final ContradictionException e) {
+				solver = null;
+			}
+			return product;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
 		}
+
 	}
 
 	// It generates each possible product.
-	public void generateProducts(String originalFile) throws Exception {
+	public List<File> generateProducts(final String originalFile) throws Exception {
 		final Set<String> directives = getDirectives(new File(originalFile));
+		final Iterator<Set<String>> products = getProducts(directives).iterator();
+		final String productPath = originalFile.replace("original.c", "");
+		final List<File> productFiles = Collections.synchronizedList(new ArrayList<File>());
+
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			final List<Future<Void>> futures = new ArrayList<>(numberOfThreads);
+			for (int i = 0; i < numberOfThreads; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws Exception {
+						while (true) {
+							final Set<String> product;
+							final File productFile;
+							synchronized (products) {
+								if (!products.hasNext()) {
+									return null;
+								}
+								product = products.next();
+								productFile = new File(productPath + "test" + (productFiles.size() + 1) + ".c");
+								productFiles.add(productFile);
+							}
+							if (!runPreprocessor(product, originalFile, productFile)) {
+								Colligens.getDefault().logWarning("Problem running the preprocessor for " + productFile.getName() + "!");
+							}
+						}
+					}
+				}));
+			}
+			for (final Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return productFiles;
+	}
 
-		// Generating all possible products.
-		final Set<Set<String>> sets = this.powerSet(directives);
+	// It executes the preprocessor and writes its output directly to the product file.
+	private boolean runPreprocessor(Set<String> product, String originalFile, File productFile) throws Exception {
+		final List<String> command = new ArrayList<String>();
+		command.add("gcc");
+		command.add("-P");
+		command.add("-E");
+		for (final String directive : product) {
+			command.add("-D");
+			command.add(directive);
+		}
+		command.add(originalFile);
 
-		int count = 1;
+		final ProcessBuilder processBuilder = new ProcessBuilder(command);
+		processBuilder.redirectOutput(productFile);
+		processBuilder.redirectError(Redirect.INHERIT);
+		return processBuilder.start().waitFor() == 0;
+	}
 
-		for (final Iterator<Set<String>> i = sets.iterator(); i.hasNext();) {
-			final Set<String> set = i.next();
+	public int getMaximumNumberOfProducts() {
+		return maximumNumberOfProducts;
+	}
 
-			String cmd = "gcc -P -E ";
+	public void setMaximumNumberOfProducts(int maximumNumberOfProducts) {
+		this.maximumNumberOfProducts = maximumNumberOfProducts;
+	}
 
-			for (final Iterator<String> j = set.iterator(); j.hasNext();) {
-				final String directive = j.next();
-				cmd += " -D " + directive + " ";
-			}
-			cmd += originalFile;
+	public int getT() {
+		return t;
+	}
 
-			final String code = runCommand(cmd);
-			saveToFile(originalFile.replace("original.c", "") + "test" + count + ".c", code);
-			count++;
+	/**
+	 * @param t the strength of the sample; 0 derives all products
+	 */
+	public void setT(int t) {
+		this.t = t;
+	}
 
-			if ((directives.size() > 5) && (directives.size() <= 10)) {
-				// Define soundness to set the percentage of product to analyze.
-				if (count >= (sets.size() * ProductGenerator.SOUNDNESS)) {
-					break;
-				}
-			} else if (directives.size() > 10) {
-				break;
-			}
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
 
-		}
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
 	}
 
 }
@@ -2,13 +2,13 @@ package de.ovgu.featureide.cloneanalysis.impl;
 
 import java.util.Iterator;
 
-import net.sourceforge.pmd.cpd.CPD;
 import net.sourceforge.pmd.cpd.Match;
 import de.ovgu.featureide.cloneanalysis.pmd.CPDAdapter;
+import de.ovgu.featureide.cloneanalysis.pmd.IncrementalCPDAdapter;
 import de.ovgu.featureide.cloneanalysis.pmd.ICloneAnalyzerAdapter;
 
 public class CPDCloneAnalysis {
-	private ICloneAnalyzerAdapter<CPD> cpdAdapter;
+	private ICloneAnalyzerAdapter<?> cpdAdapter;
 
 	public CPDCloneAnalysis() {
 		cpdAdapter = new CPDAdapter();
@@ -18,6 +18,15 @@ public class CPDCloneAnalysis {
 		cpdAdapter = new CPDAdapter(filteredName);
 	}
 
+	/**
+	 * @param cpdAdapter
+	 *            the adapter of the clone detection tool, e.g., an
+	 *            {@link IncrementalCPDAdapter}
+	 */
+	public CPDCloneAnalysis(ICloneAnalyzerAdapter<?> cpdAdapter) {
+		this.cpdAdapter = cpdAdapter;
+	}
+
 	public Iterator<Match> analyze(Object selection) {
 		// System.out.println("Starting CC analysis..");
 
@@ -33,7 +42,7 @@ public class CPDCloneAnalysis {
 	/**
 	 * @return the cpdAdapter
 	 */
-	public ICloneAnalyzerAdapter<CPD> getCpdAdapter() {
+	public ICloneAnalyzerAdapter<?> getCpdAdapter() {
 		return cpdAdapter;
 	}
 
@@ -2,6 +2,7 @@ package de.ovgu.featureide.cloneanalysis.plugin;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -20,6 +21,10 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -33,6 +38,7 @@ import org.eclipse.ui.texteditor.IDocumentProvider;
 import de.ovgu.featureide.cloneanalysis.impl.CPDCloneAnalysis;
 import de.ovgu.featureide.cloneanalysis.impl.CloneOccurence;
 import de.ovgu.featureide.cloneanalysis.markers.CloneAnalysisMarkers;
+import de.ovgu.featureide.cloneanalysis.pmd.IncrementalCPDAdapter;
 import de.ovgu.featureide.cloneanalysis.results.CPDResultConverter;
 import de.ovgu.featureide.cloneanalysis.results.CloneAnalysisGraphResults;
 import de.ovgu.featureide.cloneanalysis.results.CloneAnalysisResults;
@@ -55,6 +61,7 @@ public class CloneAnalysisCommandHandler extends AbstractHandler {
 
 	private static final boolean UPDATE_MARKERS = true;
 	private static final boolean UPDATE_GRAPHS = false;
+	private static final long REFRESH_INTERVAL = 500;
 
 	@Override
 	public Object execute(ExecutionEvent event) throws ExecutionException {
@@ -62,22 +69,58 @@ public class CloneAnalysisCommandHandler extends AbstractHandler {
 		IStructuredSelection currentSelection = null;
 		if (HandlerUtil.getCurrentSelection(event) instanceof IStructuredSelection)
 			currentSelection = (IStructuredSelection) HandlerUtil.getCurrentSelection(event);
-		long time = System.currentTimeMillis();
-		CPDCloneAnalysis analysis = new CPDCloneAnalysis();
+		final IStructuredSelection selection = currentSelection;
+
+		final CloneAnalysisView cloneAnalysisView = (CloneAnalysisView) PlatformUI.getWorkbench()
+				.getActiveWorkbenchWindow().getActivePage().findView(CloneAnalysisView.ID);
+
+		if (UPDATE_MARKERS)
+			deleteAllMarkersForCodeClones();
 
-		CloneAnalysisView cloneAnalysisView = (CloneAnalysisView) PlatformUI.getWorkbench().getActiveWorkbenchWindow()
-				.getActivePage().findView(CloneAnalysisView.ID);
+		final Job job = new Job("Clone Analysis") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				analyze(selection, cloneAnalysisView, monitor);
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		job.setUser(true);
+		job.schedule();
+		return null;
+	}
+
+	/**
+	 * Runs the analysis and passes each clone to the view and the markers as
+	 * soon as the analysis has found it. The relevant features and the
+	 * percentages are set once all clones are known.
+	 */
+	private void analyze(IStructuredSelection currentSelection, CloneAnalysisView cloneAnalysisView,
+			IProgressMonitor monitor) {
+		long time = System.currentTimeMillis();
+		CPDCloneAnalysis analysis = new CPDCloneAnalysis(new IncrementalCPDAdapter());
 
 		final Iterator<Match> cpdResults = analysis.analyze(currentSelection);
-		final CloneAnalysisResults<VariantAwareClone> formattedResults = CPDResultConverter
-				.convertMatchesToReadableResults(cpdResults);
+		// the view reads the clones while they are still being added
+		final CloneAnalysisResults<VariantAwareClone> formattedResults = new CloneAnalysisResults<VariantAwareClone>(
+				Collections.synchronizedSet(new HashSet<VariantAwareClone>()));
+		showResults(cloneAnalysisView, formattedResults);
+
+		final Map<IFile, IDocument> documents = new HashMap<IFile, IDocument>();
+		long lastRefresh = System.currentTimeMillis();
+		while (!monitor.isCanceled() && cpdResults.hasNext()) {
+			final VariantAwareClone clone = CPDResultConverter.convertMatchToClone(cpdResults.next());
+			formattedResults.addClone(clone);
+			if (UPDATE_MARKERS)
+				createMarkers(clone, documents);
+			if (System.currentTimeMillis() - lastRefresh > REFRESH_INTERVAL) {
+				lastRefresh = System.currentTimeMillis();
+				refreshResults(cloneAnalysisView);
+			}
+		}
+		CPDResultConverter.completeResults(formattedResults);
 		final IClonePercentageData percentageData = formattedResults.getPercentageData();
 
-		// if (formattedResults.getRelevantFeatures() == null)
-		// System.out.println("relevant features null, q.q");
-		// else
-		// {
-
 		System.out.println(formattedResults.getRelevantFeatures().size() + " relevant features ");
 		System.out.println(formattedResults.getRelevantFeatures().toString());
 		for (FeatureRootLocation feature : formattedResults.getRelevantFeatures()) {
@@ -86,96 +129,113 @@ public class CloneAnalysisCommandHandler extends AbstractHandler {
 							+ " cloned: " + percentageData.getTotalCloneLength(feature) + " lines: "
 							+ percentageData.getClonedLineCount(feature));
 		}
-		// }
 
 		if (UPDATE_GRAPHS)
 			CloneAnalysisGraphResults.createGraphsForResults(formattedResults, "/Users/steffen/Desktop/Analyse/charts/",
 					formattedResults.getRelevantFeatures());
 
-		if (UPDATE_MARKERS) {
-			deleteAllMarkersForCodeClones();
-
-			final Map<IFile, IDocument> documents = new HashMap<IFile, IDocument>();
-
-			final IPath location = ResourcesPlugin.getWorkspace().getRoot().getLocation();
-			for (VariantAwareClone clone : formattedResults.getClones()) {
-				// String message = "Detected a code clone (" +
-				// clone.getLineCount() + " lines ) starting at this line: ";
-				String message = "";
-				String formattedMessage = "";
-				int count = 0;
-				for (CloneOccurence occ : clone.getOccurences()) {
-
-					// String file =
-					// occ.getFile().makeRelativeTo(location).uptoSegment(1).toString()+
-					// File.pathSeparator + occ.toString();
-					String file = CloneAnalysisUtils.getFileFromPath(occ.getFile()).getLocation().toString();
-					// message += (" Occurrence " + count++ + " in file " + file
-					// + ";");
-					message += occ.getFile() + ";";
-					formattedMessage += "[ " + occ.getFile().segment(6) + " ]   " + occ.getFile().lastSegment()
-							+ ";    ";
-				}
-
-				final List<IPath> distinctFiles = clone.getDistinctFiles();
-				final Map<String, List<IPath>> allPathsForFileName = new HashMap<String, List<IPath>>();
-				int index = 0;
-				for (IPath iPath : distinctFiles) {
-
-					String fileName = iPath.removeFirstSegments(iPath.segmentCount() - 1).toString();
-
-					List<IPath> allFiles;
-					if (allPathsForFileName.containsKey(fileName))
-						allFiles = allPathsForFileName.get(fileName);
-					else {
-
-						allFiles = new ArrayList<IPath>();
-
-						allPathsForFileName.put(fileName, allFiles);
-
-					}
-
-					allFiles.add(iPath);
-
-				}
-				int noOfFiles = 0;
-				for (CloneOccurence occ : clone.getOccurences()) {
-					final IFile file = CloneAnalysisUtils.getFileFromPath(occ.getFile());
-
-					// if (allPathsForFileName.get(file.getName()).size() == 1)
-					// continue;
-
-					if (file == null || file.getLocation() == null)
-						System.out.println(
-								"trying to create marker in null file " + (occ.getFile() != null ? occ.getFile()
-										.makeRelativeTo(CloneAnalysisUtils.getWorkspaceRoot().getLocation()).toString()
-										: ""));
-					else {
-						noOfFiles++;
-						if (noOfFiles % 50 == 0)
-							System.out.println("creating marker in file " + file.getLocation().toString());
-					}
-
-					final IDocument document = getDocumentForFile(file, documents);
-					final int[] markerPositions = getMarkerPositions(document, occ);
-					final Map<String, String> errorMap = new HashMap<String, String>();
-					errorMap.put("first", "first value");
-					errorMap.put("second", "second value");
-					errorMap.put("third", "third value");
-					errorMap.put("fourth", "fourth value");
-
-					CloneAnalysisMarkers.addProblemMarker(file, message, formattedMessage, occ.getStartIndex(),
-							markerPositions[0], markerPositions[1]);
-
-				}
-			}
-		}
-		cloneAnalysisView.showResults(formattedResults);
-		// cloneAnalysisView.updateMatches(cpdResults);
+		showResults(cloneAnalysisView, formattedResults);
 		time = System.currentTimeMillis() - time;
 		double timeD = ((double) time) / 1000.0;
 		System.out.println("Overall clone analysis execution time: " + timeD + "s");
-		return null;
+	}
+
+	private void showResults(final CloneAnalysisView cloneAnalysisView,
+			final CloneAnalysisResults<VariantAwareClone> formattedResults) {
+		if (cloneAnalysisView == null)
+			return;
+		PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				cloneAnalysisView.showResults(formattedResults);
+			}
+		});
+	}
+
+	private void refreshResults(final CloneAnalysisView cloneAnalysisView) {
+		if (cloneAnalysisView == null)
+			return;
+		PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				cloneAnalysisView.refreshResults();
+			}
+		});
+	}
+
+	private void createMarkers(VariantAwareClone clone, final Map<IFile, IDocument> documents) {
+		final IPath location = ResourcesPlugin.getWorkspace().getRoot().getLocation();
+		// String message = "Detected a code clone (" +
+		// clone.getLineCount() + " lines ) starting at this line: ";
+		String message = "";
+		String formattedMessage = "";
+		int count = 0;
+		for (CloneOccurence occ : clone.getOccurences()) {
+
+			// String file =
+			// occ.getFile().makeRelativeTo(location).uptoSegment(1).toString()+
+			// File.pathSeparator + occ.toString();
+			String file = CloneAnalysisUtils.getFileFromPath(occ.getFile()).getLocation().toString();
+			// message += (" Occurrence " + count++ + " in file " + file
+			// + ";");
+			message += occ.getFile() + ";";
+			formattedMessage += "[ " + occ.getFile().segment(6) + " ]   " + occ.getFile().lastSegment()
+					+ ";    ";
+		}
+
+		final List<IPath> distinctFiles = clone.getDistinctFiles();
+		final Map<String, List<IPath>> allPathsForFileName = new HashMap<String, List<IPath>>();
+		int index = 0;
+		for (IPath iPath : distinctFiles) {
+
+			String fileName = iPath.removeFirstSegments(iPath.segmentCount() - 1).toString();
+
+			List<IPath> allFiles;
+			if (allPathsForFileName.containsKey(fileName))
+				allFiles = allPathsForFileName.get(fileName);
+			else {
+
+				allFiles = new ArrayList<IPath>();
+
+				allPathsForFileName.put(fileName, allFiles);
+
+			}
+
+			allFiles.add(iPath);
+
+		}
+		int noOfFiles = 0;
+		for (CloneOccurence occ : clone.getOccurences()) {
+			final IFile file = CloneAnalysisUtils.getFileFromPath(occ.getFile());
+
+			// if (allPathsForFileName.get(file.getName()).size() == 1)
+			// continue;
+
+			if (file == null || file.getLocation() == null)
+				System.out.println(
+						"trying to create marker in null file " + (occ.getFile() != null ? occ.getFile()
+								.makeRelativeTo(CloneAnalysisUtils.getWorkspaceRoot().getLocation()).toString()
+								: ""));
+			else {
+				noOfFiles++;
+				if (noOfFiles % 50 == 0)
+					System.out.println("creating marker in file " + file.getLocation().toString());
+			}
+
+			final IDocument document = getDocumentForFile(file, documents);
+			final int[] markerPositions = getMarkerPositions(document, occ);
+			final Map<String, String> errorMap = new HashMap<String, String>();
+			errorMap.put("first", "first value");
+			errorMap.put("second", "second value");
+			errorMap.put("third", "third value");
+			errorMap.put("fourth", "fourth value");
+
+			CloneAnalysisMarkers.addProblemMarker(file, message, formattedMessage, occ.getStartIndex(),
+					markerPositions[0], markerPositions[1]);
+
+		}
 	}
 
 	private int[] getMarkerPositions(final IDocument document, final CloneOccurence occ) {
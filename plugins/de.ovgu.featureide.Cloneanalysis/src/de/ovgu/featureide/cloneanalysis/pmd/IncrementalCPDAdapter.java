@@ -0,0 +1,79 @@
+package de.ovgu.featureide.cloneanalysis.pmd;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import net.sourceforge.pmd.cpd.CPDConfiguration;
+import net.sourceforge.pmd.cpd.Match;
+import net.sourceforge.pmd.util.FileFinder;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jface.viewers.IStructuredSelection;
+
+/**
+ * Adapter that uses a {@link TokenIndex} instead of CPD. The index is shared
+ * between analyses, so only files that changed since the last analysis are
+ * tokenized again.
+ *
+ * @author agent
+ */
+public class IncrementalCPDAdapter extends DefaultCloneAnalyzerAdapter<TokenIndex> {
+	private CPDConfiguration cloneAnalysisConfiguration = null;
+
+	private final Set<File> files = new LinkedHashSet<File>();
+
+	public IncrementalCPDAdapter() {
+		super(new DefaultFilenameFilter());
+	}
+
+	public IncrementalCPDAdapter(String filteredName) {
+		super(new FilteredFilenameFilter(filteredName));
+	}
+
+	@Override
+	public void initializeTool() {
+		cloneAnalysisConfiguration = createDefaultConfiguration();
+		analysisTool = TokenIndex.getInstance(cloneAnalysisConfiguration);
+		files.clear();
+	}
+
+	@Override
+	public void registerFilesForAnalysis(Object files) {
+		assert files != null : "files must not be null...";
+		if (files instanceof IStructuredSelection)
+			addResourcesFromSelection((IStructuredSelection) files);
+		else if (files instanceof IProject)
+			addProjectToAnalysis((IProject) files);
+		else
+			assert false : ("adding files of type " + files.getClass() + "is not supported(yet)");
+	}
+
+	/**
+	 * Updates the index with all new and changed files.
+	 *
+	 * @return the number of files that were tokenized again
+	 */
+	@Override
+	public Object startAnalysis() {
+		return analysisTool.update(files);
+	}
+
+	@Override
+	protected void registerContainerRecursively(IContainer container) {
+		final String location = container.getLocation().toString();
+		if (!new File(location).exists()) {
+			new IOException("Couldn't find directory " + location).printStackTrace();
+			return;
+		}
+		files.addAll(new FileFinder().findFilesFrom(location, cloneAnalysisConfiguration.filenameFilter(), true));
+	}
+
+	@Override
+	public Iterator<Match> getMatches() {
+		return analysisTool.getMatches(files);
+	}
+}
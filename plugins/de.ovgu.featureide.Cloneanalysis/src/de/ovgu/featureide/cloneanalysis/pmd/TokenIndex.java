@@ -0,0 +1,433 @@
+package de.ovgu.featureide.cloneanalysis.pmd;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sourceforge.pmd.cpd.CPDConfiguration;
+import net.sourceforge.pmd.cpd.Match;
+import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
+import net.sourceforge.pmd.cpd.Tokens;
+
+/**
+ * An incremental alternative to {@link net.sourceforge.pmd.cpd.CPD}.<br>
+ * The index keeps the tokens of every analyzed file together with the rolling
+ * hashes of all token windows of the minimum tile size. Only files that changed
+ * since the last analysis are tokenized again. Matches are found in parallel,
+ * one file at a time, and are returned as soon as they are found.
+ *
+ * @author agent
+ */
+public class TokenIndex {
+
+	private static final long BASE = 31;
+
+	private static final Map<String, TokenIndex> INDEXES = new HashMap<String, TokenIndex>();
+
+	/**
+	 * PMD assigns token identifiers per thread. To keep the identifiers of all
+	 * indexed files comparable, all files are tokenized by the same thread.
+	 */
+	private static final ExecutorService TOKENIZER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "Clone Analysis Tokenizer");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private static final Match END = new Match(0, TokenEntry.EOF, TokenEntry.EOF);
+
+	/**
+	 * The tokens of one file.
+	 */
+	private static class FileTokens {
+		private final File file;
+		private final long lastModified;
+		private final long length;
+		private final int[] tokens;
+		private final int[] lines;
+		private final long[] hashes;
+
+		public FileTokens(File file, long lastModified, long length, int[] tokens, int[] lines, long[] hashes) {
+			this.file = file;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.tokens = tokens;
+			this.lines = lines;
+			this.hashes = hashes;
+		}
+
+		public boolean isUpToDate(File file) {
+			return lastModified == file.lastModified() && length == file.length();
+		}
+	}
+
+	private final CPDConfiguration configuration;
+	private final int minimumTileSize;
+	private final Map<String, FileTokens> files = new ConcurrentHashMap<String, FileTokens>();
+
+	private int numberOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	public TokenIndex(CPDConfiguration configuration) {
+		this.configuration = configuration;
+		this.minimumTileSize = configuration.getMinimumTileSize();
+	}
+
+	/**
+	 * Returns the index that is shared by all analyses with the same language
+	 * and minimum tile size.
+	 */
+	public static synchronized TokenIndex getInstance(CPDConfiguration configuration) {
+		final String key = configuration.getLanguage().getTerseName() + ":" + configuration.getMinimumTileSize();
+		TokenIndex index = INDEXES.get(key);
+		if (index == null) {
+			index = new TokenIndex(configuration);
+			INDEXES.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Tokenizes all given files that are new or changed since they were last
+	 * indexed and removes files that do not exist anymore.
+	 *
+	 * @return the number of tokenized files
+	 */
+	public int update(final Collection<File> sourceFiles) {
+		for (final Iterator<FileTokens> iterator = files.values().iterator(); iterator.hasNext();) {
+			if (!iterator.next().file.exists())
+				iterator.remove();
+		}
+
+		final List<File> changedFiles = new ArrayList<File>();
+		for (File file : sourceFiles) {
+			final FileTokens fileTokens = files.get(file.getAbsolutePath());
+			if (fileTokens == null || !fileTokens.isUpToDate(file))
+				changedFiles.add(file);
+		}
+		if (changedFiles.isEmpty())
+			return 0;
+
+		try {
+			TOKENIZER.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (File file : changedFiles) {
+						try {
+							files.put(file.getAbsolutePath(), tokenize(file));
+						} catch (Exception e) {
+							files.remove(file.getAbsolutePath());
+							e.printStackTrace();
+						}
+					}
+					return null;
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		return changedFiles.size();
+	}
+
+	private FileTokens tokenize(File file) throws Exception {
+		final long lastModified = file.lastModified();
+		final long length = file.length();
+		final SourceCode sourceCode = configuration.sourceCodeFor(file);
+		final Tokens tokenEntries = new Tokens();
+		configuration.tokenizer().tokenize(sourceCode, tokenEntries);
+
+		final List<TokenEntry> entries = tokenEntries.getTokens();
+		int size = entries.size();
+		if (size > 0 && entries.get(size - 1) == TokenEntry.EOF)
+			size--;
+
+		final int[] tokens = new int[size];
+		final int[] lines = new int[size];
+		for (int i = 0; i < size; i++) {
+			final TokenEntry entry = entries.get(i);
+			tokens[i] = entry.getIdentifier();
+			lines[i] = entry.getBeginLine();
+		}
+		return new FileTokens(file, lastModified, length, tokens, lines, computeHashes(tokens));
+	}
+
+	/**
+	 * Computes the hashes of all token windows of the minimum tile size with a
+	 * rolling (Karp-Rabin) hash function.
+	 */
+	private long[] computeHashes(int[] tokens) {
+		if (tokens.length < minimumTileSize)
+			return new long[0];
+
+		long power = 1;
+		long hash = 0;
+		for (int i = 0; i < minimumTileSize; i++) {
+			hash = hash * BASE + tokens[i];
+			if (i > 0)
+				power *= BASE;
+		}
+
+		final long[] hashes = new long[tokens.length - minimumTileSize + 1];
+		hashes[0] = hash;
+		for (int i = 1; i < hashes.length; i++) {
+			hash = (hash - tokens[i - 1] * power) * BASE + tokens[i + minimumTileSize - 1];
+			hashes[i] = hash;
+		}
+		return hashes;
+	}
+
+	/**
+	 * Finds all clones within and between the given files, which must have been
+	 * {@link #update(Collection) updated} before. The search runs in the
+	 * background and each match is returned by the iterator as soon as it has
+	 * been found.
+	 *
+	 * @param sourceFiles
+	 *            the files to search
+	 * @return the matches in the same format as CPD creates them
+	 */
+	public Iterator<Match> getMatches(Collection<File> sourceFiles) {
+		final List<FileTokens> fileList = new ArrayList<FileTokens>(sourceFiles.size());
+		for (File file : sourceFiles) {
+			final FileTokens fileTokens = files.get(file.getAbsolutePath());
+			if (fileTokens != null)
+				fileList.add(fileTokens);
+		}
+
+		// each window hash is mapped to either one occurrence or a list of
+		// occurrences, as in CPD's MatchAlgorithm
+		final Map<Long, Object> occurrences = new HashMap<Long, Object>();
+		for (int i = 0; i < fileList.size(); i++) {
+			final long[] hashes = fileList.get(i).hashes;
+			for (int p = 0; p < hashes.length; p++) {
+				final Long occurrence = ((long) i << 32) | p;
+				final Object value = occurrences.get(hashes[p]);
+				if (value == null) {
+					occurrences.put(hashes[p], occurrence);
+				} else if (value instanceof Long) {
+					final List<Long> list = new ArrayList<Long>(2);
+					list.add((Long) value);
+					list.add(occurrence);
+					occurrences.put(hashes[p], list);
+				} else {
+					@SuppressWarnings("unchecked")
+					final List<Long> list = (List<Long>) value;
+					list.add(occurrence);
+				}
+			}
+		}
+
+		final BlockingQueue<Match> matches = new LinkedBlockingQueue<Match>();
+		final int threads = Math.max(1, Math.min(numberOfThreads, fileList.size()));
+		final AtomicInteger nextFile = new AtomicInteger();
+		final AtomicInteger runningWorkers = new AtomicInteger(threads);
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (int t = 0; t < threads; t++) {
+				executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						try {
+							for (int i = nextFile.getAndIncrement(); i < fileList.size(); i = nextFile.getAndIncrement()) {
+								try {
+									findMatches(i, fileList, occurrences, matches);
+								} catch (Exception e) {
+									e.printStackTrace();
+								}
+							}
+						} finally {
+							if (runningWorkers.decrementAndGet() == 0)
+								matches.add(END);
+						}
+						return null;
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		return new Iterator<Match>() {
+			private Match next = null;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = matches.take();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						executor.shutdownNow();
+						next = END;
+					}
+				}
+				return next != END;
+			}
+
+			@Override
+			public Match next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				final Match match = next;
+				next = null;
+				return match;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Finds all matches in the hash buckets whose first window is located in
+	 * the file with the given index. As in CPD, only pairs of occurrences that
+	 * cannot be extended to the front and do not overlap are considered. Pairs
+	 * of the same length that share an occurrence are merged into one match.
+	 */
+	private void findMatches(int i, List<FileTokens> fileList, Map<Long, Object> occurrences,
+			BlockingQueue<Match> matches) throws Exception {
+		final Map<FileTokens, List<String>> code = new HashMap<FileTokens, List<String>>();
+		final long[] hashes = fileList.get(i).hashes;
+
+		for (int p = 0; p < hashes.length; p++) {
+			final Object value = occurrences.get(hashes[p]);
+			if (!(value instanceof List))
+				continue;
+			@SuppressWarnings("unchecked")
+			final List<Long> bucket = (List<Long>) value;
+			if (bucket.get(0) != (((long) i << 32) | p))
+				continue;
+
+			// length of a clone -> union-find forest over the bucket
+			final Map<Integer, int[]> groups = new HashMap<Integer, int[]>();
+			for (int a = 0; a < bucket.size() - 1; a++) {
+				for (int b = a + 1; b < bucket.size(); b++) {
+					final int length = getCloneLength(fileList, bucket.get(a), bucket.get(b));
+					if (length < minimumTileSize)
+						continue;
+					int[] parents = groups.get(length);
+					if (parents == null) {
+						parents = new int[bucket.size()];
+						for (int k = 0; k < parents.length; k++)
+							parents[k] = k;
+						groups.put(length, parents);
+					}
+					parents[find(parents, b)] = find(parents, a);
+				}
+			}
+
+			for (Map.Entry<Integer, int[]> group : groups.entrySet()) {
+				final int[] parents = group.getValue();
+				final Map<Integer, List<Long>> components = new HashMap<Integer, List<Long>>();
+				for (int k = 0; k < parents.length; k++) {
+					final int root = find(parents, k);
+					List<Long> component = components.get(root);
+					if (component == null) {
+						component = new ArrayList<Long>();
+						components.put(root, component);
+					}
+					component.add(bucket.get(k));
+				}
+				for (List<Long> component : components.values()) {
+					if (component.size() > 1)
+						matches.add(createMatch(component, group.getKey(), fileList, code));
+				}
+			}
+		}
+	}
+
+	private static int find(int[] parents, int k) {
+		while (parents[k] != k) {
+			parents[k] = parents[parents[k]];
+			k = parents[k];
+		}
+		return k;
+	}
+
+	/**
+	 * @return the number of equal tokens starting at both occurrences, or 0 if
+	 *         the clone could be extended to the front or overlaps itself.
+	 */
+	private int getCloneLength(List<FileTokens> fileList, long occurrence1, long occurrence2) {
+		final FileTokens file1 = fileList.get((int) (occurrence1 >>> 32));
+		final FileTokens file2 = fileList.get((int) (occurrence2 >>> 32));
+		final int p = (int) (occurrence1 & 0xffffffffL);
+		final int q = (int) (occurrence2 & 0xffffffffL);
+		final int[] tokens1 = file1.tokens;
+		final int[] tokens2 = file2.tokens;
+		if (p > 0 && q > 0 && tokens1[p - 1] == tokens2[q - 1])
+			return 0;
+
+		final int maxLength = Math.min(tokens1.length - p, tokens2.length - q);
+		int length = 0;
+		while (length < maxLength && tokens1[p + length] == tokens2[q + length])
+			length++;
+
+		if (file1 == file2 && length > Math.abs(q - p))
+			return 0;
+		return length;
+	}
+
+	private Match createMatch(List<Long> occurrences, int length, List<FileTokens> fileList,
+			Map<FileTokens, List<String>> code) {
+		final Match match = new Match(length, createMark(fileList, occurrences.get(0)),
+				createMark(fileList, occurrences.get(1)));
+		for (int k = 2; k < occurrences.size(); k++)
+			match.addTokenEntry(createMark(fileList, occurrences.get(k)));
+
+		final FileTokens first = fileList.get((int) (occurrences.get(0) >>> 32));
+		final int p = (int) (occurrences.get(0) & 0xffffffffL);
+		final int beginLine = first.lines[p];
+		final int endLine = first.lines[p + length - 1];
+		match.setLineCount(endLine - beginLine + 1);
+
+		List<String> lines = code.get(first);
+		if (lines == null) {
+			lines = configuration.sourceCodeFor(first.file).getCode();
+			code.put(first, lines);
+		}
+		final StringBuilder slice = new StringBuilder();
+		for (int line = beginLine; line <= endLine && line <= lines.size(); line++)
+			slice.append(lines.get(line - 1)).append(System.getProperty("line.separator"));
+		match.setSourceCodeSlice(slice.toString());
+		return match;
+	}
+
+	private TokenEntry createMark(List<FileTokens> fileList, long occurrence) {
+		return createMark(fileList.get((int) (occurrence >>> 32)), (int) (occurrence & 0xffffffffL));
+	}
+
+	private TokenEntry createMark(FileTokens file, int position) {
+		return new TokenEntry("", file.file.getAbsolutePath(), file.lines[position]);
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+}
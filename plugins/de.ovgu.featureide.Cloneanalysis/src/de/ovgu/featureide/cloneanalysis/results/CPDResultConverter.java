@@ -38,20 +38,44 @@ public class CPDResultConverter {
 	 */
 	public static CloneAnalysisResults<VariantAwareClone> convertMatchesToReadableResults(
 			Iterator<Match> matchesFound) {
-		Set<VariantAwareClone> clones = new HashSet<VariantAwareClone>();
+		CloneAnalysisResults<VariantAwareClone> results = new CloneAnalysisResults<VariantAwareClone>(
+				new HashSet<VariantAwareClone>());
+		addMatchesToResults(matchesFound, results);
+		return results;
+	}
+
+	/**
+	 * Converts each match into a clone as soon as the iterator returns it, adds
+	 * the clone to the given results, and finally updates the relevant
+	 * features and percentages of the results.
+	 * 
+	 * @param matchesFound
+	 *            the matches, which may still be searched for in the
+	 *            background
+	 * @param results
+	 *            the results to add the clones to
+	 */
+	public static void addMatchesToResults(Iterator<Match> matchesFound,
+			CloneAnalysisResults<VariantAwareClone> results) {
 		while (matchesFound.hasNext()) {
 			final VariantAwareClone clone = convertMatchToClone(matchesFound.next());
-			clones.add(clone);
+			results.addClone(clone);
 		}
+		completeResults(results);
+	}
 
-		CloneAnalysisResults<VariantAwareClone> results = new CloneAnalysisResults<VariantAwareClone>(clones);
-
+	/**
+	 * Updates the relevant features and percentages of the results after all
+	 * clones have been added.
+	 * 
+	 * @param results
+	 *            the results containing all clones
+	 */
+	public static void completeResults(CloneAnalysisResults<VariantAwareClone> results) {
 		Set<FeatureRootLocation> relevantFeatures = CloneAnalysisUtils.getRelevantFeatures(results);
 
 		results.setRelevantFeatures(relevantFeatures);
 		results.setPercentageData(calculateClonedAmountPercentage(results));
-
-		return results;
 	}
 
 	private static IClonePercentageData calculateClonedAmountPercentage(
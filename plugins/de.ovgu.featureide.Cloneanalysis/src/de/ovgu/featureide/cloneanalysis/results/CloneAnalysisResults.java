@@ -22,6 +22,16 @@ public class CloneAnalysisResults<T extends Clone> {
 		return clones.size();
 	}
 
+	/**
+	 * Adds a clone as soon as it has been found.
+	 * 
+	 * @param clone
+	 *            the clone to add
+	 */
+	public void addClone(T clone) {
+		clones.add(clone);
+	}
+
 	/**
 	 * @return the clones
 	 */
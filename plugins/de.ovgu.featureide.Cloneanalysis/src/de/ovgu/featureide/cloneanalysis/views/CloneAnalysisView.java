@@ -268,6 +268,15 @@ public class CloneAnalysisView extends ViewPart {
 		cloneViewer.refresh();
 	}
 
+	/**
+	 * Shows the clones that have been added to the current results since the
+	 * last refresh.
+	 */
+	public void refreshResults() {
+		if (!cloneTree.isDisposed())
+			cloneViewer.refresh();
+	}
+
 	private void createFilterActions() {
 		clearPreviousFilters();
 		filterActions = new HashSet<Action>();
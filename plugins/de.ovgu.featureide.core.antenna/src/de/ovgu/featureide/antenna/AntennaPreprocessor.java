@@ -25,6 +25,7 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.PROPAGATE_PROB
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -36,6 +37,7 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
 import java.util.regex.Pattern;
@@ -64,6 +66,7 @@ import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.core.builder.IComposerExtensionClass;
 import de.ovgu.featureide.core.builder.IComposerObject;
 import de.ovgu.featureide.core.builder.preprocessor.PPComposerExtensionClass;
+import de.ovgu.featureide.core.builder.preprocessor.PPFileState;
 import de.ovgu.featureide.core.fstmodel.preprocessor.FSTDirective;
 import de.ovgu.featureide.core.signature.documentation.base.ADocumentationCommentParser;
 import de.ovgu.featureide.fm.core.base.IFeature;
@@ -81,9 +84,6 @@ import de.ovgu.featureide.fm.core.editing.NodeCreator;
  */
 public class AntennaPreprocessor extends PPComposerExtensionClass {
 
-	/** antenna preprocessor used from external library */
-	private Preprocessor preprocessor;
-
 	private AntennaModelBuilder antennaModelBuilder;
 
 	/** pattern for replacing preprocessor commands like "//#if" */
@@ -99,7 +99,6 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	public boolean initialize(IFeatureProject project) {
 		super.initialize(project);
 		antennaModelBuilder = new AntennaModelBuilder(project);
-		preprocessor = new Preprocessor(new AntennaLogger(), new AntennaLineFilter());
 
 		final String projectSourcePath = project.getProjectSourcePath();
 		if ((projectSourcePath == null) || projectSourcePath.isEmpty()) {
@@ -141,11 +140,10 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 		// add source files
 		try {
 			// add activated features as definitions to preprocessor
-			preprocessor.clearDefines();
-			preprocessor.addDefines(featureList.toString());
+			final List<FileProcessor> processors = createFileProcessors(featureList.toString());
 
 			// preprocess for all files in source folder
-			startPreprocessingSourceFiles(featureProject.getBuildFolder(), true);
+			startPreprocessingSourceFiles(featureProject.getBuildFolder(), processors);
 		} catch (final Exception e) {
 			AntennaCorePlugin.getDefault().logError(e);
 		}
@@ -247,93 +245,114 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	public void postModelChanged() {
 		deleteAllPreprocessorAnotationMarkers();
 		prepareFullBuild(null);
-		startPreprocessingSourceFiles(featureProject.getBuildFolder(), false);
+		try {
+			startPreprocessingSourceFiles(featureProject.getBuildFolder(), createFileProcessors(null));
+		} catch (final PPException e) {
+			AntennaCorePlugin.getDefault().logError(e);
+		}
+	}
+
+	/**
+	 * Creates one processor per thread.
+	 *
+	 * @param defines comma separated list of activated features or {@code null} if the files should only be checked
+	 * @return the processors
+	 * @throws PPException if the defines cannot be added to the antenna preprocessor
+	 */
+	private List<FileProcessor> createFileProcessors(String defines) throws PPException {
+		final List<FileProcessor> processors = new ArrayList<>(NUMBER_OF_THREADS);
+		for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+			Preprocessor preprocessor = null;
+			if (defines != null) {
+				preprocessor = new Preprocessor(new AntennaLogger(), new AntennaLineFilter());
+				preprocessor.addDefines(defines);
+			}
+			processors.add(new FileProcessor(preprocessor));
+		}
+		return processors;
 	}
 
-	private void startPreprocessingSourceFiles(IFolder sourceFolder, boolean performFullBuild) {
+	/**
+	 * Checks and preprocesses all files in the source folder.
+	 *
+	 * @param sourceFolder folder with files to preprocess
+	 * @param processors one processor per thread, if the processors do not have an antenna preprocessor, the files are only checked
+	 */
+	private void startPreprocessingSourceFiles(IFolder sourceFolder, List<FileProcessor> processors) {
 		try {
-			preprocessSourceFiles(sourceFolder, performFullBuild);
+			final List<IFile> files = new ArrayList<>();
+			collectFiles(sourceFolder, files);
+
+			final boolean performFullBuild = processors.get(0).preprocessor != null;
+			if (performFullBuild) {
+				// delete all existing builder markers
+				featureProject.deleteBuilderMarkers(sourceFolder, IResource.DEPTH_INFINITE);
+			}
+			// the preprocessed files are up to date as long as the configuration does not change, so a full build can skip them
+			processFiles(files, processors, performFullBuild ? activatedFeatures : null, performFullBuild);
 			setModelMarkers();
-		} catch (final FileNotFoundException e) {
-			AntennaCorePlugin.getDefault().logError(e);
 		} catch (final CoreException e) {
 			AntennaCorePlugin.getDefault().logError(e);
-		} catch (final IOException e) {
-			AntennaCorePlugin.getDefault().logError(e);
 		}
 	}
 
 	/**
-	 * preprocess all files in folder
-	 *
-	 * @param sourceFolder folder with files to preprocess
-	 * @throws CoreException
-	 * @throws FileNotFoundException
-	 * @throws IOException
+	 * Checks a file and runs the antenna preprocessor on it. Each thread uses its own processor, as the antenna preprocessor is not thread-safe.
 	 */
-	private void preprocessSourceFiles(IFolder sourceFolder, boolean performFullBuild) throws CoreException, FileNotFoundException, IOException {
-		for (final IResource res : sourceFolder.members()) {
-			if (res instanceof IFolder) {
-				// for folders do recursively
-				preprocessSourceFiles((IFolder) res, performFullBuild);
-			} else if (res instanceof IFile) {
-				// delete all existing builder markers
-				if (performFullBuild) {
-					featureProject.deleteBuilderMarkers(res, 0);
-				}
+	private class FileProcessor implements IFileProcessor {
 
-				// get all lines from file
-				final Vector<String> lines = loadStringsFromFile((IFile) res);
+		/** antenna preprocessor used from external library, or {@code null} if the files are only checked */
+		private final Preprocessor preprocessor;
 
-				// do checking and some stuff
-				processLinesOfFile(lines, (IFile) res);
+		public FileProcessor(Preprocessor preprocessor) {
+			this.preprocessor = preprocessor;
+		}
 
-				if (!performFullBuild) {
-					continue;
-				}
+		@Override
+		public byte[] process(PPFileState state, byte[] content) throws Exception {
+			// get all lines from file
+			final Vector<String> lines = loadStringsFromContent(content);
 
-				boolean changed = false;
+			// do checking and some stuff
+			processLinesOfFile(state, lines);
 
-				try {
-					// run antenna preprocessor
-					changed = preprocessor.preprocess(lines, ((IFile) res).getCharset());
-				} catch (final PPException e) {
-					final int lineNumber = e.getLineNumber();
-					featureProject.createBuilderMarker(res, e.getMessage().replace("Line #" + lineNumber + " :", "Antenna:"), Math.max(lineNumber, 0) + 1,
-							IMarker.SEVERITY_ERROR);
-					AntennaCorePlugin.getDefault().logError(e);
-				}
+			if (preprocessor == null) {
+				return null;
+			}
 
-				// if preprocessor changed file: save & refresh
-				if (changed) {
-					FileOutputStream ostr = null;
-					try {
-						ostr = new FileOutputStream(res.getRawLocation().toOSString());
-						Preprocessor.saveStrings(lines, ostr, ((IFile) res).getCharset());
-					} finally {
-						if (ostr != null) {
-							ostr.close();
-						}
-					}
-					// use touch to support e.g. linux
-					res.touch(null);
-					res.refreshLocal(IResource.DEPTH_ZERO, null);
-				}
+			final String charset = state.getFile().getCharset();
+			boolean changed = false;
+			try {
+				// run antenna preprocessor
+				changed = preprocessor.preprocess(lines, charset);
+			} catch (final PPException e) {
+				final int lineNumber = e.getLineNumber();
+				createBuilderMarker(state, e.getMessage().replace("Line #" + lineNumber + " :", "Antenna:"), Math.max(lineNumber, 0) + 1,
+						IMarker.SEVERITY_ERROR);
+				AntennaCorePlugin.getDefault().logError(e);
+			}
+
+			// if preprocessor changed file: return new content to save
+			if (!changed) {
+				return null;
 			}
+			final ByteArrayOutputStream output = new ByteArrayOutputStream(content.length);
+			Preprocessor.saveStrings(lines, output, charset);
+			return output.toByteArray();
 		}
 	}
 
 	/**
 	 * Do checking for all lines of file.
 	 *
+	 * @param state the state of the file
 	 * @param lines all lines of file
-	 * @param res file
 	 */
-	synchronized private void processLinesOfFile(Vector<String> lines, IFile res) {
-		expressionStack = new Stack<Node>();
+	private void processLinesOfFile(PPFileState state, List<String> lines) {
+		final Stack<Node> expressionStack = state.getExpressionStack();
 
 		// count of if, ifelse and else to remove after processing of else from stack
-		ifelseCountStack = new Stack<Integer>();
+		final Stack<Integer> ifelseCountStack = state.getIfelseCountStack();
 
 		// go line for line
 		for (int j = 0; j < lines.size(); ++j) {
@@ -357,9 +376,9 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 					ifelseCountStack.push(ifelseCountStack.pop() + 1);
 				}
 
-				setMarkersContradictionalFeatures(line, res, j + 1);
+				setMarkersContradictionalFeatures(state, line, j + 1);
 
-				setMarkersNotConcreteFeatures(line, res, j + 1);
+				setMarkersNotConcreteFeatures(state, line, j + 1);
 			} else if (containsPreprocessorDirective(line, "endif")) {
 				while (!ifelseCountStack.empty()) {
 					if (ifelseCountStack.peek() == 0) {
@@ -386,14 +405,15 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	 * Check in three steps: <ol> <li>just the given line</li> <li>the given line and the feature model</li> <li>the given line, the surrounding lines and the
 	 * feature model</li> </ol>
 	 *
+	 * @param state the state of the file containing given line
 	 * @param line content of line
-	 * @param res file containing given line
 	 * @param lineNumber line number of given line
 	 */
-	private void setMarkersContradictionalFeatures(String line, IFile res, int lineNumber) {
+	private void setMarkersContradictionalFeatures(PPFileState state, String line, int lineNumber) {
+		final Stack<Node> expressionStack = state.getExpressionStack();
 		if (containsPreprocessorDirective(line, "else")) {
 			if (!expressionStack.isEmpty()) {
-				checkContradictionOrTautology(lineNumber, res);
+				checkContradictionOrTautology(state, lineNumber);
 			}
 
 			return;
@@ -415,7 +435,7 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 		line = line.replace("-", " not ");
 
 		// get all features and generate Node expression for given line
-		Node ppExpression = nodereader.stringToNode(line, featureList);
+		Node ppExpression = getNodeReader().stringToNode(line, featureList);
 
 		if (ppExpression != null) {
 			if (negative) {
@@ -423,7 +443,7 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 			}
 			expressionStack.push(ppExpression);
 
-			checkContradictionOrTautology(lineNumber, res);
+			checkContradictionOrTautology(state, lineNumber);
 		} else {
 			// if generating of expression failed, generate expression "true"
 			if (!conditionIsSet) {
@@ -436,17 +456,17 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 	/**
 	 * Checks given line if it contains not existing or abstract features.
 	 *
+	 * @param state the state of the file containing given line
 	 * @param line content of line
-	 * @param res file containing given line
 	 * @param lineNumber line number of given line
 	 */
-	private void setMarkersNotConcreteFeatures(String line, IFile res, int lineNumber) {
+	private void setMarkersNotConcreteFeatures(PPFileState state, String line, int lineNumber) {
 		final String[] splitted = line.replaceAll("\\s+#", "#").split(AntennaModelBuilder.OPERATORS, 0);
 
 		for (int i = 0; i < splitted.length; ++i) {
 			final String linePart = splitted[i];
 			if (!linePart.isEmpty() && !containsPreprocessorDirective(linePart, ".*")) {
-				setMarkersOnNotExistingOrAbstractFeature(linePart, lineNumber, res);
+				setMarkersOnNotExistingOrAbstractFeature(state, linePart, lineNumber);
 			}
 		}
 	}
@@ -587,7 +607,10 @@ public class AntennaPreprocessor extends PPComposerExtensionClass {
 
 				// do checking and some stuff
 				if (featureModel != null) {// TODO check why the FM is null when generating products
-					processLinesOfFile(lines, (IFile) res);
+					final PPFileState state = createFileState((IFile) res);
+					processLinesOfFile(state, lines);
+					createMarkers(state);
+					addUsedFeatures(state);
 				}
 				boolean changed = false;
 				try {
@@ -34,6 +34,7 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
 import java.util.regex.Matcher;
@@ -59,6 +60,7 @@ import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.core.builder.IComposerExtensionClass;
 import de.ovgu.featureide.core.builder.IComposerObject;
 import de.ovgu.featureide.core.builder.preprocessor.PPComposerExtensionClass;
+import de.ovgu.featureide.core.builder.preprocessor.PPFileState;
 import de.ovgu.featureide.core.fstmodel.preprocessor.FSTDirective;
 import de.ovgu.featureide.core.signature.documentation.base.ADocumentationCommentParser;
 import de.ovgu.featureide.fm.core.FMCorePlugin;
@@ -96,9 +98,33 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	public static final Pattern OP_COM_PATTERN = Pattern.compile("(" + OPERATORS + ")|/\\*|\\*/");
 
 	/**
-	 * is true if actual line is in comment section (between <code>&#47;*</code> and <code>*&#47;</code>)
+	 * The state of the annotation checking for a single file.
 	 */
-	private boolean commentSection;
+	private static class MungeFileState extends PPFileState {
+
+		/**
+		 * is true if actual line is in comment section (between <code>&#47;*</code> and <code>*&#47;</code>)
+		 */
+		private boolean commentSection;
+
+		public MungeFileState(IFile file) {
+			super(file);
+		}
+
+	}
+
+	/**
+	 * Checks the annotations of a file.
+	 */
+	private class FileChecker implements IFileProcessor {
+
+		@Override
+		public byte[] process(PPFileState state, byte[] content) {
+			processLinesOfFile((MungeFileState) state, loadStringsFromContent(content));
+			return null;
+		}
+
+	}
 
 	public MungePreprocessor() {
 		super("Munge");
@@ -168,20 +194,25 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 
 	private void annotationChecking(IFolder folder) {
 		try {
-			for (final IResource res : folder.members()) {
-				if (res instanceof IFolder) {
-					annotationChecking((IFolder) res);
-				} else if (res instanceof IFile) {
-					final Vector<String> lines = loadStringsFromFile((IFile) res);
-					// do checking and some stuff
-					processLinesOfFile(lines, (IFile) res);
-				}
+			final List<IFile> files = new ArrayList<>();
+			collectFiles(folder, files);
+
+			final List<FileChecker> checkers = new ArrayList<>(NUMBER_OF_THREADS);
+			for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+				checkers.add(new FileChecker());
 			}
+			// the annotations do not depend on the configuration, so only changed files have to be checked again
+			processFiles(files, checkers, null, true);
 		} catch (final CoreException e) {
 			MungeCorePlugin.getDefault().logError(e);
 		}
 	}
 
+	@Override
+	protected PPFileState createFileState(IFile file) {
+		return new MungeFileState(file);
+	}
+
 	/**
 	 * preprocess all files in folder
 	 *
@@ -237,28 +268,23 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	/**
 	 * Do checking for all lines of file.
 	 *
+	 * @param state the state of the file
 	 * @param lines all lines of file
-	 * @param res file
 	 */
-	synchronized private void processLinesOfFile(Vector<String> lines, IFile res) {
-		expressionStack = new Stack<Node>();
-
+	private void processLinesOfFile(MungeFileState state, List<String> lines) {
 		// count of if, ifelse and else to remove after processing of else from
 		// stack
-		ifelseCountStack = new Stack<Integer>();
-		ifelseCountStack.push(0);
-
-		commentSection = false;
+		state.getIfelseCountStack().push(0);
 
 		// go line for line
 		for (int j = 0; j < lines.size(); ++j) {
 			final String line = lines.get(j);
 
-			if (line.contains("/*") || line.contains("*/") || commentSection) {
+			if (line.contains("/*") || line.contains("*/") || state.commentSection) {
 
-				setMarkersContradictionalFeatures(line, res, j + 1);
+				setMarkersContradictionalFeatures(state, line, j + 1);
 
-				setMarkersNotConcreteFeatures(line, res, j + 1);
+				setMarkersNotConcreteFeatures(state, line, j + 1);
 			}
 		}
 	}
@@ -269,11 +295,13 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 	 * Check in three steps: <ol> <li>just the given line</li> <li>the given line and the feature model</li> <li>the given line, the surrounding lines and the
 	 * feature model</li> </ol>
 	 *
+	 * @param state the state of the file containing given line
 	 * @param line content of line
-	 * @param res file containing given line
 	 * @param lineNumber line number of given line
 	 */
-	private void setMarkersContradictionalFeatures(String line, IFile res, int lineNumber) {
+	private void setMarkersContradictionalFeatures(MungeFileState state, String line, int lineNumber) {
+		final Stack<Node> expressionStack = state.getExpressionStack();
+		final Stack<Integer> ifelseCountStack = state.getIfelseCountStack();
 
 		final Matcher m = OP_COM_PATTERN.matcher(line);
 
@@ -283,9 +311,9 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 
 			if (singleElement == null) {
 				if (completeElement.equals("/*")) {
-					commentSection = true;
+					state.commentSection = true;
 				} else if (completeElement.equals("*/")) {
-					commentSection = false;
+					state.commentSection = false;
 				}
 			} else {
 				if (singleElement.startsWith("if") || singleElement.equals("else")) {
@@ -296,7 +324,7 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 						}
 
 					} else {
-						Node ppExpression = nodereader.stringToNode(m.group(4), featureList);
+						Node ppExpression = getNodeReader().stringToNode(m.group(4), featureList);
 
 						if (singleElement.equals("if_not")) {
 							ppExpression = new Not(ppExpression.clone());
@@ -309,7 +337,7 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 						ifelseCountStack.push(ifelseCountStack.pop() + 1);
 						expressionStack.push(ppExpression);
 					}
-					checkContradictionOrTautology(lineNumber, res);
+					checkContradictionOrTautology(state, lineNumber);
 
 				} else if (singleElement.equals("end")) {
 					for (; ifelseCountStack.peek() > 0; ifelseCountStack.push(ifelseCountStack.pop() - 1)) {
@@ -324,11 +352,11 @@ public class MungePreprocessor extends PPComposerExtensionClass {
 		}
 	}
 
-	private void setMarkersNotConcreteFeatures(String line, IFile res, int lineNumber) {
+	private void setMarkersNotConcreteFeatures(PPFileState state, String line, int lineNumber) {
 		final Matcher matcherIf = OP_PATTERN.matcher(line);
 
 		if (matcherIf.find()) {
-			setMarkersOnNotExistingOrAbstractFeature(matcherIf.group(3), lineNumber, res);
+			setMarkersOnNotExistingOrAbstractFeature(state, matcherIf.group(3), lineNumber);
 		}
 	}
 
@@ -24,16 +24,27 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.IS_DEFINED_AS_
 import static de.ovgu.featureide.fm.core.localization.StringTable.IS_NOT_DEFINED_IN_THE_FEATURE_MODEL_AND_COMMA__THUS_COMMA__ALWAYS_ASSUMED_TO_BE_FALSE;
 import static de.ovgu.featureide.fm.core.localization.StringTable.PREPROCESSOR;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,12 +53,11 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
-import org.prop4j.And;
+import org.eclipse.core.runtime.IPath;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.NodeReader;
-import org.prop4j.Not;
-import org.prop4j.SatSolver;
+import org.prop4j.analyses.AnnotationChecker;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.core.CorePlugin;
@@ -115,6 +125,11 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 */
 	protected boolean voidFeatureModel;
 
+	/**
+	 * Checks the annotations against the {@link #featureModel}. Created in {@link #prepareFullBuild(IFile)} and shared by all files of a build.
+	 */
+	protected AnnotationChecker annotationChecker;
+
 	/**
 	 * Preprocessor name used for messages in build markers (must set in subclass).
 	 */
@@ -146,12 +161,14 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	protected NodeReader nodereader = new NodeReader();
 
 	/**
-	 * Stack for preprocessor directives (for nested expressions). Have to be initialized in subclass.
+	 * Stack for preprocessor directives (for nested expressions). Have to be initialized in subclass. Only used by the methods that do not take a
+	 * {@link PPFileState}.
 	 */
 	protected Stack<Node> expressionStack;
 
 	/**
-	 * Stack for count of "if" and "else" instructions for each level. Have to be initialized in subclass.
+	 * Stack for count of "if" and "else" instructions for each level. Have to be initialized in subclass. Only used by the methods that do not take a
+	 * {@link PPFileState}.
 	 */
 	protected Stack<Integer> ifelseCountStack;
 
@@ -161,6 +178,57 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	/** contains all used features at any source file **/
 	protected HashSet<String> usedFeatures = new HashSet<>();
 
+	/**
+	 * Number of threads used by {@link #processFiles(List, List, Collection, boolean)}.
+	 */
+	protected static final int NUMBER_OF_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Number of processed files per thread that may wait for the build thread. Limits the number of files kept in memory.
+	 */
+	private static final int QUEUE_SIZE_PER_THREAD = 2;
+
+	/**
+	 * The {@link NodeReader} is not thread-safe, so each thread parses the expressions with its own copy of {@link #nodereader}.
+	 */
+	private final ThreadLocal<NodeReader> nodeReaders = new ThreadLocal<NodeReader>() {
+
+		@Override
+		protected NodeReader initialValue() {
+			final NodeReader nodeReader = new NodeReader();
+			nodeReader.setIgnoreMissingFeatures(nodereader.ignoresMissingFeatures());
+			nodeReader.setIgnoreUnparsableSubExpressions(nodereader.isIgnoreUnparsableSubExpressions());
+			return nodeReader;
+		}
+	};
+
+	/**
+	 * Fingerprints of the files processed by the last incremental build.
+	 */
+	private final ConcurrentHashMap<IPath, PPFileState> fileStates = new ConcurrentHashMap<>();
+
+	/**
+	 * Hash of the feature model and its abstract and concrete features. Computed in {@link #prepareFullBuild(IFile)}.
+	 */
+	private byte[] modelHash;
+
+	/**
+	 * Processes a single file of {@link PPComposerExtensionClass#processFiles(List, List, Collection, boolean)}. The processor is not called concurrently and
+	 * must not modify any resource.
+	 */
+	protected static interface IFileProcessor {
+
+		/**
+		 * Checks the given file and records its markers and used features in the given state.
+		 *
+		 * @param state the state of the file
+		 * @param content the current content of the file
+		 * @return the new content of the file or {@code null} if the file should not be changed
+		 * @throws Exception if the file could not be processed
+		 */
+		byte[] process(PPFileState state, byte[] content) throws Exception;
+	}
+
 	/**
 	 * Sets the name of the plug-in
 	 */
@@ -214,8 +282,10 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 
 		// create expression of feature model
 		featureModel = AdvancedNodeCreator.createNodes(fm);
+		modelHash = PPFileState.hash((featureModel + "|" + abstractFeatures + "|" + concreteFeatures).getBytes(StandardCharsets.UTF_8));
+		annotationChecker = new AnnotationChecker(featureModel);
 		try {
-			voidFeatureModel = !new SatSolver(featureModel, 1000).isSatisfiable();
+			voidFeatureModel = annotationChecker.isVoid();
 		} catch (final TimeoutException e) {
 			voidFeatureModel = false;
 		}
@@ -231,63 +301,30 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @return the status of the annotation
 	 */
 	protected AnnotationStatus isContradictionOrTautology() {
-		final Node expression = expressionStack.peek();
-
-		Node nestedExpressions = null;
-		if (expressionStack.size() > 1) {
-			Node[] children = expressionStack.toArray(new Node[expressionStack.size()]);
-			children = Arrays.copyOfRange(children, 0, children.length - 1); // Exclude the topmost expression because it is examined separately.
-			nestedExpressions = new And(children);
-		}
-
-		try {
-			return isContradictionOrTautology(expression, featureModel, nestedExpressions);
-		} catch (final TimeoutException e) {
-			CorePlugin.getDefault().logError(e);
-			return AnnotationStatus.NORMAL;
-		}
+		return isContradictionOrTautology(expressionStack);
 	}
 
-	private AnnotationStatus isContradictionOrTautology(Node expression, Node featureModel, Node nestedExpressions) throws TimeoutException {
+	/**
+	 * Checks the expression on top of the given expression stack for a contradiction or a tautology. Does not set any markers.
+	 *
+	 * @param expressionStack the expressions of the enclosing annotations with the expression to check on top
+	 * @return the status of the annotation
+	 */
+	protected AnnotationStatus isContradictionOrTautology(List<Node> expressionStack) {
 		if (voidFeatureModel) {
 			return AnnotationStatus.VOID;
 		}
 
-		/*
-		 * -SAT(expression)
-		 */
-		if (!new SatSolver(expression, 1000).isSatisfiable()) {
-			return AnnotationStatus.CONTRADICTION;
-		}
+		final Node expression = expressionStack.get(expressionStack.size() - 1);
+		// Exclude the topmost expression because it is examined separately.
+		final List<Node> nestedExpressions = new ArrayList<>(expressionStack.subList(0, expressionStack.size() - 1));
 
-		/*
-		 * -SAT(-expression)
-		 */
-		if (!new SatSolver(new Not(expression), 1000).isSatisfiable()) {
-			return AnnotationStatus.TAUTOLOGY;
-		}
-
-		Node context = featureModel;
-		if (nestedExpressions != null) {
-			context = new And(context, nestedExpressions);
-		}
-
-		/*
-		 * -SAT(FM & nestedExpressions & expression)
-		 */
-		if (!new SatSolver(new And(context, expression), 1000).isSatisfiable()) {
-			return AnnotationStatus.DEAD;
-		}
-
-		/*
-		 * TAUT(FM & nestedExpressions => expression) = -SAT(-(FM & nestedExpressions => expression)) = -SAT(-(-(FM & nestedExpressions) | expression)) =
-		 * -SAT(-(-FM | -nestedExpressions | expression)) = -SAT(FM & nestedExpressions & -expression)
-		 */
-		if (!new SatSolver(new And(context, new Not(expression)), 1000).isSatisfiable()) {
-			return AnnotationStatus.SUPERFLUOUS;
+		try {
+			return AnnotationStatus.valueOf(annotationChecker.check(expression, nestedExpressions).name());
+		} catch (final TimeoutException e) {
+			CorePlugin.getDefault().logError(e);
+			return AnnotationStatus.NORMAL;
 		}
-
-		return AnnotationStatus.NORMAL;
 	}
 
 	/**
@@ -298,6 +335,19 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @param res file path
 	 */
 	protected void setMarkersOnContradictionOrTautology(AnnotationStatus status, int lineNumber, IFile res) {
+		final PPFileState state = new PPFileState(res, expressionStack, ifelseCountStack);
+		setMarkersOnContradictionOrTautology(state, status, lineNumber);
+		createMarkers(state);
+	}
+
+	/**
+	 * Records a marker for tautology or contradiction on given line in the state of the file.
+	 *
+	 * @param state the state of the file
+	 * @param status the status of the annotation
+	 * @param lineNumber number of line
+	 */
+	protected void setMarkersOnContradictionOrTautology(PPFileState state, AnnotationStatus status, int lineNumber) {
 		String message;
 		switch (status) {
 		case NORMAL:
@@ -324,7 +374,7 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 		case SUPERFLUOUS:
 			positive = true;
 		case DEAD:
-			final InvariantPresenceConditionExplanation explanation = getInvariantExpressionExplanation(positive);
+			final InvariantPresenceConditionExplanation explanation = getInvariantExpressionExplanation(state.getExpressionStack(), positive);
 			if ((explanation != null) && (explanation.getReasons() != null) && !explanation.getReasons().isEmpty()) {
 				message += System.lineSeparator();
 				message += explanation.getWriter().getString();
@@ -334,22 +384,25 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 			break;
 		}
 
-		featureProject.createBuilderMarker(res, message, lineNumber, IMarker.SEVERITY_WARNING);
+		createBuilderMarker(state, message, lineNumber, IMarker.SEVERITY_WARNING);
 	}
 
 	/**
 	 * Returns an explanation for why the expression currently on top of the expression stack is a contradiction or a tautology.
 	 *
+	 * @param expressionStack the expression stack
 	 * @param tautology true if the expression to explain is a tautology; false if it is a contradiction
 	 * @return an explanation
 	 */
-	private InvariantPresenceConditionExplanation getInvariantExpressionExplanation(boolean tautology) {
-		invariantExpressionExplanationCreator.setFeatureModel(featureProject.getFeatureModel());
+	private InvariantPresenceConditionExplanation getInvariantExpressionExplanation(List<Node> expressionStack, boolean tautology) {
 		final List<Node> reverseExpressionStack = new ArrayList<>(expressionStack);
 		Collections.reverse(reverseExpressionStack); // Iteration order of Stack is from bottom to top instead of top to bottom.
-		invariantExpressionExplanationCreator.setExpressionStack(reverseExpressionStack);
-		invariantExpressionExplanationCreator.setTautology(tautology);
-		return invariantExpressionExplanationCreator.getExplanation();
+		synchronized (invariantExpressionExplanationCreator) {
+			invariantExpressionExplanationCreator.setFeatureModel(featureProject.getFeatureModel());
+			invariantExpressionExplanationCreator.setExpressionStack(reverseExpressionStack);
+			invariantExpressionExplanationCreator.setTautology(tautology);
+			return invariantExpressionExplanationCreator.getExplanation();
+		}
 	}
 
 	/**
@@ -361,17 +414,32 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @param res file containing the expression
 	 */
 	protected void checkContradictionOrTautology(int lineNumber, IFile res) {
-		findLiterals(expressionStack.peek());
-		final AnnotationStatus status = isContradictionOrTautology();
-		setMarkersOnContradictionOrTautology(status, lineNumber, res);
+		final PPFileState state = new PPFileState(res, expressionStack, ifelseCountStack);
+		checkContradictionOrTautology(state, lineNumber);
+		createMarkers(state);
+		addUsedFeatures(state);
+	}
+
+	/**
+	 * <p> Checks whether the expression in the given line is a tautology or a contradiction. If so, a marker is recorded in the state of the file. </p>
+	 *
+	 * <p> It is assumed that the expression to check is on top of the expression stack of the state. </p>
+	 *
+	 * @param state the state of the file containing the expression
+	 * @param lineNumber line number of the expression
+	 */
+	protected void checkContradictionOrTautology(PPFileState state, int lineNumber) {
+		findLiterals(state.getExpressionStack().peek(), state.usedFeatures);
+		final AnnotationStatus status = isContradictionOrTautology(state.getExpressionStack());
+		setMarkersOnContradictionOrTautology(state, status, lineNumber);
 	}
 
-	private void findLiterals(Node ppExpression) {
+	private void findLiterals(Node ppExpression, Set<String> usedFeatures) {
 		if (ppExpression instanceof Literal) {
 			usedFeatures.add(((Literal) ppExpression).var.toString());
 		} else {
 			for (final Node child : ppExpression.getChildren()) {
-				findLiterals(child);
+				findLiterals(child, usedFeatures);
 			}
 		}
 	}
@@ -384,9 +452,24 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @param res file containing the feature name
 	 */
 	protected boolean setMarkersOnNotExistingOrAbstractFeature(String name, int lineNumber, IFile res) {
+		final PPFileState state = new PPFileState(res, expressionStack, ifelseCountStack);
+		final boolean defined = setMarkersOnNotExistingOrAbstractFeature(state, name, lineNumber);
+		createMarkers(state);
+		return defined;
+	}
+
+	/**
+	 * Records a marker in the state of the file if given feature does not exists or is abstract.
+	 *
+	 * @param state the state of the file containing the feature name
+	 * @param name feature name
+	 * @param lineNumber current line number
+	 */
+	protected boolean setMarkersOnNotExistingOrAbstractFeature(PPFileState state, String name, int lineNumber) {
 		if (name == null) {
 			return false;
 		}
+		state.referencedFeatures.add(name.trim());
 
 		Matcher matcherFeature = null;
 		if (patternIsAbstractFeature != null) {
@@ -394,7 +477,7 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 		}
 
 		if ((matcherFeature != null) && matcherFeature.matches()) {
-			featureProject.createBuilderMarker(res, name + MESSAGE_ABSTRACT, lineNumber, IMarker.SEVERITY_WARNING);
+			createBuilderMarker(state, name + MESSAGE_ABSTRACT, lineNumber, IMarker.SEVERITY_WARNING);
 		} else {
 			Matcher matcherConreteFeature = null;
 			if (patternIsConcreteFeature != null) {
@@ -402,13 +485,192 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 			}
 
 			if ((matcherConreteFeature != null) && !matcherConreteFeature.matches()) {
-				featureProject.createBuilderMarker(res, name + MESSAGE_NOT_DEFINED, lineNumber, IMarker.SEVERITY_WARNING);
+				createBuilderMarker(state, name + MESSAGE_NOT_DEFINED, lineNumber, IMarker.SEVERITY_WARNING);
 				return false;
 			}
 		}
 		return true;
 	}
 
+	/**
+	 * Records a builder marker for the file of the given state. The marker is created by {@link #createMarkers(PPFileState)}.
+	 *
+	 * @param state the state of the file
+	 * @param message the message of the marker
+	 * @param lineNumber the line of the marker
+	 * @param severity the severity of the marker
+	 */
+	protected void createBuilderMarker(PPFileState state, String message, int lineNumber, int severity) {
+		state.addMarker(message, lineNumber, severity);
+	}
+
+	/**
+	 * Creates all markers recorded for the file of the given state.
+	 *
+	 * @param state the state of the file
+	 */
+	protected void createMarkers(PPFileState state) {
+		for (final PPFileState.Marker marker : state.markers) {
+			featureProject.createBuilderMarker(state.getFile(), marker.message, marker.lineNumber, marker.severity);
+		}
+	}
+
+	/**
+	 * Adds the features used in the file of the given state to {@link #usedFeatures}.
+	 *
+	 * @param state the state of the file
+	 */
+	protected void addUsedFeatures(PPFileState state) {
+		synchronized (usedFeatures) {
+			usedFeatures.addAll(state.usedFeatures);
+		}
+	}
+
+	/**
+	 * @param file a file
+	 * @return a new state for checking the given file
+	 */
+	protected PPFileState createFileState(IFile file) {
+		return new PPFileState(file);
+	}
+
+	/**
+	 * @return the node reader of the current thread, which uses the same settings as {@link #nodereader}
+	 */
+	protected NodeReader getNodeReader() {
+		return nodeReaders.get();
+	}
+
+	/**
+	 * Checks and possibly changes the given files in parallel. Each processor is used by a single thread, which reads, checks, and processes one file at a
+	 * time. The processed files are passed to the calling thread through a bounded queue. The calling thread creates the markers and writes the changed files,
+	 * as resources should only be modified by the thread that holds the build's scheduling rule.<br> <br> In incremental mode, a file is skipped if its
+	 * content, the feature model, and the selection of the features referenced in the file did not change since the file was processed last. Then, its
+	 * markers are restored from its fingerprint.
+	 *
+	 * @param files the files to process
+	 * @param processors one processor per thread
+	 * @param selectedFeatures the selected features of the current configuration or {@code null} if the processors do not depend on the configuration
+	 * @param incremental whether unchanged files should be skipped
+	 */
+	protected void processFiles(List<IFile> files, List<? extends IFileProcessor> processors, Collection<String> selectedFeatures, boolean incremental) {
+		if (files.isEmpty()) {
+			return;
+		}
+		if (incremental) {
+			final HashSet<IPath> paths = new HashSet<>();
+			for (final IFile file : files) {
+				paths.add(file.getFullPath());
+			}
+			fileStates.keySet().retainAll(paths);
+		}
+		final Set<String> selection = (selectedFeatures == null) ? null : new HashSet<>(selectedFeatures);
+
+		final int numberOfWorkers = Math.min(processors.size(), files.size());
+		final BlockingQueue<PPFileState> processedFiles = new ArrayBlockingQueue<>(numberOfWorkers * QUEUE_SIZE_PER_THREAD);
+		final AtomicInteger nextFile = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+		try {
+			for (int i = 0; i < numberOfWorkers; i++) {
+				executor.submit(new FileWorker(files, nextFile, processors.get(i), selection, incremental, processedFiles));
+			}
+			for (int i = 0; i < files.size(); i++) {
+				final PPFileState state = processedFiles.take();
+				createMarkers(state);
+				addUsedFeatures(state);
+				if (state.output != null) {
+					final IFile file = state.getFile();
+					try {
+						Files.write(Paths.get(file.getLocationURI()), state.output);
+						// use touch to support e.g. linux
+						file.touch(null);
+						file.refreshLocal(IResource.DEPTH_ZERO, null);
+					} catch (IOException | CoreException e) {
+						CorePlugin.getDefault().logError(e);
+						continue;
+					}
+					state.output = null;
+				}
+				if (incremental && state.isProcessed()) {
+					fileStates.put(state.getFile().getFullPath(), state);
+				}
+			}
+		} catch (final InterruptedException e) {
+			CorePlugin.getDefault().logError(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private class FileWorker implements Callable<Void> {
+
+		private final List<IFile> files;
+		private final AtomicInteger nextFile;
+		private final IFileProcessor processor;
+		private final Set<String> selectedFeatures;
+		private final boolean incremental;
+		private final BlockingQueue<PPFileState> processedFiles;
+
+		public FileWorker(List<IFile> files, AtomicInteger nextFile, IFileProcessor processor, Set<String> selectedFeatures, boolean incremental,
+				BlockingQueue<PPFileState> processedFiles) {
+			this.files = files;
+			this.nextFile = nextFile;
+			this.processor = processor;
+			this.selectedFeatures = selectedFeatures;
+			this.incremental = incremental;
+			this.processedFiles = processedFiles;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			for (int k = nextFile.getAndIncrement(); k < files.size(); k = nextFile.getAndIncrement()) {
+				final IFile file = files.get(k);
+				PPFileState state = null;
+				try {
+					state = processFile(file);
+				} catch (final Exception e) {
+					CorePlugin.getDefault().logError(e);
+				} finally {
+					// the build thread expects a state for every file
+					processedFiles.put((state != null) ? state : new PPFileState(file));
+				}
+			}
+			return null;
+		}
+
+		private PPFileState processFile(IFile file) throws Exception {
+			final byte[] content = Files.readAllBytes(Paths.get(file.getLocationURI()));
+			final byte[] contentHash = PPFileState.hash(content);
+			if (incremental) {
+				final PPFileState previousState = fileStates.get(file.getFullPath());
+				if ((previousState != null) && previousState.isUpToDate(contentHash, modelHash, selectedFeatures)) {
+					return previousState;
+				}
+			}
+			final PPFileState state = createFileState(file);
+			state.output = processor.process(state, content);
+			state.setFingerprint((state.output != null) ? PPFileState.hash(state.output) : contentHash, modelHash, selectedFeatures);
+			return state;
+		}
+	}
+
+	/**
+	 * Collects all files in the given folder and its sub folders.
+	 *
+	 * @param folder the folder
+	 * @param files the list to which the files are added
+	 * @throws CoreException if a folder cannot be read
+	 */
+	protected static void collectFiles(IFolder folder, List<IFile> files) throws CoreException {
+		for (final IResource res : folder.members()) {
+			if (res instanceof IFolder) {
+				collectFiles((IFolder) res, files);
+			} else if (res instanceof IFile) {
+				files.add((IFile) res);
+			}
+		}
+	}
+
 	/**
 	 * Read all lines of a file into a vector.
 	 *
@@ -416,15 +678,10 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 	 * @return lines of the given file
 	 */
 	public static Vector<String> loadStringsFromFile(IFile res) {
-		final Vector<String> lines = new Vector<String>();
-
 		Scanner scanner = null;
 		try {
 			scanner = new Scanner(res.getContents(), "UTF-8");
-
-			while (scanner.hasNext()) {
-				lines.add(scanner.nextLine());
-			}
+			return loadStrings(scanner);
 		} catch (final CoreException e) {
 			CorePlugin.getDefault().logError(e);
 		} finally {
@@ -432,6 +689,26 @@ public abstract class PPComposerExtensionClass extends ComposerExtensionClass {
 				scanner.close();
 			}
 		}
+		return new Vector<String>();
+	}
+
+	/**
+	 * Read all lines of the given file content into a vector.
+	 *
+	 * @param content the content of a file
+	 * @return lines of the given content
+	 */
+	public static Vector<String> loadStringsFromContent(byte[] content) {
+		try (Scanner scanner = new Scanner(new ByteArrayInputStream(content), "UTF-8")) {
+			return loadStrings(scanner);
+		}
+	}
+
+	private static Vector<String> loadStrings(Scanner scanner) {
+		final Vector<String> lines = new Vector<String>();
+		while (scanner.hasNext()) {
+			lines.add(scanner.nextLine());
+		}
 		return lines;
 	}
 
@@ -0,0 +1,174 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.core.builder.preprocessor;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Stack;
+
+import org.eclipse.core.resources.IFile;
+import org.prop4j.Node;
+
+/**
+ * The state of the annotation checking for a single file. As each file has its own expression stack, several files can be checked in parallel.<br> The
+ * markers for a file are collected here and are created afterwards by the build thread. After an incremental build, the state is kept as fingerprint of the
+ * file, such that its markers can be restored as long as neither the file, the feature model, nor the selection of its referenced features changed.
+ *
+ * @author agent
+ */
+public class PPFileState {
+
+	/**
+	 * A builder marker for the file.
+	 */
+	static final class Marker {
+
+		final String message;
+		final int lineNumber;
+		final int severity;
+
+		Marker(String message, int lineNumber, int severity) {
+			this.message = message;
+			this.lineNumber = lineNumber;
+			this.severity = severity;
+		}
+
+	}
+
+	private final IFile file;
+
+	private final Stack<Node> expressionStack;
+
+	private final Stack<Integer> ifelseCountStack;
+
+	/** Features used in expressions of the file. */
+	final Set<String> usedFeatures = new HashSet<>();
+
+	/** Feature names referenced in annotations of the file, even if the annotation could not be parsed. */
+	final Set<String> referencedFeatures = new HashSet<>();
+
+	final List<Marker> markers = new ArrayList<>();
+
+	/** The new content of the file, or {@code null} if the file is unchanged. */
+	byte[] output;
+
+	private byte[] contentHash;
+	private byte[] modelHash;
+	private Set<String> selectedFeatures;
+
+	public PPFileState(IFile file) {
+		this(file, new Stack<Node>(), new Stack<Integer>());
+	}
+
+	PPFileState(IFile file, Stack<Node> expressionStack, Stack<Integer> ifelseCountStack) {
+		this.file = file;
+		this.expressionStack = expressionStack;
+		this.ifelseCountStack = ifelseCountStack;
+	}
+
+	public IFile getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the stack for preprocessor directives (for nested expressions)
+	 */
+	public Stack<Node> getExpressionStack() {
+		return expressionStack;
+	}
+
+	/**
+	 * @return the stack for count of "if" and "else" instructions for each level
+	 */
+	public Stack<Integer> getIfelseCountStack() {
+		return ifelseCountStack;
+	}
+
+	void addMarker(String message, int lineNumber, int severity) {
+		markers.add(new Marker(message, lineNumber, severity));
+	}
+
+	/**
+	 * Stores the fingerprint of the processed file.
+	 *
+	 * @param contentHash hash of the file content after processing
+	 * @param modelHash hash of the feature model
+	 * @param selectedFeatures all selected features or {@code null} if the result does not depend on the configuration
+	 */
+	void setFingerprint(byte[] contentHash, byte[] modelHash, Set<String> selectedFeatures) {
+		this.contentHash = contentHash;
+		this.modelHash = modelHash;
+		this.selectedFeatures = (selectedFeatures == null) ? null : getReferencedSelection(selectedFeatures);
+	}
+
+	/**
+	 * @return {@code true} if the file was processed without errors and has a fingerprint
+	 */
+	boolean isProcessed() {
+		return contentHash != null;
+	}
+
+	/**
+	 * @param contentHash hash of the current file content
+	 * @param modelHash hash of the current feature model
+	 * @param selectedFeatures all selected features or {@code null} if the result does not depend on the configuration
+	 * @return {@code true} if processing the file again would yield the same result
+	 */
+	boolean isUpToDate(byte[] contentHash, byte[] modelHash, Set<String> selectedFeatures) {
+		if (!Arrays.equals(this.contentHash, contentHash) || !Arrays.equals(this.modelHash, modelHash)) {
+			return false;
+		}
+		if ((selectedFeatures == null) || (this.selectedFeatures == null)) {
+			return (selectedFeatures == null) && (this.selectedFeatures == null);
+		}
+		return this.selectedFeatures.equals(getReferencedSelection(selectedFeatures));
+	}
+
+	private Set<String> getReferencedSelection(Set<String> selectedFeatures) {
+		final Set<String> referencedSelection = new HashSet<>();
+		for (final String feature : usedFeatures) {
+			if (selectedFeatures.contains(feature)) {
+				referencedSelection.add(feature);
+			}
+		}
+		for (final String feature : referencedFeatures) {
+			if (selectedFeatures.contains(feature)) {
+				referencedSelection.add(feature);
+			}
+		}
+		return referencedSelection;
+	}
+
+	static byte[] hash(byte[] content) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(content);
+		} catch (final NoSuchAlgorithmException e) {
+			// compare the whole content instead
+			return content;
+		}
+	}
+
+}
@@ -92,7 +92,6 @@ import de.ovgu.featureide.core.fstmodel.FSTModel;
 import de.ovgu.featureide.core.job.ModelScheduleRule;
 import de.ovgu.featureide.core.signature.ProjectSignatures;
 import de.ovgu.featureide.fm.core.FMComposerManager;
-import de.ovgu.featureide.fm.core.FMCorePlugin;
 import de.ovgu.featureide.fm.core.ModelMarkerHandler;
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IFeature;
@@ -104,12 +103,11 @@ import de.ovgu.featureide.fm.core.base.impl.DefaultFeatureModelFactory;
 import de.ovgu.featureide.fm.core.base.impl.ExtendedFeature;
 import de.ovgu.featureide.fm.core.base.impl.ExtendedFeatureModel;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.ConfigurationBatchValidator;
 import de.ovgu.featureide.fm.core.configuration.FeatureIDEFormat;
-import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
-import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.configuration.SelectionMatrix;
 import de.ovgu.featureide.fm.core.io.FeatureOrderFormat;
 import de.ovgu.featureide.fm.core.io.Problem;
-import de.ovgu.featureide.fm.core.io.ProblemList;
 import de.ovgu.featureide.fm.core.io.manager.ConfigurationManager;
 import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
 import de.ovgu.featureide.fm.core.io.manager.FileHandler;
@@ -264,12 +262,12 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 				next(CALCULATE_CORE_AND_DEAD_FEATURES, workMonitor);
 				final List<String> concreteFeatures = (List<String>) getOptionalConcreteFeatures();
 				next(GET_SELECTION_MATRIX, workMonitor);
-				final boolean[][] selectionMatrix = getSelectionMatrix(concreteFeatures);
+				final SelectionMatrix selectionMatrix = getSelectionMatrix(concreteFeatures);
 				next(GET_FALSE_OPTIONAL_FEATURES, workMonitor);
-				final Collection<String> falseOptionalFeatures = getFalseOptionalConfigurationFeatures(selectionMatrix, concreteFeatures);
+				final Collection<String> falseOptionalFeatures = selectionMatrix.getFalseOptionalFeatures();
 				next(GET_UNUSED_FEATURES, workMonitor);
 				workMonitor.checkCancel();
-				final Collection<String> deadFeatures = getUnusedConfigurationFeatures(selectionMatrix, concreteFeatures);
+				final Collection<String> deadFeatures = selectionMatrix.getUnusedFeatures();
 				next("create marker: dead features", workMonitor);
 				if (!deadFeatures.isEmpty()) {
 					createConfigurationMarker(folder, MARKER_UNUSED + deadFeatures.size() + (deadFeatures.size() > 1 ? " features are " : " feature is ")
@@ -1075,7 +1073,6 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 			@Override
 			public Boolean execute(IMonitor workMonitor) throws Exception {
 				workMonitor.setRemainingWork(2);
-				final Configuration config = new Configuration(featureModelManager.getObject(), false, false);
 				try {
 					IMonitor subTask = workMonitor.subTask(1);
 					subTask.setTaskName(DELETE_CONFIGURATION_MARKERS);
@@ -1086,12 +1083,14 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 					}
 					subTask.done();
 					subTask = workMonitor.subTask(1);
-					subTask.setRemainingWork(files.size());
+					subTask.setTaskName(CHECK_VALIDITY_OF);
 					// check validity
+					final ConfigurationBatchValidator validator =
+						new ConfigurationBatchValidator(featureModelManager.getObject(), getPaths(files), Collections.<String> emptyList());
+					final SelectionMatrix selectionMatrix = LongRunningWrapper.runMethod(validator, subTask);
+					int row = 0;
 					for (final IFile file : files) {
-						subTask.setTaskName(CHECK_VALIDITY_OF + " - " + file.getName());
-						final ProblemList lastProblems = SimpleFileHandler.load(Paths.get(file.getLocationURI()), config, ConfigFormatManager.getInstance());
-						if (!config.isValid()) {
+						if (!selectionMatrix.isValid(row)) {
 							String name = file.getName();
 							final int extIndex = name.lastIndexOf('.');
 							if (extIndex > 0) {
@@ -1102,10 +1101,10 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 
 						}
 						// create warnings (e.g., for features that are not available anymore)
-						for (final Problem warning : lastProblems) {
+						for (final Problem warning : selectionMatrix.getProblems(row)) {
 							createConfigurationMarker(file, warning.getMessage(), warning.getLine(), IMarker.SEVERITY_WARNING);
 						}
-						subTask.step();
+						row++;
 					}
 					subTask.done();
 				} catch (final OutOfMemoryError e) {
@@ -1131,71 +1130,29 @@ public class FeatureProject extends BuilderMarkerHandler implements IFeatureProj
 
 	@Override
 	public Collection<String> getFalseOptionalConfigurationFeatures() {
-		return getFalseOptionalConfigurationFeatures(getSelectionMatrix(), (List<String>) getOptionalConcreteFeatures());
-	}
-
-	public Collection<String> getFalseOptionalConfigurationFeatures(boolean[][] selections, final List<String> concreteFeatures) {
-		return checkValidSelections(selections, false, concreteFeatures);
+		return getSelectionMatrix().getFalseOptionalFeatures();
 	}
 
 	@Override
 	public Collection<String> getUnusedConfigurationFeatures() {
-		return getUnusedConfigurationFeatures(getSelectionMatrix(), (List<String>) getOptionalConcreteFeatures());
-	}
-
-	public Collection<String> getUnusedConfigurationFeatures(boolean[][] selections, final List<String> concreteFeatures) {
-		return checkValidSelections(selections, true, concreteFeatures);
+		return getSelectionMatrix().getUnusedFeatures();
 	}
 
-	private List<String> checkValidSelections(boolean[][] selections, boolean selectionState, final List<String> concreteFeatures) {
-		if (selections.length == 0) {
-			return Collections.emptyList();
-		}
-		final List<String> falseOptionalFeatures = new LinkedList<String>();
-		for (int column = 0; column < concreteFeatures.size(); column++) {
-			boolean invalid = true;
-			for (int conf = 0; conf < selections.length; conf++) {
-				if (selections[conf][column] == selectionState) {
-					invalid = false;
-					break;
-				}
-			}
-			if (invalid) {
-				falseOptionalFeatures.add(concreteFeatures.get(column));
-			}
-		}
-		return falseOptionalFeatures;
-	}
-
-	private boolean[][] getSelectionMatrix() {
+	private SelectionMatrix getSelectionMatrix() {
 		return getSelectionMatrix(getOptionalConcreteFeatures());
 	}
 
-	private boolean[][] getSelectionMatrix(final Collection<String> concreteFeatures) {
-		final List<IFile> configurations = getAllConfigurations();
-
-		final boolean[][] selections = new boolean[configurations.size()][concreteFeatures.size()];
-		final Configuration configuration = new Configuration(featureModelManager.getObject(), Configuration.PARAM_IGNOREABSTRACT);
-
-		int row = 0;
-		for (final IFile file : configurations) {
-			final boolean[] currentRow = selections[row++];
-			try {
-				SimpleFileHandler.load(Paths.get(file.getLocationURI()), configuration, ConfigFormatManager.getInstance());
-			} catch (final Exception e) {
-				FMCorePlugin.getDefault().logError(e);
-			}
+	private SelectionMatrix getSelectionMatrix(final Collection<String> concreteFeatures) {
+		return LongRunningWrapper.runMethod(
+				new ConfigurationBatchValidator(featureModelManager.getObject(), getPaths(getAllConfigurations()), new ArrayList<>(concreteFeatures)));
+	}
 
-			int column = 0;
-			for (final String feature : concreteFeatures) {
-				final SelectableFeature selectablefeature = configuration.getSelectablefeature(feature);
-				if (selectablefeature != null) {
-					currentRow[column] = selectablefeature.getSelection() == Selection.SELECTED;
-				}
-				column++;
-			}
+	private static List<java.nio.file.Path> getPaths(final List<IFile> files) {
+		final List<java.nio.file.Path> paths = new ArrayList<>(files.size());
+		for (final IFile file : files) {
+			paths.add(Paths.get(file.getLocationURI()));
 		}
-		return selections;
+		return paths;
 	}
 
 	private Collection<String> getOptionalConcreteFeatures() {
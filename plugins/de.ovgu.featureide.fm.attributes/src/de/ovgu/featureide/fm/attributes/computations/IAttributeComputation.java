@@ -0,0 +1,40 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.computations;
+
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+
+/**
+ * Interface, that a computation used in the Attribute calculation should implement.<br> Taken over from the interface of the same name in the plug-in
+ * de.ovgu.featureide.attributes.
+ *
+ * @author agent
+ */
+public interface IAttributeComputation {
+
+	public Object[] getResult();
+
+	public String getResultString();
+
+	public Configuration getConfiguration();
+
+	public String getHeaderString();
+}
@@ -59,6 +59,14 @@ public class AttributeEntry implements IOutlineEntry {
 		if (max.supportsType(null)) {
 			children.add(max);
 		}
+		OptimalAttributeComputation optimalMin = new OptimalAttributeComputation(config, attribute, false);
+		OptimalAttributeComputation optimalMax = new OptimalAttributeComputation(config, attribute, true);
+		if (optimalMin.supportsType(null)) {
+			children.add(optimalMin);
+		}
+		if (optimalMax.supportsType(null)) {
+			children.add(optimalMax);
+		}
 
 		return children;
 	}
@@ -0,0 +1,442 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.computations.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+
+/**
+ * Estimates the minimal and maximal sum of all numerical attributes regarding a partial configuration and computes the sum of the selected features.<br>
+ * <br> The values are computed bottom-up in a single pass over the feature tree. Each subtree is evaluated once for all attributes and its result is kept.
+ * When the selection or the attribute values of a feature change, only the feature and its ancestors are evaluated again.
+ *
+ * @author agent
+ */
+public class AttributeEstimator {
+
+	/** The estimator of the configuration that was used last. Only one estimator is kept, as the outline shows a single configuration at a time. */
+	private static AttributeEstimator lastEstimator;
+
+	/**
+	 * Returns the estimator for the given configuration. The estimator of the configuration that was used last is kept and is updated to the current selection
+	 * before it is returned. If the structure of the feature model changed in the meantime, a new estimator is created.
+	 *
+	 * @param configuration the configuration
+	 * @return the up-to-date estimator for the configuration
+	 */
+	public static synchronized AttributeEstimator getEstimator(Configuration configuration) {
+		if ((lastEstimator == null) || (lastEstimator.configuration != configuration) || !lastEstimator.isCompatible()) {
+			lastEstimator = new AttributeEstimator(configuration);
+		} else {
+			lastEstimator.update();
+		}
+		return lastEstimator;
+	}
+
+	private static final byte SELECTED = 1;
+	private static final byte UNSELECTED = -1;
+	private static final byte UNDEFINED = 0;
+
+	private final Configuration configuration;
+	private final IFeatureModel featureModel;
+
+	/** Indexes of all numerical attributes by their name. */
+	private final Map<String, Integer> attributeIndex = new LinkedHashMap<>();
+
+	/** All feature structures in post order, such that each child precedes its parent. */
+	private final IFeatureStructure[] nodes;
+	private final Map<IFeature, Integer> nodeIndex;
+	private final int[] parents;
+	private final int[][] children;
+	/** The group type and whether the feature is mandatory for each node (see {@link #getStructureType(IFeatureStructure)}). */
+	private final byte[] structureTypes;
+	private final int numberOfNodes;
+
+	private final byte[] selections;
+	private final double[][] ownValues;
+	private final double[][] minimumValues;
+	private final double[][] maximumValues;
+	private final double[][] selectedValues;
+
+	/** Marks the features that have to be evaluated again. */
+	private final boolean[] changed;
+
+	/**
+	 * Creates a new estimator and computes the values for the current selection of the given configuration.
+	 *
+	 * @param configuration the configuration
+	 */
+	public AttributeEstimator(Configuration configuration) {
+		this.configuration = configuration;
+		featureModel = configuration.getFeatureModel();
+
+		final int numberOfFeatures = featureModel.getNumberOfFeatures();
+		nodeIndex = new HashMap<>(numberOfFeatures << 1);
+		nodes = new IFeatureStructure[numberOfFeatures];
+		parents = new int[numberOfFeatures];
+		children = new int[numberOfFeatures][];
+		structureTypes = new byte[numberOfFeatures];
+		final IFeatureStructure root = featureModel.getStructure().getRoot();
+		numberOfNodes = (root == null) ? 0 : addNodes(root, 0);
+
+		for (int i = 0; i < numberOfNodes; i++) {
+			for (final IFeatureAttribute attribute : getAttributes(nodes[i].getFeature())) {
+				if (isNumerical(attribute) && !attributeIndex.containsKey(attribute.getName())) {
+					attributeIndex.put(attribute.getName(), attributeIndex.size());
+				}
+			}
+		}
+
+		final int numberOfAttributes = attributeIndex.size();
+		selections = new byte[numberOfNodes];
+		ownValues = new double[numberOfNodes][numberOfAttributes];
+		minimumValues = new double[numberOfNodes][numberOfAttributes];
+		maximumValues = new double[numberOfNodes][numberOfAttributes];
+		selectedValues = new double[numberOfNodes][numberOfAttributes];
+		changed = new boolean[numberOfNodes];
+		for (int i = 0; i < numberOfNodes; i++) {
+			selections[i] = getSelection(i);
+			readOwnValues(i, ownValues[i]);
+			computeNode(i);
+		}
+	}
+
+	private int addNodes(IFeatureStructure structure, int nextIndex) {
+		final List<IFeatureStructure> childStructures = structure.getChildren();
+		final int[] childIndexes = new int[childStructures.size()];
+		int k = 0;
+		for (final IFeatureStructure child : childStructures) {
+			nextIndex = addNodes(child, nextIndex);
+			childIndexes[k++] = nextIndex - 1;
+		}
+		final int index = nextIndex;
+		nodes[index] = structure;
+		nodeIndex.put(structure.getFeature(), index);
+		parents[index] = -1;
+		children[index] = childIndexes;
+		structureTypes[index] = getStructureType(structure);
+		for (final int childIndex : childIndexes) {
+			parents[childIndex] = index;
+		}
+		return index + 1;
+	}
+
+	private static byte getStructureType(IFeatureStructure structure) {
+		final int groupType = structure.isAnd() ? 0 : structure.isAlternative() ? 1 : structure.isOr() ? 2 : 3;
+		return (byte) ((groupType << 1) | (structure.isMandatory() ? 1 : 0));
+	}
+
+	/**
+	 * @return {@code true} if the estimator still matches the feature model of its configuration
+	 */
+	private boolean isCompatible() {
+		return (configuration.getFeatureModel() == featureModel) && (featureModel.getNumberOfFeatures() == numberOfNodes) && hasStructure()
+			&& hasAttributes(attributeIndex.keySet());
+	}
+
+	/**
+	 * @return {@code true} if each feature still has the same parent, the same number of children, the same group type, and is still mandatory or optional
+	 */
+	private boolean hasStructure() {
+		if ((numberOfNodes > 0) && (featureModel.getStructure().getRoot() != nodes[numberOfNodes - 1])) {
+			return false;
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			final IFeatureStructure structure = nodes[i];
+			final IFeature feature = structure.getFeature();
+			final IFeatureStructure parent = (parents[i] < 0) ? null : nodes[parents[i]];
+			if ((featureModel.getFeature(feature.getName()) != feature) || (feature.getStructure() != structure) || (structure.getParent() != parent)
+				|| (structure.getChildrenCount() != children[i].length) || (getStructureType(structure) != structureTypes[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean hasAttributes(Set<String> knownAttributes) {
+		for (int i = 0; i < numberOfNodes; i++) {
+			for (final IFeatureAttribute attribute : getAttributes(nodes[i].getFeature())) {
+				if (isNumerical(attribute) && !knownAttributes.contains(attribute.getName())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares the selection and the attribute values of all features to the last evaluation and evaluates all changed features and their ancestors again.
+	 *
+	 * @return {@code true} if any feature changed
+	 */
+	public boolean update() {
+		int firstChanged = numberOfNodes;
+		final double[] values = new double[attributeIndex.size()];
+		for (int i = numberOfNodes - 1; i >= 0; i--) {
+			readOwnValues(i, values);
+			final byte selection = getSelection(i);
+			if ((selection != selections[i]) || !Arrays.equals(values, ownValues[i])) {
+				selections[i] = selection;
+				System.arraycopy(values, 0, ownValues[i], 0, values.length);
+				firstChanged = markChanged(i, firstChanged);
+			}
+		}
+		return computeChanged(firstChanged);
+	}
+
+	/**
+	 * Evaluates the given feature and its ancestors again, after its selection or its attribute values changed.
+	 *
+	 * @param feature the changed feature
+	 */
+	public void update(IFeature feature) {
+		final Integer index = nodeIndex.get(feature);
+		if (index != null) {
+			selections[index] = getSelection(index);
+			readOwnValues(index, ownValues[index]);
+			computeChanged(markChanged(index, numberOfNodes));
+		}
+	}
+
+	private int markChanged(int index, int firstChanged) {
+		for (int i = index; (i >= 0) && !changed[i]; i = parents[i]) {
+			changed[i] = true;
+		}
+		return Math.min(index, firstChanged);
+	}
+
+	private boolean computeChanged(int firstChanged) {
+		if (firstChanged >= numberOfNodes) {
+			return false;
+		}
+		// parents have a higher index than their children
+		for (int i = firstChanged; i < numberOfNodes; i++) {
+			if (changed[i]) {
+				changed[i] = false;
+				computeNode(i);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the names of all numerical attributes
+	 */
+	public Set<String> getAttributeNames() {
+		return Collections.unmodifiableSet(attributeIndex.keySet());
+	}
+
+	/**
+	 * @param attributeName the name of a numerical attribute
+	 * @return the estimated minimal sum of the attribute values of a configuration
+	 */
+	public double getMinimum(String attributeName) {
+		return getRootValue(minimumValues, attributeName);
+	}
+
+	/**
+	 * @param attributeName the name of a numerical attribute
+	 * @return the estimated maximal sum of the attribute values of a configuration
+	 */
+	public double getMaximum(String attributeName) {
+		return getRootValue(maximumValues, attributeName);
+	}
+
+	/**
+	 * @param attributeName the name of a numerical attribute
+	 * @return the sum of the attribute values of all selected features
+	 */
+	public double getSelectedSum(String attributeName) {
+		return getRootValue(selectedValues, attributeName);
+	}
+
+	private double getRootValue(double[][] values, String attributeName) {
+		final Integer index = attributeIndex.get(attributeName);
+		return ((index == null) || (numberOfNodes == 0)) ? 0 : values[numberOfNodes - 1][index];
+	}
+
+	private void computeNode(int index) {
+		final IFeatureStructure structure = nodes[index];
+		final int[] childIndexes = children[index];
+		final double[] own = ownValues[index];
+		final double[] minimum = minimumValues[index];
+		final double[] maximum = maximumValues[index];
+		final double[] selected = selectedValues[index];
+		for (int a = 0; a < own.length; a++) {
+			double sum = (selections[index] == SELECTED) ? own[a] : 0;
+			for (final int child : childIndexes) {
+				sum += selectedValues[child][a];
+			}
+			selected[a] = sum;
+
+			if (childIndexes.length == 0) {
+				minimum[a] = own[a];
+				maximum[a] = own[a];
+			} else if (structure.isAnd()) {
+				minimum[a] = own[a] + getAndMinimum(childIndexes, a);
+				maximum[a] = own[a] + getAndMaximum(childIndexes, a);
+			} else if (structure.isAlternative()) {
+				minimum[a] = own[a] + getAlternativeValue(childIndexes, minimumValues, a, true);
+				maximum[a] = own[a] + getAlternativeValue(childIndexes, maximumValues, a, false);
+			} else if (structure.isOr()) {
+				minimum[a] = own[a] + getOrMinimum(childIndexes, a);
+				maximum[a] = own[a] + getOrMaximum(childIndexes, a);
+			} else {
+				minimum[a] = own[a];
+				maximum[a] = own[a];
+			}
+		}
+	}
+
+	private double getAndMinimum(int[] childIndexes, int a) {
+		double value = 0;
+		for (final int child : childIndexes) {
+			final double childValue = minimumValues[child][a];
+			if (nodes[child].isMandatory() || (selections[child] == SELECTED) || ((childValue < 0) && (selections[child] != UNSELECTED))) {
+				value += childValue;
+			}
+		}
+		return value;
+	}
+
+	private double getAndMaximum(int[] childIndexes, int a) {
+		double value = 0;
+		for (final int child : childIndexes) {
+			if (selections[child] != UNSELECTED) {
+				final double childValue = maximumValues[child][a];
+				if (nodes[child].isMandatory() || (childValue >= 0) || (selections[child] == SELECTED)) {
+					value += childValue;
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Exactly one child of an alternative group is selected. If it is known, its value is used. Otherwise the best value of the children that are not
+	 * unselected is used.
+	 */
+	private double getAlternativeValue(int[] childIndexes, double[][] values, int a, boolean minimum) {
+		boolean hasCandidate = false;
+		double best = 0;
+		for (final int child : childIndexes) {
+			if (selections[child] == SELECTED) {
+				return values[child][a];
+			}
+			if (selections[child] != UNSELECTED) {
+				final double childValue = values[child][a];
+				if (!hasCandidate || (minimum ? (childValue < best) : (childValue > best))) {
+					best = childValue;
+					hasCandidate = true;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Adds all selected and all negative children. If no child was added, at least one child has to be selected, so the smallest remaining value is used.
+	 */
+	private double getOrMinimum(int[] childIndexes, int a) {
+		double value = 0;
+		boolean added = false;
+		double best = Double.POSITIVE_INFINITY;
+		for (final int child : childIndexes) {
+			if (selections[child] != UNSELECTED) {
+				final double childValue = minimumValues[child][a];
+				if ((selections[child] == SELECTED) || (childValue < 0)) {
+					value += childValue;
+					added = true;
+				} else {
+					best = Math.min(best, childValue);
+				}
+			}
+		}
+		return (added || (best == Double.POSITIVE_INFINITY)) ? value : best;
+	}
+
+	/**
+	 * Adds all selected and all non-negative children. If no child was added, at least one child has to be selected, so the largest remaining value is used.
+	 */
+	private double getOrMaximum(int[] childIndexes, int a) {
+		double value = 0;
+		boolean added = false;
+		double best = Double.NEGATIVE_INFINITY;
+		for (final int child : childIndexes) {
+			if (selections[child] != UNSELECTED) {
+				final double childValue = maximumValues[child][a];
+				if ((childValue >= 0) || (selections[child] == SELECTED)) {
+					value += childValue;
+					added = true;
+				} else {
+					best = Math.max(best, childValue);
+				}
+			}
+		}
+		return (added || (best == Double.NEGATIVE_INFINITY)) ? value : best;
+	}
+
+	private byte getSelection(int index) {
+		final SelectableFeature feature = configuration.getSelectablefeature(nodes[index].getFeature().getName());
+		if (feature == null) {
+			return UNDEFINED;
+		}
+		final Selection selection = feature.getSelection();
+		return (selection == Selection.SELECTED) ? SELECTED : (selection == Selection.UNSELECTED) ? UNSELECTED : UNDEFINED;
+	}
+
+	private void readOwnValues(int index, double[] values) {
+		Arrays.fill(values, 0);
+		for (final IFeatureAttribute attribute : getAttributes(nodes[index].getFeature())) {
+			if (isNumerical(attribute) && (attribute.getValue() != null)) {
+				final Integer attributeIndex = this.attributeIndex.get(attribute.getName());
+				if (attributeIndex != null) {
+					values[attributeIndex] += ((Number) attribute.getValue()).doubleValue();
+				}
+			}
+		}
+	}
+
+	private static List<IFeatureAttribute> getAttributes(IFeature feature) {
+		return (feature instanceof ExtendedFeature) ? ((ExtendedFeature) feature).getAttributes() : Collections.<IFeatureAttribute> emptyList();
+	}
+
+	private static boolean isNumerical(IFeatureAttribute attribute) {
+		return (attribute instanceof LongFeatureAttribute) || (attribute instanceof DoubleFeatureAttribute);
+	}
+
+}
@@ -0,0 +1,516 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.computations.impl;
+
+import static de.ovgu.featureide.fm.core.localization.StringTable.CALCULATING____;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IViewPart;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+
+import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.computations.IAttributeComputation;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent;
+import de.ovgu.featureide.fm.core.base.event.IEventListener;
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.SelectableFeature;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.constraint.analysis.PBOptimizer;
+import de.ovgu.featureide.fm.core.constraint.analysis.PBOptimizer.Result;
+import de.ovgu.featureide.fm.core.constraint.analysis.PBOptimizer.Solution;
+import de.ovgu.featureide.fm.core.job.IJob;
+import de.ovgu.featureide.fm.core.job.IRunner;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.util.JobFinishListener;
+import de.ovgu.featureide.fm.ui.views.outline.IOutlineEntry;
+import de.ovgu.featureide.fm.ui.views.outline.custom.Outline;
+
+/**
+ * Computes the minimal or maximal sum of a given numerical attribute over all valid completions of a partial configuration, considering cross-tree
+ * constraints. The result contains the best configurations as lists of selected feature names.<br> In the outline, the result is computed in the
+ * background and cached for the current selection, such that refreshing the outline does not block the UI.
+ *
+ * @author agent
+ */
+public class OptimalAttributeComputation implements IAttributeComputation, IOutlineEntry {
+
+	/**
+	 * The time budget of one computation in milliseconds.
+	 */
+	public static final long TIMEOUT = 500;
+
+	/**
+	 * The maximum number of configurations to compute.
+	 */
+	public static final int NUMBER_OF_SOLUTIONS = 3;
+
+	/**
+	 * The maximum number of decimal places of double attributes that are considered.
+	 */
+	private static final int MAX_SCALE = 6;
+
+	private static final String MINIMUM_LABEL = "Minimal sum of attribute value: ";
+	private static final String MAXIMUM_LABEL = "Maximal sum of attribute value: ";
+	private static final String SOLUTION_LABEL = "Configuration ";
+	private static final String MINIMUM_JOB_NAME = "Minimizing attribute sum";
+	private static final String MAXIMUM_JOB_NAME = "Maximizing attribute sum";
+
+	private static PBOptimizer lastOptimizer;
+
+	/**
+	 * Returns an optimizer for the given feature model. The optimizer of the last call is reused if the feature model was not changed in between.
+	 *
+	 * @param featureModel the feature model
+	 * @return an optimizer for the feature model
+	 */
+	public static synchronized PBOptimizer getOptimizer(IFeatureModel featureModel) {
+		if ((lastOptimizer == null) || (lastOptimizer.getFeatureModel() != featureModel) || !lastOptimizer.isCompatible()) {
+			lastOptimizer = new PBOptimizer(featureModel);
+		}
+		return lastOptimizer;
+	}
+
+	/**
+	 * Identifies a computation by the feature model, the objective, and the selection of the configuration.
+	 */
+	private static final class ResultKey {
+
+		private final IFeatureModel featureModel;
+		private final boolean maximize;
+		private final long scaleFactor;
+		private final Map<String, Long> weights;
+		private final List<String> selectedFeatures;
+		private final List<String> unselectedFeatures;
+
+		public ResultKey(IFeatureModel featureModel, boolean maximize, long scaleFactor, Map<String, Long> weights, List<String> selectedFeatures,
+				List<String> unselectedFeatures) {
+			this.featureModel = featureModel;
+			this.maximize = maximize;
+			this.scaleFactor = scaleFactor;
+			this.weights = weights;
+			this.selectedFeatures = selectedFeatures;
+			this.unselectedFeatures = unselectedFeatures;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(featureModel);
+			result = (31 * result) + (maximize ? 1 : 0);
+			result = (31 * result) + (int) (scaleFactor ^ (scaleFactor >>> 32));
+			result = (31 * result) + weights.hashCode();
+			result = (31 * result) + selectedFeatures.hashCode();
+			result = (31 * result) + unselectedFeatures.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final ResultKey other = (ResultKey) obj;
+			return (featureModel == other.featureModel) && (maximize == other.maximize) && (scaleFactor == other.scaleFactor)
+				&& weights.equals(other.weights) && selectedFeatures.equals(other.selectedFeatures) && unselectedFeatures.equals(other.unselectedFeatures);
+		}
+
+	}
+
+	/**
+	 * The maximum number of cached results.
+	 */
+	private static final int CACHE_SIZE = 32;
+
+	/**
+	 * The results of the last computations. The cache is cleared whenever the cached feature model changes.
+	 */
+	private static final Map<ResultKey, Result> resultCache = new LinkedHashMap<ResultKey, Result>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<ResultKey, Result> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * The computations that wait for a result that is computed in the background.
+	 */
+	private static final Map<ResultKey, List<OptimalAttributeComputation>> pendingComputations = new HashMap<>();
+
+	private static IFeatureModel cachedFeatureModel;
+
+	/**
+	 * Increased each time the cache is cleared, such that results of computations started before are not cached.
+	 */
+	private static int cacheGeneration = 0;
+
+	private static final IEventListener cacheListener = new IEventListener() {
+
+		@Override
+		public void propertyChange(FeatureIDEEvent event) {
+			clearCache();
+		}
+	};
+
+	private static synchronized void clearCache() {
+		resultCache.clear();
+		cacheGeneration++;
+	}
+
+	/**
+	 * Returns the cached result for the given key. If there is none, the result is computed in the background and the given computation is updated when it
+	 * is done.
+	 *
+	 * @return the cached result or {@code null} if the result is not yet available
+	 */
+	private static synchronized Result requestResult(ResultKey key, OptimalAttributeComputation computation) {
+		if (cachedFeatureModel != key.featureModel) {
+			if (cachedFeatureModel != null) {
+				cachedFeatureModel.removeListener(cacheListener);
+			}
+			cachedFeatureModel = key.featureModel;
+			cachedFeatureModel.addListener(cacheListener);
+			clearCache();
+		}
+		final Result result = resultCache.get(key);
+		if (result != null) {
+			return result;
+		}
+		List<OptimalAttributeComputation> waitingComputations = pendingComputations.get(key);
+		if (waitingComputations == null) {
+			waitingComputations = new ArrayList<>();
+			pendingComputations.put(key, waitingComputations);
+			startComputation(key);
+		}
+		waitingComputations.add(computation);
+		return null;
+	}
+
+	private static void startComputation(final ResultKey key) {
+		final int generation = cacheGeneration;
+		final IRunner<Result> runner = LongRunningWrapper.getRunner(new LongRunningMethod<Result>() {
+
+			@Override
+			public Result execute(IMonitor monitor) throws Exception {
+				return computeResult(key);
+			}
+		}, key.maximize ? MAXIMUM_JOB_NAME : MINIMUM_JOB_NAME);
+		runner.addJobFinishedListener(new JobFinishListener<Result>() {
+
+			@Override
+			public void jobFinished(IJob<Result> finishedJob) {
+				final Result result = finishedJob.getResults();
+				final List<OptimalAttributeComputation> waitingComputations;
+				synchronized (OptimalAttributeComputation.class) {
+					waitingComputations = pendingComputations.remove(key);
+					if ((result != null) && (generation == cacheGeneration)) {
+						resultCache.put(key, result);
+					}
+				}
+				if ((result != null) && (waitingComputations != null)) {
+					for (final OptimalAttributeComputation computation : waitingComputations) {
+						computation.result = result;
+					}
+					refreshOutline(waitingComputations);
+				}
+			}
+		});
+		runner.schedule();
+	}
+
+	private static Result computeResult(ResultKey key) {
+		final PBOptimizer optimizer = getOptimizer(key.featureModel);
+		return key.maximize ? optimizer.maximize(key.weights, key.selectedFeatures, key.unselectedFeatures, NUMBER_OF_SOLUTIONS, TIMEOUT)
+			: optimizer.minimize(key.weights, key.selectedFeatures, key.unselectedFeatures, NUMBER_OF_SOLUTIONS, TIMEOUT);
+	}
+
+	/**
+	 * Updates the labels and children of the given computations in the outline.
+	 */
+	private static void refreshOutline(final List<OptimalAttributeComputation> computations) {
+		final Display display = PlatformUI.isWorkbenchRunning() ? PlatformUI.getWorkbench().getDisplay() : null;
+		if ((display == null) || display.isDisposed()) {
+			return;
+		}
+		display.asyncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				final IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+				if ((window != null) && (window.getActivePage() != null)) {
+					final IViewPart view = window.getActivePage().findView(Outline.ID);
+					if (view instanceof Outline) {
+						for (final OptimalAttributeComputation computation : computations) {
+							((Outline) view).refresh(computation);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	Configuration config;
+	IFeatureAttribute attribute;
+	private final boolean maximize;
+
+	private ResultKey key;
+	private volatile Result result;
+	private long scaleFactor = 1;
+
+	public OptimalAttributeComputation(Configuration config, IFeatureAttribute attribute, boolean maximize) {
+		this.config = config;
+		this.attribute = attribute;
+		this.maximize = maximize;
+	}
+
+	private ResultKey getKey() {
+		if (key == null) {
+			final Map<String, Long> weights = getWeights();
+			final List<String> selectedFeatures = new ArrayList<>();
+			final List<String> unselectedFeatures = new ArrayList<>();
+			for (final SelectableFeature feature : config.getFeatures()) {
+				if (feature.getSelection() == Selection.SELECTED) {
+					selectedFeatures.add(feature.getName());
+				} else if (feature.getSelection() == Selection.UNSELECTED) {
+					unselectedFeatures.add(feature.getName());
+				}
+			}
+			key = new ResultKey(config.getFeatureModel(), maximize, scaleFactor, weights, selectedFeatures, unselectedFeatures);
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the result without blocking. If the result is not cached, it is computed in the background and the outline is refreshed afterwards.
+	 *
+	 * @return the result or {@code null} if it is not yet available
+	 */
+	private Result getOptimizationResult() {
+		if (result == null) {
+			result = requestResult(getKey(), this);
+		}
+		return result;
+	}
+
+	/**
+	 * Sums the values of the attribute for each feature. Double values are scaled to integers, such that their decimal places are preserved.
+	 */
+	private Map<String, Long> getWeights() {
+		int scale = 0;
+		for (final IFeature feature : config.getFeatureModel().getFeatures()) {
+			for (final IFeatureAttribute featureAttribute : getAttributes(feature)) {
+				if (featureAttribute instanceof DoubleFeatureAttribute) {
+					final int valueScale = BigDecimal.valueOf((Double) featureAttribute.getValue()).stripTrailingZeros().scale();
+					scale = Math.max(scale, Math.min(valueScale, MAX_SCALE));
+				}
+			}
+		}
+		scaleFactor = BigDecimal.TEN.pow(scale).longValue();
+
+		final Map<String, Long> weights = new HashMap<>();
+		for (final IFeature feature : config.getFeatureModel().getFeatures()) {
+			long weight = 0;
+			for (final IFeatureAttribute featureAttribute : getAttributes(feature)) {
+				weight += Math.round(((Number) featureAttribute.getValue()).doubleValue() * scaleFactor);
+			}
+			if (weight != 0) {
+				weights.put(feature.getName(), weight);
+			}
+		}
+		return weights;
+	}
+
+	private List<IFeatureAttribute> getAttributes(IFeature feature) {
+		final List<IFeatureAttribute> attributes = new ArrayList<>();
+		if (feature instanceof ExtendedFeature) {
+			for (final IFeatureAttribute featureAttribute : ((ExtendedFeature) feature).getAttributes()) {
+				if (featureAttribute.getName().equals(attribute.getName()) && (featureAttribute.getValue() instanceof Number)
+					&& ((featureAttribute instanceof LongFeatureAttribute) || (featureAttribute instanceof DoubleFeatureAttribute))) {
+					attributes.add(featureAttribute);
+				}
+			}
+		}
+		return attributes;
+	}
+
+	private String toString(long value) {
+		if (scaleFactor == 1) {
+			return Long.toString(value);
+		}
+		return Double.toString((double) value / scaleFactor);
+	}
+
+	/**
+	 * @return the selected feature names of each found configuration, best first
+	 */
+	@Override
+	public Object[] getResult() {
+		Result optimizationResult = result;
+		if (optimizationResult == null) {
+			optimizationResult = computeResult(getKey());
+			result = optimizationResult;
+		}
+		final List<Solution> solutions = optimizationResult.getSolutions();
+		final Object[] selectedFeatures = new Object[solutions.size()];
+		for (int i = 0; i < selectedFeatures.length; i++) {
+			selectedFeatures[i] = solutions.get(i).getSelectedFeatures();
+		}
+		return selectedFeatures;
+	}
+
+	@Override
+	public String getResultString() {
+		final Result optimizationResult = getOptimizationResult();
+		if (optimizationResult == null) {
+			return CALCULATING____;
+		}
+		if (!optimizationResult.isSatisfiable()) {
+			return optimizationResult.isTimeoutReached() ? "timeout" : "no valid configuration";
+		}
+		final String value = toString(optimizationResult.getSolutions().get(0).getValue());
+		if (optimizationResult.isOptimal()) {
+			return value;
+		}
+		return value + " (bound: " + toString(optimizationResult.getBound()) + ")";
+	}
+
+	@Override
+	public Configuration getConfiguration() {
+		return config;
+	}
+
+	@Override
+	public String getHeaderString() {
+		return maximize ? MAXIMUM_LABEL : MINIMUM_LABEL;
+	}
+
+	@Override
+	public String getLabel() {
+		return getHeaderString() + getResultString();
+	}
+
+	@Override
+	public Image getLabelImage() {
+		return null;
+	}
+
+	@Override
+	public boolean hasChildren() {
+		final Result optimizationResult = getOptimizationResult();
+		return (optimizationResult != null) && optimizationResult.isSatisfiable();
+	}
+
+	@Override
+	public List<IOutlineEntry> getChildren() {
+		final List<IOutlineEntry> children = new ArrayList<>();
+		final Result optimizationResult = getOptimizationResult();
+		if (optimizationResult == null) {
+			return children;
+		}
+		final List<Solution> solutions = optimizationResult.getSolutions();
+		for (int i = 0; i < solutions.size(); i++) {
+			children.add(new SolutionEntry(SOLUTION_LABEL + (i + 1) + ": " + toString(solutions.get(i).getValue()), solutions.get(i).getSelectedFeatures()));
+		}
+		return children;
+	}
+
+	@Override
+	public boolean supportsType(Object element) {
+		return attribute instanceof LongFeatureAttribute || attribute instanceof DoubleFeatureAttribute;
+	}
+
+	@Override
+	public void setConfig(Configuration config) {
+		this.config = config;
+		key = null;
+		result = null;
+	}
+
+	/**
+	 * Shows the selected features of one found configuration or the name of one selected feature.
+	 */
+	private static class SolutionEntry implements IOutlineEntry {
+
+		private final String label;
+		private final List<String> selectedFeatures;
+
+		public SolutionEntry(String label, List<String> selectedFeatures) {
+			this.label = label;
+			this.selectedFeatures = selectedFeatures;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public Image getLabelImage() {
+			return null;
+		}
+
+		@Override
+		public boolean hasChildren() {
+			return !selectedFeatures.isEmpty();
+		}
+
+		@Override
+		public List<IOutlineEntry> getChildren() {
+			final List<IOutlineEntry> children = new ArrayList<>();
+			for (final String featureName : selectedFeatures) {
+				children.add(new SolutionEntry(featureName, Collections.<String> emptyList()));
+			}
+			return children;
+		}
+
+		@Override
+		public boolean supportsType(Object element) {
+			return true;
+		}
+
+		@Override
+		public void setConfig(Configuration config) {}
+
+	}
+
+}
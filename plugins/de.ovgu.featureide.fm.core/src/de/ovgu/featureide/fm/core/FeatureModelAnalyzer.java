@@ -45,6 +45,8 @@ import org.prop4j.Not;
 import org.prop4j.Or;
 import org.prop4j.SatSolver;
 import org.prop4j.analyses.FeatureModelAnalysis;
+import org.prop4j.analyses.IncrementalFeatureModelAnalysis;
+import org.prop4j.analyses.RedundantConstraintAnalysis;
 import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
@@ -157,6 +159,17 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 * Defines whether analysis should be performed automatically.
 	 */
 	public boolean runCalculationAutomatically = true;
+	/**
+	 * Defines whether the results of previous analyses should be reused if they are not affected by changes of the feature model. Can be toggled in the
+	 * calculations menu of the feature diagram editor.
+	 */
+	public boolean calculateIncrementally = false;
+	/**
+	 * Defines the number of threads that are used to calculate redundant constraints.
+	 */
+	public int numberOfThreads = RedundantConstraintAnalysis.DEFAULT_NUMBER_OF_THREADS;
+
+	private IncrementalFeatureModelAnalysis incrementalAnalysis;
 
 	/**
 	 * A flag indicating that the calculation should be canceled.
@@ -201,6 +214,8 @@ public class FeatureModelAnalyzer implements IEventListener {
 		calculateRedundantConstraints = oldAnalyzer.calculateRedundantConstraints;
 		calculateTautologyConstraints = oldAnalyzer.calculateTautologyConstraints;
 		runCalculationAutomatically = oldAnalyzer.runCalculationAutomatically;
+		calculateIncrementally = oldAnalyzer.calculateIncrementally;
+		numberOfThreads = oldAnalyzer.numberOfThreads;
 	}
 
 	/**
@@ -595,18 +610,30 @@ public class FeatureModelAnalyzer implements IEventListener {
 	 */
 	public HashMap<Object, Object> analyzeFeatureModel(IMonitor monitor) {
 		this.monitor = monitor == null ? new NullMonitor() : monitor;
-		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		final FeatureModelAnalysis analysis;
+		if (calculateIncrementally) {
+			if (incrementalAnalysis == null) {
+				incrementalAnalysis = new IncrementalFeatureModelAnalysis(fm);
+			}
+			analysis = incrementalAnalysis;
+		} else {
+			// releases the solver of a previous incremental analysis
+			incrementalAnalysis = null;
+			analysis = new FeatureModelAnalysis(fm);
+		}
 		analysis.setCalculateFeatures(calculateFeatures);
 		analysis.setCalculateConstraints(calculateConstraints);
 		analysis.setCalculateRedundantConstraints(calculateRedundantConstraints);
 		analysis.setCalculateTautologyConstraints(calculateTautologyConstraints);
 		analysis.setCalculateDeadConstraints(calculateDeadConstraints);
 		analysis.setCalculateFOConstraints(calculateFOConstraints);
+		analysis.setNumberOfThreads(numberOfThreads);
 		final HashMap<Object, Object> newAttributes = LongRunningWrapper.runMethod(analysis, this.monitor);
 		cachedValidity = analysis.isValid();
-		cachedCoreFeatures = analysis.getCoreFeatures();
-		cachedDeadFeatures = analysis.getDeadFeatures();
-		cachedFalseOptionalFeatures = analysis.getFalseOptionalFeatures();
+		// the lists of an incremental analysis are reused by subsequent runs
+		cachedCoreFeatures = new ArrayList<>(analysis.getCoreFeatures());
+		cachedDeadFeatures = new ArrayList<>(analysis.getDeadFeatures());
+		cachedFalseOptionalFeatures = new ArrayList<>(analysis.getFalseOptionalFeatures());
 		clearExplanations();
 		return newAttributes;
 	}
@@ -624,6 +651,7 @@ public class FeatureModelAnalyzer implements IEventListener {
 		analysis.setCalculateTautologyConstraints(calculateTautologyConstraints);
 		analysis.setCalculateDeadConstraints(calculateDeadConstraints);
 		analysis.setCalculateFOConstraints(calculateFOConstraints);
+		analysis.setNumberOfThreads(numberOfThreads);
 		analysis.updateConstraints();
 		cachedValidity = analysis.isValid();
 	}
@@ -812,10 +840,13 @@ public class FeatureModelAnalyzer implements IEventListener {
 	}
 
 	/**
-	 * Listens to feature model changes. Resets its formula if necessary.
+	 * Listens to feature model changes. Resets its formula if necessary and forwards renamings to the incremental analysis.
 	 */
 	@Override
 	public void propertyChange(FeatureIDEEvent event) {
+		if (incrementalAnalysis != null) {
+			incrementalAnalysis.propertyChange(event);
+		}
 		switch (event.getEventType()) {
 		case ALL_FEATURES_CHANGED_NAME_TYPE: // Required because feature names are used as variable names.
 		case CHILDREN_CHANGED:
@@ -0,0 +1,221 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.base.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent.EventType;
+
+/**
+ * Implementation of {@link IEventManager} that dispatches events asynchronously.<br> Fired events are collected for a certain time window and are then
+ * delivered by a background thread. Within a window, events of a coalesced type (see {@link #setCoalescedEventTypes(Set)}) that have the same source are
+ * merged into a single event, which has the old value of the first and the new value of the last event. All other events are delivered unchanged. Listeners
+ * implementing {@link IBatchEventListener} receive all events of a window with a single call.<br> Use {@link #flush()} to deliver all pending events
+ * immediately.
+ *
+ * @author agent
+ */
+public class CoalescingEventManager extends DefaultEventManager {
+
+	public static final long DEFAULT_WINDOW = 50;
+
+	private static final Set<EventType> DEFAULT_COALESCED_EVENT_TYPES =
+		Collections.unmodifiableSet(EnumSet.of(EventType.MODEL_DATA_CHANGED, EventType.STRUCTURE_CHANGED, EventType.CHILDREN_CHANGED, EventType.REDRAW_DIAGRAM,
+				EventType.REFRESH_ACTIONS, EventType.MODEL_LAYOUT_CHANGED, EventType.LEGEND_LAYOUT_CHANGED, EventType.LOCATION_CHANGED, EventType.ATTRIBUTE_CHANGED));
+
+	private static final ScheduledExecutorService DISPATCHER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable r) {
+			final Thread thread = new Thread(r, "EventDispatcher");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private static final class EventKey {
+
+		private final EventType eventType;
+		private final Object source;
+
+		private EventKey(FeatureIDEEvent event) {
+			eventType = event.getEventType();
+			source = event.getSource();
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * eventType.hashCode()) + ((source == null) ? 0 : source.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final EventKey other = (EventKey) obj;
+			return (eventType == other.eventType) && ((source == null) ? other.source == null : source.equals(other.source));
+		}
+
+	}
+
+	private final Runnable flushTask = new Runnable() {
+
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	private final Object dispatchLock = new Object();
+
+	private List<FeatureIDEEvent> pendingEvents = new ArrayList<>();
+	private boolean flushScheduled = false;
+
+	private volatile long window = DEFAULT_WINDOW;
+	private volatile Set<EventType> coalescedEventTypes = DEFAULT_COALESCED_EVENT_TYPES;
+
+	@Override
+	public void fireEvent(FeatureIDEEvent event) {
+		final boolean scheduleFlush;
+		synchronized (this) {
+			pendingEvents.add(event);
+			scheduleFlush = !flushScheduled;
+			flushScheduled = true;
+		}
+		if (scheduleFlush) {
+			DISPATCHER.schedule(flushTask, window, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Delivers all pending events on the current thread.
+	 */
+	public void flush() {
+		synchronized (dispatchLock) {
+			final List<FeatureIDEEvent> events;
+			synchronized (this) {
+				events = pendingEvents;
+				pendingEvents = new ArrayList<>();
+				flushScheduled = false;
+			}
+			if (!events.isEmpty()) {
+				dispatch(coalesce(events));
+			}
+		}
+	}
+
+	protected void dispatch(List<FeatureIDEEvent> events) {
+		final List<FeatureIDEEvent> unmodifiableEvents = Collections.unmodifiableList(events);
+		for (final IEventListener listener : listenerList) {
+			if (listener instanceof IBatchEventListener) {
+				try {
+					((IBatchEventListener) listener).propertyChange(unmodifiableEvents);
+				} catch (final Throwable e) {
+					Logger.logError(e);
+				}
+			} else {
+				for (final FeatureIDEEvent event : events) {
+					callListener(event, listener);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Merges all events of a coalesced type that have the same source. The merged event replaces the last of these events.
+	 *
+	 * @param events the fired events
+	 * @return the remaining events
+	 */
+	protected List<FeatureIDEEvent> coalesce(List<FeatureIDEEvent> events) {
+		final Set<EventType> coalescedEventTypes = this.coalescedEventTypes;
+		final Map<EventKey, FeatureIDEEvent> firstEvents = new HashMap<>();
+		final Map<EventKey, FeatureIDEEvent> lastEvents = new HashMap<>();
+		int coalescedEventCount = 0;
+		for (final FeatureIDEEvent event : events) {
+			if (coalescedEventTypes.contains(event.getEventType())) {
+				coalescedEventCount++;
+				final EventKey key = new EventKey(event);
+				if (!firstEvents.containsKey(key)) {
+					firstEvents.put(key, event);
+				}
+				lastEvents.put(key, event);
+			}
+		}
+		if (coalescedEventCount == firstEvents.size()) {
+			return events;
+		}
+
+		final List<FeatureIDEEvent> coalescedEvents = new ArrayList<>(events.size());
+		for (final FeatureIDEEvent event : events) {
+			if (coalescedEventTypes.contains(event.getEventType())) {
+				final EventKey key = new EventKey(event);
+				if (lastEvents.get(key) == event) {
+					final FeatureIDEEvent firstEvent = firstEvents.get(key);
+					coalescedEvents.add((firstEvent == event) ? event
+						: new FeatureIDEEvent(event.getSource(), event.getEventType(), firstEvent.getOldValue(), event.getNewValue()));
+				}
+			} else {
+				coalescedEvents.add(event);
+			}
+		}
+		return coalescedEvents;
+	}
+
+	public long getWindow() {
+		return window;
+	}
+
+	/**
+	 * @param window the time in milliseconds for which events are collected before they are delivered
+	 */
+	public void setWindow(long window) {
+		this.window = window;
+	}
+
+	public Set<EventType> getCoalescedEventTypes() {
+		return coalescedEventTypes;
+	}
+
+	/**
+	 * @param coalescedEventTypes the types of events that are merged if they have the same source
+	 */
+	public void setCoalescedEventTypes(Set<EventType> coalescedEventTypes) {
+		this.coalescedEventTypes = coalescedEventTypes.isEmpty() ? Collections.<EventType> emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(
+				coalescedEventTypes));
+	}
+
+}
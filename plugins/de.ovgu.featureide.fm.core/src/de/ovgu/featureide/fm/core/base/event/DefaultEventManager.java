@@ -20,29 +20,27 @@
  */
 package de.ovgu.featureide.fm.core.base.event;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.ovgu.featureide.fm.core.Logger;
 
 /**
- * Default implementation of {@link IEventManager}.
+ * Default implementation of {@link IEventManager}. Calls all listeners on the firing thread.<br> The listeners are stored in a copy-on-write list, such that
+ * firing an event never blocks adding or removing a listener (and vice versa).
  *
  * @author Sebastian Krieter
  */
 public class DefaultEventManager implements IEventManager, IEventListener {
 
-	protected final List<IEventListener> listenerList = new LinkedList<>();
+	protected final CopyOnWriteArrayList<IEventListener> listenerList = new CopyOnWriteArrayList<>();
 
 	@Override
-	public synchronized void addListener(IEventListener listener) {
-		if (!listenerList.contains(listener)) {
-			listenerList.add(listener);
-		}
+	public void addListener(IEventListener listener) {
+		listenerList.addIfAbsent(listener);
 	}
 
 	@Override
-	public synchronized void fireEvent(FeatureIDEEvent event) {
+	public void fireEvent(FeatureIDEEvent event) {
 		for (final IEventListener listener : listenerList) {
 			callListener(event, listener);
 		}
@@ -57,7 +55,7 @@ public class DefaultEventManager implements IEventManager, IEventListener {
 	}
 
 	@Override
-	public synchronized void removeListener(IEventListener listener) {
+	public void removeListener(IEventListener listener) {
 		listenerList.remove(listener);
 	}
 
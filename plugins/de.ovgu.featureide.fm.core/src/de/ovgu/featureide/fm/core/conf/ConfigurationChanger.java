@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.conf;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -122,11 +123,11 @@ public class ConfigurationChanger implements IConfigurationChanger, IConfigurati
 		}
 	}
 
-	public class CountSolutionsMethod implements LongRunningMethod<Long> {
+	public class CountSolutionsMethod implements LongRunningMethod<BigInteger> {
 
 		@Override
-		public Long execute(IMonitor monitor) {
-			return new SatSolver(node, 1000, false).countSolutions(getCurrentLiterals(true));
+		public BigInteger execute(IMonitor monitor) {
+			return BigInteger.valueOf(new SatSolver(node, 1000, false).countSolutions(getCurrentLiterals(true)));
 		}
 	}
 
@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.conf;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -308,7 +309,7 @@ public class ConfigurationFG extends Configuration {
 	 * @see #number(long)
 	 */
 	@Override
-	public long number() {
+	public BigInteger number() {
 		return LongRunningWrapper.runMethod(propagator.number(250));
 	}
 
@@ -316,10 +317,10 @@ public class ConfigurationFG extends Configuration {
 	 * Counts the number of possible solutions.
 	 *
 	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value (if a timeout occured) that
-	 *         indicates that there are more solutions than the absolute value
+	 *         indicates that there are more solutions than the absolute value minus one
 	 */
 	@Override
-	public long number(long timeout) {
+	public BigInteger number(long timeout) {
 		return LongRunningWrapper.runMethod(propagator.number(timeout));
 	}
 
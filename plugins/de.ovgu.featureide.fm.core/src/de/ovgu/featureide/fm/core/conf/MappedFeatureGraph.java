@@ -0,0 +1,168 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.conf;
+
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.ovgu.featureide.fm.core.io.FeatureGraphFormat;
+
+/**
+ * Read-only feature graph that accesses its edges directly from a buffer in the binary format of {@link FeatureGraphFormat}. Only the index of the
+ * features is decoded, the edges are looked up on demand.<br> When serialized, the graph is replaced by a
+ * {@link SparseFeatureGraph}.
+ *
+ * @author agent
+ */
+public class MappedFeatureGraph extends AFeatureGraph {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient IntBuffer rowStarts;
+	private final transient IntBuffer targets;
+	private final transient ByteBuffer edges;
+	private final transient ByteBuffer names;
+
+	private transient Map<String, Integer> variables = null;
+
+	/**
+	 * @param index the index of each variable within the graph
+	 * @param rowStarts the position of the first edge of each row followed by the total number of edges
+	 * @param targets the target feature of each edge
+	 * @param edges the value of each edge
+	 * @param names the number of variable names followed by the length and the UTF-8 encoding of each name
+	 */
+	public MappedFeatureGraph(int[] index, IntBuffer rowStarts, IntBuffer targets, ByteBuffer edges, ByteBuffer names) {
+		super(null, index);
+		this.rowStarts = rowStarts;
+		this.targets = targets;
+		this.edges = edges;
+		this.names = names;
+	}
+
+	@Override
+	public boolean setEdge(int from, int to, byte edgeType) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void copyValues(IFeatureGraph otherGraph) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public byte getEdge(int fromIndex, int toIndex) {
+		int low = rowStarts.get(fromIndex);
+		int high = rowStarts.get(fromIndex + 1) - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int target = targets.get(mid);
+			if (target < toIndex) {
+				low = mid + 1;
+			} else if (target > toIndex) {
+				high = mid - 1;
+			} else {
+				return edges.get(mid);
+			}
+		}
+		return EDGE_NONE;
+	}
+
+	@Override
+	public byte getValue(int fromIndex, int toIndex, boolean fromSelected) {
+		return getValue(getEdge(fromIndex, toIndex), fromSelected);
+	}
+
+	@Override
+	public byte getValueInternal(int fromIndex, int toIndex, boolean fromSelected) {
+		final int internalFrom = index[fromIndex];
+		final int internalTo = index[toIndex];
+		if ((internalFrom < 0) || (internalTo < 0)) {
+			return -1;
+		}
+		return getValue(getEdge(internalFrom, internalTo), fromSelected);
+	}
+
+	/**
+	 * @param fromIndex the source feature
+	 * @return the number of edges starting at the source feature
+	 */
+	public int getNumberOfEdges(int fromIndex) {
+		return rowStarts.get(fromIndex + 1) - rowStarts.get(fromIndex);
+	}
+
+	/**
+	 * @param fromIndex the source feature
+	 * @param position the position of the edge in the row of the source feature (between 0 and {@link #getNumberOfEdges(int)})
+	 * @return the target feature of the edge
+	 */
+	public int getTarget(int fromIndex, int position) {
+		return targets.get(rowStarts.get(fromIndex) + position);
+	}
+
+	/**
+	 * @param fromIndex the source feature
+	 * @param position the position of the edge in the row of the source feature (between 0 and {@link #getNumberOfEdges(int)})
+	 * @return the value of the edge
+	 */
+	public byte getEdgeAt(int fromIndex, int position) {
+		return edges.get(rowStarts.get(fromIndex) + position);
+	}
+
+	/**
+	 * Uses the stored variable names, if no {@link org.prop4j.solver.SatInstance} is set.
+	 */
+	@Override
+	public int getFeatureIndex(String name) {
+		if (satInstance != null) {
+			return super.getFeatureIndex(name);
+		}
+		final Integer variable = getVariables().get(name);
+		if (variable == null) {
+			throw new IllegalArgumentException("Unknown feature " + name);
+		}
+		return index[variable];
+	}
+
+	private synchronized Map<String, Integer> getVariables() {
+		if (variables == null) {
+			final ByteBuffer buffer = names.duplicate();
+			final int numberOfNames = buffer.getInt();
+			variables = new HashMap<>((numberOfNames << 2) / 3);
+			final Charset charset = Charset.forName("UTF-8");
+			for (int i = 0; i < numberOfNames; i++) {
+				final byte[] name = new byte[buffer.getInt()];
+				buffer.get(name);
+				variables.put(new String(name, charset), i);
+			}
+		}
+		return variables;
+	}
+
+	private Object writeReplace() throws ObjectStreamException {
+		return new SparseFeatureGraph(this);
+	}
+
+}
@@ -0,0 +1,221 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.conf;
+
+import java.util.Arrays;
+
+import org.prop4j.solver.SatInstance;
+
+/**
+ * Feature graph that only stores existing edges. Each row holds the target indexes of its edges in ascending order together with the edge values. Thus,
+ * the required memory grows with the number of edges instead of the squared number of features.
+ *
+ * @author agent
+ */
+public class SparseFeatureGraph extends AFeatureGraph {
+
+	private static final long serialVersionUID = -3520869478183256327L;
+
+	private static final int[] EMPTY_TARGETS = new int[0];
+	private static final byte[] EMPTY_EDGES = new byte[0];
+
+	private int[][] targets;
+	private byte[][] edges;
+	private int[] rowSizes;
+
+	public SparseFeatureGraph(SatInstance satInstance, int[] index) {
+		super(satInstance, index);
+		targets = new int[size][];
+		edges = new byte[size][];
+		rowSizes = new int[size];
+		Arrays.fill(targets, EMPTY_TARGETS);
+		Arrays.fill(edges, EMPTY_EDGES);
+	}
+
+	public SparseFeatureGraph() {
+		super();
+	}
+
+	/**
+	 * Creates a sparse copy of another feature graph.
+	 *
+	 * @param otherGraph the graph to copy
+	 */
+	public SparseFeatureGraph(IFeatureGraph otherGraph) {
+		this(otherGraph.getSatInstance(), otherGraph.getIndex());
+		copyEdges(otherGraph);
+	}
+
+	@Override
+	public void copyValues(IFeatureGraph otherGraph) {
+		super.copyValues(otherGraph);
+		targets = new int[size][];
+		edges = new byte[size][];
+		rowSizes = new int[size];
+		Arrays.fill(targets, EMPTY_TARGETS);
+		Arrays.fill(edges, EMPTY_EDGES);
+		copyEdges(otherGraph);
+	}
+
+	/**
+	 * Copies the edges of another graph. Sparse and mapped graphs are copied row by row, such that only their stored edges are visited.
+	 */
+	private void copyEdges(IFeatureGraph otherGraph) {
+		if (otherGraph instanceof SparseFeatureGraph) {
+			final SparseFeatureGraph sparseGraph = (SparseFeatureGraph) otherGraph;
+			for (int i = 0; i < size; i++) {
+				final int rowSize = sparseGraph.rowSizes[i];
+				if (rowSize > 0) {
+					targets[i] = Arrays.copyOf(sparseGraph.targets[i], rowSize);
+					edges[i] = Arrays.copyOf(sparseGraph.edges[i], rowSize);
+					rowSizes[i] = rowSize;
+				}
+			}
+		} else if (otherGraph instanceof MappedFeatureGraph) {
+			final MappedFeatureGraph mappedGraph = (MappedFeatureGraph) otherGraph;
+			for (int i = 0; i < size; i++) {
+				final int rowSize = mappedGraph.getNumberOfEdges(i);
+				if (rowSize > 0) {
+					final int[] rowTargets = new int[rowSize];
+					final byte[] rowEdges = new byte[rowSize];
+					for (int j = 0; j < rowSize; j++) {
+						rowTargets[j] = mappedGraph.getTarget(i, j);
+						rowEdges[j] = mappedGraph.getEdgeAt(i, j);
+					}
+					targets[i] = rowTargets;
+					edges[i] = rowEdges;
+					rowSizes[i] = rowSize;
+				}
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					final byte edge = otherGraph.getEdge(i, j);
+					if (edge != EDGE_NONE) {
+						// targets are visited in ascending order, so each edge is appended to its row
+						insert(i, rowSizes[i], j, edge);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean setEdge(int from, int to, byte edgeType) {
+		if (from == to) {
+			return false;
+		}
+		final int position = Arrays.binarySearch(targets[from], 0, rowSizes[from], to);
+		final byte oldValue = (position >= 0) ? edges[from][position] : EDGE_NONE;
+		final byte newValue = getNewEdge(oldValue, edgeType);
+		if (oldValue == newValue) {
+			return false;
+		}
+		if (position < 0) {
+			insert(from, -1 - position, to, newValue);
+		} else if (newValue == EDGE_NONE) {
+			final int rowSize = --rowSizes[from];
+			System.arraycopy(targets[from], position + 1, targets[from], position, rowSize - position);
+			System.arraycopy(edges[from], position + 1, edges[from], position, rowSize - position);
+		} else {
+			edges[from][position] = newValue;
+		}
+		return true;
+	}
+
+	private void insert(int from, int position, int to, byte edge) {
+		final int rowSize = rowSizes[from]++;
+		int[] rowTargets = targets[from];
+		byte[] rowEdges = edges[from];
+		if (rowSize == rowTargets.length) {
+			final int newLength = Math.min(size, Math.max(4, rowSize + (rowSize >> 1)));
+			rowTargets = Arrays.copyOf(rowTargets, newLength);
+			rowEdges = Arrays.copyOf(rowEdges, newLength);
+			targets[from] = rowTargets;
+			edges[from] = rowEdges;
+		}
+		System.arraycopy(rowTargets, position, rowTargets, position + 1, rowSize - position);
+		System.arraycopy(rowEdges, position, rowEdges, position + 1, rowSize - position);
+		rowTargets[position] = to;
+		rowEdges[position] = edge;
+	}
+
+	@Override
+	public byte getEdge(int fromIndex, int toIndex) {
+		final int position = Arrays.binarySearch(targets[fromIndex], 0, rowSizes[fromIndex], toIndex);
+		return (position >= 0) ? edges[fromIndex][position] : EDGE_NONE;
+	}
+
+	@Override
+	public byte getValue(int fromIndex, int toIndex, boolean fromSelected) {
+		return getValue(getEdge(fromIndex, toIndex), fromSelected);
+	}
+
+	@Override
+	public byte getValueInternal(int fromIndex, int toIndex, boolean fromSelected) {
+		final int internalFrom = index[fromIndex];
+		final int internalTo = index[toIndex];
+		if ((internalFrom < 0) || (internalTo < 0)) {
+			return -1;
+		}
+		return getValue(getEdge(internalFrom, internalTo), fromSelected);
+	}
+
+	/**
+	 * @param fromIndex the source feature
+	 * @return the number of edges starting at the source feature
+	 */
+	public int getNumberOfEdges(int fromIndex) {
+		return rowSizes[fromIndex];
+	}
+
+	/**
+	 * @param fromIndex the source feature
+	 * @param position the position of the edge in the row of the source feature (between 0 and {@link #getNumberOfEdges(int)})
+	 * @return the target feature of the edge
+	 */
+	public int getTarget(int fromIndex, int position) {
+		return targets[fromIndex][position];
+	}
+
+	/**
+	 * @param fromIndex the source feature
+	 * @param position the position of the edge in the row of the source feature (between 0 and {@link #getNumberOfEdges(int)})
+	 * @return the value of the edge
+	 */
+	public byte getEdgeAt(int fromIndex, int position) {
+		return edges[fromIndex][position];
+	}
+
+	/**
+	 * Releases unused capacity of all rows.
+	 */
+	public void trimToSize() {
+		for (int i = 0; i < size; i++) {
+			final int rowSize = rowSizes[i];
+			if (rowSize < targets[i].length) {
+				targets[i] = (rowSize == 0) ? EMPTY_TARGETS : Arrays.copyOf(targets[i], rowSize);
+				edges[i] = (rowSize == 0) ? EMPTY_EDGES : Arrays.copyOf(edges[i], rowSize);
+			}
+		}
+	}
+
+}
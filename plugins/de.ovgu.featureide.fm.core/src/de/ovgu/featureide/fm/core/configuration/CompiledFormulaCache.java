@@ -0,0 +1,178 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.prop4j.solver.DecisionDNNF;
+import org.prop4j.solver.DecisionDNNFCompiler;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent;
+import de.ovgu.featureide.fm.core.base.event.IEventListener;
+import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
+
+/**
+ * Caches the {@link DecisionDNNF compiled formulas} of feature models, such that all configurations of a feature model can share them.<br> An entry is only
+ * returned for a formula that is equal to the formula it was compiled from. Entries of a feature model are removed when the {@link FeatureModelManager} of
+ * the feature model reports changed model data.
+ *
+ * @author agent
+ */
+public final class CompiledFormulaCache {
+
+	private static final int MAX_ENTRIES_PER_MODEL = 4;
+
+	private static final CompiledFormulaCache INSTANCE = new CompiledFormulaCache();
+
+	public static CompiledFormulaCache getInstance() {
+		return INSTANCE;
+	}
+
+	private static final class Entry {
+
+		private final SatInstance satInstance;
+		private final DecisionDNNF compiledFormula;
+
+		private Entry(SatInstance satInstance, DecisionDNNF compiledFormula) {
+			this.satInstance = satInstance;
+			this.compiledFormula = compiledFormula;
+		}
+
+	}
+
+	private final IEventListener invalidationListener = new IEventListener() {
+
+		@Override
+		public void propertyChange(FeatureIDEEvent event) {
+			switch (event.getEventType()) {
+			case MODEL_DATA_CHANGED:
+			case MODEL_DATA_LOADED:
+			case MODEL_DATA_OVERRIDDEN:
+			case MODEL_DATA_SAVED:
+				if (event.getSource() instanceof IFeatureModel) {
+					invalidate((IFeatureModel) event.getSource());
+				}
+				break;
+			default:
+				break;
+			}
+		}
+	};
+
+	private final Map<IFeatureModel, List<Entry>> entries = new WeakHashMap<>();
+	private final Set<FeatureModelManager> observedManagers = Collections.newSetFromMap(new WeakHashMap<FeatureModelManager, Boolean>());
+
+	private CompiledFormulaCache() {}
+
+	/**
+	 * Returns the compiled form of the given formula. If the formula is not yet contained in the cache, it will be compiled.
+	 *
+	 * @param featureModel the feature model from which the formula was created
+	 * @param satInstance the formula
+	 * @param timeout the maximum time in milliseconds for the compilation (0 means no timeout)
+	 * @return the compiled formula or {@code null}, if the formula could not be compiled within the given time
+	 */
+	public DecisionDNNF getCompiledFormula(IFeatureModel featureModel, SatInstance satInstance, long timeout) {
+		synchronized (this) {
+			final List<Entry> modelEntries = entries.get(featureModel);
+			if (modelEntries != null) {
+				for (final Entry entry : modelEntries) {
+					if (isEqual(entry.satInstance, satInstance)) {
+						return entry.compiledFormula;
+					}
+				}
+			}
+		}
+
+		DecisionDNNF compiledFormula;
+		final DecisionDNNFCompiler compiler = new DecisionDNNFCompiler(satInstance);
+		compiler.setTimeout(timeout);
+		try {
+			compiledFormula = compiler.compile();
+		} catch (final TimeoutException e) {
+			Logger.logWarning("Could not compile formula of feature model " + featureModel.getId() + ": " + e.getMessage());
+			compiledFormula = null;
+		}
+
+		synchronized (this) {
+			List<Entry> modelEntries = entries.get(featureModel);
+			if (modelEntries == null) {
+				modelEntries = new ArrayList<>(MAX_ENTRIES_PER_MODEL);
+				entries.put(featureModel, modelEntries);
+			} else if (modelEntries.size() == MAX_ENTRIES_PER_MODEL) {
+				modelEntries.remove(0);
+			}
+			// a failed compilation is stored as well to avoid repeated attempts
+			modelEntries.add(new Entry(satInstance, compiledFormula));
+			observe(featureModel);
+		}
+		return compiledFormula;
+	}
+
+	/**
+	 * Removes all compiled formulas of the given feature model.
+	 */
+	public synchronized void invalidate(IFeatureModel featureModel) {
+		entries.remove(featureModel);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	private void observe(IFeatureModel featureModel) {
+		final Path sourceFile = featureModel.getSourceFile();
+		if (sourceFile != null) {
+			final FeatureModelManager manager = FeatureModelManager.getInstance(sourceFile, false);
+			if ((manager != null) && observedManagers.add(manager)) {
+				manager.addListener(invalidationListener);
+			}
+		}
+	}
+
+	private static boolean isEqual(SatInstance satInstance1, SatInstance satInstance2) {
+		if (satInstance1 == satInstance2) {
+			return true;
+		}
+		final int numberOfVariables = satInstance1.getNumberOfVariables();
+		if (numberOfVariables != satInstance2.getNumberOfVariables()) {
+			return false;
+		}
+		for (int i = 1; i <= numberOfVariables; i++) {
+			if (!satInstance1.getVariableObject(i).equals(satInstance2.getVariableObject(i))) {
+				return false;
+			}
+		}
+		return Arrays.equals(satInstance1.getCnf().getChildren(), satInstance2.getCnf().getChildren());
+	}
+
+}
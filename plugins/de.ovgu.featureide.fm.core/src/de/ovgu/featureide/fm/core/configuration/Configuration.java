@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -49,6 +50,7 @@ public class Configuration implements Cloneable {
 	public final static int PARAM_IGNOREABSTRACT = 0x02;
 	public final static int PARAM_PROPAGATE = 0x04;
 	public final static int PARAM_LAZY = 0x08;
+	public final static int PARAM_COMPILED = 0x10;
 
 	final ArrayList<SelectableFeature> features = new ArrayList<SelectableFeature>();
 	final Hashtable<String, SelectableFeature> table = new Hashtable<String, SelectableFeature>();
@@ -91,7 +93,7 @@ public class Configuration implements Cloneable {
 	public Configuration(Configuration configuration, IFeatureModel featureModel) {
 		this.featureModel = featureModel;
 		ignoreAbstractFeatures = configuration.ignoreAbstractFeatures;
-		propagator = new ConfigurationPropagator(this);
+		propagator = new ConfigurationPropagator(this, configuration.propagator.getBackend());
 		propagate = false;
 		root = initRoot();
 
@@ -121,13 +123,14 @@ public class Configuration implements Cloneable {
 	 *
 	 * @param featureModel the corresponding feature model.
 	 * @param options one or more of:</br> &nbsp;&nbsp;&nbsp;{@link #PARAM_IGNOREABSTRACT},</br> &nbsp;&nbsp;&nbsp;{@link #PARAM_LAZY},</br>
-	 *        &nbsp;&nbsp;&nbsp;{@link #PARAM_PROPAGATE}
+	 *        &nbsp;&nbsp;&nbsp;{@link #PARAM_PROPAGATE},</br> &nbsp;&nbsp;&nbsp;{@link #PARAM_COMPILED} (see {@link ConfigurationPropagator.Backend#COMPILED})
 	 */
 	public Configuration(IFeatureModel featureModel, int options) {
 		this.featureModel = featureModel;
 		ignoreAbstractFeatures = (options & PARAM_IGNOREABSTRACT) != 0;
 		propagate = (options & PARAM_PROPAGATE) != 0;
-		propagator = new ConfigurationPropagator(this);
+		propagator = new ConfigurationPropagator(this,
+				(options & PARAM_COMPILED) != 0 ? ConfigurationPropagator.Backend.COMPILED : ConfigurationPropagator.Backend.SAT);
 		root = initRoot();
 
 		if ((options & PARAM_LAZY) == 0) {
@@ -316,7 +319,7 @@ public class Configuration implements Cloneable {
 	 * @return the values of number(250)
 	 * @see #number(long)
 	 */
-	public long number() {
+	public BigInteger number() {
 		return LongRunningWrapper.runMethod(propagator.number(250));
 	}
 
@@ -324,9 +327,9 @@ public class Configuration implements Cloneable {
 	 * Counts the number of possible solutions.
 	 *
 	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value (if a timeout occured) that
-	 *         indicates that there are more solutions than the absolute value
+	 *         indicates that there are more solutions than the absolute value minus one
 	 */
-	public long number(long timeout) {
+	public BigInteger number(long timeout) {
 		return LongRunningWrapper.runMethod(propagator.number(timeout));
 	}
 
@@ -0,0 +1,218 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.ISatSolver;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.ConfigFormatManager;
+import de.ovgu.featureide.fm.core.editing.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.editing.FeatureModelFormulaCache;
+import de.ovgu.featureide.fm.core.io.ProblemList;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.SyncMonitor;
+
+/**
+ * Reads and validates many configuration files of the same feature model at once. In contrast to {@link Configuration#isValid()}, the solver is only
+ * created once and each configuration is checked as a set of assumptions. The selections of all concrete features are assumed, as done by
+ * {@link Configuration#isValid()} for a configuration that does not ignore abstract features. Files are read and checked by several workers, each owning
+ * a copy of the solver.
+ *
+ * @author agent
+ */
+public class ConfigurationBatchValidator implements LongRunningMethod<SelectionMatrix> {
+
+	public static final int DEFAULT_NUMBER_OF_THREADS = Runtime.getRuntime().availableProcessors();
+
+	private class Worker implements Callable<Void> {
+
+		private final Configuration configuration = new Configuration(featureModel, Configuration.PARAM_LAZY | Configuration.PARAM_IGNOREABSTRACT);
+		private final SelectableFeature[] variableFeatures = getSelectableFeatures(variableNames);
+		private final SelectableFeature[] columnFeatures = getSelectableFeatures(matrix.getFeatures());
+
+		private final ISatSolver workerSolver;
+		private final AtomicInteger nextRow;
+		private final IMonitor monitor;
+
+		public Worker(ISatSolver workerSolver, AtomicInteger nextRow, IMonitor monitor) {
+			this.workerSolver = workerSolver;
+			this.nextRow = nextRow;
+			this.monitor = monitor;
+		}
+
+		private SelectableFeature[] getSelectableFeatures(List<String> names) {
+			final SelectableFeature[] selectableFeatures = new SelectableFeature[names.size()];
+			for (int i = 0; i < selectableFeatures.length; i++) {
+				selectableFeatures[i] = configuration.getSelectablefeature(names.get(i));
+			}
+			return selectableFeatures;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			final int numberOfRows = matrix.getNumberOfConfigurations();
+			for (int row = nextRow.getAndIncrement(); row < numberOfRows; row = nextRow.getAndIncrement()) {
+				final ProblemList problems = SimpleFileHandler.load(matrix.getConfigurations().get(row), configuration, ConfigFormatManager.getInstance());
+				matrix.setProblems(row, problems);
+				for (int column = 0; column < columnFeatures.length; column++) {
+					final SelectableFeature feature = columnFeatures[column];
+					if ((feature != null) && (feature.getSelection() == Selection.SELECTED)) {
+						matrix.setSelected(row, column);
+					}
+				}
+				if (isValid()) {
+					matrix.setValid(row);
+				}
+				monitor.step();
+			}
+			return null;
+		}
+
+		private boolean isValid() {
+			if (workerSolver == null) {
+				return false;
+			}
+			for (int i = 0; i < variables.length; i++) {
+				final int variable = variables[i];
+				workerSolver.assignmentPush((variableFeatures[i].getSelection() == Selection.SELECTED) ? variable : -variable);
+			}
+			final SatResult satResult = workerSolver.isSatisfiable();
+			workerSolver.assignmentClear(0);
+			switch (satResult) {
+			case FALSE:
+			case TIMEOUT:
+				return false;
+			case TRUE:
+				return true;
+			default:
+				throw new AssertionError(satResult);
+			}
+		}
+
+	}
+
+	private final IFeatureModel featureModel;
+	private final List<Path> configurations;
+	private final List<String> features;
+
+	private int numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+
+	private SelectionMatrix matrix;
+	private List<String> variableNames;
+	private int[] variables;
+
+	/**
+	 * @param featureModel the feature model of all configurations
+	 * @param configurations the paths of the configuration files
+	 * @param features the names of the features that are stored in the resulting selection matrix
+	 */
+	public ConfigurationBatchValidator(IFeatureModel featureModel, List<Path> configurations, List<String> features) {
+		this.featureModel = featureModel;
+		this.configurations = configurations;
+		this.features = features;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	@Override
+	public SelectionMatrix execute(IMonitor monitor) throws Exception {
+		matrix = new SelectionMatrix(configurations, features);
+		monitor.setRemainingWork(configurations.size());
+		if (configurations.isEmpty()) {
+			return matrix;
+		}
+
+		final FeatureModelFormula formula = FeatureModelFormulaCache.getInstance().getFormula(featureModel);
+		final SatInstance satInstance = formula.getSatInstance();
+		variableNames = new ArrayList<>();
+		for (final String name : formula.getVariables()) {
+			final IFeature feature = featureModel.getFeature(name);
+			if ((feature != null) && feature.getStructure().isConcrete()) {
+				variableNames.add(name);
+			}
+		}
+		variables = new int[variableNames.size()];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = satInstance.getVariable(variableNames.get(i));
+		}
+		BasicSolver solver;
+		try {
+			solver = new BasicSolver(satInstance);
+		} catch (final ContradictionException e) {
+			// void feature model, every configuration is invalid
+			solver = null;
+		}
+
+		final AtomicInteger nextRow = new AtomicInteger();
+		final IMonitor syncMonitor = new SyncMonitor(monitor);
+		final int numberOfWorkers = Math.max(1, Math.min(numberOfThreads, configurations.size()));
+		if (numberOfWorkers == 1) {
+			new Worker(solver, nextRow, syncMonitor).call();
+		} else {
+			final List<Worker> workers = new ArrayList<>(numberOfWorkers);
+			workers.add(new Worker(solver, nextRow, syncMonitor));
+			for (int i = 1; i < numberOfWorkers; i++) {
+				workers.add(new Worker((solver != null) ? solver.clone() : null, nextRow, syncMonitor));
+			}
+			final ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+			try {
+				for (final Future<Void> future : executor.invokeAll(workers)) {
+					try {
+						future.get();
+					} catch (final ExecutionException e) {
+						final Throwable cause = e.getCause();
+						if (cause instanceof Exception) {
+							throw (Exception) cause;
+						}
+						throw e;
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		return matrix;
+	}
+
+}
@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -39,6 +40,7 @@ import org.prop4j.analyses.GetSolutionAnalysis;
 import org.prop4j.analyses.RedundantAnalysis;
 import org.prop4j.analyses.ResolveAnalysis;
 import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.DecisionDNNF;
 import org.prop4j.solver.ISatSolver.SatResult;
 import org.prop4j.solver.SatInstance;
 import org.sat4j.specs.ContradictionException;
@@ -86,6 +88,24 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 				return false;
 			}
 
+			final List<Integer> literals = new ArrayList<>();
+			for (final SelectableFeature feature : configuration.features) {
+				final IFeatureStructure structure = feature.getFeature().getStructure();
+				if ((includeUndefinedFeatures || (feature.getSelection() != Selection.UNDEFINED)) && (includeHiddenFeatures || !structure.hasHiddenParent())
+					&& (configuration.ignoreAbstractFeatures || structure.isConcrete())) {
+					final int variable = rootNode.getVariable(feature.getFeature().getName());
+					literals.add((feature.getSelection() == Selection.SELECTED) ? variable : -variable);
+				}
+			}
+
+			if (compiledFormula != null) {
+				final int[] assumptions = new int[literals.size()];
+				for (int i = 0; i < assumptions.length; i++) {
+					assumptions[i] = literals.get(i);
+				}
+				return compiledFormula.isSatisfiable(assumptions);
+			}
+
 			final BasicSolver solver;
 			try {
 				solver = new BasicSolver(rootNode);
@@ -93,14 +113,8 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 				Logger.logError(e);
 				return false;
 			}
-
-			for (final SelectableFeature feature : configuration.features) {
-				final IFeatureStructure structure = feature.getFeature().getStructure();
-				if ((includeUndefinedFeatures || (feature.getSelection() != Selection.UNDEFINED)) && (includeHiddenFeatures || !structure.hasHiddenParent())
-					&& (configuration.ignoreAbstractFeatures || structure.isConcrete())) {
-					final int variable = rootNode.getVariable(feature.getFeature().getName());
-					solver.assignmentPush((feature.getSelection() == Selection.SELECTED) ? variable : -variable);
-				}
+			for (final Integer literal : literals) {
+				solver.assignmentPush(literal);
 			}
 
 			final SatResult satResult = solver.isSatisfiable();
@@ -156,7 +170,7 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 
 	}
 
-	public class CountSolutionsMethod implements LongRunningMethod<Long> {
+	public class CountSolutionsMethod implements LongRunningMethod<BigInteger> {
 
 		private final long timeout;
 
@@ -165,9 +179,9 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		}
 
 		@Override
-		public Long execute(IMonitor monitor) {
+		public BigInteger execute(IMonitor monitor) {
 			if (rootNode == null) {
-				return 0L;
+				return BigInteger.ZERO;
 			}
 			final List<Literal> definedFeatures = new ArrayList<>();
 
@@ -178,10 +192,20 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 				}
 			}
 
+			if (backend == Backend.COMPILED) {
+				if (compiledFormulaWithoutHidden == null) {
+					compiledFormulaWithoutHidden =
+						CompiledFormulaCache.getInstance().getCompiledFormula(configuration.getFeatureModel(), rootNodeWithoutHidden, COMPILATION_TIMEOUT);
+				}
+				if (compiledFormulaWithoutHidden != null) {
+					return compiledFormulaWithoutHidden.countSolutions(rootNodeWithoutHidden.convertToInt(definedFeatures));
+				}
+			}
+
 			final CountSolutionAnalysis analysis = new CountSolutionAnalysis(rootNodeWithoutHidden, timeout);
 			analysis.setAssumptions(rootNodeWithoutHidden.convertToInt(definedFeatures));
-			final Long result = LongRunningWrapper.runMethod(analysis);
-			return result == null ? 0 : result;
+			final BigInteger result = LongRunningWrapper.runMethod(analysis);
+			return result == null ? BigInteger.ZERO : result;
 		}
 	}
 
@@ -499,6 +523,9 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 				new SatInstance(buildThread1.getResults(), Functional.mapToList(features, new InverseFilter<>(filter1), FeatureUtils.GET_FEATURE_NAME));
 			rootNode = new SatInstance(buildThread2.getResults(),
 					Functional.mapToList(features, filter2 == null ? null : new InverseFilter<>(filter2), FeatureUtils.GET_FEATURE_NAME));
+			if (backend == Backend.COMPILED) {
+				compiledFormula = CompiledFormulaCache.getInstance().getCompiledFormula(featureModel, rootNode, COMPILATION_TIMEOUT);
+			}
 			return null;
 		}
 
@@ -544,10 +571,16 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 			workMonitor.setRemainingWork(manualLiterals.size() + 1);
 			Collections.reverse(manualLiterals);
 
-			final ConditionallyCoreDeadAnalysis analysis = new ConditionallyCoreDeadAnalysis(rootNode);
 			final int[] intLiterals = rootNode.convertToInt(manualLiterals);
-			analysis.setAssumptions(intLiterals);
-			final int[] impliedFeatures = LongRunningWrapper.runMethod(analysis, workMonitor.subTask(1));
+			final int[] impliedFeatures;
+			if (compiledFormula != null) {
+				impliedFeatures = compiledFormula.getImpliedLiterals(intLiterals);
+				workMonitor.worked();
+			} else {
+				final ConditionallyCoreDeadAnalysis analysis = new ConditionallyCoreDeadAnalysis(rootNode);
+				analysis.setAssumptions(intLiterals);
+				impliedFeatures = LongRunningWrapper.runMethod(analysis, workMonitor.subTask(1));
+			}
 
 			// if there is a contradiction within the configuration
 			if (impliedFeatures == null) {
@@ -574,6 +607,11 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 		}
 
 		private void computeRedundantManual(IMonitor workMonitor, final int[] intLiterals) {
+			if (compiledFormula != null) {
+				computeRedundantManualCompiled(workMonitor, intLiterals);
+				return;
+			}
+
 			final BasicSolver solver;
 			try {
 				solver = new BasicSolver(rootNode);
@@ -612,13 +650,51 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 			}
 		}
 
+		private void computeRedundantManualCompiled(IMonitor workMonitor, final int[] intLiterals) {
+			int literalCount = intLiterals.length;
+			for (int i = 0; i < literalCount; i++) {
+				final int oLiteral = intLiterals[i];
+				final SelectableFeature feature = configuration.getSelectablefeature((String) rootNode.getVariableObject(oLiteral));
+				intLiterals[i] = -oLiteral;
+				if (!compiledFormula.isSatisfiable(Arrays.copyOf(intLiterals, literalCount))) {
+					configuration.setAutomatic(feature, oLiteral > 0 ? Selection.SELECTED : Selection.UNSELECTED);
+					workMonitor.invoke(feature);
+					intLiterals[i--] = intLiterals[--literalCount];
+				} else {
+					intLiterals[i] = oLiteral;
+					workMonitor.invoke(feature);
+				}
+				workMonitor.worked();
+			}
+		}
+
+	}
+
+	/**
+	 * Determines how the propagator answers its queries.
+	 */
+	public static enum Backend {
+		/**
+		 * Each query is answered by one or more calls of a SAT solver.
+		 */
+		SAT,
+		/**
+		 * The formula of the feature model is compiled into a {@link DecisionDNNF} once (see {@link CompiledFormulaCache}). Propagation, validity checks,
+		 * and counting are then answered by the compiled formula. If the formula cannot be compiled within the {@link #COMPILATION_TIMEOUT}, the SAT
+		 * solver is used instead.
+		 */
+		COMPILED
 	}
 
 	public static int FEATURE_LIMIT_FOR_DEFAULT_COMPLETION = 150;
+	public static long COMPILATION_TIMEOUT = 10000;
 
 	private final Configuration configuration;
 
+	private final Backend backend;
+
 	private SatInstance rootNode = null, rootNodeWithoutHidden = null;
+	private DecisionDNNF compiledFormula = null, compiledFormulaWithoutHidden = null;
 
 	/**
 	 * This method creates a clone of the given {@link ConfigurationPropagator}
@@ -626,7 +702,12 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 	 * @param configuration The configuration to clone
 	 */
 	ConfigurationPropagator(Configuration configuration) {
+		this(configuration, Backend.SAT);
+	}
+
+	ConfigurationPropagator(Configuration configuration, Backend backend) {
 		this.configuration = configuration;
+		this.backend = backend;
 	}
 
 	ConfigurationPropagator(ConfigurationPropagator propagator) {
@@ -635,12 +716,19 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 
 	ConfigurationPropagator(ConfigurationPropagator propagator, Configuration configuration) {
 		this.configuration = configuration;
+		backend = propagator.backend;
 		if (propagator.isLoaded()) {
 			rootNode = propagator.rootNode;
 			rootNodeWithoutHidden = propagator.rootNodeWithoutHidden;
+			compiledFormula = propagator.compiledFormula;
+			compiledFormulaWithoutHidden = propagator.compiledFormulaWithoutHidden;
 		}
 	}
 
+	public Backend getBackend() {
+		return backend;
+	}
+
 	@Override
 	public IsValidMethod canBeValid() {
 		return new IsValidMethod(false, true);
@@ -708,7 +796,7 @@ public class ConfigurationPropagator implements IConfigurationPropagator {
 	 * Counts the number of possible solutions.
 	 *
 	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value (if a timeout occurred) that
-	 *         indicates that there are more solutions than the absolute value
+	 *         indicates that there are more solutions than the absolute value minus one
 	 */
 	@Override
 	public CountSolutionsMethod number(long timeout) {
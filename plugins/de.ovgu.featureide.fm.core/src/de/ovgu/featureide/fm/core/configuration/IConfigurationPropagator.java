@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.fm.core.configuration;
 
+import java.math.BigInteger;
 import java.util.List;
 
 import org.prop4j.Node;
@@ -65,9 +66,9 @@ public interface IConfigurationPropagator {
 	 * Counts the number of possible solutions.
 	 *
 	 * @return a positive value equal to the number of solutions (if the method terminated in time)</br> or a negative value (if a timeout occurred) that
-	 *         indicates that there are more solutions than the absolute value
+	 *         indicates that there are more solutions than the absolute value minus one
 	 */
-	LongRunningMethod<Long> number(long timeout);
+	LongRunningMethod<BigInteger> number(long timeout);
 
 	LongRunningMethod<Void> update(boolean redundantManual, List<SelectableFeature> featureOrder);
 
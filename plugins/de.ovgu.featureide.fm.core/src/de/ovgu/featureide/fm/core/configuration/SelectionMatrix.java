@@ -0,0 +1,162 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.io.ProblemList;
+
+/**
+ * Stores the selections of a set of configuration files as a bit matrix with one row per configuration and one column per feature. Additionally, each
+ * row contains the validity of the configuration and the problems that occurred while reading its file (see {@link ConfigurationBatchValidator}).
+ *
+ * @author agent
+ */
+public class SelectionMatrix {
+
+	private final List<Path> configurations;
+	private final List<String> features;
+
+	/**
+	 * Number of words per row. The bit after the last feature column stores the validity of the configuration.
+	 */
+	private final int rowLength;
+	private final long[] bits;
+	private final ProblemList[] problems;
+
+	SelectionMatrix(List<Path> configurations, List<String> features) {
+		this.configurations = Collections.unmodifiableList(new ArrayList<>(configurations));
+		this.features = Collections.unmodifiableList(new ArrayList<>(features));
+		rowLength = (features.size() + 64) >>> 6;
+		bits = new long[configurations.size() * rowLength];
+		problems = new ProblemList[configurations.size()];
+	}
+
+	/**
+	 * Sets a bit in the given row. Rows do not share any words, so different rows can be written concurrently.
+	 */
+	private void set(int row, int column) {
+		bits[(row * rowLength) + (column >>> 6)] |= 1L << (column & 63);
+	}
+
+	private boolean get(int row, int column) {
+		return (bits[(row * rowLength) + (column >>> 6)] & (1L << (column & 63))) != 0;
+	}
+
+	void setSelected(int row, int column) {
+		set(row, column);
+	}
+
+	void setValid(int row) {
+		set(row, features.size());
+	}
+
+	void setProblems(int row, ProblemList problemList) {
+		problems[row] = problemList;
+	}
+
+	/**
+	 * @return the paths of the configurations in the order of the rows
+	 */
+	public List<Path> getConfigurations() {
+		return configurations;
+	}
+
+	/**
+	 * @return the names of the features in the order of the columns
+	 */
+	public List<String> getFeatures() {
+		return features;
+	}
+
+	public int getNumberOfConfigurations() {
+		return configurations.size();
+	}
+
+	public int getNumberOfFeatures() {
+		return features.size();
+	}
+
+	public boolean isSelected(int row, int column) {
+		return get(row, column);
+	}
+
+	public boolean isValid(int row) {
+		return get(row, features.size());
+	}
+
+	/**
+	 * @param row the index of the configuration
+	 * @return the problems that occurred while reading the configuration file
+	 */
+	public ProblemList getProblems(int row) {
+		final ProblemList problemList = problems[row];
+		return problemList != null ? problemList : new ProblemList();
+	}
+
+	/**
+	 * @return all features that are not selected in any configuration
+	 */
+	public List<String> getUnusedFeatures() {
+		return getColumns(false);
+	}
+
+	/**
+	 * @return all features that are selected in every configuration
+	 */
+	public List<String> getFalseOptionalFeatures() {
+		return getColumns(true);
+	}
+
+	/**
+	 * @param selected {@code true} to find the columns that contain only selections, {@code false} to find the columns that contain no selection
+	 * @return the features of all matching columns, or an empty list if the matrix has no rows
+	 */
+	private List<String> getColumns(boolean selected) {
+		final int numberOfRows = configurations.size();
+		if (numberOfRows == 0) {
+			return Collections.emptyList();
+		}
+		final long[] columns = new long[rowLength];
+		System.arraycopy(bits, 0, columns, 0, rowLength);
+		for (int row = 1; row < numberOfRows; row++) {
+			final int offset = row * rowLength;
+			for (int i = 0; i < rowLength; i++) {
+				if (selected) {
+					columns[i] &= bits[offset + i];
+				} else {
+					columns[i] |= bits[offset + i];
+				}
+			}
+		}
+		final List<String> result = new ArrayList<>();
+		for (int column = 0; column < features.size(); column++) {
+			if (((columns[column >>> 6] & (1L << (column & 63))) != 0) == selected) {
+				result.add(features.get(column));
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,439 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.constraint.analysis;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.sat4j.core.Vec;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+
+/**
+ * Finds configurations of a feature model that minimize or maximize a linear objective over its features, e.g., the sum of an attribute of all selected
+ * features.<br> The objective is bounded from both sides by a binary search that adds the objective as pseudo boolean restriction to a {@link SAT4JPBSolver}.
+ * Thus, if the time budget is exhausted, the best configuration found so far is returned together with the proven bound for the optimum. The solver is kept
+ * between calls, such that only the partial configuration and the objective change. Therefore, each temporary restriction is guarded by a new selector
+ * variable that is only assumed while the restriction is needed and disabled afterwards.
+ *
+ * @author agent
+ */
+public class PBOptimizer {
+
+	/**
+	 * A configuration found by the optimizer.
+	 */
+	public static class Solution {
+
+		private final List<String> selectedFeatures;
+		private final long value;
+		private final boolean optimal;
+
+		private Solution(List<String> selectedFeatures, long value, boolean optimal) {
+			this.selectedFeatures = selectedFeatures;
+			this.value = value;
+			this.optimal = optimal;
+		}
+
+		/**
+		 * @return the names of all selected features
+		 */
+		public List<String> getSelectedFeatures() {
+			return selectedFeatures;
+		}
+
+		/**
+		 * @return the value of the objective for this configuration
+		 */
+		public long getValue() {
+			return value;
+		}
+
+		/**
+		 * @return {@code true} if no configuration, except those found before this one, has a better value
+		 */
+		public boolean isOptimal() {
+			return optimal;
+		}
+
+	}
+
+	/**
+	 * The configurations found by the optimizer.
+	 */
+	public static class Result {
+
+		private final List<Solution> solutions;
+		private final long bound;
+		private final boolean timeoutReached;
+
+		private Result(List<Solution> solutions, long bound, boolean timeoutReached) {
+			this.solutions = solutions;
+			this.bound = bound;
+			this.timeoutReached = timeoutReached;
+		}
+
+		/**
+		 * @return the found configurations, best first
+		 */
+		public List<Solution> getSolutions() {
+			return solutions;
+		}
+
+		/**
+		 * @return the best value any configuration can reach (i.e., a lower bound when minimizing and an upper bound when maximizing)
+		 */
+		public long getBound() {
+			return bound;
+		}
+
+		/**
+		 * @return {@code true} if the search stopped before all requested configurations were found and proven optimal
+		 */
+		public boolean isTimeoutReached() {
+			return timeoutReached;
+		}
+
+		/**
+		 * @return {@code true} if there is at least one configuration
+		 */
+		public boolean isSatisfiable() {
+			return !solutions.isEmpty();
+		}
+
+		/**
+		 * @return {@code true} if the first configuration is an optimal one
+		 */
+		public boolean isOptimal() {
+			return !solutions.isEmpty() && solutions.get(0).isOptimal();
+		}
+
+	}
+
+	private final IFeatureModel featureModel;
+	private final HashMap<String, Integer> map;
+	private final List<DeRestriction> restrictions;
+	private final String[] featureNames;
+	private final SAT4JPBSolver pbSolver;
+
+	public PBOptimizer(IFeatureModel featureModel) {
+		this.featureModel = featureModel;
+		map = Translator.buildFeatureNameMap(featureModel, new UniqueId());
+		restrictions = Translator.translateFm(map, featureModel, new DeRestrictionFactory());
+
+		featureNames = new String[map.size() + 1];
+		for (final Entry<String, Integer> entry : map.entrySet()) {
+			featureNames[entry.getValue()] = entry.getKey();
+		}
+
+		pbSolver = new SAT4JPBSolver();
+		pbSolver.solver.newVar(map.size());
+		pbSolver.addRestrictions(restrictions);
+	}
+
+	public IFeatureModel getFeatureModel() {
+		return featureModel;
+	}
+
+	/**
+	 * Checks whether the feature model was changed since this optimizer was created.
+	 *
+	 * @return {@code true} if the optimizer still represents the feature model
+	 */
+	public boolean isCompatible() {
+		final HashMap<String, Integer> currentMap = Translator.buildFeatureNameMap(featureModel, new UniqueId());
+		return map.equals(currentMap) && restrictions.equals(Translator.translateFm(currentMap, featureModel, new DeRestrictionFactory()));
+	}
+
+	/**
+	 * Finds the configurations with the smallest values.
+	 *
+	 * @param weights the coefficient of each feature in the objective; features without a weight have a coefficient of 0
+	 * @param selectedFeatures the names of the features that must be selected
+	 * @param unselectedFeatures the names of the features that must not be selected
+	 * @param numberOfSolutions the maximum number of configurations to return
+	 * @param timeout the time budget in milliseconds
+	 * @return the found configurations
+	 */
+	public synchronized Result minimize(Map<String, Long> weights, Collection<String> selectedFeatures, Collection<String> unselectedFeatures,
+			int numberOfSolutions, long timeout) {
+		return new Search(weights, 1, selectedFeatures, unselectedFeatures, timeout).run(numberOfSolutions);
+	}
+
+	/**
+	 * Finds the configurations with the largest values.
+	 *
+	 * @see #minimize(Map, Collection, Collection, int, long)
+	 */
+	public synchronized Result maximize(Map<String, Long> weights, Collection<String> selectedFeatures, Collection<String> unselectedFeatures,
+			int numberOfSolutions, long timeout) {
+		return new Search(weights, -1, selectedFeatures, unselectedFeatures, timeout).run(numberOfSolutions);
+	}
+
+	/**
+	 * Minimizes the objective multiplied by the given sign.
+	 */
+	private class Search {
+
+		private final long[] objective = new long[featureNames.length];
+		private final int sign;
+		private final int[] assumptions;
+		private final int[] objectiveLiterals;
+		private final BigInteger[] objectiveCoefficients;
+		private final long maxValue;
+		private final long end;
+
+		private long lowerBound = 0;
+		private boolean timeoutReached = false;
+		private boolean[] bestModel;
+		private int blockingSelector = 0;
+
+		public Search(Map<String, Long> weights, int sign, Collection<String> selectedFeatures, Collection<String> unselectedFeatures, long timeout) {
+			this.sign = sign;
+			end = System.currentTimeMillis() + timeout;
+
+			int numberOfLiterals = 0;
+			for (final Entry<String, Long> entry : weights.entrySet()) {
+				final Integer id = map.get(entry.getKey());
+				if ((id != null) && (entry.getValue() != null)) {
+					objective[id] += sign * entry.getValue();
+				}
+			}
+			for (int id = 1; id < objective.length; id++) {
+				if (objective[id] != 0) {
+					numberOfLiterals++;
+				}
+			}
+			objectiveLiterals = new int[numberOfLiterals + 1];
+			objectiveCoefficients = new BigInteger[numberOfLiterals + 1];
+			long positiveSum = 0;
+			for (int id = 1, i = 0; id < objective.length; id++) {
+				if (objective[id] != 0) {
+					objectiveLiterals[i] = id;
+					objectiveCoefficients[i++] = BigInteger.valueOf(objective[id]);
+					positiveSum += Math.max(0, objective[id]);
+				}
+			}
+			maxValue = positiveSum;
+
+			final byte[] fixed = new byte[featureNames.length];
+			final List<Integer> assumptionList = new ArrayList<>();
+			for (final String name : selectedFeatures) {
+				final Integer id = map.get(name);
+				if (id != null) {
+					assumptionList.add(id);
+					fixed[id] = 1;
+				}
+			}
+			for (final String name : unselectedFeatures) {
+				final Integer id = map.get(name);
+				if (id != null) {
+					assumptionList.add(-id);
+					fixed[id] = -1;
+				}
+			}
+			assumptions = new int[assumptionList.size()];
+			for (int i = 0; i < assumptions.length; i++) {
+				assumptions[i] = assumptionList.get(i);
+			}
+
+			for (int id = 1; id < objective.length; id++) {
+				switch (fixed[id]) {
+				case 1:
+					lowerBound += objective[id];
+					break;
+				case 0:
+					lowerBound += Math.min(0, objective[id]);
+					break;
+				default:
+					break;
+				}
+			}
+		}
+
+		public Result run(int numberOfSolutions) {
+			final List<Solution> solutions = new ArrayList<>();
+			if (!pbSolver.alreadyContradiction) {
+				final List<IConstr> blockingClauses = new ArrayList<>();
+				try {
+					while (solutions.size() < numberOfSolutions) {
+						final Solution solution = findOptimum();
+						if (solution == null) {
+							break;
+						}
+						solutions.add(solution);
+						if (!solution.isOptimal() || (solutions.size() == numberOfSolutions)) {
+							break;
+						}
+						lowerBound = sign * solution.getValue();
+						if (blockingSelector == 0) {
+							blockingSelector = pbSolver.solver.nextFreeVarId(true);
+						}
+						try {
+							blockingClauses.add(pbSolver.solver.addClause(new VecInt(getBlockingClause(bestModel))));
+						} catch (final ContradictionException e) {
+							break;
+						}
+					}
+				} finally {
+					for (final IConstr blockingClause : blockingClauses) {
+						if (blockingClause != null) {
+							pbSolver.solver.removeConstr(blockingClause);
+						}
+					}
+					disable(blockingSelector);
+				}
+			}
+			final long bound = solutions.isEmpty() || !solutions.get(0).isOptimal() ? lowerBound : solutions.get(0).getValue() * sign;
+			return new Result(Collections.unmodifiableList(solutions), sign * bound, timeoutReached);
+		}
+
+		/**
+		 * Searches the best configuration that satisfies the current restrictions by a binary search between the lower bound and the best value found so
+		 * far.
+		 *
+		 * @return the best found configuration or {@code null} if there is none or no configuration was found within the time budget
+		 */
+		private Solution findOptimum() {
+			try {
+				if (!isSatisfiable(0)) {
+					return null;
+				}
+			} catch (final TimeoutException e) {
+				timeoutReached = true;
+				return null;
+			}
+			bestModel = getModel();
+			long upperBound = getValue(bestModel);
+
+			while (lowerBound < upperBound) {
+				final long middle = lowerBound + ((upperBound - lowerBound) >> 1);
+				// objective + (maxValue - middle) * selector <= maxValue, which is objective <= middle if the selector is assumed and trivial otherwise
+				final int selector = pbSolver.solver.nextFreeVarId(true);
+				objectiveLiterals[objectiveLiterals.length - 1] = selector;
+				objectiveCoefficients[objectiveCoefficients.length - 1] = BigInteger.valueOf(maxValue - middle);
+				IConstr objectiveRestriction = null;
+				try {
+					objectiveRestriction = pbSolver.solver.addPseudoBoolean(new VecInt(objectiveLiterals), new Vec<BigInteger>(objectiveCoefficients), false,
+							BigInteger.valueOf(maxValue));
+					if (isSatisfiable(selector)) {
+						bestModel = getModel();
+						upperBound = getValue(bestModel);
+					} else {
+						lowerBound = middle + 1;
+					}
+				} catch (final ContradictionException e) {
+					lowerBound = middle + 1;
+				} catch (final TimeoutException e) {
+					timeoutReached = true;
+					break;
+				} finally {
+					if (objectiveRestriction != null) {
+						pbSolver.solver.removeConstr(objectiveRestriction);
+					}
+					disable(selector);
+				}
+			}
+			return new Solution(getSelectedFeatures(bestModel), sign * upperBound, lowerBound >= upperBound);
+		}
+
+		/**
+		 * @param selector the selector of a temporary objective restriction or 0
+		 */
+		private boolean isSatisfiable(int selector) throws TimeoutException {
+			final long remainingTime = end - System.currentTimeMillis();
+			if (remainingTime <= 0) {
+				throw new TimeoutException();
+			}
+			final VecInt currentAssumptions = new VecInt(assumptions);
+			if (selector != 0) {
+				currentAssumptions.push(selector);
+			}
+			if (blockingSelector != 0) {
+				currentAssumptions.push(blockingSelector);
+			}
+			pbSolver.solver.setTimeoutMs(remainingTime);
+			return pbSolver.solver.isSatisfiable(currentAssumptions);
+		}
+
+		/**
+		 * Permanently disables all restrictions guarded by the given selector.
+		 */
+		private void disable(int selector) {
+			if (selector != 0) {
+				try {
+					pbSolver.solver.addClause(new VecInt(new int[] { -selector }));
+				} catch (final ContradictionException e) {
+					// cannot happen, as the selector is never forced to be true
+				}
+			}
+		}
+
+		private boolean[] getModel() {
+			final boolean[] model = new boolean[featureNames.length];
+			for (int id = 1; id < featureNames.length; id++) {
+				model[id] = pbSolver.solver.model(id);
+			}
+			return model;
+		}
+
+		private long getValue(boolean[] model) {
+			long value = 0;
+			for (int id = 1; id < objective.length; id++) {
+				if (model[id]) {
+					value += objective[id];
+				}
+			}
+			return value;
+		}
+
+		private List<String> getSelectedFeatures(boolean[] model) {
+			final List<String> selectedFeatures = new ArrayList<>();
+			for (int id = 1; id < featureNames.length; id++) {
+				if (model[id]) {
+					selectedFeatures.add(featureNames[id]);
+				}
+			}
+			return selectedFeatures;
+		}
+
+		private int[] getBlockingClause(boolean[] model) {
+			final int[] clause = new int[featureNames.length];
+			for (int id = 1; id < featureNames.length; id++) {
+				clause[id - 1] = model[id] ? -id : id;
+			}
+			clause[featureNames.length - 1] = -blockingSelector;
+			return clause;
+		}
+
+	}
+
+}
@@ -33,12 +33,14 @@ import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.Not;
 import org.prop4j.Or;
+import org.prop4j.TseitinTransformer;
 
 import de.ovgu.featureide.fm.core.base.FeatureUtils;
 import de.ovgu.featureide.fm.core.base.IConstraint;
 import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.editing.remove.EliminationFeatureRemover;
 import de.ovgu.featureide.fm.core.editing.remove.FeatureRemover;
 import de.ovgu.featureide.fm.core.filter.base.IFilter;
 import de.ovgu.featureide.fm.core.functional.Functional;
@@ -55,13 +57,21 @@ import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
 public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 	public static enum CNFType {
-		None, Compact, Regular
+		None, Compact, Regular, Tseitin
 	}
 
 	public static enum ModelType {
 		All, OnlyConstraints, OnlyStructure
 	}
 
+	/**
+	 * The algorithm that removes the excluded features from the formula: {@link FeatureRemover} ({@code MinimumClause}) or {@link EliminationFeatureRemover}
+	 * ({@code Elimination}).
+	 */
+	public static enum RemoverType {
+		MinimumClause, Elimination
+	}
+
 	public static Node createCNF(IFeatureModel featureModel) {
 		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(featureModel);
 		nodeCreator.setCnfType(CNFType.Compact);
@@ -93,6 +103,8 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 	private ModelType modelType = ModelType.All;
 
+	private RemoverType removerType = RemoverType.Elimination;
+
 	/**
 	 * Specifies whether the literals <b>True</b> and <b>False</b> should be included in the created formula.</br> Default values is {@code true} (values will
 	 * be included).
@@ -174,7 +186,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 	 */
 	public Node createConstraintNode(IConstraint constraint, boolean positive) {
 		final List<Node> clauses = createConstraintNodes(constraint, new LinkedList<Node>(), positive);
-		if ((cnfType != CNFType.Regular) && (clauses.size() == 1)) {
+		if ((cnfType != CNFType.Regular) && (cnfType != CNFType.Tseitin) && (clauses.size() == 1)) {
 			return clauses.get(0);
 		}
 		return new And(clauses.toArray(new Node[clauses.size()]));
@@ -202,6 +214,17 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 				traceModel.addTraceConstraint(constraint);
 			}
 			break;
+		case Tseitin:
+			if (!positive) {
+				clause = new Not(clause);
+			}
+			for (final Node andChild : TseitinTransformer.toRegularCNF(clause).getChildren()) {
+				clauses.add(andChild);
+				if (isRecordingTraceModel()) {
+					traceModel.addTraceConstraint(constraint);
+				}
+			}
+			break;
 		case Regular:
 			compact = false;
 		case Compact:
@@ -239,6 +262,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 			final Or emptyNode = includeBooleanValues ? new Or(new Literal(NodeCreator.varTrue), new Literal(NodeCreator.varFalse, false)) : new Or();
 			switch (cnfType) {
 			case Regular:
+			case Tseitin:
 				return new And(emptyNode);
 			case None:
 			case Compact:
@@ -287,6 +311,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 			switch (cnfType) {
 			case Regular:
+			case Tseitin:
 				nodeArray[length] = new Or(new Literal[] { new Literal(NodeCreator.varTrue) });
 				nodeArray[length + 1] = new Or(new Literal[] { new Literal(NodeCreator.varFalse, false) });
 				break;
@@ -309,7 +334,13 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 
 	private Node removeFeatures(final Node[] nodeArray, IMonitor monitor) {
 		if ((excludedFeatureNames != null) && !excludedFeatureNames.isEmpty()) {
-			final FeatureRemover remover = new FeatureRemover(new And(nodeArray), excludedFeatureNames, includeBooleanValues, cnfType == CNFType.Regular);
+			final boolean regularCNF = (cnfType == CNFType.Regular) || (cnfType == CNFType.Tseitin);
+			final FeatureRemover remover;
+			if (removerType == RemoverType.Elimination) {
+				remover = new EliminationFeatureRemover(new And(nodeArray), excludedFeatureNames, includeBooleanValues, regularCNF);
+			} else {
+				remover = new FeatureRemover(new And(nodeArray), excludedFeatureNames, includeBooleanValues, regularCNF);
+			}
 			return remover.createNewClauseList(LongRunningWrapper.runMethod(remover, monitor));
 		} else {
 			return new And(nodeArray);
@@ -326,6 +357,7 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 				clause = getLiteral(root, true);
 				switch (cnfType) {
 				case Regular:
+				case Tseitin:
 					clause = new Or(clause);
 					break;
 				case None:
@@ -444,6 +476,10 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 		return modelType;
 	}
 
+	public RemoverType getRemoverType() {
+		return removerType;
+	}
+
 	/**
 	 * {@link #includeBooleanValues}
 	 *
@@ -488,6 +524,10 @@ public class AdvancedNodeCreator implements LongRunningMethod<Node> {
 		this.modelType = modelType;
 	}
 
+	public void setRemoverType(RemoverType removerType) {
+		this.removerType = removerType;
+	}
+
 	public boolean optionalRoot() {
 		return optionalRoot;
 	}
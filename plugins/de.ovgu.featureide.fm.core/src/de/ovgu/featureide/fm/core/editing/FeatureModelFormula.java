@@ -0,0 +1,196 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.prop4j.And;
+import org.prop4j.AuxiliaryVariable;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.solver.SatInstance;
+
+/**
+ * Snapshot of the propositional formula of a feature model in regular conjunctive normal form. Contains the clauses of the structure, the clauses of each
+ * constraint, and the variables in preorder of the features.<br> Instances are shared by all analyses of a feature model (see
+ * {@link FeatureModelFormulaCache}). Thus, the contained nodes must not be modified.
+ *
+ * @author agent
+ */
+public class FeatureModelFormula {
+
+	private final long version;
+
+	private final List<String> variables;
+	private final Node structureCNF;
+	private final List<Node> constraintCNFs;
+
+	private Node cnf;
+	private SatInstance satInstance;
+	private SatInstance structureSatInstance;
+
+	FeatureModelFormula(long version, List<String> variables, Node structureCNF, List<Node> constraintCNFs) {
+		this.version = version;
+		this.variables = Collections.unmodifiableList(variables);
+		this.structureCNF = structureCNF;
+		this.constraintCNFs = Collections.unmodifiableList(constraintCNFs);
+	}
+
+	/**
+	 * @return the version of the formula, which is increased each time the formula of the feature model changes
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the names of all features in preorder
+	 */
+	public List<String> getVariables() {
+		return variables;
+	}
+
+	/**
+	 * @return the clauses of the feature tree
+	 */
+	public Node getStructureCNF() {
+		return structureCNF;
+	}
+
+	/**
+	 * Returns the clauses of each constraint. Complex constraints are transformed using auxiliary variables (see {@link org.prop4j.TseitinTransformer}).
+	 *
+	 * @return the clauses of each constraint in the order of the constraints
+	 */
+	public List<Node> getConstraintCNFs() {
+		return constraintCNFs;
+	}
+
+	/**
+	 * @param index the index of the constraint
+	 * @return the clauses of the constraint
+	 */
+	public Node getConstraintCNF(int index) {
+		return constraintCNFs.get(index);
+	}
+
+	/**
+	 * @return the clauses of the feature tree and all constraints
+	 */
+	public synchronized Node getCNF() {
+		if (cnf == null) {
+			final List<Node> clauses = new ArrayList<>();
+			Collections.addAll(clauses, structureCNF.getChildren());
+			for (final Node constraintCNF : constraintCNFs) {
+				Collections.addAll(clauses, constraintCNF.getChildren());
+			}
+			cnf = new And(clauses.toArray(new Node[clauses.size()]));
+		}
+		return cnf;
+	}
+
+	public synchronized SatInstance getSatInstance() {
+		if (satInstance == null) {
+			satInstance = new SatInstance(getCNF(), getAllVariables());
+		}
+		return satInstance;
+	}
+
+	/**
+	 * Returns an instance containing only the clauses of the feature tree. The instance also contains the auxiliary variables of all constraints, such that
+	 * the clauses of the constraints can be added to a solver for this instance.
+	 *
+	 * @return the instance of the feature tree
+	 */
+	public synchronized SatInstance getStructureSatInstance() {
+		if (structureSatInstance == null) {
+			structureSatInstance = new SatInstance(structureCNF, getAllVariables());
+		}
+		return structureSatInstance;
+	}
+
+	/**
+	 * @return the names of all features followed by the {@link AuxiliaryVariable auxiliary variables} of all constraints
+	 */
+	private List<Object> getAllVariables() {
+		final List<Object> allVariables = new ArrayList<Object>(variables);
+		final Set<Object> auxiliaryVariables = new HashSet<>();
+		for (final Node constraintCNF : constraintCNFs) {
+			for (final Node clause : constraintCNF.getChildren()) {
+				for (final Node literal : (clause instanceof Literal) ? new Node[] { clause } : clause.getChildren()) {
+					final Object var = ((Literal) literal).var;
+					if (AuxiliaryVariable.isAuxiliary(var) && auxiliaryVariables.add(var)) {
+						allVariables.add(var);
+					}
+				}
+			}
+		}
+		return allVariables;
+	}
+
+	/**
+	 * @param cnf a formula in conjunctive normal form
+	 * @return {@code true} if the formula contains {@link AuxiliaryVariable auxiliary variables}, i.e., it was created by the Tseitin transformation
+	 */
+	public static boolean isTransformed(Node cnf) {
+		for (final Node clause : cnf.getChildren()) {
+			for (final Node literal : (clause instanceof Literal) ? new Node[] { clause } : clause.getChildren()) {
+				if (AuxiliaryVariable.isAuxiliary(((Literal) literal).var)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether a formula in conjunctive normal form is a tautology, i.e., whether each of its clauses contains a literal and its complement.<br> This
+	 * check is not applicable to {@link #isTransformed(Node) transformed} formulas, as their clauses never contain complementary literals.
+	 *
+	 * @param cnf the formula
+	 * @return {@code true} if the formula is a tautology, {@code false} otherwise
+	 */
+	public static boolean isTautology(Node cnf) {
+		for (final Node clause : cnf.getChildren()) {
+			final Node[] literals = clause.getChildren();
+			boolean tautology = false;
+			for (int i = 0; !tautology && (i < literals.length); i++) {
+				for (int j = i + 1; j < literals.length; j++) {
+					final Literal literal1 = (Literal) literals[i];
+					final Literal literal2 = (Literal) literals[j];
+					if ((literal1.positive != literal2.positive) && literal1.var.equals(literal2.var)) {
+						tautology = true;
+						break;
+					}
+				}
+			}
+			if (!tautology) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,202 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.prop4j.Node;
+import org.prop4j.TseitinTransformer;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+
+/**
+ * Caches the {@link FeatureModelFormula formulas} of feature models, such that all analyses of a feature model can share them.<br> Each request compares a
+ * signature of the feature tree and of the constraints with the cached formula. If the feature model has changed, a new version of the formula is created,
+ * reusing the clauses of the feature tree and of all constraints that did not change. The cache holds the formulas of the {@value #MAX_MODELS} most recently
+ * used feature models.
+ *
+ * @author agent
+ */
+public final class FeatureModelFormulaCache {
+
+	public static final int MAX_MODELS = 8;
+
+	private static final FeatureModelFormulaCache INSTANCE = new FeatureModelFormulaCache();
+
+	public static FeatureModelFormulaCache getInstance() {
+		return INSTANCE;
+	}
+
+	private static final class FormulaEntry {
+
+		private final String structureSignature;
+		private final List<String> constraintSignatures;
+		private final FeatureModelFormula formula;
+
+		private FormulaEntry(String structureSignature, List<String> constraintSignatures, FeatureModelFormula formula) {
+			this.structureSignature = structureSignature;
+			this.constraintSignatures = constraintSignatures;
+			this.formula = formula;
+		}
+
+	}
+
+	private final Map<IFeatureModel, FormulaEntry> entries = new LinkedHashMap<IFeatureModel, FormulaEntry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IFeatureModel, FormulaEntry> eldest) {
+			return size() > MAX_MODELS;
+		}
+	};
+
+	private FeatureModelFormulaCache() {}
+
+	/**
+	 * Returns the current formula of the given feature model. If the feature model has changed since the last request, a new formula will be created.
+	 *
+	 * @param featureModel the feature model
+	 * @return the formula of the feature model
+	 */
+	public FeatureModelFormula getFormula(IFeatureModel featureModel) {
+		final String structureSignature = getStructureSignature(featureModel);
+		final List<IConstraint> constraints = featureModel.getConstraints();
+		final List<String> constraintSignatures = new ArrayList<>(constraints.size());
+		for (final IConstraint constraint : constraints) {
+			constraintSignatures.add(constraint.getNode().toString());
+		}
+
+		final FormulaEntry oldEntry;
+		synchronized (this) {
+			oldEntry = entries.get(featureModel);
+		}
+		if ((oldEntry != null) && oldEntry.structureSignature.equals(structureSignature)
+			&& oldEntry.constraintSignatures.equals(constraintSignatures)) {
+			return oldEntry.formula;
+		}
+
+		final List<String> variables;
+		final Node structureCNF;
+		final Map<String, Node> oldConstraintCNFs = new HashMap<>();
+		if (oldEntry != null) {
+			final FeatureModelFormula oldFormula = oldEntry.formula;
+			if (oldEntry.structureSignature.equals(structureSignature)) {
+				variables = oldFormula.getVariables();
+				structureCNF = oldFormula.getStructureCNF();
+			} else {
+				variables = FeatureUtils.getFeatureNamesPreorder(featureModel);
+				structureCNF = createStructureCNF(featureModel);
+			}
+			for (int i = 0; i < oldEntry.constraintSignatures.size(); i++) {
+				oldConstraintCNFs.put(oldEntry.constraintSignatures.get(i), oldFormula.getConstraintCNF(i));
+			}
+		} else {
+			variables = FeatureUtils.getFeatureNamesPreorder(featureModel);
+			structureCNF = createStructureCNF(featureModel);
+		}
+
+		final List<Node> constraintCNFs = new ArrayList<>(constraints.size());
+		int i = 0;
+		for (final IConstraint constraint : constraints) {
+			Node constraintCNF = oldConstraintCNFs.get(constraintSignatures.get(i++));
+			if (constraintCNF == null) {
+				// the nodes of constraints may be changed in place (e.g., when renaming a feature)
+				constraintCNF = TseitinTransformer.toRegularCNF(constraint.getNode());
+			}
+			constraintCNFs.add(constraintCNF);
+		}
+
+		final long version = (oldEntry != null) ? oldEntry.formula.getVersion() + 1 : 0;
+		final FormulaEntry newEntry = new FormulaEntry(structureSignature, constraintSignatures,
+				new FeatureModelFormula(version, new ArrayList<>(variables), structureCNF, constraintCNFs));
+		synchronized (this) {
+			final FormulaEntry currentEntry = entries.get(featureModel);
+			if ((currentEntry != null) && (currentEntry != oldEntry) && currentEntry.structureSignature.equals(structureSignature)
+				&& currentEntry.constraintSignatures.equals(constraintSignatures)) {
+				// another thread has created the same formula in the meantime
+				return currentEntry.formula;
+			}
+			entries.put(featureModel, newEntry);
+		}
+		return newEntry.formula;
+	}
+
+	/**
+	 * Removes the formula of the given feature model.
+	 */
+	public synchronized void invalidate(IFeatureModel featureModel) {
+		entries.remove(featureModel);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	private static Node createStructureCNF(IFeatureModel featureModel) {
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(featureModel);
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setModelType(ModelType.OnlyStructure);
+		nodeCreator.setIncludeBooleanValues(false);
+		nodeCreator.setUseOldNames(false);
+		return nodeCreator.createNodes();
+	}
+
+	/**
+	 * Creates a string that contains everything the clauses of the feature tree depend on.
+	 */
+	private static String getStructureSignature(IFeatureModel featureModel) {
+		final StringBuilder sb = new StringBuilder();
+		final IFeature root = FeatureUtils.getRoot(featureModel);
+		if (root != null) {
+			sb.append(root.getName());
+			for (final IFeature feature : featureModel.getStructure().getFeaturesPreorder()) {
+				sb.append('\0');
+				sb.append(feature.getName());
+			}
+			for (final IFeature feature : featureModel.getFeatures()) {
+				final IFeatureStructure structure = feature.getStructure();
+				if (structure.hasChildren()) {
+					sb.append('\n');
+					sb.append(structure.isAnd() ? '&' : structure.isOr() ? '|' : structure.isAlternative() ? '^' : '?');
+					sb.append(feature.getName());
+					for (final IFeatureStructure child : structure.getChildren()) {
+						sb.append('\0');
+						sb.append(child.isMandatory() ? '+' : '-');
+						sb.append(child.getFeature().getName());
+					}
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+}
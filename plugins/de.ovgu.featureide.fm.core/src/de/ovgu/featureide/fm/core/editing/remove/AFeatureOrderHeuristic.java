@@ -58,6 +58,13 @@ public abstract class AFeatureOrderHeuristic implements Iterator<DeprecatedFeatu
 
 	protected abstract int getNextIndex();
 
+	/**
+	 * Is called by a feature remover each time the clause counts of a feature have changed.
+	 *
+	 * @param feature the feature
+	 */
+	public void update(DeprecatedFeature feature) {}
+
 	@Override
 	public void remove() {
 		throw new UnsupportedOperationException();
@@ -0,0 +1,120 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing.remove;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link AFeatureOrderHeuristic}. Returns the feature with the lowest elimination cost, i.e., the smallest difference between the number of
+ * resolvents and the number of clauses that contain the feature (see {@link DeprecatedFeature#getClauseCount()}).<br> In contrast to
+ * {@link MinimumClauseHeuristic}, the features are kept in a binary heap, which is updated each time the clause counts of a feature change.
+ *
+ * @author agent
+ */
+public class EliminationCostHeuristic extends AFeatureOrderHeuristic {
+
+	private final int[] heap;
+	private final int[] positions;
+	private int heapSize = 0;
+
+	public EliminationCostHeuristic(DeprecatedFeature[] map, int length) {
+		super(map, length);
+		heap = new int[map.length];
+		positions = new int[map.length];
+		Arrays.fill(positions, -1);
+		for (int i = 1; i < map.length; i++) {
+			if (map[i] != null) {
+				heap[heapSize] = i;
+				positions[i] = heapSize++;
+			}
+		}
+		for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	@Override
+	protected int getNextIndex() {
+		if (heapSize == 0) {
+			return 0;
+		}
+		final int index = heap[0];
+		positions[index] = -1;
+		if (--heapSize > 0) {
+			move(heap[heapSize], 0);
+			siftDown(0);
+		}
+		return index;
+	}
+
+	@Override
+	public void update(DeprecatedFeature feature) {
+		final int position = positions[feature.getId()];
+		if (position >= 0) {
+			siftDown(siftUp(position));
+		}
+	}
+
+	private int siftUp(int position) {
+		final int index = heap[position];
+		while (position > 0) {
+			final int parent = (position - 1) >>> 1;
+			if (!isLess(index, heap[parent])) {
+				break;
+			}
+			move(heap[parent], position);
+			position = parent;
+		}
+		move(index, position);
+		return position;
+	}
+
+	private void siftDown(int position) {
+		final int index = heap[position];
+		while (true) {
+			int child = (position << 1) + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (((child + 1) < heapSize) && isLess(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!isLess(heap[child], index)) {
+				break;
+			}
+			move(heap[child], position);
+			position = child;
+		}
+		move(index, position);
+	}
+
+	private void move(int index, int position) {
+		heap[position] = index;
+		positions[index] = position;
+	}
+
+	private boolean isLess(int index1, int index2) {
+		final long cost1 = map[index1].getClauseCount();
+		final long cost2 = map[index2].getClauseCount();
+		return (cost1 < cost2) || ((cost1 == cost2) && (index1 < index2));
+	}
+
+}
@@ -0,0 +1,451 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing.remove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.prop4j.Node;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.editing.cnf.CNFSolver;
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Removes features from a model while retaining dependencies of all other feature.<br> In contrast to {@link FeatureRemover}, the clauses are indexed by
+ * occurrence lists, such that the clauses containing a feature are found without traversing the complete formula. Each feature is eliminated by resolution.
+ * New clauses are checked for subsumption using signatures and a single watched literal per clause. The order in which features are eliminated is determined
+ * by an {@link AFeatureOrderHeuristic} (by default, an {@link EliminationCostHeuristic}). The elimination stops as soon as no clause contains both removed and
+ * remaining features. Finally, resulting clauses that are implied by other clauses are removed using a SAT solver.
+ *
+ * @author agent
+ */
+public class EliminationFeatureRemover extends FeatureRemover {
+
+	private List<int[]> clauses;
+	private long[] signatures;
+	private boolean[] dirty;
+	private int[] marks;
+
+	private int[][] occurrences;
+	private int[] occurrenceSizes;
+	private int[][] watches;
+	private int[] watchSizes;
+
+	private int mixedClauseCount;
+	private boolean contradiction;
+
+	public EliminationFeatureRemover(Node cnf, Collection<String> features) {
+		super(cnf, features);
+	}
+
+	public EliminationFeatureRemover(Node cnf, Collection<String> features, boolean includeBooleanValues) {
+		super(cnf, features, includeBooleanValues);
+	}
+
+	public EliminationFeatureRemover(Node cnf, Collection<String> dirtyFeatures, boolean includeBooleanValues, boolean regularCNF) {
+		super(cnf, dirtyFeatures, includeBooleanValues, regularCNF);
+	}
+
+	/**
+	 * Creates the heuristic that determines the order in which the features are eliminated. Subclasses may override this method to use any other
+	 * {@link AFeatureOrderHeuristic}.
+	 *
+	 * @return the heuristic
+	 */
+	protected AFeatureOrderHeuristic createHeuristic() {
+		return new EliminationCostHeuristic(map, getNumberOfRemovedVariables());
+	}
+
+	@Override
+	protected List<? extends Clause> handleComplexFormula(IMonitor workMonitor) {
+		final int numberOfVariables = featureNameArray.length - 1;
+		createFeatureMap();
+		dirty = new boolean[numberOfVariables + 1];
+		for (int i = 0; i < map.length; i++) {
+			dirty[i] = map[i] != null;
+		}
+		marks = new int[numberOfVariables + 1];
+
+		final Node[] andChildren = fmNode.getChildren();
+		clauses = new ArrayList<>(andChildren.length << 1);
+		signatures = new long[Math.max(16, andChildren.length << 1)];
+		occurrences = new int[(numberOfVariables + 1) << 1][];
+		occurrenceSizes = new int[occurrences.length];
+		watches = new int[occurrences.length][];
+		watchSizes = new int[occurrences.length];
+		mixedClauseCount = 0;
+		contradiction = false;
+		heuristic = null;
+
+		for (final Node andChild : andChildren) {
+			final DeprecatedClause clause = getClause(andChild);
+			if (clause != null) {
+				addClause(clause.getLiterals());
+			}
+		}
+		final int numberOfOriginalClauses = clauses.size();
+
+		heuristic = createHeuristic();
+		while (!contradiction && (mixedClauseCount > 0) && heuristic.hasNext()) {
+			workMonitor.checkCancel();
+			final DeprecatedFeature nextFeature = heuristic.next();
+			if (nextFeature == null) {
+				break;
+			}
+			eliminate(nextFeature.getId());
+		}
+		if (!contradiction) {
+			checkRemainingClauses(numberOfVariables);
+		}
+
+		final List<DeprecatedClause> result = contradiction ? Collections.singletonList(DeprecatedClause.createClause(new int[0])) : collectCleanClauses(
+				numberOfOriginalClauses, numberOfVariables);
+
+		clauses = null;
+		occurrences = null;
+		watches = null;
+		release();
+		return result;
+	}
+
+	/**
+	 * Collects all clauses that do not contain any removed feature. Resolvents that are implied by other clauses are omitted.
+	 */
+	private List<DeprecatedClause> collectCleanClauses(int numberOfOriginalClauses, int numberOfVariables) {
+		final List<DeprecatedClause> cleanClauses = new ArrayList<>();
+		final List<DeprecatedClause> resolvents = new ArrayList<>();
+		for (int i = 0; i < clauses.size(); i++) {
+			final int[] literals = clauses.get(i);
+			if ((literals != null) && !containsDirtyLiteral(literals)) {
+				final DeprecatedClause clause = DeprecatedClause.createClause(literals);
+				if (i < numberOfOriginalClauses) {
+					cleanClauses.add(clause);
+				} else {
+					resolvents.add(clause);
+				}
+			}
+		}
+		if (!resolvents.isEmpty()) {
+			final CNFSolver solver = new CNFSolver(cleanClauses, numberOfVariables);
+			// shorter clauses are added first, as they are more likely to imply other clauses
+			Collections.sort(resolvents, Collections.reverseOrder(lengthComparator));
+			for (final DeprecatedClause resolvent : resolvents) {
+				if (!isRedundant(solver, resolvent)) {
+					solver.addClause(resolvent);
+					cleanClauses.add(resolvent);
+				}
+			}
+		}
+		return cleanClauses;
+	}
+
+	/**
+	 * If no clause contains both removed and remaining features, the clauses containing removed features are independent from all other clauses. Thus, they
+	 * can be omitted, as long as they are satisfiable.
+	 */
+	private void checkRemainingClauses(int numberOfVariables) {
+		final List<DeprecatedClause> remainingClauses = new ArrayList<>();
+		for (final int[] literals : clauses) {
+			if ((literals != null) && containsDirtyLiteral(literals)) {
+				remainingClauses.add(DeprecatedClause.createClause(literals));
+			}
+		}
+		if (!remainingClauses.isEmpty()) {
+			try {
+				contradiction = !new CNFSolver(remainingClauses, numberOfVariables).isSatisfiable(new int[0]);
+			} catch (final TimeoutException e) {
+				Logger.logError(e);
+			}
+		}
+	}
+
+	private boolean containsDirtyLiteral(int[] literals) {
+		for (final int literal : literals) {
+			if (dirty[Math.abs(literal)]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces all clauses containing the given variable by their resolvents.
+	 */
+	private void eliminate(int variable) {
+		final int[][] positiveClauses = removeClauses(variable);
+		final int[][] negativeClauses = removeClauses(-variable);
+		for (final int[] positiveClause : positiveClauses) {
+			for (final int[] negativeClause : negativeClauses) {
+				final int[] resolvent = resolve(positiveClause, negativeClause, variable);
+				if (resolvent != null) {
+					addClause(resolvent);
+					if (contradiction) {
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	private int[][] removeClauses(int literal) {
+		final int index = getLiteralIndex(literal);
+		final int[] ids = occurrences[index];
+		final int size = occurrenceSizes[index];
+		final int[][] removedClauses = new int[size][];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			final int id = ids[i];
+			final int[] literals = clauses.get(id);
+			if (literals != null) {
+				removedClauses[count++] = literals;
+				deleteClause(id);
+			}
+		}
+		occurrences[index] = null;
+		occurrenceSizes[index] = 0;
+		return Arrays.copyOf(removedClauses, count);
+	}
+
+	/**
+	 * @return the sorted resolvent of both clauses or {@code null} if the resolvent is a tautology
+	 */
+	private int[] resolve(int[] positiveClause, int[] negativeClause, int variable) {
+		for (final int literal : positiveClause) {
+			marks[Math.abs(literal)] = literal;
+		}
+		boolean tautology = false;
+		for (final int literal : negativeClause) {
+			if ((literal != -variable) && (marks[Math.abs(literal)] == -literal)) {
+				tautology = true;
+				break;
+			}
+		}
+		for (final int literal : positiveClause) {
+			marks[Math.abs(literal)] = 0;
+		}
+		if (tautology) {
+			return null;
+		}
+
+		final int[] resolvent = new int[(positiveClause.length + negativeClause.length) - 2];
+		int length = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < positiveClause.length) || (j < negativeClause.length)) {
+			final int literal;
+			if ((j == negativeClause.length) || ((i < positiveClause.length) && (positiveClause[i] <= negativeClause[j]))) {
+				literal = positiveClause[i++];
+				if ((j < negativeClause.length) && (negativeClause[j] == literal)) {
+					j++;
+				}
+			} else {
+				literal = negativeClause[j++];
+			}
+			if (Math.abs(literal) != variable) {
+				resolvent[length++] = literal;
+			}
+		}
+		return (length == resolvent.length) ? resolvent : Arrays.copyOf(resolvent, length);
+	}
+
+	/**
+	 * Adds a clause unless it is subsumed by another clause. Removes all clauses that are subsumed by the new clause.
+	 *
+	 * @param literals the sorted literals of the clause
+	 */
+	private void addClause(int[] literals) {
+		if (literals.length == 0) {
+			contradiction = true;
+			return;
+		}
+		final long signature = getSignature(literals);
+		if (isSubsumed(literals, signature)) {
+			return;
+		}
+
+		final int id = clauses.size();
+		clauses.add(literals);
+		if (id == signatures.length) {
+			signatures = Arrays.copyOf(signatures, id << 1);
+		}
+		signatures[id] = signature;
+
+		int dirtyCount = 0;
+		int watchIndex = getLiteralIndex(literals[0]);
+		for (final int literal : literals) {
+			final int index = getLiteralIndex(literal);
+			append(occurrences, occurrenceSizes, index, id);
+			if (watchSizes[index] < watchSizes[watchIndex]) {
+				watchIndex = index;
+			}
+			final int variable = Math.abs(literal);
+			if (dirty[variable]) {
+				dirtyCount++;
+				updateCount(variable, literal > 0, true);
+			}
+		}
+		append(watches, watchSizes, watchIndex, id);
+		if ((dirtyCount > 0) && (dirtyCount < literals.length)) {
+			mixedClauseCount++;
+		}
+
+		removeSubsumedClauses(id, literals, signature);
+	}
+
+	private void deleteClause(int id) {
+		final int[] literals = clauses.set(id, null);
+		int dirtyCount = 0;
+		for (final int literal : literals) {
+			final int variable = Math.abs(literal);
+			if (dirty[variable]) {
+				dirtyCount++;
+				updateCount(variable, literal > 0, false);
+			}
+		}
+		if ((dirtyCount > 0) && (dirtyCount < literals.length)) {
+			mixedClauseCount--;
+		}
+	}
+
+	private void updateCount(int variable, boolean positive, boolean increase) {
+		final DeprecatedFeature feature = map[variable];
+		if (feature != null) {
+			if (positive) {
+				if (increase) {
+					feature.incPositive();
+				} else {
+					feature.decPositive();
+				}
+			} else {
+				if (increase) {
+					feature.incNegative();
+				} else {
+					feature.decNegative();
+				}
+			}
+			if (heuristic != null) {
+				heuristic.update(feature);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether an existing clause is a subset of the given clause. As each clause is watched by exactly one of its literals, only the watch lists of the
+	 * literals of the given clause must be traversed.
+	 */
+	private boolean isSubsumed(int[] literals, long signature) {
+		for (final int literal : literals) {
+			final int index = getLiteralIndex(literal);
+			final int[] ids = watches[index];
+			int size = watchSizes[index];
+			for (int i = 0; i < size; i++) {
+				final int id = ids[i];
+				final int[] otherLiterals = clauses.get(id);
+				if (otherLiterals == null) {
+					// lazily remove deleted clauses
+					ids[i--] = ids[--size];
+				} else if (((signatures[id] & ~signature) == 0) && isSubset(otherLiterals, literals)) {
+					watchSizes[index] = size;
+					return true;
+				}
+			}
+			watchSizes[index] = size;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes all clauses that are a superset of the given clause. Only the occurrence list of the least frequent literal of the given clause must be
+	 * traversed.
+	 */
+	private void removeSubsumedClauses(int id, int[] literals, long signature) {
+		int minIndex = getLiteralIndex(literals[0]);
+		for (final int literal : literals) {
+			final int index = getLiteralIndex(literal);
+			if (occurrenceSizes[index] < occurrenceSizes[minIndex]) {
+				minIndex = index;
+			}
+		}
+		final int[] ids = occurrences[minIndex];
+		int size = occurrenceSizes[minIndex];
+		for (int i = 0; i < size; i++) {
+			final int otherId = ids[i];
+			final int[] otherLiterals = clauses.get(otherId);
+			if (otherLiterals == null) {
+				ids[i--] = ids[--size];
+			} else if ((otherId != id) && ((signature & ~signatures[otherId]) == 0) && isSubset(literals, otherLiterals)) {
+				deleteClause(otherId);
+				ids[i--] = ids[--size];
+			}
+		}
+		occurrenceSizes[minIndex] = size;
+	}
+
+	private static boolean isSubset(int[] subset, int[] superset) {
+		if (subset.length > superset.length) {
+			return false;
+		}
+		int j = 0;
+		for (final int literal : subset) {
+			while ((j < superset.length) && (superset[j] < literal)) {
+				j++;
+			}
+			if ((j == superset.length) || (superset[j] != literal)) {
+				return false;
+			}
+			j++;
+		}
+		return true;
+	}
+
+	private static long getSignature(int[] literals) {
+		long signature = 0;
+		for (final int literal : literals) {
+			signature |= 1L << (getLiteralIndex(literal) & 63);
+		}
+		return signature;
+	}
+
+	private static int getLiteralIndex(int literal) {
+		return (literal > 0) ? (literal << 1) : ((-literal << 1) + 1);
+	}
+
+	private static void append(int[][] lists, int[] sizes, int index, int id) {
+		int[] list = lists[index];
+		final int size = sizes[index];
+		if (list == null) {
+			list = new int[4];
+			lists[index] = list;
+		} else if (size == list.length) {
+			list = Arrays.copyOf(list, size << 1);
+			lists[index] = list;
+		}
+		list[size] = id;
+		sizes[index] = size + 1;
+	}
+
+}
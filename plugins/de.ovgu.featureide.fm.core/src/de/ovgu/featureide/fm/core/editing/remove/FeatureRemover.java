@@ -27,11 +27,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.prop4j.And;
+import org.prop4j.AuxiliaryVariable;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.Or;
@@ -79,6 +81,10 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 
 	protected final Collection<String> cleanFeatures = new HashSet<>();
 	protected final Collection<String> dirtyfeatures;
+	/**
+	 * Variables introduced by a {@link org.prop4j.TseitinTransformer}, which are always removed.
+	 */
+	protected final Set<Object> auxiliaryVariables = new LinkedHashSet<>();
 
 	protected Map<Object, Integer> idMap;
 	protected String[] featureNameArray;
@@ -169,6 +175,8 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 		final Literal literal = (Literal) orChild;
 		if (literal.var instanceof String) {
 			cleanFeatures.add((String) literal.var);
+		} else if (AuxiliaryVariable.isAuxiliary(literal.var)) {
+			auxiliaryVariables.add(literal.var);
 		}
 	}
 
@@ -265,7 +273,7 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 		}
 	}
 
-	private DeprecatedClause getClause(Node andChild) {
+	protected DeprecatedClause getClause(Node andChild) {
 		if (andChild instanceof Or) {
 			int absoluteValueCount = 0;
 			boolean valid = true;
@@ -330,12 +338,8 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 		}
 	}
 
-	private List<? extends Clause> handleComplexFormula(IMonitor workMonitor) throws TimeoutException, UnkownLiteralException {
-		map = new DeprecatedFeature[idMap.size() + 1];
-		for (final String curFeature : dirtyfeatures) {
-			final Integer id = idMap.get(curFeature);
-			map[id] = new DeprecatedFeature(curFeature, id);
-		}
+	protected List<? extends Clause> handleComplexFormula(IMonitor workMonitor) throws TimeoutException, UnkownLiteralException {
+		createFeatureMap();
 		helper = new int[featureNameArray.length];
 
 		// Initialize lists and sets
@@ -381,7 +385,7 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 	private List<? extends Clause> handleSingleClause(IMonitor workMonitor) throws TimeoutException, UnkownLiteralException {
 		for (final Node clauseChildren : fmNode.getChildren()) {
 			final Literal literal = (Literal) clauseChildren;
-			if (dirtyfeatures.contains(literal.var)) {
+			if (dirtyfeatures.contains(literal.var) || AuxiliaryVariable.isAuxiliary(literal.var)) {
 				return Arrays.asList(new Clause());
 			}
 		}
@@ -389,7 +393,8 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 	}
 
 	private List<? extends Clause> handleSingleLiteral(IMonitor workMonitor) throws TimeoutException, UnkownLiteralException {
-		if (dirtyfeatures.contains(((Literal) fmNode).var)) {
+		final Object var = ((Literal) fmNode).var;
+		if (dirtyfeatures.contains(var) || AuxiliaryVariable.isAuxiliary(var)) {
 			return Arrays.asList(new Clause());
 		}
 		return Arrays.asList(getClause(fmNode));
@@ -398,11 +403,12 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 	private void init() {
 		release();
 		cleanClauseList.clear();
+		auxiliaryVariables.clear();
 
 		collectFeatures();
 
-		featureNameArray = new String[cleanFeatures.size() + 1];
-		idMap = new HashMap<>(cleanFeatures.size() << 1);
+		featureNameArray = new String[cleanFeatures.size() + auxiliaryVariables.size() + 1];
+		idMap = new HashMap<>((cleanFeatures.size() + auxiliaryVariables.size()) << 1);
 
 		int id = 1;
 		for (final String name : dirtyfeatures) {
@@ -410,6 +416,11 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 			featureNameArray[id] = name;
 			id++;
 		}
+		for (final Object variable : auxiliaryVariables) {
+			idMap.put(variable, id);
+			featureNameArray[id] = variable.toString();
+			id++;
+		}
 
 		cleanFeatures.removeAll(dirtyfeatures);
 
@@ -420,6 +431,28 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 		}
 	}
 
+	/**
+	 * Creates a {@link DeprecatedFeature} for each removed feature and each auxiliary variable.
+	 */
+	protected final void createFeatureMap() {
+		map = new DeprecatedFeature[idMap.size() + 1];
+		for (final String curFeature : dirtyfeatures) {
+			final Integer id = idMap.get(curFeature);
+			map[id] = new DeprecatedFeature(curFeature, id);
+		}
+		for (final Object variable : auxiliaryVariables) {
+			final Integer id = idMap.get(variable);
+			map[id] = new DeprecatedFeature(variable.toString(), id);
+		}
+	}
+
+	/**
+	 * @return the number of removed features plus the number of auxiliary variables
+	 */
+	protected final int getNumberOfRemovedVariables() {
+		return dirtyfeatures.size() + auxiliaryVariables.size();
+	}
+
 	private void resolution(DeprecatedFeature nextFeature) {
 		final int curFeatureID = nextFeature.getId();
 		for (int i = dirtyListPosIndex; i < dirtyListNegIndex; i++) {
@@ -550,7 +583,7 @@ public class FeatureRemover implements LongRunningMethod<List<? extends Clause>>
 	}
 
 	protected void prepareHeuristics() {
-		heuristic = new MinimumClauseHeuristic(map, dirtyfeatures.size());
+		heuristic = new MinimumClauseHeuristic(map, getNumberOfRemovedVariables());
 		first = true;
 		newSolver = new CNFSolver(cleanClauseList, featureNameArray.length - 1);
 	}
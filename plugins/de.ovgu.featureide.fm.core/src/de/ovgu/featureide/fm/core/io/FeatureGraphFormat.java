@@ -20,19 +20,34 @@
  */
 package de.ovgu.featureide.fm.core.io;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.prop4j.solver.SatInstance;
 
 import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.PluginID;
 import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.MappedFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.SparseFeatureGraph;
 
 /**
- * Reads / Writes a feature graph.
+ * Reads / Writes a feature graph.<br> Besides the serialization via {@link IPersistentFormat}, a feature graph can be stored in a binary format
+ * ({@link #save(Path, IFeatureGraph)}), whose edges are decoded lazily ({@link #load(Path)}). The binary format consists of the following big-endian values:
+ * <ol> <li>the magic number {@link #MAGIC_NUMBER} and the version {@link #VERSION},</li> <li>the number of variables {@code v}, the number of features
+ * in the graph {@code n}, and the number of edges {@code e},</li> <li>the index of each variable ({@code v} integers),</li> <li>the position of the
+ * first edge of each feature and the number of edges ({@code n + 1} integers),</li> <li>the target of each edge, sorted by source and target feature
+ * ({@code e} integers),</li> <li>the value of each edge ({@code e} bytes),</li> <li>the number of variable names followed by the length and the UTF-8
+ * encoding of each name.</li> </ol> A binary feature graph is limited to {@link Integer#MAX_VALUE} bytes.
  *
  * @author Sebastian Krieter
  */
@@ -40,6 +55,125 @@ public class FeatureGraphFormat extends APersistentFormat<IFeatureGraph> impleme
 
 	public static final String ID = PluginID.PLUGIN_ID + ".format.fg." + FeatureGraphFormat.class.getSimpleName();
 
+	public static final int MAGIC_NUMBER = 0x46474249;
+	public static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 5 * 4;
+
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+
+	/**
+	 * Writes a feature graph in the binary format.
+	 *
+	 * @param path the file to write
+	 * @param featureGraph the feature graph
+	 * @throws IOException if the file cannot be written or the graph exceeds the size limit of the format
+	 */
+	public static void save(Path path, IFeatureGraph featureGraph) throws IOException {
+		final SparseFeatureGraph sparseGraph =
+			(featureGraph instanceof SparseFeatureGraph) ? (SparseFeatureGraph) featureGraph : new SparseFeatureGraph(featureGraph);
+		final int[] index = sparseGraph.getIndex();
+		final int size = sparseGraph.getSize();
+		long numberOfEdges = 0;
+		for (int i = 0; i < size; i++) {
+			numberOfEdges += sparseGraph.getNumberOfEdges(i);
+		}
+
+		final SatInstance satInstance = featureGraph.getSatInstance();
+		final byte[][] names = new byte[satInstance == null ? 0 : index.length][];
+		long fileSize = getNamesStart(index.length, size, numberOfEdges) + 4;
+		for (int i = 0; i < names.length; i++) {
+			names[i] = String.valueOf(satInstance.getVariableObject(i + 1)).getBytes(CHARSET);
+			fileSize += 4 + names[i].length;
+		}
+		if (fileSize > Integer.MAX_VALUE) {
+			throw new IOException("Feature graph too large for the binary format (" + fileSize + " bytes): " + path);
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			out.writeInt(MAGIC_NUMBER);
+			out.writeInt(VERSION);
+			out.writeInt(index.length);
+			out.writeInt(size);
+			out.writeInt((int) numberOfEdges);
+			for (final int variableIndex : index) {
+				out.writeInt(variableIndex);
+			}
+			int rowStart = 0;
+			for (int i = 0; i < size; i++) {
+				out.writeInt(rowStart);
+				rowStart += sparseGraph.getNumberOfEdges(i);
+			}
+			out.writeInt(rowStart);
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < sparseGraph.getNumberOfEdges(i); j++) {
+					out.writeInt(sparseGraph.getTarget(i, j));
+				}
+			}
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < sparseGraph.getNumberOfEdges(i); j++) {
+					out.writeByte(sparseGraph.getEdgeAt(i, j));
+				}
+			}
+			out.writeInt(names.length);
+			for (final byte[] name : names) {
+				out.writeInt(name.length);
+				out.write(name);
+			}
+		}
+	}
+
+	/**
+	 * Reads a feature graph in the binary format into memory. The edges are not decoded until they are accessed.<br> The file is copied into a heap
+	 * buffer instead of being memory-mapped, as a mapping would keep the file locked on some platforms until the graph is garbage collected.
+	 *
+	 * @param path the file to read
+	 * @return the read-only feature graph
+	 * @throws IOException if the file cannot be read or has a wrong format
+	 */
+	public static MappedFeatureGraph load(Path path) throws IOException {
+		final long fileSize = Files.size(path);
+		if (fileSize > Integer.MAX_VALUE) {
+			throw new IOException("Feature graph too large for the binary format (" + fileSize + " bytes): " + path);
+		}
+		final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+		if ((buffer.limit() < HEADER_SIZE) || (buffer.getInt(0) != MAGIC_NUMBER)) {
+			throw new IOException("No binary feature graph: " + path);
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported version of feature graph: " + buffer.getInt(4));
+		}
+		final int numberOfVariables = buffer.getInt(8);
+		final int size = buffer.getInt(12);
+		final int numberOfEdges = buffer.getInt(16);
+		if ((numberOfVariables < 0) || (size < 0) || (numberOfEdges < 0) || (getNamesStart(numberOfVariables, size, numberOfEdges) + 4 > buffer.limit())) {
+			throw new IOException("Corrupt feature graph: " + path);
+		}
+
+		// all offsets are within the buffer and therefore fit into an int
+		final int[] index = new int[numberOfVariables];
+		buffer.position(HEADER_SIZE);
+		buffer.asIntBuffer().get(index);
+		final int rowStartsStart = HEADER_SIZE + (numberOfVariables << 2);
+		final int targetsStart = rowStartsStart + ((size + 1) << 2);
+		final int edgesStart = targetsStart + (numberOfEdges << 2);
+		final int namesStart = edgesStart + numberOfEdges;
+		return new MappedFeatureGraph(index, slice(buffer, rowStartsStart, (size + 1) << 2).asIntBuffer(),
+				slice(buffer, targetsStart, numberOfEdges << 2).asIntBuffer(), slice(buffer, edgesStart, numberOfEdges),
+				slice(buffer, namesStart, buffer.limit() - namesStart));
+	}
+
+	private static long getNamesStart(long numberOfVariables, long size, long numberOfEdges) {
+		return HEADER_SIZE + ((numberOfVariables + size + 1 + numberOfEdges) << 2) + numberOfEdges;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int start, int length) {
+		final ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(start);
+		duplicate.limit(start + length);
+		return duplicate.slice();
+	}
+
 	@Override
 	public ProblemList read(IFeatureGraph object, CharSequence source) {
 		final ProblemList problems = new ProblemList();
@@ -350,7 +350,9 @@ public class SliceFeatureModelJob extends AProjectJob<SliceFeatureModelJob.Argum
 		monitor.setTaskName("Slicing Feature Model Formula");
 		final ArrayList<String> removeFeatures = new ArrayList<>(FeatureUtils.getFeatureNames(m));
 		removeFeatures.removeAll(selectedFeatureNames);
-		final AdvancedNodeCreator nc = new AdvancedNodeCreator(m, removeFeatures, CNFType.Regular, ModelType.All, false);
+		// auxiliary variables are only eliminated together with removed features
+		final CNFType cnfType = removeFeatures.isEmpty() ? CNFType.Regular : CNFType.Tseitin;
+		final AdvancedNodeCreator nc = new AdvancedNodeCreator(m, removeFeatures, cnfType, ModelType.All, false);
 		final Node cnf = LongRunningWrapper.runMethod(nc, monitor);
 		return cnf;
 	}
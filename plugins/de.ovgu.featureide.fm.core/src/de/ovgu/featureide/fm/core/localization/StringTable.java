@@ -454,6 +454,7 @@ public class StringTable {
 	public static final String CALCULATE_REDUNDANT_CONSTRAINTS = "Calculate Redundant Constraints";
 	public static final String RUN_MANUAL_CALCULATIONS = "Run Manual Calculations";
 	public static final String CALCULATE_TAUTOLOGY_CONSTRAINTS = "Calculate Tautology Constraints";
+	public static final String INCREMENTAL_CALCULATIONS = "Incremental Calculations";
 	public static final String CHANGE_DESCRIPTION = "Change Description";
 	public static final String FEATURE_DESCRIPTION = "Feature Description";
 	public static final String CREATE_FEATURE_ABOVE = "Create Feature Above";
@@ -721,6 +722,7 @@ public class StringTable {
 	public static final String CASA = "CASA (experimental)";
 	public static final String ICPL = "ICPL";
 	public static final String INCLING = "IncLing";
+	public static final String YASA = "YASA";
 	public static final String SORT_CONFIGURATIONS = "Sort configurations";
 	public static final String COMPILER = "Compiler";
 	public static final String SYMBOL = "symbol";
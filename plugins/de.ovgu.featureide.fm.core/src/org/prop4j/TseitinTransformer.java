@@ -0,0 +1,436 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transforms formulas into regular conjunctive normal form without an exponential blow-up.<br> Formulas whose CNF is small are transformed by
+ * distribution ({@link Node#toRegularCNF()}). For all other formulas, each complex subformula is replaced by an {@link AuxiliaryVariable auxiliary variable},
+ * which is defined to be equivalent to the subformula (Tseitin transformation). Equal subformulas share the same auxiliary variable. As every auxiliary
+ * variable is determined by the original variables, the resulting CNF has exactly one solution for each solution of the original formula.<br> Cardinality
+ * constraints ({@link AtLeast}, {@link AtMost}, {@link Choose}) are encoded with a counter, which requires a quadratic number of clauses instead of an
+ * exponential one.
+ *
+ * @author agent
+ */
+public class TseitinTransformer {
+
+	public static final int DEFAULT_MAX_DISTRIBUTED_CLAUSES = 64;
+
+	private static final int TRUE = Integer.MAX_VALUE;
+	private static final int FALSE = -TRUE;
+
+	private static final long MAX_ESTIMATE = Integer.MAX_VALUE;
+
+	private static final byte AND = 0, EQUALS = 1;
+
+	private static final class Gate {
+
+		private final byte type;
+		private final int[] inputs;
+		private final int hashCode;
+
+		private Gate(byte type, int[] inputs) {
+			this.type = type;
+			this.inputs = inputs;
+			hashCode = (31 * Arrays.hashCode(inputs)) + type;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final Gate other = (Gate) obj;
+			return (type == other.type) && Arrays.equals(inputs, other.inputs);
+		}
+
+	}
+
+	private final Map<Object, Integer> variableIndexes = new HashMap<>();
+	private final List<Object> variables = new ArrayList<>();
+	private final Map<Gate, Integer> gates = new HashMap<>();
+	private final List<int[]> clauses = new ArrayList<>();
+
+	private int maxDistributedClauses = DEFAULT_MAX_DISTRIBUTED_CLAUSES;
+
+	/**
+	 * Transforms a formula into regular conjunctive normal form using the default settings.
+	 *
+	 * @param node the formula
+	 * @return the CNF of the formula
+	 *
+	 * @see #transform(Node)
+	 */
+	public static Node toRegularCNF(Node node) {
+		return new TseitinTransformer().transform(node);
+	}
+
+	public int getMaxDistributedClauses() {
+		return maxDistributedClauses;
+	}
+
+	/**
+	 * @param maxDistributedClauses the maximum number of clauses for which a formula is transformed by distribution (a negative value enforces the Tseitin
+	 *        transformation)
+	 */
+	public void setMaxDistributedClauses(int maxDistributedClauses) {
+		this.maxDistributedClauses = maxDistributedClauses;
+	}
+
+	/**
+	 * Transforms a formula into regular conjunctive normal form (i.e., a conjunction of clauses, each containing only literals). The given formula is not
+	 * modified. Auxiliary variables are only shared within the CNF of one formula.
+	 *
+	 * @param node the formula
+	 * @return the CNF of the formula
+	 */
+	public Node transform(Node node) {
+		if (estimateClauses(node, true) <= maxDistributedClauses) {
+			return node.clone().toRegularCNF();
+		}
+		try {
+			addConstraint(node, true);
+			final Node[] clauseNodes = new Node[clauses.size()];
+			for (int i = 0; i < clauseNodes.length; i++) {
+				final int[] clause = clauses.get(i);
+				final Node[] literals = new Node[clause.length];
+				for (int j = 0; j < clause.length; j++) {
+					final int literal = clause[j];
+					literals[j] = new Literal(variables.get(Math.abs(literal) - 1), literal > 0);
+				}
+				clauseNodes[i] = new Or(literals);
+			}
+			return new And(clauseNodes);
+		} finally {
+			variableIndexes.clear();
+			variables.clear();
+			gates.clear();
+			clauses.clear();
+		}
+	}
+
+	/**
+	 * Estimates the number of clauses that result from transforming a formula by distribution.
+	 *
+	 * @param node the formula
+	 * @param positive {@code false} if the negation of the formula should be considered
+	 * @return the number of clauses or {@link Integer#MAX_VALUE} if the number is too large or cannot be estimated
+	 */
+	public static long estimateClauses(Node node, boolean positive) {
+		final Node[] children = node.getChildren();
+		if (node instanceof Literal) {
+			return 1;
+		} else if (node instanceof Not) {
+			return estimateClauses(children[0], !positive);
+		} else if ((node instanceof And) || (node instanceof Or)) {
+			final boolean sum = (node instanceof And) == positive;
+			long estimate = sum ? 0 : 1;
+			for (final Node child : children) {
+				final long childEstimate = estimateClauses(child, positive);
+				estimate = sum ? add(estimate, childEstimate) : multiply(estimate, childEstimate);
+			}
+			return estimate;
+		} else if (node instanceof Implies) {
+			return positive ? multiply(estimateClauses(children[0], false), estimateClauses(children[1], true))
+				: add(estimateClauses(children[0], true), estimateClauses(children[1], false));
+		} else if (node instanceof Equals) {
+			final long positive0 = estimateClauses(children[0], true);
+			final long negative0 = estimateClauses(children[0], false);
+			final long positive1 = estimateClauses(children[1], true);
+			final long negative1 = estimateClauses(children[1], false);
+			return positive ? add(multiply(negative0, positive1), multiply(positive0, negative1))
+				: add(multiply(positive0, positive1), multiply(negative0, negative1));
+		} else {
+			for (final Node child : children) {
+				if (!(child instanceof Literal)) {
+					return MAX_ESTIMATE;
+				}
+			}
+			final int n = children.length;
+			if (node instanceof AtMost) {
+				final int k = ((AtMost) node).max;
+				return positive ? binom(n, k + 1) : binom(n, n - k);
+			} else if (node instanceof AtLeast) {
+				final int k = ((AtLeast) node).min;
+				return positive ? binom(n, (n - k) + 1) : binom(n, k);
+			} else if (node instanceof Choose) {
+				final int k = ((Choose) node).n;
+				return positive ? add(binom(n, k + 1), binom(n, (n - k) + 1)) : multiply(binom(n, k), binom(n, n - k));
+			}
+			return MAX_ESTIMATE;
+		}
+	}
+
+	private static long add(long a, long b) {
+		return Math.min(MAX_ESTIMATE, a + b);
+	}
+
+	private static long multiply(long a, long b) {
+		if ((a == 0) || (b == 0)) {
+			return 0;
+		}
+		return (a > (MAX_ESTIMATE / b)) ? MAX_ESTIMATE : a * b;
+	}
+
+	private static long binom(int n, int k) {
+		if ((k < 0) || (k > n)) {
+			return 1;
+		}
+		k = Math.min(k, n - k);
+		long result = 1;
+		for (int i = 1; i <= k; i++) {
+			result = (result * ((n - k) + i)) / i;
+			if (result >= MAX_ESTIMATE) {
+				return MAX_ESTIMATE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the clauses of a formula that must be satisfied. Only nested subformulas are replaced by auxiliary variables.
+	 */
+	private void addConstraint(Node node, boolean positive) {
+		final Node[] children = node.getChildren();
+		if (node instanceof Not) {
+			addConstraint(children[0], !positive);
+		} else if (((node instanceof And) && positive) || ((node instanceof Or) && !positive)) {
+			for (final Node child : children) {
+				addConstraint(child, positive);
+			}
+		} else if ((node instanceof Implies) && !positive) {
+			addConstraint(children[0], true);
+			addConstraint(children[1], false);
+		} else if ((node instanceof Equals)) {
+			final int a = getLiteral(children[0]);
+			final int b = positive ? getLiteral(children[1]) : -getLiteral(children[1]);
+			addClause(-a, b);
+			addClause(a, -b);
+		} else {
+			final List<Integer> clause = new ArrayList<>();
+			addDisjunction(node, positive, clause);
+			final int[] clauseArray = new int[clause.size()];
+			for (int i = 0; i < clauseArray.length; i++) {
+				clauseArray[i] = clause.get(i);
+			}
+			addClause(clauseArray);
+		}
+	}
+
+	private void addDisjunction(Node node, boolean positive, List<Integer> clause) {
+		final Node[] children = node.getChildren();
+		if (node instanceof Not) {
+			addDisjunction(children[0], !positive, clause);
+		} else if (((node instanceof Or) && positive) || ((node instanceof And) && !positive)) {
+			for (final Node child : children) {
+				addDisjunction(child, positive, clause);
+			}
+		} else if ((node instanceof Implies) && positive) {
+			addDisjunction(children[0], false, clause);
+			addDisjunction(children[1], true, clause);
+		} else {
+			final int literal = getLiteral(node);
+			clause.add(positive ? literal : -literal);
+		}
+	}
+
+	/**
+	 * Adds a clause unless it is satisfied by a constant or contains complementary literals.
+	 */
+	private void addClause(int... clause) {
+		final int[] sortedClause = clause.clone();
+		Arrays.sort(sortedClause);
+		int length = 0;
+		for (int i = 0; i < sortedClause.length; i++) {
+			final int literal = sortedClause[i];
+			if ((literal == TRUE) || (Arrays.binarySearch(sortedClause, -literal) >= 0)) {
+				return;
+			}
+			if ((literal != FALSE) && ((length == 0) || (sortedClause[length - 1] != literal))) {
+				sortedClause[length++] = literal;
+			}
+		}
+		clauses.add(Arrays.copyOf(sortedClause, length));
+	}
+
+	/**
+	 * @return a literal that is equivalent to the given formula
+	 */
+	private int getLiteral(Node node) {
+		final Node[] children = node.getChildren();
+		if (node instanceof Literal) {
+			final Literal literal = (Literal) node;
+			final int variable = getVariable(literal.var);
+			return literal.positive ? variable : -variable;
+		} else if (node instanceof Not) {
+			return -getLiteral(children[0]);
+		} else if (node instanceof And) {
+			return and(getLiterals(children, false));
+		} else if (node instanceof Or) {
+			return -and(getLiterals(children, true));
+		} else if (node instanceof Implies) {
+			return -and(getLiteral(children[0]), -getLiteral(children[1]));
+		} else if (node instanceof Equals) {
+			return equals(getLiteral(children[0]), getLiteral(children[1]));
+		} else if (node instanceof AtLeast) {
+			final int k = ((AtLeast) node).min;
+			return (k <= 0) ? TRUE : (k > children.length) ? FALSE : count(getLiterals(children, false), k)[k];
+		} else if (node instanceof AtMost) {
+			final int k = ((AtMost) node).max + 1;
+			return (k <= 0) ? FALSE : (k > children.length) ? TRUE : -count(getLiterals(children, false), k)[k];
+		} else if (node instanceof Choose) {
+			final int k = ((Choose) node).n;
+			if ((k < 0) || (k > children.length)) {
+				return FALSE;
+			}
+			final int[] counter = count(getLiterals(children, false), k + 1);
+			return and(counter[k], -counter[k + 1]);
+		} else {
+			throw new IllegalArgumentException("Unsupported node " + node.getClass().getSimpleName());
+		}
+	}
+
+	private int[] getLiterals(Node[] nodes, boolean negated) {
+		final int[] literals = new int[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			literals[i] = negated ? -getLiteral(nodes[i]) : getLiteral(nodes[i]);
+		}
+		return literals;
+	}
+
+	private int getVariable(Object var) {
+		Integer index = variableIndexes.get(var);
+		if (index == null) {
+			variables.add(var);
+			index = variables.size();
+			variableIndexes.put(var, index);
+		}
+		return index;
+	}
+
+	private int newAuxiliaryVariable() {
+		return getVariable(new AuxiliaryVariable());
+	}
+
+	/**
+	 * @return a literal that is equivalent to the conjunction of the given literals
+	 */
+	private int and(int... inputs) {
+		final int[] sortedInputs = inputs.clone();
+		Arrays.sort(sortedInputs);
+		int length = 0;
+		for (int i = 0; i < sortedInputs.length; i++) {
+			final int literal = sortedInputs[i];
+			if ((literal == FALSE) || (Arrays.binarySearch(sortedInputs, -literal) >= 0)) {
+				return FALSE;
+			}
+			if ((literal != TRUE) && ((length == 0) || (sortedInputs[length - 1] != literal))) {
+				sortedInputs[length++] = literal;
+			}
+		}
+		if (length == 0) {
+			return TRUE;
+		} else if (length == 1) {
+			return sortedInputs[0];
+		}
+
+		final int[] gateInputs = Arrays.copyOf(sortedInputs, length);
+		final Gate gate = new Gate(AND, gateInputs);
+		Integer output = gates.get(gate);
+		if (output == null) {
+			output = newAuxiliaryVariable();
+			gates.put(gate, output);
+			final int[] clause = new int[length + 1];
+			for (int i = 0; i < length; i++) {
+				addClause(-output, gateInputs[i]);
+				clause[i] = -gateInputs[i];
+			}
+			clause[length] = output;
+			addClause(clause);
+		}
+		return output;
+	}
+
+	/**
+	 * @return a literal that is equivalent to the equivalence of the given literals
+	 */
+	private int equals(int a, int b) {
+		if (a == b) {
+			return TRUE;
+		} else if (a == -b) {
+			return FALSE;
+		} else if ((a == TRUE) || (a == FALSE)) {
+			return (a == TRUE) ? b : -b;
+		} else if ((b == TRUE) || (b == FALSE)) {
+			return (b == TRUE) ? a : -a;
+		}
+
+		// x <=> y is equivalent to -x <=> -y and the negation of x <=> -y
+		final int sign = ((a > 0) == (b > 0)) ? 1 : -1;
+		final int x = Math.min(Math.abs(a), Math.abs(b));
+		final int y = Math.max(Math.abs(a), Math.abs(b));
+		final Gate gate = new Gate(EQUALS, new int[] { x, y });
+		Integer output = gates.get(gate);
+		if (output == null) {
+			output = newAuxiliaryVariable();
+			gates.put(gate, output);
+			addClause(-output, -x, y);
+			addClause(-output, x, -y);
+			addClause(output, x, y);
+			addClause(output, -x, -y);
+		}
+		return sign * output;
+	}
+
+	/**
+	 * Creates a counter for the given literals.
+	 *
+	 * @param inputs the literals
+	 * @param k the maximum count
+	 * @return for each {@code j} from {@code 0} to {@code k} a literal that is true iff at least {@code j} of the given literals are true
+	 */
+	private int[] count(int[] inputs, int k) {
+		final int[] counter = new int[k + 1];
+		Arrays.fill(counter, FALSE);
+		counter[0] = TRUE;
+		for (final int input : inputs) {
+			for (int j = k; j > 0; j--) {
+				counter[j] = -and(-counter[j], -and(counter[j - 1], input));
+			}
+		}
+		return counter;
+	}
+
+}
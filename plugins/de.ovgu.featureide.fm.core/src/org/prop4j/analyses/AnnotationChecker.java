@@ -0,0 +1,368 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.prop4j.And;
+import org.prop4j.Equals;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Checks preprocessor annotations for contradictions and tautologies with respect to a feature model.<br> Each thread uses its own incremental solver,
+ * which contains the formula of the feature model only once. Annotations are added to the solver via the Tseitin transformation, such that each
+ * (sub-)expression is represented by a single literal. Thus, an annotation and its enclosing annotations are checked by assuming their literals. The
+ * formula of the feature model is guarded by an additional literal, so expressions can also be checked without the feature model.<br> The results are
+ * cached by the normalized expression and its context. A checker can be used by several threads at the same time.
+ *
+ * @author agent
+ */
+public class AnnotationChecker {
+
+	public static final long DEFAULT_TIMEOUT = 1000;
+
+	/**
+	 * The status of an annotation.
+	 */
+	public static enum AnnotationStatus {
+		/**
+		 * The annotation is neither a contradiction nor a tautology.
+		 */
+		NORMAL,
+		/**
+		 * The expression of the annotation is a contradiction.
+		 */
+		CONTRADICTION,
+		/**
+		 * The expression of the annotation is a tautology.
+		 */
+		TAUTOLOGY,
+		/**
+		 * The expression of the annotation is a contradiction with respect to the feature model and the enclosing annotations.
+		 */
+		DEAD,
+		/**
+		 * The expression of the annotation is a tautology with respect to the feature model and the enclosing annotations.
+		 */
+		SUPERFLUOUS,
+		/**
+		 * The feature model is void.
+		 */
+		VOID
+	}
+
+	private class Worker {
+
+		private final ISolver solver = SolverFactory.newDefault();
+		private final Map<Object, Integer> variables = new HashMap<>();
+		private final Map<String, Integer> gates = new HashMap<>();
+		private final int featureModelLiteral;
+
+		public Worker() {
+			solver.setTimeoutMs(timeout);
+			solver.setDBSimplificationAllowed(true);
+			solver.setVerbose(false);
+			featureModelLiteral = newVariable();
+			addFormula(featureModel, featureModelLiteral);
+		}
+
+		public boolean isSatisfiable(int... assumptions) throws TimeoutException {
+			return solver.isSatisfiable(new VecInt(assumptions));
+		}
+
+		private int newVariable() {
+			final int variable = solver.nextFreeVarId(true);
+			solver.newVar(variable);
+			return variable;
+		}
+
+		/**
+		 * Adds the given formula to the solver. The formula is only enforced, if the guard literal is assumed to be true.
+		 */
+		private void addFormula(Node formula, int guard) {
+			if (formula instanceof And) {
+				for (final Node child : formula.getChildren()) {
+					addFormula(child, guard);
+				}
+			} else {
+				addClause(-guard, getLiteral(formula));
+			}
+		}
+
+		/**
+		 * Returns a literal that is equivalent to the given expression. Complex expressions are defined by new variables, which are reused for equal
+		 * expressions.
+		 */
+		public int getLiteral(Node expression) {
+			if (expression instanceof Literal) {
+				final Literal literal = (Literal) expression;
+				Integer variable = variables.get(literal.var);
+				if (variable == null) {
+					variable = newVariable();
+					variables.put(literal.var, variable);
+				}
+				return literal.positive ? variable : -variable;
+			} else if (expression instanceof Not) {
+				return -getLiteral(expression.getChildren()[0]);
+			}
+
+			final String key = normalize(expression);
+			final Integer gate = gates.get(key);
+			if (gate != null) {
+				return gate;
+			}
+
+			final int literal;
+			if (expression instanceof And) {
+				literal = addAndGate(getLiterals(expression.getChildren(), false));
+			} else if (expression instanceof Or) {
+				literal = -addAndGate(getLiterals(expression.getChildren(), true));
+			} else if (expression instanceof Implies) {
+				final Node[] children = expression.getChildren();
+				literal = -addAndGate(getLiteral(children[0]), -getLiteral(children[1]));
+			} else if (expression instanceof Equals) {
+				final Node[] children = expression.getChildren();
+				literal = addEqualsGate(getLiteral(children[0]), getLiteral(children[1]));
+			} else {
+				literal = getLiteral(expression.toRegularCNF());
+			}
+			gates.put(key, literal);
+			return literal;
+		}
+
+		private int[] getLiterals(Node[] children, boolean negate) {
+			final int[] literals = new int[children.length];
+			for (int i = 0; i < children.length; i++) {
+				final int literal = getLiteral(children[i]);
+				literals[i] = negate ? -literal : literal;
+			}
+			return literals;
+		}
+
+		/**
+		 * @return a new variable {@code g} with {@code g <=> (l1 & ... & ln)}
+		 */
+		private int addAndGate(int... literals) {
+			final int gate = newVariable();
+			final int[] clause = new int[literals.length + 1];
+			for (int i = 0; i < literals.length; i++) {
+				addClause(-gate, literals[i]);
+				clause[i] = -literals[i];
+			}
+			clause[literals.length] = gate;
+			addClause(clause);
+			return gate;
+		}
+
+		/**
+		 * @return a new variable {@code g} with {@code g <=> (a <=> b)}
+		 */
+		private int addEqualsGate(int a, int b) {
+			final int gate = newVariable();
+			addClause(-gate, -a, b);
+			addClause(-gate, a, -b);
+			addClause(gate, a, b);
+			addClause(gate, -a, -b);
+			return gate;
+		}
+
+		private void addClause(int... clause) {
+			try {
+				solver.addClause(new VecInt(clause));
+			} catch (final ContradictionException e) {
+				// each clause contains a new variable or the guard of the feature model, so it cannot be unsatisfiable on its own
+				throw new IllegalStateException(e);
+			}
+		}
+
+	}
+
+	private final Node featureModel;
+	private final long timeout;
+
+	private final Map<String, AnnotationStatus> results = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+
+		@Override
+		protected Worker initialValue() {
+			return new Worker();
+		}
+	};
+
+	private volatile Boolean voidFeatureModel = null;
+
+	/**
+	 * @param featureModel the formula of the feature model
+	 */
+	public AnnotationChecker(Node featureModel) {
+		this(featureModel, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * @param featureModel the formula of the feature model
+	 * @param timeout the timeout in milliseconds for each call of a solver
+	 */
+	public AnnotationChecker(Node featureModel, long timeout) {
+		this.featureModel = featureModel;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return {@code true} if the feature model has no valid configuration
+	 * @throws TimeoutException if the solver could not decide the satisfiability within the timeout
+	 */
+	public boolean isVoid() throws TimeoutException {
+		if (voidFeatureModel == null) {
+			final Worker worker = workers.get();
+			voidFeatureModel = !worker.isSatisfiable(worker.featureModelLiteral);
+		}
+		return voidFeatureModel;
+	}
+
+	/**
+	 * Checks the given expression for contradictions and tautologies.
+	 *
+	 * @param expression the expression of the annotation
+	 * @param context the expressions of all enclosing annotations
+	 * @return the status of the annotation
+	 * @throws TimeoutException if the solver could not decide the satisfiability within the timeout
+	 */
+	public AnnotationStatus check(Node expression, List<Node> context) throws TimeoutException {
+		if (isVoid()) {
+			return AnnotationStatus.VOID;
+		}
+
+		final String[] contextKeys = new String[context.size()];
+		for (int i = 0; i < contextKeys.length; i++) {
+			contextKeys[i] = normalize(context.get(i));
+		}
+		Arrays.sort(contextKeys);
+		final StringBuilder sb = new StringBuilder(normalize(expression));
+		for (final String contextKey : contextKeys) {
+			sb.append('\n');
+			sb.append(contextKey);
+		}
+		final String key = sb.toString();
+
+		AnnotationStatus status = results.get(key);
+		if (status == null) {
+			status = computeStatus(expression, context);
+			results.put(key, status);
+		}
+		return status;
+	}
+
+	private AnnotationStatus computeStatus(Node expression, List<Node> context) throws TimeoutException {
+		final Worker worker = workers.get();
+		final int literal = worker.getLiteral(expression);
+
+		// -SAT(expression)
+		if (!worker.isSatisfiable(literal)) {
+			return AnnotationStatus.CONTRADICTION;
+		}
+		// -SAT(-expression)
+		if (!worker.isSatisfiable(-literal)) {
+			return AnnotationStatus.TAUTOLOGY;
+		}
+
+		final int[] assumptions = new int[context.size() + 2];
+		assumptions[0] = worker.featureModelLiteral;
+		for (int i = 0; i < context.size(); i++) {
+			assumptions[i + 1] = worker.getLiteral(context.get(i));
+		}
+		// -SAT(FM & nestedExpressions & expression)
+		assumptions[assumptions.length - 1] = literal;
+		if (!worker.isSatisfiable(assumptions)) {
+			return AnnotationStatus.DEAD;
+		}
+		// -SAT(FM & nestedExpressions & -expression)
+		assumptions[assumptions.length - 1] = -literal;
+		if (!worker.isSatisfiable(assumptions)) {
+			return AnnotationStatus.SUPERFLUOUS;
+		}
+		return AnnotationStatus.NORMAL;
+	}
+
+	/**
+	 * @return the number of cached results
+	 */
+	public int getNumberOfCachedResults() {
+		return results.size();
+	}
+
+	/**
+	 * Creates a string representation of the given expression, which is equal for expressions that only differ in the order of the operands of
+	 * commutative operators.
+	 */
+	private static String normalize(Node expression) {
+		if (expression instanceof Literal) {
+			final Literal literal = (Literal) expression;
+			return literal.positive ? String.valueOf(literal.var) : "-" + literal.var;
+		} else if (expression instanceof Not) {
+			return "-(" + normalize(expression.getChildren()[0]) + ")";
+		} else if (expression instanceof Implies) {
+			final Node[] children = expression.getChildren();
+			return ">(" + normalize(children[0]) + "," + normalize(children[1]) + ")";
+		}
+
+		final char operator;
+		if (expression instanceof And) {
+			operator = '&';
+		} else if (expression instanceof Or) {
+			operator = '|';
+		} else if (expression instanceof Equals) {
+			operator = '=';
+		} else {
+			return expression.getClass().getSimpleName() + "(" + expression + ")";
+		}
+		final List<String> children = new ArrayList<>();
+		for (final Node child : expression.getChildren()) {
+			children.add(normalize(child));
+		}
+		Collections.sort(children);
+		final StringBuilder sb = new StringBuilder();
+		sb.append(operator);
+		sb.append('(');
+		for (final String child : children) {
+			sb.append(child);
+			sb.append(',');
+		}
+		sb.append(')');
+		return sb.toString();
+	}
+
+}
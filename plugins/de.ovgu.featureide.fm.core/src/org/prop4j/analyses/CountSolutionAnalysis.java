@@ -20,13 +20,17 @@
  */
 package org.prop4j.analyses;
 
+import java.math.BigInteger;
+
 import org.prop4j.solver.BasicSolver;
 import org.prop4j.solver.ISatSolver;
 import org.prop4j.solver.ISatSolver.SelectionStrategy;
+import org.prop4j.solver.ModelCounter;
 import org.prop4j.solver.SatInstance;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.core.Solver;
 import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.TimeoutException;
 
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 
@@ -35,14 +39,35 @@ import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
  *
  * @author Sebastian Krieter
  */
-public class CountSolutionAnalysis extends AbstractAnalysis<Long> {
+public class CountSolutionAnalysis extends AbstractAnalysis<BigInteger> {
+
+	public static enum CountingStrategy {
+		/**
+		 * Enumerates all solutions one by one. Returns a lower bound, if a timeout occurs.
+		 */
+		ENUMERATION,
+		/**
+		 * Exact model counting via {@link ModelCounter} (component decomposition, component caching, and clause learning). Falls back to
+		 * {@link #ENUMERATION}, if a timeout occurs.
+		 */
+		EXACT
+	}
+
+	private final CountingStrategy strategy;
+	private final long timeout;
 
 	public CountSolutionAnalysis(SatInstance satInstance) {
 		this(satInstance, ISatSolver.DEFAULT_TIMEOUT);
 	}
 
 	public CountSolutionAnalysis(SatInstance satInstance, long globalTimeout) {
+		this(satInstance, globalTimeout, CountingStrategy.EXACT);
+	}
+
+	public CountSolutionAnalysis(SatInstance satInstance, long globalTimeout, CountingStrategy strategy) {
 		super(createSolver(satInstance, globalTimeout));
+		this.strategy = strategy;
+		this.timeout = globalTimeout;
 	}
 
 	private static BasicSolver createSolver(SatInstance satInstance, final long timeout) {
@@ -61,8 +86,33 @@ public class CountSolutionAnalysis extends AbstractAnalysis<Long> {
 		}
 	}
 
+	/**
+	 * @return the number of solutions or, if a timeout occurred, a negative value <i>-1 - x</i>, where <i>x</i> is a lower bound for the number of solutions
+	 */
 	@Override
-	public Long analyze(IMonitor monitor) throws Exception {
+	public BigInteger analyze(IMonitor monitor) throws Exception {
+		switch (strategy) {
+		case ENUMERATION:
+			return BigInteger.valueOf(enumerate());
+		case EXACT:
+			return count(monitor);
+		default:
+			throw new AssertionError(strategy);
+		}
+	}
+
+	private BigInteger count(IMonitor monitor) {
+		final ModelCounter modelCounter = new ModelCounter(solver.getSatInstance());
+		modelCounter.setTimeout(timeout);
+		modelCounter.setMonitor(monitor);
+		try {
+			return modelCounter.countSolutions(solver.getAssignmentArray(0, solver.getAssignment().size()));
+		} catch (final TimeoutException e) {
+			return BigInteger.valueOf(enumerate());
+		}
+	}
+
+	private long enumerate() {
 		long lowerBound = 0;
 		solver.setSelectionStrategy(SelectionStrategy.RANDOM);
 		solutionLoop: while (true) {
@@ -87,4 +137,8 @@ public class CountSolutionAnalysis extends AbstractAnalysis<Long> {
 		return lowerBound;
 	}
 
+	public CountingStrategy getStrategy() {
+		return strategy;
+	}
+
 }
@@ -21,11 +21,10 @@
 package org.prop4j.analyses;
 
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.LinkedList;
 
 import org.prop4j.Literal;
 import org.prop4j.Node;
+import org.prop4j.analyses.ParallelImplicationAnalysis.ICandidateFilter;
 import org.prop4j.solver.ISatSolver;
 import org.prop4j.solver.ISatSolver.SelectionStrategy;
 import org.prop4j.solver.SatInstance;
@@ -33,6 +32,7 @@ import org.prop4j.solver.SatInstance;
 import de.ovgu.featureide.fm.core.conf.AFeatureGraph;
 import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
 import de.ovgu.featureide.fm.core.conf.MatrixFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.SparseFeatureGraph;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 
 /**
@@ -42,16 +42,21 @@ import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
  */
 public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 
-	private byte[] core = new byte[0];
+	/**
+	 * The maximum number of features for which a {@link MatrixFeatureGraph} is built. Larger graphs are stored as {@link SparseFeatureGraph}.
+	 */
+	public static final int DEFAULT_MAX_MATRIX_SIZE = 4096;
 
-	private final Deque<Integer> parentStack = new LinkedList<>();
-	private byte[] recArray = new byte[0];
+	private byte[] core = new byte[0];
 
 	private byte[] visited;
 	private boolean[] complete;
 	private int[] index;
 	private IFeatureGraph featureGraph;
 
+	private int numberOfThreads = ParallelImplicationAnalysis.DEFAULT_NUMBER_OF_THREADS;
+	private int maxMatrixSize = DEFAULT_MAX_MATRIX_SIZE;
+
 	public FGBuilder(ISatSolver solver) {
 		super(solver);
 	}
@@ -60,10 +65,25 @@ public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 		super(satInstance);
 	}
 
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public int getMaxMatrixSize() {
+		return maxMatrixSize;
+	}
+
+	public void setMaxMatrixSize(int maxMatrixSize) {
+		this.maxMatrixSize = maxMatrixSize;
+	}
+
 	@Override
 	public IFeatureGraph analyze(IMonitor monitor) throws Exception {
-		parentStack.clear();
-
+		monitor.setRemainingWork(2);
 		solver.initSolutionList(Integer.MAX_VALUE);
 		// Math.min(solver.getSatInstance().getNumberOfVariables(),
 		// ISatSolver.MAX_SOLUTION_BUFFER));
@@ -78,7 +98,6 @@ public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 
 			// find core/dead features
 			core = new byte[model1.length];
-			recArray = new byte[model1.length];
 			final int[] model1Copy = Arrays.copyOf(model1, model1.length);
 			SatInstance.updateModel(model1Copy, model2);
 			for (int i = 0; i < model1Copy.length; i++) {
@@ -125,7 +144,8 @@ public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 			}
 
 			final SatInstance satInstance = solver.getSatInstance();
-			featureGraph = new MatrixFeatureGraph(satInstance, index);
+			featureGraph = ((model1.length - count) > maxMatrixSize) ? new SparseFeatureGraph(satInstance, index)
+				: new MatrixFeatureGraph(satInstance, index);
 
 			final Node cnf = satInstance.getCnf();
 			outer: for (final Node clause : cnf.getChildren()) {
@@ -202,13 +222,30 @@ public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 				complete[i] = true;
 			}
 
-			Arrays.fill(recArray, (byte) 0);
+			monitor.step();
+
+			final ParallelImplicationAnalysis implicationAnalysis = new ParallelImplicationAnalysis(solver, core, new ICandidateFilter() {
+
+				@Override
+				public boolean isCandidate(int literal, int otherVariable) {
+					final byte b = getRelation(Math.abs(literal) - 1, otherVariable);
+					if (literal > 0) {
+						return AFeatureGraph.isWeakEdge(b) && !(AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_10Q) || AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_11Q));
+					} else {
+						return AFeatureGraph.isWeakEdge(b) && !(AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_00Q) || AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_01Q));
+					}
+				}
+			});
+			implicationAnalysis.setNumberOfThreads(numberOfThreads);
+			final int[][] implications = implicationAnalysis.analyze(monitor.subTask(1));
 			for (int i = 0; i < model1.length; i++) {
 				if (core[i] == 0) {
-					parentStack.add((i + 1));
-					testVariable();
-					parentStack.add(-(i + 1));
-					testVariable();
+					for (final int y : implications[ParallelImplicationAnalysis.getIndex(i + 1)]) {
+						addRelation(-(i + 1), y);
+					}
+					for (final int y : implications[ParallelImplicationAnalysis.getIndex(-(i + 1))]) {
+						addRelation(i + 1, y);
+					}
 				}
 			}
 
@@ -249,81 +286,6 @@ public class FGBuilder extends AbstractAnalysis<IFeatureGraph> {
 		}
 	}
 
-	private void testVariable() {
-		final int mx1 = parentStack.peek();
-		final int i = Math.abs(mx1) - 1;
-		final boolean positive = mx1 > 0;
-		final byte compareB = (byte) (positive ? 1 : 2);
-
-		if ((core[i] == 0) && ((recArray[i] & compareB) == 0)) {
-			recArray[i] |= compareB;
-
-			int[] xModel1 = null;
-			for (final int[] solution : solver.getSolutionList()) {
-				if (mx1 == solution[i]) {
-					xModel1 = solution;
-					break;
-				}
-			}
-
-			solver.assignmentPush(mx1);
-
-			if (xModel1 == null) {
-				xModel1 = solver.findModel();
-				if (xModel1 == null) {
-					throw new RuntimeException();
-				}
-			}
-
-			int c = 0;
-
-			inner1: for (int j = i + 1; j < xModel1.length; j++) {
-				if (core[j] != 0) {
-					continue;
-				}
-				final byte b = getRelation(i, j);
-				if (AFeatureGraph.isWeakEdge(b)
-					&& ((positive && !(AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_10Q) || AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_11Q)))
-						|| (!positive && !(AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_00Q) || AFeatureGraph.isEdge(b, AFeatureGraph.EDGE_01Q))))) {
-
-					final int my1 = xModel1[j];
-					for (final int[] solution : solver.getSolutionList()) {
-						final int mxI = solution[i];
-						final int myI = solution[j];
-						if ((mx1 == mxI) && (my1 != myI)) {
-							continue inner1;
-						}
-					}
-
-					solver.assignmentPush(-my1);
-					solver.setSelectionStrategy(((c++ % 2) != 0) ? SelectionStrategy.POSITIVE : SelectionStrategy.NEGATIVE);
-
-					switch (solver.isSatisfiable()) {
-					case FALSE:
-						for (final int mx0 : parentStack) {
-							addRelation(-mx0, my1);
-						}
-						parentStack.push(my1);
-						solver.assignmentPop();
-						solver.assignmentPop();
-						testVariable();
-						solver.assignmentPush(mx1);
-						break;
-					case TIMEOUT:
-						solver.assignmentPop();
-						break;
-					case TRUE:
-						solver.shuffleOrder();
-						solver.assignmentPop();
-						break;
-					}
-				}
-			}
-			solver.assignmentPop();
-		}
-		parentStack.pop();
-	}
-
 	private byte getRelation(int indexX, int indexY) {
 		return featureGraph.getEdge(index[indexX], index[indexY]);
 	}
@@ -28,6 +28,7 @@ import java.util.List;
 
 import org.prop4j.Node;
 import org.prop4j.Not;
+import org.prop4j.TseitinTransformer;
 import org.prop4j.solver.BasicSolver;
 import org.prop4j.solver.ISatSolver.SatResult;
 import org.prop4j.solver.ModifiableSolver;
@@ -44,7 +45,8 @@ import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
-import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+import de.ovgu.featureide.fm.core.editing.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.editing.FeatureModelFormulaCache;
 import de.ovgu.featureide.fm.core.filter.HiddenFeatureFilter;
 import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.job.LongRunningMethod;
@@ -86,17 +88,24 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	 */
 	public boolean calculateTautologyConstraints = true;
 
-	private final HashMap<Object, Object> changedAttributes = new HashMap<>();
+	/**
+	 * Defines the number of threads that are used to calculate redundant constraints.
+	 */
+	public int numberOfThreads = RedundantConstraintAnalysis.DEFAULT_NUMBER_OF_THREADS;
+
+	protected final HashMap<Object, Object> changedAttributes = new HashMap<>();
+
+	protected boolean valid;
+	protected final List<IFeature> coreFeatures;
+	protected final List<IFeature> deadFeatures;
+	protected final List<IFeature> falseOptionalFeatures;
 
-	private boolean valid;
-	private final List<IFeature> coreFeatures;
-	private final List<IFeature> deadFeatures;
-	private final List<IFeature> falseOptionalFeatures;
+	protected final IFeatureModel fm;
+	protected final AdvancedNodeCreator nodeCreator;
 
-	private final IFeatureModel fm;
-	private final AdvancedNodeCreator nodeCreator;
+	protected IMonitor monitor = new NullMonitor();
 
-	private IMonitor monitor = new NullMonitor();
+	private FeatureModelFormula formula;
 
 	public FeatureModelAnalysis(IFeatureModel fm) {
 		this.fm = fm;
@@ -127,6 +136,10 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		return calculateTautologyConstraints;
 	}
 
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
 	public boolean isValid() {
 		return valid;
 	}
@@ -167,6 +180,20 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		this.calculateDeadConstraints = calculateDeadConstraints;
 	}
 
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Returns the formula of the feature model. The formula is requested from the {@link FeatureModelFormulaCache} once per run of the analysis.
+	 */
+	protected FeatureModelFormula getFormula() {
+		if (formula == null) {
+			formula = FeatureModelFormulaCache.getInstance().getFormula(fm);
+		}
+		return formula;
+	}
+
 	/**
 	 * @return Hashmap: key entry is Feature/Constraint, value usually indicating the kind of attribute (non-Javadoc)
 	 */
@@ -183,6 +210,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		monitor.setRemainingWork(work);
 
 		changedAttributes.clear();
+		formula = null;
 
 		deadFeatures.clear();
 		coreFeatures.clear();
@@ -215,8 +243,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 		monitor.step();
 
-		nodeCreator.setModelType(ModelType.All);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+		final SatInstance si = getFormula().getSatInstance();
 
 		checkValidity(si);
 		monitor.step();
@@ -243,7 +270,7 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 
 		if (!calculateFeatures) {
-			checkValidity(new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm)));
+			checkValidity(getFormula().getSatInstance());
 		}
 
 		try {
@@ -266,20 +293,20 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		return LongRunningWrapper.runMethod(new ValidAnalysis(new SatInstance(constraintNode))) == null;
 	}
 
-	private void checkConstraintDeadAndFalseOptional(final List<IConstraint> constraints) throws ContradictionException {
+	protected void checkConstraintDeadAndFalseOptional(final List<IConstraint> constraints) throws ContradictionException {
 		if (!calculateFOConstraints && !calculateDeadConstraints) {
 			return;
 		}
-		nodeCreator.setModelType(ModelType.OnlyStructure);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
-		final BasicSolver modSat = new BasicSolver(si);
+		final FeatureModelFormula formula = getFormula();
+		final BasicSolver modSat = new BasicSolver(formula.getStructureSatInstance());
 
 		final List<IFeature> deadList = new LinkedList<>(deadFeatures);
 		final List<IFeature> foList = new LinkedList<>(falseOptionalFeatures);
 		monitor.checkCancel();
 
+		int i = 0;
 		for (final IConstraint constraint : constraints) {
-			modSat.addClauses(constraint.getNode().toRegularCNF());
+			modSat.addClauses(formula.getConstraintCNF(i++));
 
 			if (constraint.getConstraintAttribute() == ConstraintAttribute.NORMAL) {
 				if (calculateDeadConstraints) {
@@ -313,60 +340,36 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	 *
 	 * @param constraint The constraint to check whether it is redundant
 	 */
-	private void checkConstraintRedundant(final List<IConstraint> constraints) throws ContradictionException {
+	protected void checkConstraintRedundant(final List<IConstraint> constraints) throws ContradictionException {
 		if (calculateRedundantConstraints) {
-			nodeCreator.setModelType(ModelType.OnlyStructure);
-			final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
-			final ModifiableSolver redundantSat = new ModifiableSolver(si);
-
-			final List<List<IConstr>> constraintMarkers = new ArrayList<>();
-			final List<Node> cnfNodes = new ArrayList<>();
-			for (final IConstraint constraint : constraints) {
-				final Node cnf = constraint.getNode().toRegularCNF();
-				cnfNodes.add(cnf);
-
-				constraintMarkers.add(redundantSat.addClauses(cnf));
+			final FeatureModelFormula formula = getFormula();
+			final RedundantConstraintAnalysis redundantAnalysis =
+				new RedundantConstraintAnalysis(formula.getStructureSatInstance(), formula.getConstraintCNFs());
+			redundantAnalysis.setNumberOfThreads(numberOfThreads);
+			final boolean[] redundantConstraints = LongRunningWrapper.runMethod(redundantAnalysis, monitor.subTask(0));
+			if (redundantConstraints == null) {
+				return;
 			}
-			monitor.checkCancel();
 
 			int i = -1;
 			for (final IConstraint constraint : constraints) {
 				i++;
-				if (calculateRedundantConstraints) {
-					boolean redundant = true;
-					boolean removedAtLeastOne = false;
-					for (final IConstr cm : constraintMarkers.get(i)) {
-						if (cm != null) {
-							removedAtLeastOne = true;
-							redundantSat.removeConstraint(cm);
-						}
-					}
-					if (removedAtLeastOne) {
-						final Node constraintNode = cnfNodes.get(i);
-
-						final Node[] clauses = constraintNode.getChildren();
-						for (int j = 0; j < clauses.length; j++) {
-							if (!redundantSat.isImplied(clauses[j].getChildren())) {
-								redundant = false;
-								redundantSat.addClauses(constraintNode);
-								break;
-							}
-						}
-					}
-
-					if (redundant) {
-						if (checkConstraintTautology(constraint.getNode())) {
-							setConstraintAttribute(constraint, ConstraintAttribute.TAUTOLOGY);
-						} else {
-							setConstraintAttribute(constraint, ConstraintAttribute.REDUNDANT);
-						}
+				final Node constraintCNF = formula.getConstraintCNF(i);
+				// the clauses of transformed constraints are not implied by other clauses, even if the constraint is a tautology
+				if (redundantConstraints[i] || FeatureModelFormula.isTransformed(constraintCNF)) {
+					if (checkConstraintTautology(constraint, constraintCNF)) {
+						setConstraintAttribute(constraint, ConstraintAttribute.TAUTOLOGY);
+					} else if (redundantConstraints[i]) {
+						setConstraintAttribute(constraint, ConstraintAttribute.REDUNDANT);
 					}
 				}
 				monitor.checkCancel();
 			}
 		} else if (calculateTautologyConstraints) {
+			final FeatureModelFormula formula = getFormula();
+			int i = 0;
 			for (final IConstraint constraint : constraints) {
-				if (checkConstraintTautology(constraint.getNode())) {
+				if (checkConstraintTautology(constraint, formula.getConstraintCNF(i++))) {
 					setConstraintAttribute(constraint, ConstraintAttribute.TAUTOLOGY);
 				}
 				monitor.checkCancel();
@@ -374,18 +377,26 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
-	private boolean checkConstraintTautology(Node constraintNode) {
-		return checkConstraintContradiction(new Not(constraintNode).toRegularCNF());
+	/**
+	 * @param constraint the constraint
+	 * @param constraintCNF the clauses of the constraint
+	 * @return {@code true} if the constraint is a tautology, {@code false} otherwise
+	 */
+	protected boolean checkConstraintTautology(IConstraint constraint, Node constraintCNF) {
+		if (FeatureModelFormula.isTransformed(constraintCNF)) {
+			return checkConstraintContradiction(TseitinTransformer.toRegularCNF(new Not(constraint.getNode())));
+		}
+		return FeatureModelFormula.isTautology(constraintCNF);
 	}
 
-	private void checkConstraintUnsatisfiable(final List<IConstraint> constraints) throws ContradictionException {
-		nodeCreator.setModelType(ModelType.OnlyStructure);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
-		final ModifiableSolver unsat = new ModifiableSolver(si);
+	protected void checkConstraintUnsatisfiable(final List<IConstraint> constraints) throws ContradictionException {
+		final FeatureModelFormula formula = getFormula();
+		final ModifiableSolver unsat = new ModifiableSolver(formula.getStructureSatInstance());
 		monitor.checkCancel();
 
+		int i = 0;
 		for (final IConstraint constraint : constraints) {
-			final Node cnf = constraint.getNode().toRegularCNF();
+			final Node cnf = formula.getConstraintCNF(i++);
 
 			List<IConstr> constraintMarkers = null;
 			boolean satisfiable;
@@ -425,6 +436,9 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		for (int i = 0; i < solution2.length; i++) {
 			monitor.checkCancel();
 			final int var = solution2[i];
+			if (si.isAuxiliary(var)) {
+				continue;
+			}
 			final IFeature feature = fm.getFeature((String) si.getVariableObject(var));
 			if (var < 0) {
 				setFeatureAttribute(feature, FeatureStatus.DEAD);
@@ -499,13 +513,12 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 	 *
 	 * @param changedAttributes
 	 */
-	private void checkFeatureHidden(final Iterable<IFeature> features) {
+	protected void checkFeatureHidden(final Iterable<IFeature> features) {
 		if (!fm.getStructure().hasHidden()) {
 			return;
 		}
 
-		nodeCreator.setModelType(ModelType.All);
-		final SatInstance si = new SatInstance(nodeCreator.createNodes(), FeatureUtils.getFeatureNamesPreorder(fm));
+		final SatInstance si = getFormula().getSatInstance();
 
 		final Iterable<IFeature> hiddenFeatures = Functional.filter(features, new HiddenFeatureFilter());
 		final List<String> hiddenLiterals = Functional.toList(Functional.map(hiddenFeatures, new Functional.IFunction<IFeature, String>() {
@@ -529,12 +542,12 @@ public class FeatureModelAnalysis implements LongRunningMethod<HashMap<Object, O
 		}
 	}
 
-	private void setFeatureAttribute(IFeature feature, FeatureStatus featureAttribute) {
+	protected void setFeatureAttribute(IFeature feature, FeatureStatus featureAttribute) {
 		changedAttributes.put(feature, featureAttribute);
 		feature.getProperty().setFeatureStatus(featureAttribute, false);
 	}
 
-	private void setConstraintAttribute(IConstraint constraint, ConstraintAttribute constraintAttribute) {
+	protected void setConstraintAttribute(IConstraint constraint, ConstraintAttribute constraintAttribute) {
 		changedAttributes.put(constraint, constraintAttribute);
 		constraint.setConstraintAttribute(constraintAttribute, false);
 	}
@@ -31,9 +31,9 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Set;
 
-import org.prop4j.Literal;
-import org.prop4j.Node;
 import org.prop4j.analyses.ImplicationSetsAnalysis.Relationship;
+import org.prop4j.analyses.ParallelImplicationAnalysis.ICandidateFilter;
+import org.prop4j.solver.ClauseStore;
 import org.prop4j.solver.ISatSolver;
 import org.prop4j.solver.ISatSolver.SelectionStrategy;
 import org.prop4j.solver.SatInstance;
@@ -134,8 +134,19 @@ public class ImplicationSetsAnalysis extends AbstractAnalysis<Set<Relationship>>
 
 	private final HashMap<Relationship, Relationship> relationSet = new HashMap<>();
 
+	private int numberOfThreads = ParallelImplicationAnalysis.DEFAULT_NUMBER_OF_THREADS;
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
 	@Override
 	public Set<Relationship> analyze(IMonitor monitor) throws Exception {
+		monitor.setRemainingWork(2);
 		relationSet.clear();
 		parentStack.clear();
 
@@ -178,11 +189,12 @@ public class ImplicationSetsAnalysis extends AbstractAnalysis<Set<Relationship>>
 			numVariables = model1.length;
 			combinations = new byte[numVariables * numVariables];
 
-			outer: for (final Node clause : solver.getSatInstance().getCnf().getChildren()) {
-				final Node[] literals = clause.getChildren();
+			final ClauseStore clauses = solver.getSatInstance().getClauses();
+			outer: for (int clauseIndex = 0; clauseIndex < clauses.size(); clauseIndex++) {
+				final int[] literals = clauses.getClause(clauseIndex);
 				int childrenCount = literals.length;
 				for (int i = 0; i < childrenCount; i++) {
-					final int var = solver.getSatInstance().getSignedVariable((Literal) literals[i]);
+					final int var = literals[i];
 					final int coreB = var * core[Math.abs(var) - 1];
 					if (coreB > 0) {
 						continue outer;
@@ -191,15 +203,14 @@ public class ImplicationSetsAnalysis extends AbstractAnalysis<Set<Relationship>>
 							continue outer;
 						}
 						childrenCount--;
-						final Node temp = literals[i];
 						literals[i] = literals[childrenCount];
-						literals[childrenCount] = temp;
+						literals[childrenCount] = var;
 						i--;
 					}
 				}
 				if (childrenCount == 2) {
-					final int x = solver.getSatInstance().getSignedVariable((Literal) literals[0]);
-					final int y = solver.getSatInstance().getSignedVariable((Literal) literals[1]);
+					final int x = literals[0];
+					final int y = literals[1];
 					if (Math.abs(x) < Math.abs(y)) {
 						addRelation(-x, y);
 					} else {
@@ -207,9 +218,9 @@ public class ImplicationSetsAnalysis extends AbstractAnalysis<Set<Relationship>>
 					}
 				}
 				for (int i = 0; i < (childrenCount - 1); i++) {
-					final int x = solver.getSatInstance().getVariable((Literal) literals[i]) - 1;
+					final int x = Math.abs(literals[i]) - 1;
 					for (int j = i + 1; j < childrenCount; j++) {
-						final int y = solver.getSatInstance().getVariable((Literal) literals[j]) - 1;
+						final int y = Math.abs(literals[j]) - 1;
 						combinations[(x * numVariables) + y] |= BIT_CHECK;
 						combinations[(y * numVariables) + x] |= BIT_CHECK;
 					}
@@ -253,12 +264,27 @@ public class ImplicationSetsAnalysis extends AbstractAnalysis<Set<Relationship>>
 				}
 			} while (incomplete);
 
-			Arrays.fill(recArray, (byte) 0);
+			monitor.step();
+
+			final ParallelImplicationAnalysis implicationAnalysis = new ParallelImplicationAnalysis(solver, core, new ICandidateFilter() {
+
+				@Override
+				public boolean isCandidate(int literal, int otherVariable) {
+					final byte b = combinations[((Math.abs(literal) - 1) * numVariables) + otherVariable];
+					return ((b & BIT_CHECK) != 0) && ((b & ((literal > 0) ? BITS_POSITIVE_IMPLY : BITS_NEGATIVE_IMPLY)) == 0);
+				}
+			});
+			implicationAnalysis.setNumberOfThreads(numberOfThreads);
+			final int[][] implications = implicationAnalysis.analyze(monitor.subTask(1));
 			for (int i = 0; i < model1.length; i++) {
-				parentStack.add((i + 1));
-				testVariable();
-				parentStack.add(-(i + 1));
-				testVariable();
+				if (core[i] == 0) {
+					for (final int y : implications[ParallelImplicationAnalysis.getIndex(i + 1)]) {
+						addRelation(i + 1, y);
+					}
+					for (final int y : implications[ParallelImplicationAnalysis.getIndex(-(i + 1))]) {
+						addRelation(-(i + 1), y);
+					}
+				}
 			}
 		}
 		return relationSet.keySet();
@@ -311,75 +337,6 @@ public class ImplicationSetsAnalysis extends AbstractAnalysis<Set<Relationship>>
 		return changed;
 	}
 
-	private void testVariable() {
-		final int mx1 = parentStack.peek();
-		final int i = Math.abs(mx1) - 1;
-		final boolean positive = mx1 > 0;
-		final byte compareB = (byte) (positive ? 1 : 2);
-
-		if ((core[i] == 0) && ((recArray[i] & compareB) == 0)) {
-			recArray[i] |= compareB;
-
-			int[] xModel1 = null;
-			for (final int[] solution : solver.getSolutionList()) {
-				if (mx1 == solution[i]) {
-					xModel1 = solution;
-					break;
-				}
-			}
-			if (xModel1 == null) {
-				throw new RuntimeException();
-			}
-
-			int c = 0;
-
-			solver.assignmentPush(mx1);
-			final int rowIndex = i * numVariables;
-
-			inner1: for (int j = i + 1; j < xModel1.length; j++) {
-				final byte b = combinations[rowIndex + j];
-				if ((core[j] == 0) && ((b & BIT_CHECK) != 0)
-					&& ((positive && ((b & BITS_POSITIVE_IMPLY) == 0)) || (!positive && ((b & BITS_NEGATIVE_IMPLY) == 0)))) {
-
-					final int my1 = xModel1[j];
-					for (final int[] solution : solver.getSolutionList()) {
-						final int mxI = solution[i];
-						final int myI = solution[j];
-						if ((mx1 == mxI) && (my1 != myI)) {
-							continue inner1;
-						}
-					}
-
-					solver.assignmentPush(-my1);
-					solver.setSelectionStrategy(((c++ % 2) != 0) ? SelectionStrategy.POSITIVE : SelectionStrategy.NEGATIVE);
-
-					switch (solver.isSatisfiable()) {
-					case FALSE:
-						for (final int mx0 : parentStack) {
-							addRelation(mx0, my1);
-						}
-						parentStack.push(my1);
-						solver.assignmentPop();
-						solver.assignmentPop();
-						testVariable();
-						solver.assignmentPush(mx1);
-						break;
-					case TIMEOUT:
-						solver.assignmentPop();
-						break;
-					case TRUE:
-						solver.shuffleOrder();
-						solver.assignmentPop();
-						// combinations[rowIndex + j] &= ~BIT_CHECK;
-						break;
-					}
-				}
-			}
-			solver.assignmentPop();
-		}
-		parentStack.pop();
-	}
-
 	private void addRelation(final int mx0, final int my0) {
 		final Relationship newRelationship = new Relationship(Math.abs(mx0), Math.abs(my0));
 		Relationship curRelationship = relationSet.get(newRelationship);
@@ -0,0 +1,840 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.solver.FixedLiteralSelectionStrategy;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.ModifiableSolver;
+import org.prop4j.solver.SatInstance;
+import org.prop4j.solver.VarOrderHeap2;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.Solver;
+import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
+import org.sat4j.minisat.orders.VarOrderHeap;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.ConstraintAttribute;
+import de.ovgu.featureide.fm.core.FeatureStatus;
+import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent.EventType;
+import de.ovgu.featureide.fm.core.base.event.IEventListener;
+import de.ovgu.featureide.fm.core.editing.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.editing.cnf.Clause;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Incremental version of {@link FeatureModelAnalysis} that is intended to be executed repeatedly for the same feature model.<br> All clauses of the
+ * feature model are kept in one long-lived {@link ModifiableSolver}, each guarded by its own selector variable. On every run, only the clauses that were
+ * added or removed since the previous run are changed within the solver. Each result is stored together with its support, that is, the clauses from which
+ * a dead feature, a false-optional feature, or a redundant constraint was derived, or a model that witnesses the opposite. Only results whose support
+ * touches a changed clause are recomputed.<br> Renamings of features are received as {@link FeatureIDEEvent}s and do not invalidate any result.
+ *
+ * @author agent
+ */
+public class IncrementalFeatureModelAnalysis extends FeatureModelAnalysis implements IEventListener {
+
+	/**
+	 * Maximum number of models that are kept to refute implications without calling the solver.
+	 */
+	private static final int MAX_MODELS = 1024;
+
+	private static final class ClauseKey {
+
+		private final int[] literals;
+		private final int hashCode;
+
+		public ClauseKey(int[] literals) {
+			this.literals = literals;
+			hashCode = Arrays.hashCode(literals);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			return Arrays.equals(literals, ((ClauseKey) obj).literals);
+		}
+
+	}
+
+	private static final class ClauseEntry {
+
+		private final ClauseKey key;
+		private final int selector;
+		private List<IConstr> constrs = Collections.emptyList();
+		private int stamp;
+
+		public ClauseEntry(ClauseKey key, int selector) {
+			this.key = key;
+			this.selector = selector;
+		}
+
+	}
+
+	private static final class RedundancyResult {
+
+		/**
+		 * The clauses that imply the constraint, or {@code null} if the constraint is not redundant.
+		 */
+		private final int[] support;
+		/**
+		 * A model that violates the constraint, or {@code null} if the constraint is redundant.
+		 */
+		private final long[] witness;
+		private Boolean tautology;
+
+		public RedundancyResult(int[] support, long[] witness) {
+			this.support = support;
+			this.witness = witness;
+		}
+
+	}
+
+	private static final class AttributionResult {
+
+		private final ConstraintAttribute attribute;
+		private final int[] deadVariables;
+		private final int[] falseOptionalVariables;
+
+		public AttributionResult(ConstraintAttribute attribute, int[] deadVariables, int[] falseOptionalVariables) {
+			this.attribute = attribute;
+			this.deadVariables = deadVariables;
+			this.falseOptionalVariables = falseOptionalVariables;
+		}
+
+	}
+
+	private final ModifiableSolver solver;
+
+	private final HashMap<String, Integer> variables = new HashMap<>();
+
+	private final HashMap<ClauseKey, Integer> clauseIds = new HashMap<>();
+	private final HashMap<Integer, Integer> selectorClauses = new HashMap<>();
+	private final ArrayList<ClauseEntry> clauses = new ArrayList<>();
+
+	/**
+	 * Known models of the current formula. Each model is stored as a bit set containing all variables that are assigned to {@code true}.
+	 */
+	private final LinkedList<long[]> models = new LinkedList<>();
+
+	private final List<String[]> pendingRenamings = new ArrayList<>();
+
+	private int stamp = 0;
+	private int numberOfVariables = 0;
+	private int numberOfSolverVariables = 0;
+	private boolean upToDate = false;
+
+	private int[] structureClauseIds = new int[0];
+	private int[][] constraintClauseIds = new int[0][];
+	/**
+	 * For each clause, the number of feature model elements (i.e., the structure and each constraint) that contain the clause and are currently considered.
+	 */
+	private int[] activeOwners = new int[0];
+
+	/**
+	 * Contains all literals that are equal in all known models, or {@code null} if the phase selection of the solver is not initialized.
+	 */
+	private int[] phaseModel = null;
+
+	private int[] invalidSupport = null;
+	private HashMap<Integer, int[]> coreSupport = new HashMap<>();
+	private HashMap<Integer, int[]> deadSupport = new HashMap<>();
+	private HashMap<Long, int[]> falseOptionalSupport = new HashMap<>();
+	private HashMap<ClauseKey, RedundancyResult> redundancyResults = new HashMap<>();
+
+	private List<Object> attributionSignature = null;
+	private List<AttributionResult> attributionResults = null;
+
+	public IncrementalFeatureModelAnalysis(IFeatureModel fm) {
+		super(fm);
+		try {
+			solver = new ModifiableSolver(new SatInstance(new And()));
+		} catch (final ContradictionException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Records renamings of features, such that the variables of the renamed features and all results that depend on them can be reused.
+	 */
+	@Override
+	public void propertyChange(FeatureIDEEvent event) {
+		if ((event.getEventType() == EventType.FEATURE_NAME_CHANGED) && (event.getOldValue() instanceof String) && (event.getNewValue() instanceof String)) {
+			synchronized (pendingRenamings) {
+				pendingRenamings.add(new String[] { (String) event.getOldValue(), (String) event.getNewValue() });
+			}
+		}
+	}
+
+	@Override
+	public synchronized HashMap<Object, Object> execute(IMonitor monitor) throws Exception {
+		upToDate = false;
+		// the attribute map is reused by subsequent runs
+		return new HashMap<>(super.execute(monitor));
+	}
+
+	@Override
+	public synchronized void updateFeatures() {
+		final Iterable<IFeature> features = fm.getFeatures();
+		for (final IFeature feature : features) {
+			feature.getProperty().setFeatureStatus(FeatureStatus.NORMAL, false);
+			FeatureUtils.setRelevantConstraints(feature);
+		}
+		monitor.step();
+
+		synchronize();
+		checkValidity();
+		monitor.step();
+
+		if (valid) {
+			initPhaseSelection();
+			checkFeatureFalseOptional(features);
+			monitor.step();
+
+			checkFeatureDead();
+			monitor.step();
+
+			checkFeatureHidden(features);
+			monitor.step();
+		}
+	}
+
+	@Override
+	public synchronized void updateConstraints() {
+		final List<IConstraint> constraints = fm.getConstraints();
+		for (final IConstraint constraint : constraints) {
+			constraint.setConstraintAttribute(ConstraintAttribute.NORMAL, false);
+			constraint.setContainedFeatures();
+			constraint.setFalseOptionalFeatures(Collections.<IFeature> emptyList());
+			constraint.setDeadFeatures(Collections.<IFeature> emptyList());
+		}
+
+		if (!upToDate) {
+			synchronize();
+			checkValidity();
+			if (valid) {
+				initPhaseSelection();
+			}
+		}
+		upToDate = false;
+
+		try {
+			if (valid) {
+				checkConstraintRedundant(constraints);
+				monitor.step();
+				checkConstraintDeadAndFalseOptional(constraints);
+				monitor.step();
+			} else {
+				checkConstraintUnsatisfiable(constraints);
+				monitor.step();
+				monitor.step();
+			}
+		} catch (final ContradictionException e) {
+			Logger.logError(e);
+		}
+	}
+
+	/**
+	 * Brings the clauses within the solver up to date with the current feature model.
+	 */
+	private void synchronize() {
+		synchronized (pendingRenamings) {
+			for (final String[] renaming : pendingRenamings) {
+				final Integer variable = variables.get(renaming[0]);
+				if ((variable != null) && !variables.containsKey(renaming[1])) {
+					variables.remove(renaming[0]);
+					variables.put(renaming[1], variable);
+				}
+			}
+			pendingRenamings.clear();
+		}
+
+		stamp++;
+		final List<ClauseEntry> addedClauses = new ArrayList<>();
+		for (final IFeature feature : fm.getFeatures()) {
+			getVariable(feature.getName());
+		}
+
+		final FeatureModelFormula formula = getFormula();
+		structureClauseIds = getClauseIds(formula.getStructureCNF(), addedClauses);
+
+		final List<Node> constraintCNFs = formula.getConstraintCNFs();
+		constraintClauseIds = new int[constraintCNFs.size()][];
+		int i = 0;
+		for (final Node constraintCNF : constraintCNFs) {
+			constraintClauseIds[i++] = getClauseIds(constraintCNF, addedClauses);
+		}
+
+		if (numberOfVariables > numberOfSolverVariables) {
+			final ISolver internalSolver = solver.getInternalSolver();
+			internalSolver.newVar(numberOfVariables);
+			// registers all new variables, such that they are contained in every model
+			final VecInt pseudoClause = new VecInt(numberOfVariables - numberOfSolverVariables + 1);
+			for (int variable = numberOfSolverVariables + 1; variable <= numberOfVariables; variable++) {
+				pseudoClause.push(variable);
+			}
+			pseudoClause.push(-(numberOfSolverVariables + 1));
+			try {
+				internalSolver.addClause(pseudoClause);
+			} catch (final ContradictionException e) {
+				Logger.logError(e);
+			}
+			numberOfSolverVariables = numberOfVariables;
+		}
+		phaseModel = null;
+		((Solver<?>) solver.getInternalSolver()).setOrder(new VarOrderHeap(new RSATPhaseSelectionStrategy()));
+		for (final ClauseEntry entry : addedClauses) {
+			final int[] literals = Arrays.copyOf(entry.key.literals, entry.key.literals.length + 1);
+			literals[literals.length - 1] = -entry.selector;
+			try {
+				entry.constrs = solver.addCNF(Collections.singletonList(new Clause(literals)));
+			} catch (final ContradictionException e) {
+				Logger.logError(e);
+			}
+		}
+
+		for (int id = 0; id < clauses.size(); id++) {
+			final ClauseEntry entry = clauses.get(id);
+			if ((entry != null) && (entry.stamp != stamp)) {
+				for (final IConstr constr : entry.constrs) {
+					solver.removeConstraint(constr);
+				}
+				clauseIds.remove(entry.key);
+				selectorClauses.remove(entry.selector);
+				clauses.set(id, null);
+			}
+		}
+
+		activeOwners = new int[clauses.size()];
+		for (final int id : structureClauseIds) {
+			activeOwners[id]++;
+		}
+		for (final int[] ids : constraintClauseIds) {
+			for (final int id : ids) {
+				activeOwners[id]++;
+			}
+		}
+
+		for (final Iterator<long[]> iterator = models.iterator(); iterator.hasNext();) {
+			if (!satisfiesActiveClauses(iterator.next())) {
+				iterator.remove();
+			}
+		}
+		upToDate = true;
+	}
+
+	private int[] getClauseIds(Node cnf, List<ClauseEntry> addedClauses) {
+		final Node[] clauseNodes = cnf.getChildren();
+		final int[] ids = new int[clauseNodes.length];
+		for (int i = 0; i < clauseNodes.length; i++) {
+			final Node clauseNode = clauseNodes[i];
+			final Node[] literalNodes = clauseNode instanceof Literal ? new Node[] { clauseNode } : clauseNode.getChildren();
+			final int[] literals = new int[literalNodes.length];
+			for (int j = 0; j < literalNodes.length; j++) {
+				final Literal literal = (Literal) literalNodes[j];
+				final int variable = getVariable(String.valueOf(literal.var));
+				literals[j] = literal.positive ? variable : -variable;
+			}
+			final ClauseKey key = new ClauseKey(sortUnique(literals));
+
+			Integer id = clauseIds.get(key);
+			if (id == null) {
+				id = clauses.size();
+				final ClauseEntry entry = new ClauseEntry(key, getVariable(null));
+				clauses.add(entry);
+				clauseIds.put(key, id);
+				selectorClauses.put(entry.selector, id);
+				addedClauses.add(entry);
+			}
+			clauses.get(id).stamp = stamp;
+			ids[i] = id;
+		}
+		return sortUnique(ids);
+	}
+
+	/**
+	 * Returns the variable for the given name. Creates a new variable if necessary.
+	 *
+	 * @param name the name of the variable or {@code null} for a new selector variable
+	 * @return the variable index
+	 */
+	private int getVariable(String name) {
+		if (name != null) {
+			final Integer variable = variables.get(name);
+			if (variable != null) {
+				return variable;
+			}
+		}
+		final int variable = ++numberOfVariables;
+		if (name != null) {
+			variables.put(name, variable);
+		}
+		return variable;
+	}
+
+	private void checkValidity() {
+		if (!models.isEmpty()) {
+			valid = true;
+		} else if ((invalidSupport != null) && isActive(invalidSupport)) {
+			valid = false;
+		} else {
+			final IVecInt assumptions = getActiveSelectors();
+			switch (solve(assumptions)) {
+			case FALSE:
+				invalidSupport = getSupport(assumptions);
+				valid = false;
+				break;
+			case TIMEOUT:
+				invalidSupport = null;
+				valid = false;
+				break;
+			case TRUE:
+				addModel();
+				invalidSupport = null;
+				valid = true;
+				break;
+			default:
+				throw new AssertionError();
+			}
+		}
+		if (!valid) {
+			changedAttributes.put(fm.getStructure().getRoot().getFeature(), FeatureStatus.DEAD);
+		}
+	}
+
+	/**
+	 * Lets the solver prefer assignments that differ from all known models, such that every new model refutes as many implications as possible (as done by
+	 * {@link CoreDeadAnalysis}).
+	 */
+	private void initPhaseSelection() {
+		final long[] firstModel = models.getFirst();
+		phaseModel = new int[numberOfVariables];
+		final int[] order = new int[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			order[i] = i + 1;
+			phaseModel[i] = isSatisfied(firstModel, i + 1) ? i + 1 : -(i + 1);
+		}
+		for (final long[] model : models) {
+			updatePhaseModel(model);
+		}
+		((Solver<?>) solver.getInternalSolver()).setOrder(new VarOrderHeap2(new FixedLiteralSelectionStrategy(phaseModel, true), order));
+	}
+
+	private void updatePhaseModel(long[] model) {
+		for (int i = 0; i < phaseModel.length; i++) {
+			if ((phaseModel[i] != 0) && !isSatisfied(model, phaseModel[i])) {
+				phaseModel[i] = 0;
+			}
+		}
+	}
+
+	private void checkFeatureFalseOptional(final Iterable<IFeature> features) {
+		final HashMap<Long, int[]> newSupport = new HashMap<>();
+		final IVecInt assumptions = getActiveSelectors();
+		falseOptionalFeatures.clear();
+		for (final IFeature feature : features) {
+			monitor.checkCancel();
+			final IFeature parent = FeatureUtils.getParent(feature);
+			if ((parent != null) && (!feature.getStructure().isMandatorySet() || !parent.getStructure().isAnd())) {
+				final int parentVariable = getVariable(parent.getName());
+				final int childVariable = getVariable(feature.getName());
+				final long key = ((long) parentVariable << Integer.SIZE) | childVariable;
+
+				if (isImplied(assumptions, new int[] { parentVariable, -childVariable }, falseOptionalSupport.get(key), newSupport, key)) {
+					setFeatureAttribute(feature, FeatureStatus.FALSE_OPTIONAL);
+					falseOptionalFeatures.add(feature);
+				}
+			}
+		}
+		falseOptionalSupport = newSupport;
+	}
+
+	private void checkFeatureDead() {
+		final HashMap<Integer, int[]> newDeadSupport = new HashMap<>();
+		final HashMap<Integer, int[]> newCoreSupport = new HashMap<>();
+		final IVecInt assumptions = getActiveSelectors();
+		deadFeatures.clear();
+		coreFeatures.clear();
+		for (final String name : FeatureUtils.getFeatureNamesPreorder(fm)) {
+			monitor.checkCancel();
+			final IFeature feature = fm.getFeature(name);
+			final int variable = getVariable(name);
+			if (isImplied(assumptions, new int[] { variable }, deadSupport.get(variable), newDeadSupport, variable)) {
+				setFeatureAttribute(feature, FeatureStatus.DEAD);
+				deadFeatures.add(feature);
+			} else if (isImplied(assumptions, new int[] { -variable }, coreSupport.get(variable), newCoreSupport, variable)) {
+				coreFeatures.add(feature);
+			}
+		}
+		deadSupport = newDeadSupport;
+		coreSupport = newCoreSupport;
+	}
+
+	/**
+	 * Checks whether the given literals cannot be satisfied together with all active clauses. First, the support of the previous result and all known
+	 * models are considered. Only if both are not sufficient, the solver is called.
+	 *
+	 * @param assumptions the selectors of all active clauses
+	 * @param literals the literals to check
+	 * @param oldSupport the support of the previous result or {@code null}
+	 * @param newSupport stores the support of the new result
+	 * @param key the key for {@code newSupport}
+	 * @return {@code true} if the literals are unsatisfiable, {@code false} otherwise
+	 */
+	private <K> boolean isImplied(IVecInt assumptions, int[] literals, int[] oldSupport, HashMap<K, int[]> newSupport, K key) {
+		if ((oldSupport != null) && isActive(oldSupport)) {
+			newSupport.put(key, oldSupport);
+			return true;
+		}
+		// the phase model also covers models that were already removed from the list
+		if ((literals.length == 1) && (phaseModel != null) && (phaseModel[Math.abs(literals[0]) - 1] != -literals[0])) {
+			return false;
+		}
+		modelLoop: for (final long[] model : models) {
+			for (final int literal : literals) {
+				if (!isSatisfied(model, literal)) {
+					continue modelLoop;
+				}
+			}
+			return false;
+		}
+
+		final int size = assumptions.size();
+		for (final int literal : literals) {
+			assumptions.push(literal);
+		}
+		try {
+			switch (solve(assumptions)) {
+			case FALSE:
+				newSupport.put(key, getSupport(assumptions));
+				return true;
+			case TRUE:
+				addModel();
+				return false;
+			case TIMEOUT:
+				return false;
+			default:
+				throw new AssertionError();
+			}
+		} finally {
+			assumptions.shrinkTo(size);
+		}
+	}
+
+	/**
+	 * Detects redundant constraints as done by {@link FeatureModelAnalysis}. A constraint that is found to be redundant is not considered while checking the
+	 * subsequent constraints.
+	 */
+	@Override
+	protected void checkConstraintRedundant(List<IConstraint> constraints) throws ContradictionException {
+		if (!calculateRedundantConstraints) {
+			super.checkConstraintRedundant(constraints);
+			return;
+		}
+		final HashMap<ClauseKey, RedundancyResult> newResults = new HashMap<>();
+		int i = 0;
+		for (final IConstraint constraint : constraints) {
+			final int[] ids = constraintClauseIds[i];
+			for (final int id : ids) {
+				activeOwners[id]--;
+			}
+
+			final ClauseKey key = new ClauseKey(ids);
+			RedundancyResult result = redundancyResults.get(key);
+			if ((result == null) || ((result.support != null) ? !isActive(result.support) : !satisfiesActiveClauses(result.witness))) {
+				result = computeRedundancy(ids);
+			}
+
+			if (result != null) {
+				newResults.put(key, result);
+			}
+			final Node constraintCNF = getFormula().getConstraintCNF(i);
+			if ((result != null) && (result.tautology == null) && ((result.support != null) || FeatureModelFormula.isTransformed(constraintCNF))) {
+				result.tautology = checkConstraintTautology(constraint, constraintCNF);
+			}
+			if ((result != null) && ((result.support != null) || Boolean.TRUE.equals(result.tautology))) {
+				setConstraintAttribute(constraint, result.tautology ? ConstraintAttribute.TAUTOLOGY : ConstraintAttribute.REDUNDANT);
+			} else {
+				for (final int id : ids) {
+					activeOwners[id]++;
+				}
+			}
+			i++;
+			monitor.checkCancel();
+		}
+		redundancyResults = newResults;
+	}
+
+	private RedundancyResult computeRedundancy(int[] ids) {
+		final IVecInt assumptions = getActiveSelectors();
+		final Set<Integer> support = new LinkedHashSet<>();
+		for (final int id : ids) {
+			if (activeOwners[id] > 0) {
+				support.add(id);
+				continue;
+			}
+			final int size = assumptions.size();
+			for (final int literal : clauses.get(id).key.literals) {
+				assumptions.push(-literal);
+			}
+			try {
+				switch (solve(assumptions)) {
+				case FALSE:
+					for (final int supportId : getSupport(assumptions)) {
+						support.add(supportId);
+					}
+					break;
+				case TRUE:
+					return new RedundancyResult(null, getCurrentModel());
+				case TIMEOUT:
+					return null;
+				default:
+					throw new AssertionError();
+				}
+			} finally {
+				assumptions.shrinkTo(size);
+			}
+		}
+		final int[] supportArray = new int[support.size()];
+		int j = 0;
+		for (final Integer id : support) {
+			supportArray[j++] = id;
+		}
+		return new RedundancyResult(supportArray, null);
+	}
+
+	/**
+	 * Assigns dead and false-optional features to constraints as done by {@link FeatureModelAnalysis}. The previous assignment is reused if neither the
+	 * clauses nor the dead and false-optional features have changed.
+	 */
+	@Override
+	protected void checkConstraintDeadAndFalseOptional(List<IConstraint> constraints) throws ContradictionException {
+		if (!calculateFOConstraints && !calculateDeadConstraints) {
+			return;
+		}
+		final List<Object> signature = new ArrayList<>();
+		signature.add(calculateDeadConstraints);
+		signature.add(calculateFOConstraints);
+		signature.add(new ClauseKey(structureClauseIds));
+		signature.add(new ClauseKey(sortUnique(getVariables(deadFeatures))));
+		signature.add(new ClauseKey(sortUnique(getVariables(falseOptionalFeatures))));
+		int i = 0;
+		for (final IConstraint constraint : constraints) {
+			signature.add(new ClauseKey(constraintClauseIds[i++]));
+			signature.add(constraint.getConstraintAttribute());
+		}
+
+		if (signature.equals(attributionSignature)) {
+			i = 0;
+			for (final IConstraint constraint : constraints) {
+				final AttributionResult result = attributionResults.get(i++);
+				constraint.setDeadFeatures(getFeatures(result.deadVariables, deadFeatures));
+				constraint.setFalseOptionalFeatures(getFeatures(result.falseOptionalVariables, falseOptionalFeatures));
+				if ((result.attribute == ConstraintAttribute.DEAD) || (result.attribute == ConstraintAttribute.FALSE_OPTIONAL)) {
+					setConstraintAttribute(constraint, result.attribute);
+				}
+			}
+		} else {
+			super.checkConstraintDeadAndFalseOptional(constraints);
+			final List<AttributionResult> results = new ArrayList<>(constraints.size());
+			for (final IConstraint constraint : constraints) {
+				results.add(new AttributionResult(constraint.getConstraintAttribute(), getVariables(constraint.getDeadFeatures()),
+						getVariables(constraint.getFalseOptional())));
+			}
+			attributionSignature = signature;
+			attributionResults = results;
+		}
+	}
+
+	private int[] getVariables(Collection<IFeature> features) {
+		if (features == null) {
+			return new int[0];
+		}
+		final int[] result = new int[features.size()];
+		int i = 0;
+		for (final IFeature feature : features) {
+			result[i++] = getVariable(feature.getName());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the features of the given variables in the same order as within the given list.
+	 */
+	private List<IFeature> getFeatures(int[] variables, List<IFeature> features) {
+		final int[] sortedVariables = sortUnique(Arrays.copyOf(variables, variables.length));
+		final List<IFeature> result = new ArrayList<>(variables.length);
+		for (final IFeature feature : features) {
+			if (Arrays.binarySearch(sortedVariables, getVariable(feature.getName())) >= 0) {
+				result.add(feature);
+			}
+		}
+		return result;
+	}
+
+	private IVecInt getActiveSelectors() {
+		final VecInt selectors = new VecInt(activeOwners.length + 2);
+		for (int id = 0; id < activeOwners.length; id++) {
+			if (activeOwners[id] > 0) {
+				selectors.push(clauses.get(id).selector);
+			}
+		}
+		return selectors;
+	}
+
+	private SatResult solve(IVecInt assumptions) {
+		try {
+			return solver.getInternalSolver().isSatisfiable(assumptions) ? SatResult.TRUE : SatResult.FALSE;
+		} catch (final TimeoutException e) {
+			return SatResult.TIMEOUT;
+		}
+	}
+
+	/**
+	 * Returns the clauses from which the solver derived the unsatisfiability of its last call. If the solver cannot provide an explanation, all active clauses
+	 * are returned.
+	 */
+	private int[] getSupport(IVecInt assumptions) {
+		IVecInt explanation = null;
+		try {
+			explanation = solver.getInternalSolver().unsatExplanation();
+		} catch (final RuntimeException e) {
+			Logger.logError(e);
+		}
+		if (explanation == null) {
+			explanation = assumptions;
+		}
+		final int[] support = new int[explanation.size()];
+		int size = 0;
+		for (int i = 0; i < explanation.size(); i++) {
+			final Integer id = selectorClauses.get(Math.abs(explanation.get(i)));
+			if (id != null) {
+				support[size++] = id;
+			}
+		}
+		return sortUnique(Arrays.copyOf(support, size));
+	}
+
+	private boolean isActive(int[] support) {
+		for (final int id : support) {
+			if ((id >= activeOwners.length) || (activeOwners[id] <= 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void addModel() {
+		final long[] model = getCurrentModel();
+		if (phaseModel != null) {
+			updatePhaseModel(model);
+		}
+		models.addLast(model);
+		if (models.size() > MAX_MODELS) {
+			models.removeFirst();
+		}
+	}
+
+	private boolean satisfiesActiveClauses(long[] model) {
+		clauseLoop: for (int id = 0; id < activeOwners.length; id++) {
+			if (activeOwners[id] > 0) {
+				for (final int literal : clauses.get(id).key.literals) {
+					if (isSatisfied(model, literal)) {
+						continue clauseLoop;
+					}
+				}
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the last model found by the solver as bit set.
+	 */
+	private long[] getCurrentModel() {
+		final int[] model = solver.getInternalSolver().model();
+		final long[] bits = new long[(model.length >>> 6) + 1];
+		for (final int literal : model) {
+			if (literal > 0) {
+				bits[literal >>> 6] |= 1L << literal;
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Variables that were created after the model was computed are treated as {@code false}.
+	 */
+	private static boolean isSatisfied(long[] model, int literal) {
+		final int variable = Math.abs(literal);
+		final int index = variable >>> 6;
+		final boolean value = (index < model.length) && (((model[index] >>> variable) & 1L) != 0);
+		return value == (literal > 0);
+	}
+
+	private static int[] sortUnique(int[] array) {
+		if (array.length == 0) {
+			return array;
+		}
+		Arrays.sort(array);
+		int size = 1;
+		for (int i = 1; i < array.length; i++) {
+			if (array[i] != array[size - 1]) {
+				array[size++] = array[i];
+			}
+		}
+		return (size == array.length) ? array : Arrays.copyOf(array, size);
+	}
+
+}
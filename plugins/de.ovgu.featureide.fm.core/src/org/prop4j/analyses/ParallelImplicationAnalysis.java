@@ -0,0 +1,403 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.prop4j.solver.ClauseStore;
+import org.prop4j.solver.ISatSolver;
+import org.prop4j.solver.ISatSolver.SelectionStrategy;
+
+import de.ovgu.featureide.fm.core.base.util.RingList;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.SyncMonitor;
+
+/**
+ * Finds all implications between the literals of non-core variables, as needed for building a feature graph.<br> For each literal {@code x} of the
+ * variable {@code i} and each candidate variable {@code j > i}, it is checked whether {@code x} implies a literal of {@code j}. The candidates are
+ * given by a {@link ICandidateFilter}, which must not change during the analysis. Before calling a solver, a candidate is pruned if it is decided by
+ * <ul> <li>the previously found solutions,</li> <li>unit propagation of {@code x}, or</li> <li>the transitive closure of already found implications.</li>
+ * </ul> The literals are distributed among several workers, each owning a copy of the solver. As every candidate is decided exactly, the result does not
+ * depend on the number of workers.
+ *
+ * @author agent
+ */
+public class ParallelImplicationAnalysis extends AbstractAnalysis<int[][]> {
+
+	public static final int DEFAULT_NUMBER_OF_THREADS;
+	static {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		DEFAULT_NUMBER_OF_THREADS = (processors == 1) ? processors : processors >> 1;
+	}
+
+	/**
+	 * Decides which pairs of variables need to be checked.
+	 */
+	public static interface ICandidateFilter {
+
+		/**
+		 * @param literal a literal of the variable {@code i}
+		 * @param otherVariable the index of the variable {@code j} (zero-based, greater than {@code i})
+		 * @return {@code true} if it must be checked whether {@code literal} implies a literal of {@code j}
+		 */
+		boolean isCandidate(int literal, int otherVariable);
+
+	}
+
+	private static final int[] EMPTY = new int[0];
+
+	private class Worker implements Callable<Void> {
+
+		private final ISatSolver workerSolver = solver.clone();
+		private final RingList<long[]> models = new RingList<>(ISatSolver.MAX_SOLUTION_BUFFER);
+
+		private final int numberOfVariables = core.length;
+		private final long[] seenPositive = new long[(numberOfVariables + 63) >>> 6];
+		private final long[] seenNegative = new long[seenPositive.length];
+
+		private final byte[] values = Arrays.copyOf(core, numberOfVariables);
+		private final int[] trail = new int[numberOfVariables];
+		private final int[] implied = new int[numberOfVariables];
+		private final int[] impliedTrail = new int[numberOfVariables];
+		private int impliedTrailSize = 0;
+
+		private final int[] literals;
+		private final AtomicInteger nextLiteral;
+		private final IMonitor monitor;
+
+		public Worker(int[] literals, AtomicInteger nextLiteral, IMonitor monitor) {
+			this.literals = literals;
+			this.nextLiteral = nextLiteral;
+			this.monitor = monitor;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			for (int k = nextLiteral.getAndIncrement(); k < literals.length; k = nextLiteral.getAndIncrement()) {
+				final int literal = literals[k];
+				implications.set(getIndex(literal), findImplications(literal));
+				monitor.step();
+			}
+			return null;
+		}
+
+		private int[] findImplications(int x) {
+			final int i = Math.abs(x) - 1;
+			final int[] candidates = new int[numberOfVariables - i - 1];
+			int numberOfCandidates = 0;
+			for (int j = i + 1; j < numberOfVariables; j++) {
+				if ((core[j] == 0) && filter.isCandidate(x, j)) {
+					candidates[numberOfCandidates++] = j;
+				}
+			}
+			if (numberOfCandidates == 0) {
+				return EMPTY;
+			}
+
+			Arrays.fill(seenPositive, 0);
+			Arrays.fill(seenNegative, 0);
+			boolean hasModel = false;
+			for (final long[] model : models) {
+				if (contains(model, x)) {
+					addModel(model);
+					hasModel = true;
+				}
+			}
+			workerSolver.assignmentPush(x);
+			if (!hasModel) {
+				final int[] model = workerSolver.findModel();
+				if (model == null) {
+					workerSolver.assignmentPop();
+					return EMPTY;
+				}
+				addModel(storeModel(model));
+			}
+
+			propagate(x);
+
+			final int[] result = new int[numberOfCandidates];
+			int resultSize = 0;
+			int c = 0;
+			for (int k = 0; k < numberOfCandidates; k++) {
+				final int j = candidates[k];
+				final boolean positive = isSet(seenPositive, j);
+				if (positive && isSet(seenNegative, j)) {
+					continue;
+				}
+				final int y = positive ? j + 1 : -(j + 1);
+				if (implied[j] == y) {
+					result[resultSize++] = y;
+					addTransitiveImplications(y);
+					continue;
+				}
+
+				workerSolver.assignmentPush(-y);
+				workerSolver.setSelectionStrategy(((c++ % 2) != 0) ? SelectionStrategy.POSITIVE : SelectionStrategy.NEGATIVE);
+				switch (workerSolver.isSatisfiable()) {
+				case FALSE:
+					result[resultSize++] = y;
+					setImplied(y);
+					addTransitiveImplications(y);
+					break;
+				case TIMEOUT:
+					break;
+				case TRUE:
+					addModel(storeModel(workerSolver.getModel()));
+					workerSolver.shuffleOrder();
+					break;
+				}
+				workerSolver.assignmentPop();
+			}
+			workerSolver.assignmentPop();
+
+			for (int k = 0; k < impliedTrailSize; k++) {
+				implied[impliedTrail[k]] = 0;
+			}
+			impliedTrailSize = 0;
+			return Arrays.copyOf(result, resultSize);
+		}
+
+		/**
+		 * Marks all literals that are implied by {@code x} via unit propagation.
+		 */
+		private void propagate(int x) {
+			int trailSize = 0;
+			values[Math.abs(x) - 1] = (byte) (x > 0 ? 1 : -1);
+			trail[trailSize++] = x;
+			propagation: for (int t = 0; t < trailSize; t++) {
+				for (final int clauseIndex : occurrences[getIndex(-trail[t])]) {
+					final int clauseLength = clauses.getClauseLength(clauseIndex);
+					int unassignedLiteral = 0;
+					int numberOfUnassigned = 0;
+					boolean satisfied = false;
+					for (int p = 0; p < clauseLength; p++) {
+						final int literal = clauses.getLiteral(clauseIndex, p);
+						final int value = values[Math.abs(literal) - 1];
+						if (value == 0) {
+							numberOfUnassigned++;
+							unassignedLiteral = literal;
+						} else if ((value > 0) == (literal > 0)) {
+							satisfied = true;
+							break;
+						}
+					}
+					if (!satisfied) {
+						if (numberOfUnassigned == 1) {
+							values[Math.abs(unassignedLiteral) - 1] = (byte) (unassignedLiteral > 0 ? 1 : -1);
+							trail[trailSize++] = unassignedLiteral;
+						} else if (numberOfUnassigned == 0) {
+							break propagation;
+						}
+					}
+				}
+			}
+			for (int t = 0; t < trailSize; t++) {
+				final int literal = trail[t];
+				values[Math.abs(literal) - 1] = 0;
+				if (t > 0) {
+					setImplied(literal);
+				}
+			}
+		}
+
+		private void addTransitiveImplications(int y) {
+			final int[] transitiveImplications = implications.get(getIndex(y));
+			if (transitiveImplications != null) {
+				for (final int z : transitiveImplications) {
+					setImplied(z);
+				}
+			}
+		}
+
+		private void setImplied(int literal) {
+			final int variable = Math.abs(literal) - 1;
+			if (implied[variable] == 0) {
+				implied[variable] = literal;
+				impliedTrail[impliedTrailSize++] = variable;
+			}
+		}
+
+		private long[] storeModel(int[] model) {
+			final long[] bits = new long[seenPositive.length];
+			for (final int literal : model) {
+				if (literal > 0) {
+					bits[(literal - 1) >>> 6] |= 1L << ((literal - 1) & 63);
+				}
+			}
+			models.add(bits);
+			return bits;
+		}
+
+		private void addModel(long[] model) {
+			for (int w = 0; w < model.length; w++) {
+				seenPositive[w] |= model[w];
+				seenNegative[w] |= ~model[w];
+			}
+		}
+
+		private boolean contains(long[] model, int literal) {
+			return isSet(model, Math.abs(literal) - 1) == (literal > 0);
+		}
+
+		private boolean isSet(long[] bits, int variable) {
+			return (bits[variable >>> 6] & (1L << (variable & 63))) != 0;
+		}
+
+	}
+
+	private final byte[] core;
+	private final ICandidateFilter filter;
+
+	private int numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+
+	private ClauseStore clauses;
+	private int[][] occurrences;
+	private AtomicReferenceArray<int[]> implications;
+
+	/**
+	 * @param solver the solver, which is copied for each worker
+	 * @param core the value of each core (1) and dead (-1) variable
+	 * @param filter the pairs to check
+	 */
+	public ParallelImplicationAnalysis(ISatSolver solver, byte[] core, ICandidateFilter filter) {
+		super(solver);
+		this.core = core;
+		this.filter = filter;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return for each literal (index {@code 2 * (|x| - 1) + (x > 0 ? 1 : 0)}) all implied literals of candidate variables in ascending order or
+	 *         {@code null} if the variable is core or dead
+	 */
+	@Override
+	public int[][] analyze(IMonitor monitor) throws Exception {
+		final int numberOfVariables = core.length;
+		clauses = solver.getSatInstance().getClauses();
+		occurrences = getOccurrences(clauses, numberOfVariables);
+		implications = new AtomicReferenceArray<>(numberOfVariables << 1);
+
+		// Variables with higher indexes are processed first, such that their implications can be used for the transitive closure
+		final List<Integer> literalList = new ArrayList<>();
+		for (int i = numberOfVariables - 1; i >= 0; i--) {
+			if (core[i] == 0) {
+				literalList.add(i + 1);
+				literalList.add(-(i + 1));
+			}
+		}
+		final int[] literals = new int[literalList.size()];
+		for (int i = 0; i < literals.length; i++) {
+			literals[i] = literalList.get(i);
+		}
+		monitor.setRemainingWork(literals.length);
+
+		final AtomicInteger nextLiteral = new AtomicInteger();
+		final IMonitor syncMonitor = new SyncMonitor(monitor);
+		final int numberOfWorkers = Math.max(1, Math.min(numberOfThreads, literals.length));
+		if (numberOfWorkers == 1) {
+			new Worker(literals, nextLiteral, syncMonitor).call();
+		} else {
+			final List<Worker> workers = new ArrayList<>(numberOfWorkers);
+			for (int i = 0; i < numberOfWorkers; i++) {
+				workers.add(new Worker(literals, nextLiteral, syncMonitor));
+			}
+			final ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+			try {
+				for (final Future<Void> future : executor.invokeAll(workers)) {
+					try {
+						future.get();
+					} catch (final ExecutionException e) {
+						final Throwable cause = e.getCause();
+						if (cause instanceof Exception) {
+							throw (Exception) cause;
+						}
+						throw e;
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		final int[][] result = new int[numberOfVariables << 1][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = implications.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * @return for each literal the indexes of all clauses containing it, not considering clauses that are satisfied by a core or dead variable
+	 */
+	private int[][] getOccurrences(ClauseStore clauses, int numberOfVariables) {
+		final int[] counts = new int[numberOfVariables << 1];
+		final boolean[] satisfied = new boolean[clauses.size()];
+		for (int c = 0; c < clauses.size(); c++) {
+			for (int p = 0; p < clauses.getClauseLength(c); p++) {
+				final int literal = clauses.getLiteral(c, p);
+				final byte coreValue = core[Math.abs(literal) - 1];
+				if ((coreValue != 0) && ((coreValue > 0) == (literal > 0))) {
+					satisfied[c] = true;
+				}
+			}
+			if (!satisfied[c]) {
+				for (int p = 0; p < clauses.getClauseLength(c); p++) {
+					counts[getIndex(clauses.getLiteral(c, p))]++;
+				}
+			}
+		}
+		final int[][] occurrences = new int[counts.length][];
+		for (int i = 0; i < counts.length; i++) {
+			occurrences[i] = new int[counts[i]];
+			counts[i] = 0;
+		}
+		for (int c = 0; c < clauses.size(); c++) {
+			if (!satisfied[c]) {
+				for (int p = 0; p < clauses.getClauseLength(c); p++) {
+					final int index = getIndex(clauses.getLiteral(c, p));
+					occurrences[index][counts[index]++] = c;
+				}
+			}
+		}
+		return occurrences;
+	}
+
+	public static int getIndex(int literal) {
+		return literal > 0 ? ((literal - 1) << 1) + 1 : (-literal - 1) << 1;
+	}
+
+}
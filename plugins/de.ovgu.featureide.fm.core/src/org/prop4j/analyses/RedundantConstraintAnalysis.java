@@ -0,0 +1,224 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.solver.ISatSolver;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.Logger;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.SyncMonitor;
+
+/**
+ * Detects redundant constraints, i.e., constraints that are implied by the structure and the other constraints of a feature model. A constraint that is
+ * found to be redundant is not considered while checking the subsequent constraints.<br> The constraints are partitioned among several workers, each
+ * owning a copy of the solver. First, every worker checks its constraints against all other constraints. Only constraints that are redundant in this check
+ * can be redundant at all and are checked again in order. Thus, the result does not depend on the number of workers.
+ *
+ * @author agent
+ */
+public class RedundantConstraintAnalysis extends AbstractAnalysis<boolean[]> {
+
+	public static final int DEFAULT_NUMBER_OF_THREADS;
+	static {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		DEFAULT_NUMBER_OF_THREADS = (processors == 1) ? processors : processors >> 1;
+	}
+
+	private class Partition extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to, numberOfWorkers;
+		private final boolean[] candidates;
+		private final IMonitor monitor;
+
+		public Partition(int from, int to, int numberOfWorkers, boolean[] candidates, IMonitor monitor) {
+			this.from = from;
+			this.to = to;
+			this.numberOfWorkers = numberOfWorkers;
+			this.candidates = candidates;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (numberOfWorkers > 1) {
+				final int leftWorkers = numberOfWorkers >> 1;
+				final int middle = from + (int) (((long) (to - from) * leftWorkers) / numberOfWorkers);
+				invokeAll(new Partition(from, middle, leftWorkers, candidates, monitor),
+						new Partition(middle, to, numberOfWorkers - leftWorkers, candidates, monitor));
+			} else {
+				final ISatSolver workerSolver = solver.clone();
+				addConstraints(workerSolver);
+				for (int i = from; i < to; i++) {
+					candidates[i] = isRedundant(workerSolver, i, null);
+					monitor.step();
+				}
+			}
+		}
+
+	}
+
+	private final List<Node> constraints;
+
+	private int numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+
+	private int[][][] constraintClauses;
+	private int firstSelector;
+
+	/**
+	 * @param satInstance the structure of the feature model
+	 * @param constraints the constraints of the feature model, each in conjunctive normal form
+	 */
+	public RedundantConstraintAnalysis(SatInstance satInstance, List<Node> constraints) {
+		super(satInstance);
+		this.constraints = constraints;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return an array containing {@code true} for each redundant constraint
+	 */
+	@Override
+	public boolean[] analyze(IMonitor monitor) throws Exception {
+		final int numberOfConstraints = constraints.size();
+		final boolean[] redundant = new boolean[numberOfConstraints];
+		if (numberOfConstraints == 0) {
+			return redundant;
+		}
+		monitor.setRemainingWork(numberOfConstraints + 1);
+
+		final SatInstance satInstance = solver.getSatInstance();
+		firstSelector = satInstance.getNumberOfVariables() + 1;
+		constraintClauses = new int[numberOfConstraints][][];
+		int i = 0;
+		for (final Node constraint : constraints) {
+			final Node[] clauseNodes = constraint.getChildren();
+			final int[][] clauses = new int[clauseNodes.length][];
+			for (int j = 0; j < clauseNodes.length; j++) {
+				final Node clauseNode = clauseNodes[j];
+				clauses[j] = (clauseNode instanceof Literal) ? new int[] { satInstance.getSignedVariable((Literal) clauseNode) }
+					: satInstance.convertToInt(clauseNode.getChildren());
+			}
+			constraintClauses[i++] = clauses;
+		}
+
+		final boolean[] candidates = new boolean[numberOfConstraints];
+		final int numberOfWorkers = Math.max(1, Math.min(numberOfThreads, numberOfConstraints));
+		final Partition partition = new Partition(0, numberOfConstraints, numberOfWorkers, candidates, new SyncMonitor(monitor));
+		if (numberOfWorkers == 1) {
+			partition.compute();
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(numberOfWorkers);
+			try {
+				pool.invoke(partition);
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		addConstraints(solver);
+		for (i = 0; i < numberOfConstraints; i++) {
+			if (candidates[i]) {
+				redundant[i] = isRedundant(solver, i, redundant);
+			}
+		}
+		monitor.step();
+		return redundant;
+	}
+
+	/**
+	 * Adds all constraints to the given solver. Each clause is guarded by a selector variable of its constraint.
+	 */
+	private void addConstraints(ISatSolver solver) {
+		final ISolver internalSolver = solver.getInternalSolver();
+		internalSolver.newVar((firstSelector + constraintClauses.length) - 1);
+		for (int i = 0; i < constraintClauses.length; i++) {
+			final int selector = firstSelector + i;
+			for (final int[] clause : constraintClauses[i]) {
+				final VecInt guardedClause = new VecInt(clause.length + 1);
+				for (final int literal : clause) {
+					guardedClause.push(literal);
+				}
+				guardedClause.push(-selector);
+				try {
+					internalSolver.addClause(guardedClause);
+				} catch (final ContradictionException e) {
+					Logger.logError(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a constraint is implied by the structure and all other constraints that are not excluded.
+	 *
+	 * @param solver the solver containing all constraints
+	 * @param index the index of the constraint
+	 * @param excluded the constraints to exclude or {@code null}
+	 * @return {@code true} if the constraint is implied, {@code false} otherwise
+	 */
+	private boolean isRedundant(ISatSolver solver, int index, boolean[] excluded) {
+		final IVecInt assumptions = new VecInt();
+		solver.getAssignment().copyTo(assumptions);
+		for (int i = 0; i < constraintClauses.length; i++) {
+			if ((i != index) && ((excluded == null) || !excluded[i])) {
+				assumptions.push(firstSelector + i);
+			}
+		}
+		final int size = assumptions.size();
+		for (final int[] clause : constraintClauses[index]) {
+			for (final int literal : clause) {
+				assumptions.push(-literal);
+			}
+			try {
+				if (solver.getInternalSolver().isSatisfiable(assumptions)) {
+					return false;
+				}
+			} catch (final TimeoutException e) {
+				Logger.logError(e);
+				return false;
+			}
+			assumptions.shrinkTo(size);
+		}
+		return true;
+	}
+
+}
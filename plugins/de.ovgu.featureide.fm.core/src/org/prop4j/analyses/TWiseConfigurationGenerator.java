@@ -0,0 +1,538 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.prop4j.solver.ISatSolver.SelectionStrategy;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Generates configurations that cover all valid t-wise interactions (t = 1..4) of the non-fixed variables.<br> The interactions are enumerated lazily in
+ * lexicographic order and are never stored. Instead, the coverage of a tuple is derived from a bitset index that stores for each literal which configurations
+ * contain it. Thus, the required memory only depends on the number of variables and configurations.<br> Each new tuple is added to the first open (partial)
+ * configuration it is compatible with. When the number of open configurations exceeds {@link #getMaxOpenConfigurations()}, the configuration with the most
+ * literals is completed and passed to the monitor via {@link IMonitor#invoke(Object)} as an {@link IPairWiseConfigurationGenerator.Configuration}.
+ *
+ * @author agent
+ */
+public class TWiseConfigurationGenerator extends AbstractAnalysis<List<List<String>>> implements IPairWiseConfigurationGenerator {
+
+	public static final int MAX_T = 4;
+
+	public static final int DEFAULT_MAX_OPEN_CONFIGURATIONS = 64;
+
+	private static class PartialConfiguration {
+
+		private final int id;
+		private final int[] assignment;
+		private final int[] literals;
+		private int numberOfLiterals = 0;
+		private int[] solution;
+		private int coveredTuples = 0;
+
+		public PartialConfiguration(int id, int numberOfVariables, int[] solution) {
+			this.id = id;
+			assignment = new int[numberOfVariables];
+			literals = new int[numberOfVariables];
+			this.solution = solution;
+		}
+
+		public boolean hasConflict(int[] tuple) {
+			for (final int literal : tuple) {
+				if (assignment[Math.abs(literal) - 1] == -literal) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return {@code true} if the given model contains the tuple and all literals of this configuration
+		 */
+		public boolean isSatisfiedBy(int[] model, int[] tuple) {
+			return containsAll(model, tuple, tuple.length) && containsAll(model, literals, numberOfLiterals);
+		}
+
+		private static boolean containsAll(int[] model, int[] literals, int length) {
+			for (int i = 0; i < length; i++) {
+				final int literal = literals[i];
+				if (model[Math.abs(literal) - 1] != literal) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	private final int t;
+	private final int maxNumber;
+	private int maxOpenConfigurations = DEFAULT_MAX_OPEN_CONFIGURATIONS;
+	private boolean keepConfigurations = true;
+
+	private final List<Configuration> finalConfigurationList = new ArrayList<>();
+	private final BlockingQueue<Configuration> q = new LinkedBlockingQueue<>();
+	private final List<PartialConfiguration> openConfigurations = new ArrayList<>();
+
+	private int numberOfVariables, numberOfFixedLiterals, configurationCount, completedCount, totalCoverage;
+
+	/**
+	 * Stores for each literal (index {@code 2 * (|literal| - 1) + (literal > 0 ? 1 : 0)}) a bitset of all configurations containing the literal.
+	 */
+	private long[][] literalIndex;
+	private int indexWords;
+
+	/**
+	 * Caches which pairs of literals were already checked, so invalid tuples can be skipped without calling the solver.
+	 */
+	private long[][] incompatiblePairs, compatiblePairs;
+
+	public TWiseConfigurationGenerator(SatInstance satInstance, int t, int maxNumber) {
+		super(satInstance);
+		if (t < 1 || t > MAX_T) {
+			throw new IllegalArgumentException("t must be between 1 and " + MAX_T + ": " + t);
+		}
+		this.t = t;
+		this.maxNumber = maxNumber;
+	}
+
+	@Override
+	protected List<List<String>> analyze(IMonitor monitor) throws Exception {
+		finalConfigurationList.clear();
+		q.clear();
+		openConfigurations.clear();
+		configurationCount = 0;
+		completedCount = 0;
+		totalCoverage = 0;
+		if (maxNumber <= 0 || solver.isSatisfiable() != SatResult.TRUE) {
+			return Collections.emptyList();
+		}
+
+		numberOfVariables = solver.getSatInstance().getNumberOfVariables();
+		final int[] fixedLiterals = LongRunningWrapper.runMethod(new CoreDeadAnalysis(solver));
+		for (final int literal : fixedLiterals) {
+			solver.assignmentPush(literal);
+		}
+		numberOfFixedLiterals = fixedLiterals.length;
+		solver.setSelectionStrategy(SelectionStrategy.RANDOM);
+
+		final boolean[] fixed = new boolean[numberOfVariables];
+		for (final int literal : fixedLiterals) {
+			fixed[Math.abs(literal) - 1] = true;
+		}
+		final int[] variables = new int[numberOfVariables - numberOfFixedLiterals];
+		for (int i = 0, j = 0; i < numberOfVariables; i++) {
+			if (!fixed[i]) {
+				variables[j++] = i + 1;
+			}
+		}
+
+		indexWords = 1;
+		literalIndex = new long[numberOfVariables << 1][indexWords];
+		if (t > 1) {
+			final int pairWords = ((numberOfVariables << 1) + 63) >>> 6;
+			incompatiblePairs = new long[numberOfVariables << 1][pairWords];
+			compatiblePairs = new long[numberOfVariables << 1][pairWords];
+		}
+
+		if (variables.length == 0) {
+			createConfiguration(solver.findModel());
+		} else {
+			coverInteractions(variables, Math.min(t, variables.length), monitor);
+		}
+		while (!openConfigurations.isEmpty()) {
+			complete(openConfigurations.get(0), monitor);
+		}
+		literalIndex = null;
+		incompatiblePairs = null;
+		compatiblePairs = null;
+		return getConfigurations();
+	}
+
+	private void coverInteractions(int[] variables, int t, IMonitor monitor) {
+		final int n = variables.length;
+		final int numberOfPatterns = 1 << t;
+		final int[] combination = new int[t];
+		for (int i = 0; i < t; i++) {
+			combination[i] = i;
+		}
+		// prefixIndex[level][pattern] = intersection of the literal bitsets of the first (level + 1) variables of the current combination
+		final long[][][] prefixIndex = new long[t - 1][][];
+		for (int level = 1; level < (t - 1); level++) {
+			prefixIndex[level] = new long[2 << level][];
+		}
+		if (t > 1) {
+			prefixIndex[0] = new long[2][];
+		}
+		final int[] tuple = new int[t];
+
+		monitor.setRemainingWork((n - t) + 1);
+		int changedLevel = 0;
+		while (true) {
+			updatePrefixIndex(variables, combination, prefixIndex, changedLevel);
+			for (int pattern = 0; pattern < numberOfPatterns; pattern++) {
+				if (!isCovered(variables, combination, prefixIndex, pattern)) {
+					for (int i = 0; i < t; i++) {
+						final int variable = variables[combination[i]];
+						tuple[i] = ((pattern >>> (t - 1 - i)) & 1) == 1 ? variable : -variable;
+					}
+					if (addTuple(tuple, monitor)) {
+						updatePrefixIndex(variables, combination, prefixIndex, 0);
+					}
+				}
+			}
+
+			int i = t - 1;
+			while ((i >= 0) && (combination[i] == ((n - t) + i))) {
+				i--;
+			}
+			if (i < 0) {
+				break;
+			}
+			combination[i]++;
+			for (int j = i + 1; j < t; j++) {
+				combination[j] = combination[j - 1] + 1;
+			}
+			changedLevel = i;
+			if (i == 0) {
+				monitor.worked();
+				monitor.checkCancel();
+			}
+		}
+	}
+
+	private void updatePrefixIndex(int[] variables, int[] combination, long[][][] prefixIndex, int changedLevel) {
+		final int lastLevel = prefixIndex.length - 1;
+		if (lastLevel < 0) {
+			return;
+		}
+		if (changedLevel == 0) {
+			final int variable = variables[combination[0]];
+			prefixIndex[0][0] = literalIndex[getIndex(-variable)];
+			prefixIndex[0][1] = literalIndex[getIndex(variable)];
+			changedLevel = 1;
+		}
+		for (int level = changedLevel; level <= lastLevel; level++) {
+			final long[][] previous = prefixIndex[level - 1];
+			final long[][] current = prefixIndex[level];
+			final int variable = variables[combination[level]];
+			final long[] negative = literalIndex[getIndex(-variable)];
+			final long[] positive = literalIndex[getIndex(variable)];
+			for (int pattern = 0; pattern < current.length; pattern++) {
+				long[] bits = current[pattern];
+				if ((bits == null) || (bits.length != indexWords)) {
+					bits = new long[indexWords];
+					current[pattern] = bits;
+				}
+				final long[] previousBits = previous[pattern >>> 1];
+				final long[] literalBits = ((pattern & 1) == 1) ? positive : negative;
+				for (int w = 0; w < indexWords; w++) {
+					bits[w] = previousBits[w] & literalBits[w];
+				}
+			}
+		}
+	}
+
+	private boolean isCovered(int[] variables, int[] combination, long[][][] prefixIndex, int pattern) {
+		final int t = combination.length;
+		final int variable = variables[combination[t - 1]];
+		final long[] literalBits = literalIndex[getIndex(((pattern & 1) == 1) ? variable : -variable)];
+		if (t == 1) {
+			for (int w = 0; w < indexWords; w++) {
+				if (literalBits[w] != 0) {
+					return true;
+				}
+			}
+		} else {
+			final long[] prefixBits = prefixIndex[t - 2][pattern >>> 1];
+			for (int w = 0; w < indexWords; w++) {
+				if ((prefixBits[w] & literalBits[w]) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds an uncovered tuple to a compatible open configuration or creates a new configuration for it.
+	 *
+	 * @return {@code true} if the literal index was modified, {@code false} if the tuple is invalid or could not be added
+	 */
+	private boolean addTuple(int[] tuple, IMonitor monitor) {
+		if (containsIncompatiblePair(tuple)) {
+			return false;
+		}
+
+		// Cheap check: the stored solution of a configuration already contains the tuple
+		for (final PartialConfiguration configuration : openConfigurations) {
+			if (PartialConfiguration.containsAll(configuration.solution, tuple, tuple.length)) {
+				addLiterals(configuration, tuple);
+				return true;
+			}
+		}
+
+		// Check whether the tuple is valid at all
+		for (final int literal : tuple) {
+			solver.assignmentPush(literal);
+		}
+		final SatResult tupleResult = solver.isSatisfiable();
+		final int[] tupleSolution = (tupleResult == SatResult.TRUE) ? solver.getModel() : null;
+		solver.assignmentClear(numberOfFixedLiterals);
+		if (tupleSolution == null) {
+			learnIncompatiblePairs(tuple);
+			return false;
+		}
+		for (final PartialConfiguration configuration : openConfigurations) {
+			if (configuration.isSatisfiedBy(tupleSolution, tuple)) {
+				configuration.solution = tupleSolution;
+				addLiterals(configuration, tuple);
+				return true;
+			}
+		}
+
+		for (final PartialConfiguration configuration : openConfigurations) {
+			if (!configuration.hasConflict(tuple) && !isIncompatible(configuration, tuple)) {
+				for (int i = 0; i < configuration.numberOfLiterals; i++) {
+					solver.assignmentPush(configuration.literals[i]);
+				}
+				for (final int literal : tuple) {
+					solver.assignmentPush(literal);
+				}
+				final SatResult result = solver.isSatisfiable();
+				final int[] solution = (result == SatResult.TRUE) ? solver.getModel() : null;
+				solver.assignmentClear(numberOfFixedLiterals);
+				if (solution != null) {
+					configuration.solution = solution;
+					addLiterals(configuration, tuple);
+					return true;
+				}
+			}
+		}
+
+		if (configurationCount >= maxNumber) {
+			return false;
+		}
+		if (openConfigurations.size() >= maxOpenConfigurations) {
+			PartialConfiguration fullestConfiguration = openConfigurations.get(0);
+			for (final PartialConfiguration configuration : openConfigurations) {
+				if (configuration.numberOfLiterals > fullestConfiguration.numberOfLiterals) {
+					fullestConfiguration = configuration;
+				}
+			}
+			complete(fullestConfiguration, monitor);
+		}
+		final PartialConfiguration configuration = createConfiguration(tupleSolution);
+		addLiterals(configuration, tuple);
+		return true;
+	}
+
+	private boolean containsIncompatiblePair(int[] tuple) {
+		if (incompatiblePairs != null) {
+			for (int i = 0; i < tuple.length; i++) {
+				final long[] incompatibleLiterals = incompatiblePairs[getIndex(tuple[i])];
+				for (int j = i + 1; j < tuple.length; j++) {
+					if (isSet(incompatibleLiterals, getIndex(tuple[j]))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean isIncompatible(PartialConfiguration configuration, int[] tuple) {
+		if (incompatiblePairs != null) {
+			for (final int literal : tuple) {
+				final long[] incompatibleLiterals = incompatiblePairs[getIndex(literal)];
+				for (int i = 0; i < configuration.numberOfLiterals; i++) {
+					if (isSet(incompatibleLiterals, getIndex(configuration.literals[i]))) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private void learnIncompatiblePairs(int[] tuple) {
+		if (tuple.length == 2) {
+			setPair(incompatiblePairs, tuple[0], tuple[1]);
+		} else if (tuple.length > 2) {
+			for (int i = 0; i < tuple.length; i++) {
+				for (int j = i + 1; j < tuple.length; j++) {
+					if (!isSet(compatiblePairs[getIndex(tuple[i])], getIndex(tuple[j]))) {
+						solver.assignmentPush(tuple[i]);
+						solver.assignmentPush(tuple[j]);
+						final SatResult result = solver.isSatisfiable();
+						solver.assignmentClear(numberOfFixedLiterals);
+						switch (result) {
+						case FALSE:
+							setPair(incompatiblePairs, tuple[i], tuple[j]);
+							return;
+						case TRUE:
+							setPair(compatiblePairs, tuple[i], tuple[j]);
+							break;
+						case TIMEOUT:
+						default:
+							break;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static void setPair(long[][] pairs, int literal1, int literal2) {
+		final int index1 = getIndex(literal1);
+		final int index2 = getIndex(literal2);
+		pairs[index1][index2 >>> 6] |= 1L << (index2 & 63);
+		pairs[index2][index1 >>> 6] |= 1L << (index1 & 63);
+	}
+
+	private static boolean isSet(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << (index & 63))) != 0;
+	}
+
+	private PartialConfiguration createConfiguration(int[] solution) {
+		final int id = configurationCount++;
+		if (configurationCount > (indexWords << 6)) {
+			indexWords <<= 1;
+			for (int i = 0; i < literalIndex.length; i++) {
+				literalIndex[i] = Arrays.copyOf(literalIndex[i], indexWords);
+			}
+		}
+		final PartialConfiguration configuration = new PartialConfiguration(id, numberOfVariables, solution);
+		openConfigurations.add(configuration);
+		return configuration;
+	}
+
+	private void addLiterals(PartialConfiguration configuration, int[] tuple) {
+		for (final int literal : tuple) {
+			final int variableIndex = Math.abs(literal) - 1;
+			if (configuration.assignment[variableIndex] == 0) {
+				configuration.assignment[variableIndex] = literal;
+				configuration.literals[configuration.numberOfLiterals++] = literal;
+				setBit(configuration.id, literal);
+			}
+		}
+		configuration.coveredTuples++;
+	}
+
+	/**
+	 * Completes a configuration with its stored solution, which satisfies the formula and contains all literals of the configuration.
+	 */
+	private void complete(PartialConfiguration configuration, IMonitor monitor) {
+		openConfigurations.remove(configuration);
+		final int[] model = configuration.solution;
+		for (final int literal : model) {
+			if (literal != 0) {
+				setBit(configuration.id, literal);
+			}
+		}
+		totalCoverage += configuration.coveredTuples;
+		final Configuration finalConfiguration = new Configuration(model, configuration.coveredTuples, totalCoverage);
+		completedCount++;
+		if (keepConfigurations) {
+			finalConfigurationList.add(finalConfiguration);
+			q.add(finalConfiguration);
+		}
+		monitor.invoke(finalConfiguration);
+	}
+
+	private void setBit(int id, int literal) {
+		literalIndex[getIndex(literal)][id >>> 6] |= 1L << (id & 63);
+	}
+
+	private static int getIndex(int literal) {
+		return literal > 0 ? ((literal - 1) << 1) + 1 : (-literal - 1) << 1;
+	}
+
+	@Override
+	public List<List<String>> getConfigurations() {
+		final SatInstance satInstance = solver.getSatInstance();
+		final List<List<String>> configurations = new ArrayList<>(finalConfigurationList.size());
+		for (final Configuration configuration : finalConfigurationList) {
+			configurations.add(satInstance.convertToString(configuration.getModel()));
+		}
+		return configurations;
+	}
+
+	@Override
+	public List<String> getNextConfiguration() {
+		final Configuration configuration = q.poll();
+		return configuration == null ? null : solver.getSatInstance().convertToString(configuration.getModel());
+	}
+
+	@Override
+	public int getFixedPartCount() {
+		return numberOfFixedLiterals;
+	}
+
+	@Override
+	public BlockingQueue<Configuration> getQ() {
+		return q;
+	}
+
+	public int getT() {
+		return t;
+	}
+
+	/**
+	 * @return the number of configurations that were completed in the last run
+	 */
+	public int getNumberOfConfigurations() {
+		return completedCount;
+	}
+
+	public int getMaxOpenConfigurations() {
+		return maxOpenConfigurations;
+	}
+
+	/**
+	 * Sets the maximum number of partial configurations that are kept in memory. A lower number emits configurations earlier but may increase the sample size.
+	 */
+	public void setMaxOpenConfigurations(int maxOpenConfigurations) {
+		this.maxOpenConfigurations = Math.max(1, maxOpenConfigurations);
+	}
+
+	public boolean isKeepConfigurations() {
+		return keepConfigurations;
+	}
+
+	/**
+	 * If set to {@code false}, completed configurations are only passed to the monitor and are not collected by this generator.
+	 */
+	public void setKeepConfigurations(boolean keepConfigurations) {
+		this.keepConfigurations = keepConfigurations;
+	}
+
+}
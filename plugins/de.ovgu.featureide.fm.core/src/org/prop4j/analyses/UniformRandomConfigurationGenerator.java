@@ -0,0 +1,208 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.prop4j.solver.DecisionDNNF;
+import org.prop4j.solver.UniformSampler;
+
+import de.ovgu.featureide.fm.core.job.LongRunningMethod;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+
+/**
+ * Finds uniformly distributed random solutions of propositional formulas using a {@link UniformSampler}.<br> The solutions are drawn in batches by several
+ * workers. The random numbers of the {@code i}-th solution only depend on the seed and on {@code i}, so the result is reproducible for a given seed,
+ * regardless of the number of workers. After each batch, the new solutions are passed to the monitor via {@link IMonitor#step(Object)} in the order in
+ * which they were drawn.<br> If duplicates are not allowed, a solution that was already found is skipped, which results in a uniform sample without
+ * replacement.
+ *
+ * @author agent
+ */
+public class UniformRandomConfigurationGenerator implements LongRunningMethod<List<int[]>> {
+
+	public static final int DEFAULT_NUMBER_OF_THREADS = ParallelImplicationAnalysis.DEFAULT_NUMBER_OF_THREADS;
+
+	private static final int BATCH_SIZE_PER_THREAD = 64;
+
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+	private class Worker implements Callable<Void> {
+
+		private final int[][] batch;
+		private final long firstIndex;
+		private final AtomicInteger nextIndex;
+
+		public Worker(int[][] batch, long firstIndex, AtomicInteger nextIndex) {
+			this.batch = batch;
+			this.firstIndex = firstIndex;
+			this.nextIndex = nextIndex;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			for (int k = nextIndex.getAndIncrement(); k < batch.length; k = nextIndex.getAndIncrement()) {
+				batch[k] = sampler.getRandomSolution(new Random(seed + ((firstIndex + k) * SEED_INCREMENT)));
+			}
+			return null;
+		}
+
+	}
+
+	private final DecisionDNNF compiledFormula;
+	private final int maxNumber;
+
+	private int[] assumptions = new int[0];
+	private long seed = System.nanoTime();
+	private boolean allowDuplicates = false;
+	private int numberOfThreads = DEFAULT_NUMBER_OF_THREADS;
+
+	private UniformSampler sampler;
+
+	/**
+	 * @param compiledFormula the compiled formula
+	 * @param maxNumber the number of solutions to draw
+	 */
+	public UniformRandomConfigurationGenerator(DecisionDNNF compiledFormula, int maxNumber) {
+		this.compiledFormula = compiledFormula;
+		this.maxNumber = maxNumber;
+	}
+
+	/**
+	 * @return the drawn solutions in the order in which they were drawn (see {@link UniformSampler#getRandomSolution(Random)})
+	 */
+	@Override
+	public List<int[]> execute(IMonitor monitor) throws Exception {
+		sampler = new UniformSampler(compiledFormula, assumptions);
+		final BigInteger numberOfSolutions = sampler.getNumberOfSolutions();
+		if ((maxNumber <= 0) || (numberOfSolutions.signum() == 0)) {
+			return Collections.emptyList();
+		}
+		final int numberOfConfigurations = allowDuplicates ? maxNumber : numberOfSolutions.min(BigInteger.valueOf(maxNumber)).intValue();
+		monitor.setRemainingWork(numberOfConfigurations);
+
+		final List<int[]> configurations = new ArrayList<>(numberOfConfigurations);
+		final Set<List<Integer>> foundConfigurations = allowDuplicates ? null : new HashSet<List<Integer>>();
+		final int numberOfWorkers = Math.max(1, numberOfThreads);
+		final ExecutorService executor = (numberOfWorkers == 1) ? null : Executors.newFixedThreadPool(numberOfWorkers);
+		try {
+			long index = 0;
+			while (configurations.size() < numberOfConfigurations) {
+				monitor.checkCancel();
+				final int[][] batch = new int[Math.min(numberOfWorkers * BATCH_SIZE_PER_THREAD, numberOfConfigurations - configurations.size())][];
+				drawBatch(executor, numberOfWorkers, batch, index);
+				index += batch.length;
+
+				for (final int[] configuration : batch) {
+					if ((foundConfigurations == null) || foundConfigurations.add(asList(configuration))) {
+						configurations.add(configuration);
+						monitor.step(configuration);
+					}
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+		return configurations;
+	}
+
+	private void drawBatch(ExecutorService executor, int numberOfWorkers, int[][] batch, long firstIndex) throws Exception {
+		final AtomicInteger nextIndex = new AtomicInteger();
+		if (executor == null) {
+			new Worker(batch, firstIndex, nextIndex).call();
+		} else {
+			final List<Worker> workers = new ArrayList<>(numberOfWorkers);
+			for (int i = 0; i < numberOfWorkers; i++) {
+				workers.add(new Worker(batch, firstIndex, nextIndex));
+			}
+			for (final Future<Void> future : executor.invokeAll(workers)) {
+				try {
+					future.get();
+				} catch (final ExecutionException e) {
+					final Throwable cause = e.getCause();
+					if (cause instanceof Exception) {
+						throw (Exception) cause;
+					}
+					throw e;
+				}
+			}
+		}
+	}
+
+	private static List<Integer> asList(int[] configuration) {
+		final Integer[] literals = new Integer[configuration.length];
+		for (int i = 0; i < configuration.length; i++) {
+			literals[i] = configuration[i];
+		}
+		return Arrays.asList(literals);
+	}
+
+	public int[] getAssumptions() {
+		return assumptions;
+	}
+
+	/**
+	 * @param assumptions literals that must be contained in each solution (0 is ignored)
+	 */
+	public void setAssumptions(int[] assumptions) {
+		this.assumptions = assumptions;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public boolean isAllowDuplicates() {
+		return allowDuplicates;
+	}
+
+	public void setAllowDuplicates(boolean allowDuplicates) {
+		this.allowDuplicates = allowDuplicates;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+}
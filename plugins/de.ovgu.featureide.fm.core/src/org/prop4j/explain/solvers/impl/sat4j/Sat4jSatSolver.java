@@ -22,7 +22,6 @@ package org.prop4j.explain.solvers.impl.sat4j;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -33,6 +32,7 @@ import java.util.Set;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.prop4j.explain.solvers.impl.AbstractSatSolver;
+import org.prop4j.solver.VariableDictionary;
 import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
@@ -50,10 +50,8 @@ import org.sat4j.specs.TimeoutException;
  */
 public class Sat4jSatSolver extends AbstractSatSolver<ISolver> {
 
-	/** Maps variables to Sat4J indexes. */
-	private final Map<Object, Integer> variableIndexes = new HashMap<>();
-	/** Maps Sat4J indexes to variables. */
-	private final Map<Integer, Object> indexVariables = new HashMap<>();
+	/** Maps variables to Sat4J indexes and back. */
+	private final VariableDictionary variableIndexes = new VariableDictionary();
 
 	/** Whether an immediate contradiction occurred while adding the clauses. */
 	private boolean contradiction = false;
@@ -120,7 +118,6 @@ public class Sat4jSatSolver extends AbstractSatSolver<ISolver> {
 			index = getOracle().nextFreeVarId(false);
 			getOracle().newVar(index);
 			variableIndexes.put(variable, index);
-			indexVariables.put(index, variable);
 		}
 		return index;
 	}
@@ -230,8 +227,7 @@ public class Sat4jSatSolver extends AbstractSatSolver<ISolver> {
 	 * @return a Sat4J index; 0 in case of an unknown variable
 	 */
 	public int getIndexFromVariable(Object variable) {
-		final Integer index = variableIndexes.get(variable);
-		return index == null ? 0 : index;
+		return variableIndexes.getIndex(variable);
 	}
 
 	/**
@@ -259,7 +255,7 @@ public class Sat4jSatSolver extends AbstractSatSolver<ISolver> {
 		if (index == 0) {
 			throw new IllegalArgumentException("Index must not be 0");
 		}
-		return indexVariables.get(Math.abs(index));
+		return variableIndexes.getVariable(index);
 	}
 
 	/**
@@ -268,7 +264,7 @@ public class Sat4jSatSolver extends AbstractSatSolver<ISolver> {
 	 * @return the amount of contained variables
 	 */
 	public int getVariableCount() {
-		return indexVariables.size();
+		return variableIndexes.size();
 	}
 
 	/**
@@ -0,0 +1,874 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Base class for solvers that traverse the complete solution space of a {@link SatInstance}.<br> The solver performs a DPLL-style search with unit propagation
+ * (two watched literals), decomposes the residual formula into independent components after each decision, caches the result for each component, and learns
+ * clauses from conflicts. Subclasses define how the results of decisions and independent components are combined (e.g., by summing up and multiplying the
+ * number of solutions).<br> <br> Learned clauses are implied by the whole formula, but not necessarily by a single component. Thus, if a component turns out
+ * to be unsatisfiable, all cache entries that were computed for its sibling components are discarded (cf. Sang et al., <i>Combining Component Caching and
+ * Clause Learning for Effective Model Counting</i>, SAT 2004).
+ *
+ * @param <R> the type of the result for a component
+ *
+ * @author agent
+ */
+public abstract class AbstractComponentSolver<R> {
+
+	public static final int DEFAULT_MAX_CACHE_SIZE = 1 << 25;
+	public static final int DEFAULT_MAX_LEARNED_CLAUSES = 1 << 14;
+	public static final int DEFAULT_MAX_LEARNED_CLAUSE_LENGTH = 64;
+
+	private static final int[] EMPTY = new int[0];
+	private static final int DECISION = -1;
+	private static final int CHECK_INTERVAL = 0x3ff;
+	private static final long MAX_FILL_EDGES = 1 << 24;
+
+	private static final byte CLAUSE_SATISFIED = 0;
+	private static final byte CLAUSE_UNTOUCHED = 1;
+	private static final byte CLAUSE_REDUCED = 2;
+
+	/**
+	 * Key of a component within the cache.<br> Consists of the sorted variables and the sorted ids of all unsatisfied (original) clauses of the component that
+	 * contain at least one assigned literal (unsatisfied clauses without any assigned literal are already determined by the variables). Both lists are stored
+	 * as delta-encoded variable length integers.
+	 */
+	private static final class ComponentKey {
+
+		private final byte[] data;
+		private final int hashCode;
+
+		private ComponentKey(byte[] data) {
+			this.data = data;
+			hashCode = Arrays.hashCode(data);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final ComponentKey other = (ComponentKey) obj;
+			return (hashCode == other.hashCode) && Arrays.equals(data, other.data);
+		}
+
+	}
+
+	private static final class Component {
+
+		private final int[] variables;
+		private final int[] clauseIds;
+		private final int branchVariable;
+		private ComponentKey key;
+
+		private Component(int[] variables, int[] clauseIds, int branchVariable) {
+			this.variables = variables;
+			this.clauseIds = clauseIds;
+			this.branchVariable = branchVariable;
+		}
+
+	}
+
+	private static final Comparator<Component> SIZE_COMPARATOR = new Comparator<Component>() {
+
+		@Override
+		public int compare(Component o1, Component o2) {
+			return o1.variables.length - o2.variables.length;
+		}
+	};
+
+	private final SatInstance satInstance;
+	private final int numberOfVariables;
+
+	private final ArrayList<int[]> clauses = new ArrayList<>();
+	private final ArrayList<Integer> learnedClauses = new ArrayList<>();
+	private final ArrayList<Integer> unitClauses = new ArrayList<>();
+	private final int numberOfOriginalClauses;
+	private final int[][] occurrences;
+	private final int[][] watches;
+	private final int[] watchSizes;
+
+	private final byte[] values;
+	private final int[] reasons;
+	private final int[] trailPositions;
+	private final int[] trail;
+	private int trailSize = 0;
+	private int propagationHead = 0;
+	private boolean unsatisfiable = false;
+
+	private final int[] variableStamps;
+	private final int[] clauseStamps;
+	private final byte[] clauseStates;
+	private int[] clauseBuffer;
+	private int[] freeVariableBuffer = new int[16];
+	private byte[] keyBuffer = new byte[64];
+	private final int[] queue;
+	private final int[] priorities;
+	private final int[] variableComponents;
+	private int currentStamp = 0;
+
+	private final HashMap<ComponentKey, R> cache = new HashMap<>();
+	private final ArrayList<ComponentKey> cacheLog = new ArrayList<>();
+	private long cacheSize = 0;
+	private int cacheGeneration = 0;
+
+	private int maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+	private int maxLearnedClauses = DEFAULT_MAX_LEARNED_CLAUSES;
+	private int maxLearnedClauseLength = DEFAULT_MAX_LEARNED_CLAUSE_LENGTH;
+
+	private long timeout = 0;
+	private long deadline = Long.MAX_VALUE;
+	private long nodeCount = 0;
+	private IMonitor monitor = new NullMonitor();
+
+	public AbstractComponentSolver(SatInstance satInstance) {
+		this.satInstance = satInstance;
+		numberOfVariables = satInstance.getNumberOfVariables();
+
+		values = new byte[numberOfVariables + 1];
+		reasons = new int[numberOfVariables + 1];
+		trailPositions = new int[numberOfVariables + 1];
+		trail = new int[numberOfVariables];
+		variableStamps = new int[numberOfVariables + 1];
+		queue = new int[numberOfVariables];
+		watches = new int[(numberOfVariables + 1) << 1][];
+		watchSizes = new int[(numberOfVariables + 1) << 1];
+
+		final int[] occurrenceCounts = new int[numberOfVariables + 1];
+		for (final Node clauseNode : satInstance.getCnf().getChildren()) {
+			final int[] clause = normalizeClause(clauseNode);
+			if (clause != null) {
+				final int clauseId = clauses.size();
+				clauses.add(clause);
+				switch (clause.length) {
+				case 0:
+					unsatisfiable = true;
+					break;
+				case 1:
+					unitClauses.add(clauseId);
+					break;
+				default:
+					addWatch(clause[0], clauseId);
+					addWatch(clause[1], clauseId);
+					break;
+				}
+				for (final int literal : clause) {
+					occurrenceCounts[Math.abs(literal)]++;
+				}
+			}
+		}
+		numberOfOriginalClauses = clauses.size();
+
+		occurrences = new int[numberOfVariables + 1][];
+		for (int i = 1; i <= numberOfVariables; i++) {
+			occurrences[i] = new int[occurrenceCounts[i]];
+			occurrenceCounts[i] = 0;
+		}
+		for (int clauseId = 0; clauseId < numberOfOriginalClauses; clauseId++) {
+			for (final int literal : clauses.get(clauseId)) {
+				final int var = Math.abs(literal);
+				occurrences[var][occurrenceCounts[var]++] = clauseId;
+			}
+		}
+
+		clauseStamps = new int[numberOfOriginalClauses];
+		clauseStates = new byte[numberOfOriginalClauses];
+		clauseBuffer = new int[16];
+		variableComponents = new int[numberOfVariables + 1];
+		priorities = computePriorities();
+	}
+
+	/**
+	 * Computes a static branching order by a min-degree elimination of the formula's primal graph.<br> Variables that are eliminated last separate the
+	 * largest parts of the formula and are thus preferred as decision variables.
+	 */
+	private int[] computePriorities() {
+		final int[] priorities = new int[numberOfVariables + 1];
+		final List<HashSet<Integer>> neighbors = new ArrayList<>(numberOfVariables + 1);
+		for (int i = 0; i <= numberOfVariables; i++) {
+			neighbors.add(new HashSet<Integer>());
+		}
+		for (int clauseId = 0; clauseId < numberOfOriginalClauses; clauseId++) {
+			final int[] clause = clauses.get(clauseId);
+			for (int i = 0; i < clause.length; i++) {
+				final int var1 = Math.abs(clause[i]);
+				for (int j = i + 1; j < clause.length; j++) {
+					final int var2 = Math.abs(clause[j]);
+					neighbors.get(var1).add(var2);
+					neighbors.get(var2).add(var1);
+				}
+			}
+		}
+
+		final PriorityQueue<Long> queue = new PriorityQueue<>(numberOfVariables + 1);
+		for (int var = 1; var <= numberOfVariables; var++) {
+			queue.add(((long) neighbors.get(var).size() << 32) | var);
+		}
+		long fillBudget = MAX_FILL_EDGES;
+		int rank = 0;
+		while (!queue.isEmpty()) {
+			final long entry = queue.poll();
+			final int var = (int) entry;
+			final HashSet<Integer> varNeighbors = neighbors.get(var);
+			if ((priorities[var] != 0) || ((entry >>> 32) != varNeighbors.size())) {
+				continue;
+			}
+			priorities[var] = ++rank;
+			for (final Integer neighbor : varNeighbors) {
+				final HashSet<Integer> otherNeighbors = neighbors.get(neighbor);
+				otherNeighbors.remove(var);
+				if (fillBudget > 0) {
+					for (final Integer fillNeighbor : varNeighbors) {
+						if ((fillNeighbor.intValue() != neighbor.intValue()) && otherNeighbors.add(fillNeighbor)) {
+							fillBudget--;
+						}
+					}
+				}
+			}
+			for (final Integer neighbor : varNeighbors) {
+				queue.add(((long) neighbors.get(neighbor).size() << 32) | neighbor);
+			}
+			neighbors.set(var, null);
+		}
+		return priorities;
+	}
+
+	private int[] normalizeClause(Node clauseNode) {
+		final int[] literals = (clauseNode instanceof Literal) ? satInstance.convertToInt(new Node[] { clauseNode })
+			: satInstance.convertToInt(clauseNode.getChildren());
+		Arrays.sort(literals);
+		int size = 0;
+		for (int i = 0; i < literals.length; i++) {
+			final int literal = literals[i];
+			if (literal == 0) {
+				throw new IllegalArgumentException("Unknown variable in clause " + clauseNode);
+			}
+			if ((size > 0) && (literals[size - 1] == literal)) {
+				continue;
+			}
+			if (Arrays.binarySearch(literals, -literal) >= 0) {
+				// tautology
+				return null;
+			}
+			literals[size++] = literal;
+		}
+		return Arrays.copyOf(literals, size);
+	}
+
+	/**
+	 * Traverses all solutions that are consistent with the given literals.
+	 *
+	 * @param assumptions literals that must be contained in each solution (0 is ignored)
+	 * @return the combined result for all solutions
+	 * @throws TimeoutException if the search could not be completed within the given {@link #setTimeout(long) timeout}
+	 */
+	protected R solve(int[] assumptions) throws TimeoutException {
+		deadline = (timeout > 0) ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+		nodeCount = 0;
+		backtrack(0);
+		if (unsatisfiable) {
+			return getUnsatisfiableResult();
+		}
+		boolean completed = false;
+		try {
+			for (final Integer unitClause : unitClauses) {
+				final int literal = clauses.get(unitClause)[0];
+				if (!enqueue(literal, unitClause)) {
+					completed = true;
+					return getUnsatisfiableResult();
+				}
+			}
+			for (final int literal : assumptions) {
+				if ((literal != 0) && !enqueue(literal, DECISION)) {
+					completed = true;
+					return getUnsatisfiableResult();
+				}
+			}
+			final int conflict = propagate();
+			if (conflict >= 0) {
+				learn(conflict);
+				completed = true;
+				return getUnsatisfiableResult();
+			}
+
+			final int[] allVariables = new int[numberOfVariables];
+			for (int i = 0; i < numberOfVariables; i++) {
+				allVariables[i] = i + 1;
+			}
+			final R result = solveComponents(allVariables, 0);
+			completed = true;
+			return result;
+		} catch (final StackOverflowError e) {
+			throw new TimeoutException("Formula is too deep to be solved.");
+		} finally {
+			backtrack(0);
+			if (!completed) {
+				// cache might contain entries that would have been removed later on
+				clearCache();
+			}
+		}
+	}
+
+	/**
+	 * @return the result for an unsatisfiable formula
+	 */
+	protected abstract R getUnsatisfiableResult();
+
+	/**
+	 * @return {@code true} if the given result represents an unsatisfiable formula
+	 */
+	protected abstract boolean isUnsatisfiable(R result);
+
+	/**
+	 * Combines the results of independent components.
+	 *
+	 * @param variables the sorted variable set of the parent component
+	 * @param trailStart the trail position of the first literal that was assigned after the last decision was made (see
+	 *        {@link #getAssignedLiterals(int[], int)})
+	 * @param freeVariables all unassigned variables of the parent component that do not appear in any unsatisfied clause
+	 * @param componentResults the (satisfiable) results of all components
+	 */
+	protected abstract R combine(int[] variables, int trailStart, int[] freeVariables, List<R> componentResults) throws TimeoutException;
+
+	/**
+	 * Combines the results of both branches of a decision.
+	 *
+	 * @param variable the decision variable
+	 * @param positiveResult the result, if the variable is assigned to {@code true}
+	 * @param negativeResult the result, if the variable is assigned to {@code false}
+	 */
+	protected abstract R decide(int variable, R positiveResult, R negativeResult) throws TimeoutException;
+
+	/**
+	 * Returns all literals that were assigned since the given trail position and whose variable is contained in the given variable set.
+	 *
+	 * @param variables a sorted variable set
+	 * @param trailStart the first trail position
+	 */
+	protected final int[] getAssignedLiterals(int[] variables, int trailStart) {
+		final int[] literals = new int[trailSize - trailStart];
+		int size = 0;
+		for (int i = trailStart; i < trailSize; i++) {
+			final int literal = trail[i];
+			if (Arrays.binarySearch(variables, Math.abs(literal)) >= 0) {
+				literals[size++] = literal;
+			}
+		}
+		return (size == literals.length) ? literals : Arrays.copyOf(literals, size);
+	}
+
+	/**
+	 * Assigns the literal, if it is not yet assigned.
+	 *
+	 * @return {@code false} if the complementary literal is already assigned, {@code true} otherwise
+	 */
+	private boolean enqueue(int literal, int reason) {
+		final int value = value(literal);
+		if (value == 0) {
+			assign(literal, reason);
+			return true;
+		}
+		return value > 0;
+	}
+
+	/**
+	 * Computes the result for all unassigned variables of the given (sorted) variable set.
+	 */
+	private R solveComponents(int[] variables, int trailStart) throws TimeoutException {
+		final int logGeneration = cacheGeneration;
+		final int logStart = cacheLog.size();
+
+		final List<Component> components = new ArrayList<>();
+		final int[] freeVariables = findComponents(variables, components);
+		Collections.sort(components, SIZE_COMPARATOR);
+
+		final List<R> componentResults = new ArrayList<>(components.size());
+		for (final Component component : components) {
+			component.key = createKey(component);
+			R componentResult = cache.get(component.key);
+			if (componentResult == null) {
+				componentResult = solveComponent(component);
+			}
+			if (isUnsatisfiable(componentResult)) {
+				// all sibling components might have been affected by learned clauses
+				removeCacheEntries(logGeneration, logStart);
+				return getUnsatisfiableResult();
+			}
+			componentResults.add(componentResult);
+		}
+		return combine(variables, trailStart, freeVariables, componentResults);
+	}
+
+	private R solveComponent(Component component) throws TimeoutException {
+		if ((++nodeCount & CHECK_INTERVAL) == 0) {
+			monitor.checkCancel();
+			if (System.currentTimeMillis() > deadline) {
+				throw new TimeoutException();
+			}
+		}
+
+		R positiveResult = getUnsatisfiableResult();
+		R negativeResult = positiveResult;
+		final int branchVariable = component.branchVariable;
+		for (int i = 0; i < 2; i++) {
+			final int mark = trailSize;
+			assign(i == 0 ? branchVariable : -branchVariable, DECISION);
+			final int conflict = propagate();
+			if (conflict >= 0) {
+				learn(conflict);
+			} else if (i == 0) {
+				positiveResult = solveComponents(component.variables, mark);
+			} else {
+				negativeResult = solveComponents(component.variables, mark);
+			}
+			backtrack(mark);
+		}
+
+		final R result = decide(branchVariable, positiveResult, negativeResult);
+		addCacheEntry(component, result);
+		return result;
+	}
+
+	/**
+	 * Divides all unassigned variables of the given variable set into independent components.
+	 *
+	 * @param parentVariables the sorted variable set
+	 * @param components the list to which all found components are added
+	 * @return all unassigned variables that do not appear in any unsatisfied clause
+	 */
+	private int[] findComponents(int[] parentVariables, List<Component> components) {
+		if (++currentStamp == Integer.MAX_VALUE) {
+			Arrays.fill(variableStamps, 0);
+			Arrays.fill(clauseStamps, 0);
+			currentStamp = 1;
+		}
+		final int stamp = currentStamp;
+
+		int freeVariableCount = 0;
+		int componentCount = 0;
+		for (final int startVariable : parentVariables) {
+			if ((values[startVariable] != 0) || (variableStamps[startVariable] == stamp)) {
+				continue;
+			}
+			variableStamps[startVariable] = stamp;
+			variableComponents[startVariable] = componentCount;
+			queue[0] = startVariable;
+			int queueHead = 0;
+			int queueTail = 1;
+			int activeClauseCount = 0;
+			int keyClauseCount = 0;
+			int branchVariable = startVariable;
+			int bestScore = -1;
+
+			while (queueHead < queueTail) {
+				final int var = queue[queueHead++];
+				int score = 0;
+				for (final int clauseId : occurrences[var]) {
+					if (clauseStamps[clauseId] != stamp) {
+						clauseStamps[clauseId] = stamp;
+						final int[] clause = clauses.get(clauseId);
+						final byte state = getState(clause);
+						clauseStates[clauseId] = state;
+						if (state != CLAUSE_SATISFIED) {
+							activeClauseCount++;
+							if (state == CLAUSE_REDUCED) {
+								if (keyClauseCount == clauseBuffer.length) {
+									clauseBuffer = Arrays.copyOf(clauseBuffer, keyClauseCount << 1);
+								}
+								clauseBuffer[keyClauseCount++] = clauseId;
+							}
+							for (final int literal : clause) {
+								final int otherVar = Math.abs(literal);
+								if ((values[otherVar] == 0) && (variableStamps[otherVar] != stamp)) {
+									variableStamps[otherVar] = stamp;
+									variableComponents[otherVar] = componentCount;
+									queue[queueTail++] = otherVar;
+								}
+							}
+						}
+					}
+					if (clauseStates[clauseId] != CLAUSE_SATISFIED) {
+						score++;
+					}
+				}
+				if ((priorities[var] > priorities[branchVariable]) || ((priorities[var] == priorities[branchVariable]) && (score > bestScore))) {
+					bestScore = score;
+					branchVariable = var;
+				}
+			}
+
+			if (activeClauseCount == 0) {
+				if (freeVariableCount == freeVariableBuffer.length) {
+					freeVariableBuffer = Arrays.copyOf(freeVariableBuffer, freeVariableCount << 1);
+				}
+				freeVariableBuffer[freeVariableCount++] = startVariable;
+				variableComponents[startVariable] = -1;
+			} else {
+				final int[] clauseIds = Arrays.copyOf(clauseBuffer, keyClauseCount);
+				Arrays.sort(clauseIds);
+				components.add(new Component(new int[queueTail], clauseIds, branchVariable));
+				componentCount++;
+			}
+		}
+
+		if (componentCount > 0) {
+			// fill variables in ascending order
+			final int[] positions = new int[componentCount];
+			for (final int var : parentVariables) {
+				if ((values[var] == 0) && (variableComponents[var] >= 0)) {
+					final int componentIndex = variableComponents[var];
+					components.get(componentIndex).variables[positions[componentIndex]++] = var;
+				}
+			}
+		}
+		return (freeVariableCount == 0) ? EMPTY : Arrays.copyOf(freeVariableBuffer, freeVariableCount);
+	}
+
+	private byte getState(int[] clause) {
+		byte state = CLAUSE_UNTOUCHED;
+		for (final int literal : clause) {
+			final int value = value(literal);
+			if (value > 0) {
+				return CLAUSE_SATISFIED;
+			} else if (value < 0) {
+				state = CLAUSE_REDUCED;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Unit propagation using two watched literals.
+	 *
+	 * @return the id of a conflicting clause or {@code -1} if there is no conflict
+	 */
+	private int propagate() {
+		while (propagationHead < trailSize) {
+			final int falseLiteral = -trail[propagationHead++];
+			final int watchIndex = getIndex(falseLiteral);
+			final int[] watchList = watches[watchIndex];
+			final int watchSize = watchSizes[watchIndex];
+			int j = 0;
+			for (int i = 0; i < watchSize; i++) {
+				final int clauseId = watchList[i];
+				final int[] clause = clauses.get(clauseId);
+				if (clause == null) {
+					// removed learned clause
+					continue;
+				}
+				if (clause[0] == falseLiteral) {
+					clause[0] = clause[1];
+					clause[1] = falseLiteral;
+				}
+				final int otherWatch = clause[0];
+				if (value(otherWatch) > 0) {
+					watchList[j++] = clauseId;
+					continue;
+				}
+				boolean foundWatch = false;
+				for (int k = 2; k < clause.length; k++) {
+					final int literal = clause[k];
+					if (value(literal) >= 0) {
+						clause[1] = literal;
+						clause[k] = falseLiteral;
+						addWatch(literal, clauseId);
+						foundWatch = true;
+						break;
+					}
+				}
+				if (foundWatch) {
+					continue;
+				}
+				watchList[j++] = clauseId;
+				if (value(otherWatch) < 0) {
+					for (i++; i < watchSize; i++) {
+						watchList[j++] = watchList[i];
+					}
+					watchSizes[watchIndex] = j;
+					propagationHead = trailSize;
+					return clauseId;
+				}
+				assign(otherWatch, clauseId);
+			}
+			watchSizes[watchIndex] = j;
+		}
+		return -1;
+	}
+
+	/**
+	 * Learns a clause that consists of the negation of all decisions that led to the given conflict.
+	 */
+	private void learn(int conflictId) {
+		if (++currentStamp == Integer.MAX_VALUE) {
+			Arrays.fill(variableStamps, 0);
+			Arrays.fill(clauseStamps, 0);
+			currentStamp = 1;
+		}
+		final int stamp = currentStamp;
+
+		int decisionCount = 0;
+		int queueTail = 0;
+		for (final int literal : clauses.get(conflictId)) {
+			final int var = Math.abs(literal);
+			variableStamps[var] = stamp;
+			queue[queueTail++] = var;
+		}
+		for (int queueHead = 0; queueHead < queueTail; queueHead++) {
+			final int var = queue[queueHead];
+			final int reason = reasons[var];
+			if (reason == DECISION) {
+				queue[decisionCount++] = var;
+			} else {
+				for (final int literal : clauses.get(reason)) {
+					final int otherVar = Math.abs(literal);
+					if (variableStamps[otherVar] != stamp) {
+						variableStamps[otherVar] = stamp;
+						queue[queueTail++] = otherVar;
+					}
+				}
+			}
+		}
+
+		if (decisionCount == 0) {
+			unsatisfiable = true;
+			return;
+		}
+		if (decisionCount > maxLearnedClauseLength) {
+			return;
+		}
+
+		final int[] learnedClause = new int[decisionCount];
+		for (int i = 0; i < decisionCount; i++) {
+			final int var = queue[i];
+			learnedClause[i] = values[var] > 0 ? -var : var;
+		}
+		// watch the two literals that were assigned last
+		for (int k = 0; k < Math.min(2, decisionCount); k++) {
+			int maxIndex = k;
+			for (int i = k + 1; i < decisionCount; i++) {
+				if (trailPositions[Math.abs(learnedClause[i])] > trailPositions[Math.abs(learnedClause[maxIndex])]) {
+					maxIndex = i;
+				}
+			}
+			final int temp = learnedClause[k];
+			learnedClause[k] = learnedClause[maxIndex];
+			learnedClause[maxIndex] = temp;
+		}
+
+		final int clauseId = clauses.size();
+		clauses.add(learnedClause);
+		if (decisionCount == 1) {
+			unitClauses.add(clauseId);
+		} else {
+			addWatch(learnedClause[0], clauseId);
+			addWatch(learnedClause[1], clauseId);
+			learnedClauses.add(clauseId);
+			if (learnedClauses.size() > maxLearnedClauses) {
+				reduceLearnedClauses();
+			}
+		}
+	}
+
+	/**
+	 * Removes the older half of all learned clauses that are currently not used as reason.
+	 */
+	private void reduceLearnedClauses() {
+		final int half = learnedClauses.size() >> 1;
+		final ArrayList<Integer> keptClauses = new ArrayList<>(learnedClauses.size() - half);
+		for (int i = 0; i < learnedClauses.size(); i++) {
+			final Integer clauseId = learnedClauses.get(i);
+			final int[] clause = clauses.get(clauseId);
+			final int var = Math.abs(clause[0]);
+			if ((i >= half) || ((values[var] != 0) && (reasons[var] == clauseId))) {
+				keptClauses.add(clauseId);
+			} else {
+				clauses.set(clauseId, null);
+			}
+		}
+		learnedClauses.clear();
+		learnedClauses.addAll(keptClauses);
+	}
+
+	private void assign(int literal, int reason) {
+		final int var = Math.abs(literal);
+		values[var] = (byte) (literal > 0 ? 1 : -1);
+		reasons[var] = reason;
+		trailPositions[var] = trailSize;
+		trail[trailSize++] = literal;
+	}
+
+	private void backtrack(int mark) {
+		while (trailSize > mark) {
+			values[Math.abs(trail[--trailSize])] = 0;
+		}
+		propagationHead = trailSize;
+	}
+
+	private int value(int literal) {
+		return literal > 0 ? values[literal] : -values[-literal];
+	}
+
+	private static int getIndex(int literal) {
+		return literal > 0 ? (literal << 1) : ((-literal << 1) | 1);
+	}
+
+	private void addWatch(int literal, int clauseId) {
+		final int index = getIndex(literal);
+		int[] watchList = watches[index];
+		if (watchList == null) {
+			watchList = new int[4];
+			watches[index] = watchList;
+		} else if (watchSizes[index] == watchList.length) {
+			watchList = Arrays.copyOf(watchList, watchList.length << 1);
+			watches[index] = watchList;
+		}
+		watchList[watchSizes[index]++] = clauseId;
+	}
+
+	private ComponentKey createKey(Component component) {
+		int size = 0;
+		size = writeNumber(component.variables.length, size);
+		size = writeDeltas(component.variables, size);
+		size = writeDeltas(component.clauseIds, size);
+		return new ComponentKey(Arrays.copyOf(keyBuffer, size));
+	}
+
+	private int writeDeltas(int[] sortedNumbers, int size) {
+		int last = 0;
+		for (final int number : sortedNumbers) {
+			size = writeNumber(number - last, size);
+			last = number;
+		}
+		return size;
+	}
+
+	private int writeNumber(int number, int size) {
+		if ((size + 5) > keyBuffer.length) {
+			keyBuffer = Arrays.copyOf(keyBuffer, keyBuffer.length << 1);
+		}
+		while ((number & ~0x7f) != 0) {
+			keyBuffer[size++] = (byte) ((number & 0x7f) | 0x80);
+			number >>>= 7;
+		}
+		keyBuffer[size++] = (byte) number;
+		return size;
+	}
+
+	private void addCacheEntry(Component component, R result) {
+		final ComponentKey key = component.key;
+		if ((cacheSize + key.data.length) > maxCacheSize) {
+			clearCache();
+		}
+		if (cache.put(key, result) == null) {
+			cacheSize += key.data.length;
+			cacheLog.add(key);
+		}
+	}
+
+	private void removeCacheEntries(int logGeneration, int logStart) {
+		final int start = (logGeneration == cacheGeneration) ? logStart : 0;
+		for (int i = cacheLog.size() - 1; i >= start; i--) {
+			final ComponentKey key = cacheLog.remove(i);
+			if (cache.remove(key) != null) {
+				cacheSize -= key.data.length;
+			}
+		}
+	}
+
+	public void clearCache() {
+		cache.clear();
+		cacheLog.clear();
+		cacheSize = 0;
+		cacheGeneration++;
+	}
+
+	public SatInstance getSatInstance() {
+		return satInstance;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @param timeout the maximum time in milliseconds for a single call of {@link #solve(int[])} (0 means no timeout)
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public void setMonitor(IMonitor monitor) {
+		this.monitor = (monitor != null) ? monitor : new NullMonitor();
+	}
+
+	public int getMaxCacheSize() {
+		return maxCacheSize;
+	}
+
+	/**
+	 * @param maxCacheSize the maximum number of bytes stored in cache keys, before the cache is cleared
+	 */
+	public void setMaxCacheSize(int maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	public int getMaxLearnedClauses() {
+		return maxLearnedClauses;
+	}
+
+	public void setMaxLearnedClauses(int maxLearnedClauses) {
+		this.maxLearnedClauses = maxLearnedClauses;
+	}
+
+	public int getMaxLearnedClauseLength() {
+		return maxLearnedClauseLength;
+	}
+
+	public void setMaxLearnedClauseLength(int maxLearnedClauseLength) {
+		this.maxLearnedClauseLength = maxLearnedClauseLength;
+	}
+
+}
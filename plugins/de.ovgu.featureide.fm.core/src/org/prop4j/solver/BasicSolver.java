@@ -71,7 +71,7 @@ public class BasicSolver implements ISatSolver {
 
 	protected BasicSolver(BasicSolver oldSolver) {
 		satInstance = oldSolver.satInstance;
-		order = new int[satInstance.intToVar.length - 1];
+		order = new int[satInstance.getNumberOfVariables()];
 		assignment = new VecInt(0);
 		oldSolver.assignment.copyTo(assignment);
 
@@ -88,8 +88,9 @@ public class BasicSolver implements ISatSolver {
 		final int size = satInstance.getNumberOfVariables();
 		if (size > 0) {
 			solver.newVar(size);
-			solver.setExpectedNumberOfClauses(satInstance.getCnf().getChildren().length + 1);
-			addCNF(satInstance.getCnf().getChildren());
+			final ClauseStore clauses = satInstance.getClauses();
+			solver.setExpectedNumberOfClauses(clauses.size() + 1);
+			addClauses(clauses);
 			final VecInt pseudoClause = new VecInt(size + 1);
 			for (int i = 1; i <= size; i++) {
 				pseudoClause.push(i);
@@ -115,21 +116,30 @@ public class BasicSolver implements ISatSolver {
 	}
 
 	protected List<IConstr> addCNF(final Node[] cnfChildren) throws ContradictionException {
-		final List<IConstr> result = new ArrayList<>(cnfChildren.length);
+		final ClauseStore clauses = new ClauseStore(cnfChildren.length, cnfChildren.length << 1);
 		for (final Node node : cnfChildren) {
-			result.add(addClause(node));
+			final Node[] children = node.getChildren();
+			final int[] clause = new int[children.length];
+			for (int i = 0; i < children.length; i++) {
+				clause[i] = satInstance.getSignedVariable((Literal) children[i]);
+			}
+			clauses.add(clause);
 		}
-		return result;
+		return addClauses(clauses);
 	}
 
-	protected IConstr addClause(final Node node) throws ContradictionException {
-		final Node[] children = node.getChildren();
-		final int[] clause = new int[children.length];
-		for (int i = 0; i < children.length; i++) {
-			final Literal literal = (Literal) children[i];
-			clause[i] = satInstance.getSignedVariable(literal);
+	/**
+	 * Adds all given clauses to the solver.
+	 *
+	 * @param clauses the clauses
+	 * @return the added constraints in the order of the clauses (an entry may be {@code null}, if the solver did not need to add a constraint)
+	 */
+	protected List<IConstr> addClauses(final ClauseStore clauses) throws ContradictionException {
+		final List<IConstr> result = new ArrayList<>(clauses.size());
+		for (int i = 0; i < clauses.size(); i++) {
+			result.add(solver.addClause(clauses.getVecInt(i)));
 		}
-		return solver.addClause(new VecInt(clause));
+		return result;
 	}
 
 	@Override
@@ -187,7 +197,7 @@ public class BasicSolver implements ISatSolver {
 	public void setOrder(List<IFeature> orderList) {
 		int i = -1;
 		for (final IFeature feature : orderList) {
-			order[++i] = satInstance.varToInt.get(feature.getName());
+			order[++i] = satInstance.getVariable(feature.getName());
 		}
 	}
 
@@ -0,0 +1,174 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.Arrays;
+
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.sat4j.core.VecInt;
+
+/**
+ * Stores clauses as consecutive literals in a single integer array. Each literal is a signed variable index (see {@link VariableDictionary}).
+ *
+ * @author agent
+ */
+public class ClauseStore {
+
+	private int[] literals;
+	private int[] clauseStarts;
+	private int numberOfClauses = 0;
+
+	public ClauseStore() {
+		this(16, 64);
+	}
+
+	/**
+	 * @param expectedNumberOfClauses the expected number of clauses
+	 * @param expectedNumberOfLiterals the expected number of literals of all clauses
+	 */
+	public ClauseStore(int expectedNumberOfClauses, int expectedNumberOfLiterals) {
+		literals = new int[Math.max(1, expectedNumberOfLiterals)];
+		clauseStarts = new int[Math.max(1, expectedNumberOfClauses) + 1];
+	}
+
+	/**
+	 * Converts a formula in conjunctive normal form.
+	 *
+	 * @param cnf the formula; each child must be a clause containing only literals or a single literal
+	 * @param dictionary the indexes of all variables in the formula
+	 * @return the clauses of the formula
+	 * @throws NullPointerException if the formula contains an unknown variable
+	 */
+	public static ClauseStore fromCNF(Node cnf, VariableDictionary dictionary) {
+		final Node[] clauses = cnf.getChildren();
+		int numberOfLiterals = 0;
+		for (final Node clause : clauses) {
+			numberOfLiterals += getLiterals(clause).length;
+		}
+		final ClauseStore clauseStore = new ClauseStore(clauses.length, numberOfLiterals);
+		for (final Node clause : clauses) {
+			final Node[] children = getLiterals(clause);
+			clauseStore.ensureLiteralCapacity(children.length);
+			for (final Node child : children) {
+				final Literal literal = (Literal) child;
+				final int index = dictionary.getIndex(literal.var);
+				if (index == 0) {
+					throw new NullPointerException("Unknown variable " + literal.var);
+				}
+				clauseStore.literals[clauseStore.clauseStarts[clauseStore.numberOfClauses + 1]++] = literal.positive ? index : -index;
+			}
+			clauseStore.closeClause();
+		}
+		return clauseStore;
+	}
+
+	private static Node[] getLiterals(Node clause) {
+		return (clause instanceof Literal) ? new Node[] { clause } : clause.getChildren();
+	}
+
+	/**
+	 * Appends a clause.
+	 *
+	 * @param clause the literals of the clause
+	 * @return the index of the clause
+	 */
+	public int add(int... clause) {
+		ensureLiteralCapacity(clause.length);
+		final int start = clauseStarts[numberOfClauses];
+		System.arraycopy(clause, 0, literals, start, clause.length);
+		clauseStarts[numberOfClauses + 1] = start + clause.length;
+		return closeClause();
+	}
+
+	private void ensureLiteralCapacity(int clauseLength) {
+		if ((numberOfClauses + 2) > clauseStarts.length) {
+			clauseStarts = Arrays.copyOf(clauseStarts, clauseStarts.length << 1);
+		}
+		final int end = clauseStarts[numberOfClauses] + clauseLength;
+		if (end > literals.length) {
+			literals = Arrays.copyOf(literals, Math.max(end, literals.length << 1));
+		}
+		clauseStarts[numberOfClauses + 1] = clauseStarts[numberOfClauses];
+	}
+
+	private int closeClause() {
+		return numberOfClauses++;
+	}
+
+	public int size() {
+		return numberOfClauses;
+	}
+
+	public int getClauseLength(int index) {
+		return clauseStarts[index + 1] - clauseStarts[index];
+	}
+
+	public int getLiteral(int index, int position) {
+		return literals[clauseStarts[index] + position];
+	}
+
+	/**
+	 * @param index the index of the clause
+	 * @return a copy of the literals of the clause
+	 */
+	public int[] getClause(int index) {
+		return Arrays.copyOfRange(literals, clauseStarts[index], clauseStarts[index + 1]);
+	}
+
+	/**
+	 * @param index the index of the clause
+	 * @return the literals of the clause as a new vector, which can be passed to a solver
+	 */
+	public VecInt getVecInt(int index) {
+		return new VecInt(getClause(index));
+	}
+
+	/**
+	 * @return the number of literals of all clauses
+	 */
+	public int getNumberOfLiterals() {
+		return clauseStarts[numberOfClauses];
+	}
+
+	/**
+	 * Converts the clauses into a formula in conjunctive normal form.
+	 *
+	 * @param dictionary the variables of the literals
+	 * @return a conjunction of clauses
+	 */
+	public Node toCNF(VariableDictionary dictionary) {
+		final Node[] clauses = new Node[numberOfClauses];
+		for (int i = 0; i < numberOfClauses; i++) {
+			final int start = clauseStarts[i];
+			final Node[] clauseLiterals = new Node[clauseStarts[i + 1] - start];
+			for (int j = 0; j < clauseLiterals.length; j++) {
+				final int literal = literals[start + j];
+				clauseLiterals[j] = new Literal(dictionary.getVariable(literal), literal > 0);
+			}
+			clauses[i] = new Or(clauseLiterals);
+		}
+		return new And(clauses);
+	}
+
+}
@@ -0,0 +1,280 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Compiled form of a {@link SatInstance} as a smooth decision-DNNF (i.e., a directed acyclic graph of literals, decomposable conjunctions, and
+ * deterministic disjunctions).<br> Once compiled, satisfiability, model counting, and the computation of all conditionally core and dead variables can be
+ * answered for any set of assumptions in time linear in the size of the graph.
+ *
+ * @see DecisionDNNFCompiler
+ *
+ * @author agent
+ */
+public class DecisionDNNF {
+
+	static final byte LITERAL = 0;
+	static final byte AND = 1;
+	static final byte OR = 2;
+
+	private final SatInstance satInstance;
+	private final int numberOfVariables;
+
+	private final byte[] types;
+	private final int[] literals;
+	private final int[][] children;
+	private final int root;
+
+	/**
+	 * @param types the type of each node
+	 * @param literals the literal of each node of type {@link #LITERAL}
+	 * @param children the children of each node of type {@link #AND} or {@link #OR}. Each child has a smaller index than its parent.
+	 * @param root the index of the root node
+	 */
+	DecisionDNNF(SatInstance satInstance, byte[] types, int[] literals, int[][] children, int root) {
+		this.satInstance = satInstance;
+		numberOfVariables = satInstance.getNumberOfVariables();
+		this.types = types;
+		this.literals = literals;
+		this.children = children;
+		this.root = root;
+	}
+
+	public SatInstance getSatInstance() {
+		return satInstance;
+	}
+
+	int getRoot() {
+		return root;
+	}
+
+	byte getType(int node) {
+		return types[node];
+	}
+
+	int getLiteral(int node) {
+		return literals[node];
+	}
+
+	int[] getChildren(int node) {
+		return children[node];
+	}
+
+	public int getNumberOfNodes() {
+		return root + 1;
+	}
+
+	public int getNumberOfEdges() {
+		int count = 0;
+		for (int i = 0; i <= root; i++) {
+			if (children[i] != null) {
+				count += children[i].length;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether there is a solution that is consistent with the given literals.
+	 *
+	 * @param assumptions literals that must be contained in the solution (0 is ignored)
+	 */
+	public boolean isSatisfiable(int[] assumptions) {
+		final byte[] assignment = getAssignment(assumptions);
+		return (assignment != null) && computeSatisfiable(assignment)[root];
+	}
+
+	/**
+	 * Counts all solutions that are consistent with the given literals.
+	 *
+	 * @param assumptions literals that must be contained in each counted solution (0 is ignored)
+	 * @return the exact number of solutions
+	 */
+	public BigInteger countSolutions(int[] assumptions) {
+		final BigInteger[] counts = countSolutionsPerNode(assumptions);
+		return (counts == null) ? BigInteger.ZERO : counts[root];
+	}
+
+	/**
+	 * Counts the solutions of each node that are consistent with the given literals.
+	 *
+	 * @param assumptions literals that must be contained in each counted solution (0 is ignored)
+	 * @return the exact number of solutions for each node or {@code null}, if the literals contain a contradiction
+	 */
+	BigInteger[] countSolutionsPerNode(int[] assumptions) {
+		final byte[] assignment = getAssignment(assumptions);
+		if (assignment == null) {
+			return null;
+		}
+		final BigInteger[] counts = new BigInteger[root + 1];
+		for (int i = 0; i <= root; i++) {
+			switch (types[i]) {
+			case LITERAL:
+				counts[i] = isContradicted(assignment, literals[i]) ? BigInteger.ZERO : BigInteger.ONE;
+				break;
+			case AND: {
+				BigInteger count = BigInteger.ONE;
+				for (final int child : children[i]) {
+					count = count.multiply(counts[child]);
+					if (count.signum() == 0) {
+						break;
+					}
+				}
+				counts[i] = count;
+				break;
+			}
+			case OR: {
+				BigInteger count = BigInteger.ZERO;
+				for (final int child : children[i]) {
+					count = count.add(counts[child]);
+				}
+				counts[i] = count;
+				break;
+			}
+			default:
+				throw new AssertionError(types[i]);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Computes all literals that are contained in every solution that is consistent with the given literals (i.e., conditionally core and dead
+	 * variables).
+	 *
+	 * @param assumptions literals that must be contained in each solution (0 is ignored)
+	 * @return all implied literals, except for the given assumptions, or an empty array, if there is no solution
+	 */
+	public int[] getImpliedLiterals(int[] assumptions) {
+		final byte[] assignment = getAssignment(assumptions);
+		if (assignment == null) {
+			return new int[0];
+		}
+		final boolean[] satisfiable = computeSatisfiable(assignment);
+		if (!satisfiable[root]) {
+			return new int[0];
+		}
+
+		// a node is marked, if it is satisfied by at least one solution of the root
+		final boolean[] marked = new boolean[root + 1];
+		final boolean[] possiblePositive = new boolean[numberOfVariables + 1];
+		final boolean[] possibleNegative = new boolean[numberOfVariables + 1];
+		marked[root] = true;
+		for (int i = root; i >= 0; i--) {
+			if (marked[i]) {
+				switch (types[i]) {
+				case LITERAL:
+					if (literals[i] > 0) {
+						possiblePositive[literals[i]] = true;
+					} else {
+						possibleNegative[-literals[i]] = true;
+					}
+					break;
+				case AND:
+					for (final int child : children[i]) {
+						marked[child] = true;
+					}
+					break;
+				case OR:
+					for (final int child : children[i]) {
+						if (satisfiable[child]) {
+							marked[child] = true;
+						}
+					}
+					break;
+				default:
+					throw new AssertionError(types[i]);
+				}
+			}
+		}
+
+		final int[] impliedLiterals = new int[numberOfVariables];
+		int size = 0;
+		for (int var = 1; var <= numberOfVariables; var++) {
+			if ((assignment[var] == 0) && (possiblePositive[var] != possibleNegative[var])) {
+				impliedLiterals[size++] = possiblePositive[var] ? var : -var;
+			}
+		}
+		return Arrays.copyOf(impliedLiterals, size);
+	}
+
+	private boolean[] computeSatisfiable(byte[] assignment) {
+		final boolean[] satisfiable = new boolean[root + 1];
+		for (int i = 0; i <= root; i++) {
+			switch (types[i]) {
+			case LITERAL:
+				satisfiable[i] = !isContradicted(assignment, literals[i]);
+				break;
+			case AND: {
+				boolean value = true;
+				for (final int child : children[i]) {
+					if (!satisfiable[child]) {
+						value = false;
+						break;
+					}
+				}
+				satisfiable[i] = value;
+				break;
+			}
+			case OR: {
+				boolean value = false;
+				for (final int child : children[i]) {
+					if (satisfiable[child]) {
+						value = true;
+						break;
+					}
+				}
+				satisfiable[i] = value;
+				break;
+			}
+			default:
+				throw new AssertionError(types[i]);
+			}
+		}
+		return satisfiable;
+	}
+
+	private static boolean isContradicted(byte[] assignment, int literal) {
+		return (literal > 0) ? (assignment[literal] < 0) : (assignment[-literal] > 0);
+	}
+
+	/**
+	 * @return the assignment of each variable or {@code null}, if the literals contain a contradiction
+	 */
+	private byte[] getAssignment(int[] assumptions) {
+		final byte[] assignment = new byte[numberOfVariables + 1];
+		for (final int literal : assumptions) {
+			if (literal != 0) {
+				final int var = Math.abs(literal);
+				final byte value = (byte) (literal > 0 ? 1 : -1);
+				if (assignment[var] == -value) {
+					return null;
+				}
+				assignment[var] = value;
+			}
+		}
+		return assignment;
+	}
+
+}
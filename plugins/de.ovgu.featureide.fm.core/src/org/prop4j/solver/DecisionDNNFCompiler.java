@@ -0,0 +1,162 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Compiles a {@link SatInstance} into a {@link DecisionDNNF}.<br> The compiler records the trace of the component caching search: each decision becomes a
+ * disjunction and each decomposition into independent components becomes a conjunction. Components that are found in the cache are shared within the graph.
+ *
+ * @author agent
+ */
+public class DecisionDNNFCompiler extends AbstractComponentSolver<Integer> {
+
+	public static final int DEFAULT_MAX_NODES = 1 << 22;
+
+	private static final Integer FALSE = 0;
+
+	private final int[] literalNodes;
+	private final int[] freeVariableNodes;
+
+	private byte[] types;
+	private int[] literals;
+	private int[][] children;
+	private int size;
+
+	private int maxNodes = DEFAULT_MAX_NODES;
+
+	public DecisionDNNFCompiler(SatInstance satInstance) {
+		super(satInstance);
+		literalNodes = new int[(satInstance.getNumberOfVariables() + 1) << 1];
+		freeVariableNodes = new int[satInstance.getNumberOfVariables() + 1];
+	}
+
+	/**
+	 * Compiles the formula of the {@link SatInstance}.
+	 *
+	 * @return the compiled formula
+	 * @throws TimeoutException if the formula could not be compiled within the given {@link #setTimeout(long) timeout} or the compiled formula would exceed
+	 *         the {@link #setMaxNodes(int) maximum number of nodes}
+	 */
+	public DecisionDNNF compile() throws TimeoutException {
+		// cached node indices are only valid for the current graph
+		clearCache();
+		Arrays.fill(literalNodes, -1);
+		Arrays.fill(freeVariableNodes, -1);
+		types = new byte[64];
+		literals = new int[64];
+		children = new int[64][];
+		size = 0;
+		addNode(DecisionDNNF.OR, 0, new int[0]);
+
+		try {
+			final int root = solve(new int[0]);
+			return new DecisionDNNF(getSatInstance(), Arrays.copyOf(types, root + 1), Arrays.copyOf(literals, root + 1), Arrays.copyOf(children, root + 1),
+					root);
+		} finally {
+			types = null;
+			literals = null;
+			children = null;
+		}
+	}
+
+	@Override
+	protected Integer getUnsatisfiableResult() {
+		return FALSE;
+	}
+
+	@Override
+	protected boolean isUnsatisfiable(Integer result) {
+		return result.intValue() == FALSE.intValue();
+	}
+
+	@Override
+	protected Integer combine(int[] variables, int trailStart, int[] freeVariables, List<Integer> componentResults) throws TimeoutException {
+		final int[] assignedLiterals = getAssignedLiterals(variables, trailStart);
+		final int[] childNodes = new int[assignedLiterals.length + freeVariables.length + componentResults.size()];
+		int index = 0;
+		for (final int literal : assignedLiterals) {
+			childNodes[index++] = getLiteralNode(literal);
+		}
+		for (final int var : freeVariables) {
+			int node = freeVariableNodes[var];
+			if (node < 0) {
+				node = addNode(DecisionDNNF.OR, 0, new int[] { getLiteralNode(var), getLiteralNode(-var) });
+				freeVariableNodes[var] = node;
+			}
+			childNodes[index++] = node;
+		}
+		for (final Integer componentResult : componentResults) {
+			childNodes[index++] = componentResult;
+		}
+		return (childNodes.length == 1) ? childNodes[0] : addNode(DecisionDNNF.AND, 0, childNodes);
+	}
+
+	@Override
+	protected Integer decide(int variable, Integer positiveResult, Integer negativeResult) throws TimeoutException {
+		if (isUnsatisfiable(positiveResult)) {
+			return negativeResult;
+		} else if (isUnsatisfiable(negativeResult)) {
+			return positiveResult;
+		} else {
+			return addNode(DecisionDNNF.OR, 0, new int[] { positiveResult, negativeResult });
+		}
+	}
+
+	private int getLiteralNode(int literal) throws TimeoutException {
+		final int index = (literal > 0) ? (literal << 1) : ((-literal << 1) | 1);
+		int node = literalNodes[index];
+		if (node < 0) {
+			node = addNode(DecisionDNNF.LITERAL, literal, null);
+			literalNodes[index] = node;
+		}
+		return node;
+	}
+
+	private int addNode(byte type, int literal, int[] childNodes) throws TimeoutException {
+		if (size == maxNodes) {
+			throw new TimeoutException("Compiled formula exceeds " + maxNodes + " nodes.");
+		}
+		if (size == types.length) {
+			final int newLength = types.length << 1;
+			types = Arrays.copyOf(types, newLength);
+			literals = Arrays.copyOf(literals, newLength);
+			children = Arrays.copyOf(children, newLength);
+		}
+		types[size] = type;
+		literals[size] = literal;
+		children[size] = childNodes;
+		return size++;
+	}
+
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+
+	public void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+}
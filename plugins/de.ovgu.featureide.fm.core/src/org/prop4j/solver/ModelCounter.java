@@ -0,0 +1,85 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Computes the exact number of solutions of a {@link SatInstance} (#SAT).
+ *
+ * @see AbstractComponentSolver
+ *
+ * @author agent
+ */
+public class ModelCounter extends AbstractComponentSolver<BigInteger> {
+
+	public ModelCounter(SatInstance satInstance) {
+		super(satInstance);
+	}
+
+	/**
+	 * Counts the solutions without any assumptions.
+	 *
+	 * @see #countSolutions(int[])
+	 */
+	public BigInteger countSolutions() throws TimeoutException {
+		return countSolutions(new int[0]);
+	}
+
+	/**
+	 * Counts all solutions that are consistent with the given literals.
+	 *
+	 * @param assumptions literals that must be contained in each counted solution
+	 * @return the exact number of solutions
+	 * @throws TimeoutException if the count could not be computed within the given {@link #setTimeout(long) timeout}
+	 */
+	public BigInteger countSolutions(int[] assumptions) throws TimeoutException {
+		return solve(assumptions);
+	}
+
+	@Override
+	protected BigInteger getUnsatisfiableResult() {
+		return BigInteger.ZERO;
+	}
+
+	@Override
+	protected boolean isUnsatisfiable(BigInteger result) {
+		return result.signum() == 0;
+	}
+
+	@Override
+	protected BigInteger combine(int[] variables, int trailStart, int[] freeVariables, List<BigInteger> componentResults) {
+		BigInteger result = BigInteger.ONE;
+		for (final BigInteger componentResult : componentResults) {
+			result = result.multiply(componentResult);
+		}
+		return result.shiftLeft(freeVariables.length);
+	}
+
+	@Override
+	protected BigInteger decide(int variable, BigInteger positiveResult, BigInteger negativeResult) {
+		return positiveResult.add(negativeResult);
+	}
+
+}
@@ -80,20 +80,14 @@ public class ModifiableSolver extends BasicSolver {
 	}
 
 	@Override
-	protected List<IConstr> addCNF(final Node[] cnfChildren) throws ContradictionException {
+	protected List<IConstr> addClauses(final ClauseStore clauses) throws ContradictionException {
 		if (constrList == null) {
 			constrList = new ArrayList<>();
 		}
 		final int oldSize = constrList.size();
 		try {
-			for (final Node node : cnfChildren) {
-				final Node[] children = node.getChildren();
-				final int[] clause = new int[children.length];
-				for (int i = 0; i < children.length; i++) {
-					final Literal literal = (Literal) children[i];
-					clause[i] = satInstance.getSignedVariable(literal);
-				}
-				constrList.add(solver.addClause(new VecInt(clause)));
+			for (int i = 0; i < clauses.size(); i++) {
+				constrList.add(solver.addClause(clauses.getVecInt(i)));
 			}
 		} catch (final ContradictionException e) {
 			removeLastClauses(constrList.size() - oldSize);
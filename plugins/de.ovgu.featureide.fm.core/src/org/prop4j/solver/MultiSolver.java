@@ -20,167 +20,217 @@
  */
 package org.prop4j.solver;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.prop4j.Node;
+import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.VecInt;
-import org.sat4j.minisat.core.Heap;
-import org.sat4j.minisat.core.IPhaseSelectionStrategy;
 import org.sat4j.minisat.core.Solver;
 import org.sat4j.minisat.orders.NegativeLiteralSelectionStrategy;
 import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
 import org.sat4j.minisat.orders.RSATPhaseSelectionStrategy;
 import org.sat4j.minisat.orders.RandomLiteralSelectionStrategy;
 import org.sat4j.minisat.orders.VarOrderHeap;
+import org.sat4j.minisat.restarts.ArminRestarts;
+import org.sat4j.minisat.restarts.Glucose21Restarts;
+import org.sat4j.minisat.restarts.LubyRestarts;
+import org.sat4j.minisat.restarts.MiniSATRestarts;
 import org.sat4j.specs.ContradictionException;
-import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.ISolverService;
 import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.SearchListenerAdapter;
 
+import de.ovgu.featureide.fm.core.Logger;
 import de.ovgu.featureide.fm.core.base.IFeature;
 
 /**
- * Finds certain solutions of propositional formulas.
+ * Portfolio solver that runs several differently configured solvers on each satisfiability query in parallel. The first solver that finds an answer cancels
+ * all other solvers. Short clauses learned by one solver are passed to all other solvers before the next query.<br> The internal solver (see
+ * {@link #getInternalSolver()}) participates in each query using the selection strategy set by {@link #setSelectionStrategy(SelectionStrategy)}. The other
+ * solvers use different phase selection strategies, variable orders, and restart strategies. Thus, clauses must only be added via
+ * {@link #addClauses(Node)}, such that all solvers contain the same formula.
  *
  * @author Sebastian Krieter
  */
 public class MultiSolver extends BasicSolver {
 
-	public class Consumer extends Thread {
+	/**
+	 * The maximum size of a learned clause that is passed to other solvers.
+	 */
+	public static final int MAX_SHARED_CLAUSE_SIZE = 3;
 
-		private final IVecInt backbone = new VecInt();
-		private boolean run = true;
+	private static final int MAX_SHARED_CLAUSES = 100000;
+
+	protected static int NUMBER_OF_THREADS = 1;
+	static {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		NUMBER_OF_THREADS = (processors == 1) ? processors : processors >> 1;
+	}
+
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(Runnable r) {
+			final Thread thread = new Thread(r, "MultiSolver");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * One solver of the portfolio.
+	 */
+	private class PortfolioMember {
+
+		private final int index;
 		private final Solver<?> solver;
+		private final int[] memberOrder;
+		private int importedClauses = 0;
 
-		public Consumer(Solver<?> solver) {
+		private PortfolioMember(int index, Solver<?> solver, int[] memberOrder) {
+			this.index = index;
 			this.solver = solver;
+			this.memberOrder = memberOrder;
 		}
 
-		@Override
-		public void run() {
-			consume();
-		}
+		private void configure() {
+			final Random random = new Random(index);
+			for (int i = memberOrder.length - 1; i >= 0; i--) {
+				final int j = random.nextInt(i + 1);
+				final int a = memberOrder[j];
+				memberOrder[j] = memberOrder[i];
+				memberOrder[i] = a;
+			}
+			switch (index % 4) {
+			case 0:
+				solver.setOrder(new VarOrderHeap2(new RandomLiteralSelectionStrategy(), memberOrder));
+				solver.setRestartStrategy(new Glucose21Restarts());
+				break;
+			case 1:
+				solver.setOrder(new VarOrderHeap2(new NegativeLiteralSelectionStrategy(), memberOrder));
+				solver.setRestartStrategy(new LubyRestarts());
+				break;
+			case 2:
+				solver.setOrder(new VarOrderHeap2(new PositiveLiteralSelectionStrategy(), memberOrder));
+				solver.setRestartStrategy(new ArminRestarts());
+				break;
+			case 3:
+				solver.setOrder(new VarOrderHeap(new RSATPhaseSelectionStrategy()));
+				solver.setRestartStrategy(new MiniSATRestarts());
+				break;
+			default:
+				break;
+			}
+			solver.setSearchListener(new SearchListenerAdapter<ISolverService>() {
 
-		public final void consume() {
-			try {
-				while (run) {
-					final Integer var = varQueue.take();
-					if (!run) {
-						break;
-					}
-					synchronized (orderLock) {
-						switch (curSelectionStrategy) {
-						case NEGATIVE:
-							solver.setOrder(new VarOrderHeap2(new NegativeLiteralSelectionStrategy(), order, orderLock));
-							break;
-						case ORG:
-							solver.setOrder(new VarOrderHeap(new RSATPhaseSelectionStrategy()));
-							break;
-						case POSITIVE:
-							solver.setOrder(new VarOrderHeap2(new PositiveLiteralSelectionStrategy(), order, orderLock));
-							break;
-						case RANDOM:
-							solver.setOrder(new VarOrderHeap2(new RandomLiteralSelectionStrategy(), order, orderLock));
-							break;
-						}
-					}
-					final int index = backbone.size();
-					synchronized (assignment) {
-						for (int i = index; i < assignment.size(); i++) {
-							backbone.push(assignment.get(i));
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void learn(IConstr c) {
+					if (c.size() <= MAX_SHARED_CLAUSE_SIZE) {
+						final int[] clause = new int[c.size()];
+						for (int i = 0; i < clause.length; i++) {
+							clause[i] = LiteralsUtils.toDimacs(c.get(i));
 						}
+						share(index, clause);
 					}
-					backbone.push(var);
-					try {
-						if (solver.isSatisfiable(backbone, false)) {
-							synchronized (solutionList) {
-								solutionList.add(solver.model());
-							}
-							shuffleOrder();
-							// handleTrue();
-						} else {
-							assignmentPush(-var);
-							// handleFalse();
+				}
+
+				@Override
+				public void learnUnit(int p) {
+					share(index, new int[] { p });
+				}
+			});
+		}
+
+		private void importSharedClauses() {
+			synchronized (sharedClauses) {
+				for (; importedClauses < sharedClauses.size(); importedClauses++) {
+					if (sharedClauseSources.get(importedClauses) != index) {
+						try {
+							solver.addClause(new VecInt(sharedClauses.get(importedClauses)));
+						} catch (final ContradictionException e) {
+							// the formula is unsatisfiable, which will be detected by the next query
 						}
-					} catch (final TimeoutException e) {
-						e.printStackTrace();
-						// handleTimeout();
-					} finally {
-						backbone.pop();
 					}
-					semaphore.release();
 				}
-			} catch (final InterruptedException e) {}
+			}
 		}
 
-		public void stopComsumer() {
-			run = false;
-			interrupt();
+		private void solve(Query query) {
+			if (query.isDecided()) {
+				query.submit(this, SatResult.TIMEOUT);
+				return;
+			}
+			try {
+				final boolean satisfiable = solver.isSatisfiable(new VecInt(query.assumptions), globalTimeout);
+				query.submit(this, satisfiable ? SatResult.TRUE : SatResult.FALSE);
+			} catch (final TimeoutException e) {
+				query.submit(this, SatResult.TIMEOUT);
+			}
 		}
 
 	}
 
-	public static class VarOrderHeap2 extends VarOrderHeap {
+	/**
+	 * A satisfiability query that is processed by all members of the portfolio.
+	 */
+	private class Query {
 
-		private static final long serialVersionUID = 1L;
+		private final int[] assumptions;
 
-		private final Object orderLock;
-		private final int[] order;
+		private SatResult result = SatResult.TIMEOUT;
+		private int[] model = null;
+		private int finishedMembers = 0;
 
-		public VarOrderHeap2(IPhaseSelectionStrategy strategy, int[] order, Object orderLock) {
-			super(strategy);
-			this.order = order;
-			this.orderLock = orderLock;
+		private Query(int[] assumptions) {
+			this.assumptions = assumptions;
 		}
 
-		@Override
-		public void init() {
-			int nlength = lits.nVars() + 1;
-			if ((activity == null) || (activity.length < nlength)) {
-				activity = new double[nlength];
-			}
-			phaseStrategy.init(nlength);
-			activity[0] = -1;
-			heap = new Heap(activity);
-			heap.setBounds(nlength);
-			nlength--;
-			synchronized (orderLock) {
-				for (int i = 0; i < nlength; i++) {
-					final int x = order[i];
-					activity[x] = 0.0;
-					if (lits.belongsToPool(x)) {
-						heap.insert(x);
-					}
+		private synchronized void submit(PortfolioMember member, SatResult memberResult) {
+			finishedMembers++;
+			if ((result == SatResult.TIMEOUT) && (memberResult != SatResult.TIMEOUT)) {
+				result = memberResult;
+				if (memberResult == SatResult.TRUE) {
+					model = member.solver.model();
 				}
+				cancel();
 			}
+			notifyAll();
 		}
 
-	}
+		private synchronized boolean isDecided() {
+			return result != SatResult.TIMEOUT;
+		}
+
+		private synchronized void await() throws InterruptedException {
+			while ((result == SatResult.TIMEOUT) && (finishedMembers < members.length)) {
+				wait();
+			}
+		}
 
-	protected static int NUMBER_OF_THREADS = 1;
-	static {
-		final int processors = Runtime.getRuntime().availableProcessors();
-		NUMBER_OF_THREADS = (processors == 1) ? processors : processors >> 1;
 	}
 
-	protected final Consumer[] solvers;
+	private final PortfolioMember[] members;
 
-	private final Object orderLock = new Object();
-	private final BlockingQueue<Integer> varQueue = new LinkedBlockingQueue<>();
+	private final List<int[]> sharedClauses = new ArrayList<>();
+	private final List<Integer> sharedClauseSources = new ArrayList<>();
 
-	private Semaphore semaphore;
+	private int[] lastModel = null;
 
 	public MultiSolver(MultiSolver oldSolver) {
 		super(oldSolver);
-		solvers = new Consumer[oldSolver.solvers.length];
-		for (int i = 0; i < solvers.length; i++) {
-			final Consumer solver = new Consumer(initSolver());
-			solver.solver.setOrder(oldSolver.solvers[i].solver.getOrder());
-			solvers[i] = solver;
-		}
+		members = createMembers(oldSolver.members.length);
 	}
 
 	public MultiSolver(Node cnf, List<IFeature> featureList) throws ContradictionException {
@@ -188,31 +238,80 @@ public class MultiSolver extends BasicSolver {
 	}
 
 	public MultiSolver(SatInstance satInstance) throws ContradictionException {
+		this(satInstance, NUMBER_OF_THREADS);
+	}
+
+	/**
+	 * @param satInstance the formula
+	 * @param numberOfSolvers the number of solvers in the portfolio, including the internal solver
+	 */
+	public MultiSolver(SatInstance satInstance, int numberOfSolvers) throws ContradictionException {
 		super(satInstance);
-		solvers = new Consumer[NUMBER_OF_THREADS];
-		for (int i = 0; i < solvers.length; i++) {
-			solvers[i] = new Consumer(initSolver());
+		members = createMembers(Math.max(1, numberOfSolvers));
+	}
+
+	private PortfolioMember[] createMembers(int numberOfSolvers) {
+		final PortfolioMember[] newMembers = new PortfolioMember[numberOfSolvers];
+		newMembers[0] = new PortfolioMember(0, solver, order);
+		for (int i = 1; i < numberOfSolvers; i++) {
+			final Solver<?> memberSolver = initSolver();
+			final int size = satInstance.getNumberOfVariables();
+			final int[] memberOrder = new int[size];
+			for (int j = 0; j < size; j++) {
+				memberOrder[j] = j + 1;
+			}
+			if (size > 0) {
+				memberSolver.newVar(size);
+				final ClauseStore clauses = satInstance.getClauses();
+				memberSolver.setExpectedNumberOfClauses(clauses.size() + 1);
+				final VecInt pseudoClause = new VecInt(size + 1);
+				for (int j = 1; j <= size; j++) {
+					pseudoClause.push(j);
+				}
+				pseudoClause.push(-1);
+				try {
+					for (int j = 0; j < clauses.size(); j++) {
+						memberSolver.addClause(clauses.getVecInt(j));
+					}
+					memberSolver.addClause(pseudoClause);
+				} catch (final ContradictionException e) {
+					Logger.logError(e);
+					throw new RuntimeException();
+				}
+			}
+			final PortfolioMember member = new PortfolioMember(i, memberSolver, memberOrder);
+			member.configure();
+			memberSolver.getOrder().init();
+			newMembers[i] = member;
 		}
+		return newMembers;
 	}
 
 	@Override
-	public void assignmentClear(int fromIndex) {
-		synchronized (assignment) {
-			assignment.shrinkTo(fromIndex);
+	protected List<IConstr> addClauses(ClauseStore clauses) throws ContradictionException {
+		final List<IConstr> result = super.addClauses(clauses);
+		if (members != null) {
+			for (int i = 1; i < members.length; i++) {
+				for (int j = 0; j < clauses.size(); j++) {
+					members[i].solver.addClause(clauses.getVecInt(j));
+				}
+			}
 		}
+		return result;
 	}
 
-	@Override
-	public void assignmentPop() {
-		synchronized (assignment) {
-			assignment.pop();
+	private void share(int source, int[] clause) {
+		synchronized (sharedClauses) {
+			if (sharedClauses.size() < MAX_SHARED_CLAUSES) {
+				sharedClauses.add(clause);
+				sharedClauseSources.add(source);
+			}
 		}
 	}
 
-	@Override
-	public void assignmentPush(int x) {
-		synchronized (assignment) {
-			assignment.push(x);
+	private void cancel() {
+		for (final PortfolioMember member : members) {
+			member.solver.expireTimeout();
 		}
 	}
 
@@ -222,70 +321,77 @@ public class MultiSolver extends BasicSolver {
 	}
 
 	@Override
-	public void fixOrder() {
-		synchronized (order) {
-			for (int i = 0; i < order.length; i++) {
-				order[i] = i + 1;
-			}
-		}
+	public int[] findModel() {
+		return isSatisfiable() == SatResult.TRUE ? lastModel : null;
 	}
 
 	@Override
-	public SatResult isSatisfiable() {
-		try {
-			if (solver.isSatisfiable(assignment, false)) {
-				synchronized (solutionList) {
-					solutionList.add(solver.model());
-				}
-				return SatResult.TRUE;
-			} else {
-				return SatResult.FALSE;
-			}
-		} catch (final TimeoutException e) {
-			e.printStackTrace();
-			return SatResult.TIMEOUT;
-		}
+	public int[] getModel() {
+		return lastModel;
+	}
+
+	/**
+	 * @return the number of solvers in the portfolio, including the internal solver
+	 */
+	public int getNumberOfSolvers() {
+		return members.length;
 	}
 
 	@Override
-	public void setOrder(List<IFeature> orderList) {
-		int i = -1;
-		synchronized (orderLock) {
-			for (final IFeature feature : orderList) {
-				order[++i] = satInstance.varToInt.get(feature.getName());
-			}
+	public SatResult isSatisfiable() {
+		if (members.length == 1) {
+			final SatResult result = super.isSatisfiable();
+			lastModel = (result == SatResult.TRUE) ? solver.model() : null;
+			return result;
 		}
-	}
 
-	private SelectionStrategy curSelectionStrategy = SelectionStrategy.ORG;
+		for (final PortfolioMember member : members) {
+			member.importSharedClauses();
+		}
 
-	@Override
-	public void setSelectionStrategy(SelectionStrategy strategy) {
-		super.setSelectionStrategy(strategy);
+		final Query query = new Query(Arrays.copyOf(assignment.toArray(), assignment.size()));
+		final List<Future<?>> futures = new ArrayList<>(members.length);
+		for (final PortfolioMember member : members) {
+			futures.add(EXECUTOR.submit(new Runnable() {
 
-		synchronized (orderLock) {
-			curSelectionStrategy = strategy;
+				@Override
+				public void run() {
+					member.solve(query);
+				}
+			}));
 		}
-	}
 
-	@Override
-	public void shuffleOrder() {
-		final Random rnd = new Random();
-		synchronized (orderLock) {
-			for (int i = order.length - 1; i >= 0; i--) {
-				final int index = rnd.nextInt(i + 1);
-				final int a = order[index];
-				order[index] = order[i];
-				order[i] = a;
+		boolean interrupted = false;
+		try {
+			query.await();
+		} catch (final InterruptedException e) {
+			interrupted = true;
+		}
+
+		// a solver that starts after it was canceled must be canceled again
+		for (final Future<?> future : futures) {
+			while (!future.isDone()) {
+				cancel();
+				try {
+					future.get(10, TimeUnit.MILLISECONDS);
+				} catch (final java.util.concurrent.TimeoutException e) {
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				} catch (final ExecutionException e) {
+					Logger.logError(e);
+				}
 			}
 		}
-	}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
 
-	@Override
-	public int getNumberOfSolutions() {
-		synchronized (solutionList) {
-			return solutionList.size();
+		final SatResult result = query.result;
+		lastModel = query.model;
+		if ((result == SatResult.TRUE) && (solutionList != null)) {
+			solutionList.add(lastModel);
 		}
+		return result;
 	}
 
 }
@@ -23,11 +23,11 @@ package org.prop4j.solver;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.prop4j.AuxiliaryVariable;
 import org.prop4j.Literal;
 import org.prop4j.Node;
 import org.sat4j.specs.IVecInt;
@@ -72,23 +72,64 @@ public class SatInstance {
 		return nar;
 	}
 
-	protected final HashMap<Object, Integer> varToInt = new HashMap<>();
-	protected final Object[] intToVar;
-	protected final Node cnf;
+	protected final VariableDictionary dictionary;
+	protected final int numberOfVariables;
 
+	private Node cnf;
+	private ClauseStore clauses;
+
+	/**
+	 * Creates an instance for a formula in CNF. {@link AuxiliaryVariable Auxiliary variables} of the formula that are not contained in the given list are
+	 * added after all other variables.
+	 *
+	 * @param root the formula
+	 * @param featureList the variables of the formula
+	 */
 	public SatInstance(Node root, Collection<?> featureList) {
-		intToVar = new Object[featureList.size() + 1];
+		dictionary = new VariableDictionary(featureList.size());
 		cnf = root;
 
 		int index = 0;
 		for (final Object feature : featureList) {
-			final String name = feature.toString();
-			if (name == null) {
-				throw new RuntimeException();
+			if (AuxiliaryVariable.isAuxiliary(feature)) {
+				dictionary.put(feature, ++index);
+			} else {
+				final String name = feature.toString();
+				if (name == null) {
+					throw new RuntimeException();
+				}
+				dictionary.put(name, ++index);
 			}
-			varToInt.put(name, ++index);
-			intToVar[index] = name;
 		}
+		if (root != null) {
+			addAuxiliaryVariables(root);
+		}
+		numberOfVariables = dictionary.getMaxIndex();
+	}
+
+	private void addAuxiliaryVariables(Node node) {
+		if (node instanceof Literal) {
+			final Object var = ((Literal) node).var;
+			if (AuxiliaryVariable.isAuxiliary(var)) {
+				dictionary.add(var);
+			}
+		} else {
+			for (final Node child : node.getChildren()) {
+				addAuxiliaryVariables(child);
+			}
+		}
+	}
+
+	/**
+	 * Creates an instance from clauses that are already converted to integers. The corresponding {@link #getCnf() node} is only created on demand.
+	 *
+	 * @param clauses the clauses
+	 * @param dictionary the variables of the clauses, which must have the indexes 1 to n
+	 */
+	public SatInstance(ClauseStore clauses, VariableDictionary dictionary) {
+		numberOfVariables = dictionary.getMaxIndex();
+		this.dictionary = dictionary;
+		this.clauses = clauses;
 	}
 
 	public SatInstance(Node root) {
@@ -113,13 +154,16 @@ public class SatInstance {
 	public List<String> convertToString(int[] model, boolean includePositive, boolean includeNegative) {
 		final List<String> resultList = new ArrayList<>();
 		for (final int var : model) {
+			if (isAuxiliary(var)) {
+				continue;
+			}
 			if (var > 0) {
 				if (includePositive) {
-					resultList.add(intToVar[Math.abs(var)].toString());
+					resultList.add(dictionary.getVariable(var).toString());
 				}
 			} else if (var < 0) {
 				if (includeNegative) {
-					resultList.add("-" + intToVar[Math.abs(var)].toString());
+					resultList.add("-" + dictionary.getVariable(var).toString());
 				}
 			}
 		}
@@ -130,8 +174,8 @@ public class SatInstance {
 		final int[] resultList = new int[literals.size()];
 		int i = 0;
 		for (final Literal literal : literals) {
-			final Integer varIndex = varToInt.get(literal.var);
-			resultList[i++] = varIndex == null ? 0 : (literal.positive ? varIndex : -varIndex);
+			final int varIndex = dictionary.getIndex(literal.var);
+			resultList[i++] = literal.positive ? varIndex : -varIndex;
 		}
 		return resultList;
 	}
@@ -145,8 +189,8 @@ public class SatInstance {
 		int i = 0;
 		for (final Node node : literals) {
 			final Literal literal = (Literal) node;
-			final Integer varIndex = varToInt.get(literal.var);
-			resultList[i++] = varIndex == null ? 0 : (literal.positive ? varIndex : -varIndex);
+			final int varIndex = dictionary.getIndex(literal.var);
+			resultList[i++] = literal.positive ? varIndex : -varIndex;
 		}
 		return resultList;
 	}
@@ -154,50 +198,90 @@ public class SatInstance {
 	public List<Literal> convertToLiterals(int[] model) {
 		final List<Literal> resultList = new ArrayList<>();
 		for (final int var : model) {
-			resultList.add(new Literal(intToVar[Math.abs(var)], (var > 0)));
+			if (!isAuxiliary(var)) {
+				resultList.add(new Literal(dictionary.getVariable(var), (var > 0)));
+			}
 		}
 		return resultList;
 	}
 
 	public Literal convertToLiteral(int var) {
-		return new Literal(intToVar[Math.abs(var)], (var > 0));
+		return new Literal(dictionary.getVariable(var), (var > 0));
 	}
 
 	protected List<String> convertToString(IVecInt model) {
 		final List<String> resultList = new ArrayList<>(model.size());
 		final IteratorInt modelIt = model.iterator();
 		while (modelIt.hasNext()) {
-			resultList.add(intToVar[Math.abs(modelIt.next())].toString());
+			final int var = modelIt.next();
+			if (!isAuxiliary(var)) {
+				resultList.add(dictionary.getVariable(var).toString());
+			}
 		}
 		return resultList;
 	}
 
-	public Node getCnf() {
+	public synchronized Node getCnf() {
+		if (cnf == null) {
+			cnf = clauses.toCNF(dictionary);
+		}
 		return cnf;
 	}
 
+	/**
+	 * Returns the clauses of this instance converted to integers. The conversion is done only once and shared by all solvers for this instance.
+	 *
+	 * @return the clauses
+	 */
+	public synchronized ClauseStore getClauses() {
+		if (clauses == null) {
+			clauses = ClauseStore.fromCNF(cnf, dictionary);
+		}
+		return clauses;
+	}
+
+	public VariableDictionary getDictionary() {
+		return dictionary;
+	}
+
 	public int getNumberOfVariables() {
-		return intToVar.length - 1;
+		return numberOfVariables;
 	}
 
 	public Literal getLiteral(final int x) {
-		return new Literal(intToVar[Math.abs(x)], x > 0);
+		return new Literal(dictionary.getVariable(x), x > 0);
 	}
 
 	public int getSignedVariable(Literal l) {
-		return l.positive ? varToInt.get(l.var) : -varToInt.get(l.var);
+		final int index = getVariable(l.var);
+		return l.positive ? index : -index;
 	}
 
 	public int getVariable(Literal l) {
-		return varToInt.get(l.var);
+		return getVariable(l.var);
 	}
 
+	/**
+	 * @throws NullPointerException if the variable is unknown
+	 */
 	public int getVariable(Object var) {
-		return varToInt.get(var);
+		final int index = dictionary.getIndex(var);
+		if (index == 0) {
+			throw new NullPointerException("Unknown variable " + var);
+		}
+		return index;
 	}
 
 	public Object getVariableObject(final int x) {
-		return intToVar[Math.abs(x)];
+		return dictionary.getVariable(x);
+	}
+
+	/**
+	 * @param x the index of a variable or a literal
+	 * @return {@code true} if the variable was introduced by a {@link org.prop4j.TseitinTransformer} and does not correspond to a feature
+	 */
+	public boolean isAuxiliary(final int x) {
+		return AuxiliaryVariable.isAuxiliary(dictionary.getVariable(x));
 	}
 
 }
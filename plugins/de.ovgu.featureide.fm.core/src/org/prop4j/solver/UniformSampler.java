@@ -0,0 +1,152 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws solutions of a {@link DecisionDNNF} uniformly at random.<br> The number of solutions of each node is computed once. Afterwards, a solution is
+ * drawn by traversing the graph from the root: all children of a conjunction are visited and for a disjunction one child is chosen with a probability
+ * proportional to its number of solutions. Thus, every solution is drawn with the same probability and each draw takes time linear in the size of the
+ * graph. Variables that do not occur in the graph are assigned randomly.<br> Instances of this class are immutable and can be used by several threads.
+ *
+ * @author agent
+ */
+public class UniformSampler {
+
+	private final DecisionDNNF compiledFormula;
+	private final int[] assumptions;
+	private final BigInteger[] counts;
+
+	/**
+	 * @param compiledFormula the compiled formula
+	 */
+	public UniformSampler(DecisionDNNF compiledFormula) {
+		this(compiledFormula, new int[0]);
+	}
+
+	/**
+	 * @param compiledFormula the compiled formula
+	 * @param assumptions literals that must be contained in each solution (0 is ignored)
+	 */
+	public UniformSampler(DecisionDNNF compiledFormula, int[] assumptions) {
+		this.compiledFormula = compiledFormula;
+		this.assumptions = Arrays.copyOf(assumptions, assumptions.length);
+		counts = compiledFormula.countSolutionsPerNode(assumptions);
+	}
+
+	public DecisionDNNF getCompiledFormula() {
+		return compiledFormula;
+	}
+
+	/**
+	 * @return the number of solutions that are consistent with the assumptions, not considering variables that do not occur in the compiled formula
+	 */
+	public BigInteger getNumberOfSolutions() {
+		return (counts == null) ? BigInteger.ZERO : counts[compiledFormula.getRoot()];
+	}
+
+	/**
+	 * Draws a solution that is consistent with the assumptions.
+	 *
+	 * @param random the source of randomness
+	 * @return a model (i.e., the literal of each variable at index {@code |literal| - 1}) or {@code null}, if there is no solution
+	 */
+	public int[] getRandomSolution(Random random) {
+		if (getNumberOfSolutions().signum() == 0) {
+			return null;
+		}
+		final int numberOfVariables = compiledFormula.getSatInstance().getNumberOfVariables();
+		final int[] model = new int[numberOfVariables];
+
+		int[] stack = new int[16];
+		int stackSize = 0;
+		stack[stackSize++] = compiledFormula.getRoot();
+		while (stackSize > 0) {
+			final int node = stack[--stackSize];
+			switch (compiledFormula.getType(node)) {
+			case DecisionDNNF.LITERAL: {
+				final int literal = compiledFormula.getLiteral(node);
+				model[Math.abs(literal) - 1] = literal;
+				break;
+			}
+			case DecisionDNNF.AND: {
+				final int[] children = compiledFormula.getChildren(node);
+				if ((stackSize + children.length) > stack.length) {
+					stack = Arrays.copyOf(stack, Math.max(stack.length << 1, stackSize + children.length));
+				}
+				for (final int child : children) {
+					stack[stackSize++] = child;
+				}
+				break;
+			}
+			case DecisionDNNF.OR: {
+				final int[] children = compiledFormula.getChildren(node);
+				BigInteger remaining = getRandomNumber(counts[node], random);
+				for (final int child : children) {
+					remaining = remaining.subtract(counts[child]);
+					if (remaining.signum() < 0) {
+						stack[stackSize++] = child;
+						break;
+					}
+				}
+				break;
+			}
+			default:
+				throw new AssertionError(compiledFormula.getType(node));
+			}
+		}
+
+		for (int i = 0; i < numberOfVariables; i++) {
+			if (model[i] == 0) {
+				model[i] = random.nextBoolean() ? i + 1 : -(i + 1);
+			}
+		}
+		for (final int literal : assumptions) {
+			if (literal != 0) {
+				model[Math.abs(literal) - 1] = literal;
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * @return a uniformly distributed number between 0 (inclusive) and the given bound (exclusive)
+	 */
+	private static BigInteger getRandomNumber(BigInteger bound, Random random) {
+		if (bound.bitLength() < 63) {
+			final long longBound = bound.longValue();
+			long value;
+			do {
+				value = random.nextLong() >>> 1;
+			} while ((value - (value % longBound)) > (Long.MAX_VALUE - longBound + 1));
+			return BigInteger.valueOf(value % longBound);
+		}
+		BigInteger value;
+		do {
+			value = new BigInteger(bound.bitLength(), random);
+		} while (value.compareTo(bound) >= 0);
+		return value;
+	}
+
+}
@@ -0,0 +1,179 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import java.util.Arrays;
+
+/**
+ * Maps variable objects to positive integer indexes and back. Uses open addressing with primitive arrays instead of boxed map entries.
+ *
+ * @author agent
+ */
+public class VariableDictionary {
+
+	private Object[] keys;
+	private int[] values;
+	private Object[] variables;
+	private int size = 0;
+	private int maxIndex = 0;
+
+	public VariableDictionary() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize the expected number of variables
+	 */
+	public VariableDictionary(int expectedSize) {
+		final int capacity = getCapacity(expectedSize);
+		keys = new Object[capacity];
+		values = new int[capacity];
+		variables = new Object[expectedSize + 1];
+	}
+
+	private static int getCapacity(int size) {
+		int capacity = 16;
+		while (capacity < (size << 1)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private static int hash(Object variable) {
+		final int h = variable.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Adds a variable with the next free index.
+	 *
+	 * @param variable the variable
+	 * @return the index of the variable
+	 */
+	public int add(Object variable) {
+		final int index = getIndex(variable);
+		return (index != 0) ? index : put(variable, maxIndex + 1);
+	}
+
+	/**
+	 * Adds a variable with the given index.
+	 *
+	 * @param variable the variable
+	 * @param index the index of the variable (must be positive)
+	 * @return the index of the variable
+	 */
+	public int put(Object variable, int index) {
+		if (index <= 0) {
+			throw new IllegalArgumentException("Index must be positive");
+		}
+		if (((size + 1) << 1) > keys.length) {
+			rehash(keys.length << 1);
+		}
+		final int mask = keys.length - 1;
+		int slot = hash(variable) & mask;
+		while (keys[slot] != null) {
+			if (keys[slot].equals(variable)) {
+				variables[values[slot]] = null;
+				values[slot] = index;
+				setVariable(variable, index);
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = variable;
+		values[slot] = index;
+		size++;
+		setVariable(variable, index);
+		return index;
+	}
+
+	private void setVariable(Object variable, int index) {
+		if (index >= variables.length) {
+			variables = Arrays.copyOf(variables, Math.max(index + 1, variables.length << 1));
+		}
+		variables[index] = variable;
+		maxIndex = Math.max(maxIndex, index);
+	}
+
+	private void rehash(int capacity) {
+		final Object[] oldKeys = keys;
+		final int[] oldValues = values;
+		keys = new Object[capacity];
+		values = new int[capacity];
+		final int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			final Object key = oldKeys[i];
+			if (key != null) {
+				int slot = hash(key) & mask;
+				while (keys[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * @param variable the variable
+	 * @return the index of the variable or {@code 0}, if the variable is unknown
+	 */
+	public int getIndex(Object variable) {
+		final int mask = keys.length - 1;
+		int slot = hash(variable) & mask;
+		Object key;
+		while ((key = keys[slot]) != null) {
+			if (key.equals(variable)) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return 0;
+	}
+
+	/**
+	 * @param index the index of a variable or a literal
+	 * @return the variable or {@code null}, if the index is unknown
+	 */
+	public Object getVariable(int index) {
+		final int absIndex = Math.abs(index);
+		return (absIndex < variables.length) ? variables[absIndex] : null;
+	}
+
+	public boolean contains(Object variable) {
+		return getIndex(variable) != 0;
+	}
+
+	/**
+	 * @return the number of variables
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the largest index of all variables
+	 */
+	public int getMaxIndex() {
+		return maxIndex;
+	}
+
+}
@@ -142,6 +142,7 @@ import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.ShowHiddenFeaturesA
 import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.calculations.AutomatedCalculationsAction;
 import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.calculations.ConstrainsCalculationsAction;
 import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.calculations.FeaturesOnlyCalculationAction;
+import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.calculations.IncrementalCalculationsAction;
 import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.calculations.RunManualCalculationsAction;
 import de.ovgu.featureide.fm.ui.editors.featuremodel.actions.colors.SetFeatureColorAction;
 import de.ovgu.featureide.fm.ui.editors.featuremodel.commands.renaming.FeatureCellEditorLocator;
@@ -323,11 +324,12 @@ public class FeatureDiagramEditor extends FeatureModelEditorPage implements GUID
 
 		// Calculation actions
 		calculateDependencyAction = addAction(new CalculateDependencyAction(viewer, featureModel));
-		calculationActions = new ArrayList<>(4);
+		calculationActions = new ArrayList<>(5);
 		calculationActions.add(addAction(new AutomatedCalculationsAction(viewer, getFeatureModel())));
 		calculationActions.add(addAction(new RunManualCalculationsAction(viewer, getFeatureModel())));
 		calculationActions.add(addAction(new FeaturesOnlyCalculationAction(viewer, getFeatureModel())));
 		calculationActions.add(addAction(new ConstrainsCalculationsAction(viewer, getFeatureModel())));
+		calculationActions.add(addAction(new IncrementalCalculationsAction(viewer, getFeatureModel())));
 
 		// Zoom actions
 		zoomIn = addAction(new ZoomInAction(viewer.getZoomManager()));
@@ -1130,6 +1132,7 @@ public class FeatureDiagramEditor extends FeatureModelEditorPage implements GUID
 					menuManager.add(action);
 				}
 				menuManager.insert(2, new Separator());
+				menuManager.insert(5, new Separator());
 			}
 		});
 		return menuManager;
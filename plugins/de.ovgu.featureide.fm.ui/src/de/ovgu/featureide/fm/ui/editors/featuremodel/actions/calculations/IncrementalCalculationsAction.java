@@ -0,0 +1,55 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.ui.editors.featuremodel.actions.calculations;
+
+import static de.ovgu.featureide.fm.core.localization.StringTable.INCREMENTAL_CALCULATIONS;
+
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+import org.eclipse.jface.action.Action;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+
+/**
+ * An action to activate/deactivate the incremental analysis, which reuses the results of previous calculations that are not affected by changes to
+ * the feature model.
+ *
+ * @author agent
+ */
+public class IncrementalCalculationsAction extends Action {
+
+	public static final String ID = "de.ovgu.featureide.incrementalcalculations";
+
+	private final IFeatureModel featureModel;
+
+	public IncrementalCalculationsAction(GraphicalViewerImpl viewer, IFeatureModel featureModel) {
+		super(INCREMENTAL_CALCULATIONS);
+		this.featureModel = featureModel;
+		setChecked(featureModel.getAnalyser().calculateIncrementally);
+		setId(ID);
+	}
+
+	@Override
+	public void run() {
+		// the results do not depend on this setting, so there is no need to recalculate them
+		featureModel.getAnalyser().calculateIncrementally = !featureModel.getAnalyser().calculateIncrementally;
+	}
+
+}
@@ -38,6 +38,8 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.TIMEOUT_STRING
 import static de.ovgu.featureide.fm.core.localization.StringTable.WAITING_FOR_SUBTASKS_TO_FINISH;
 import static de.ovgu.featureide.fm.core.localization.StringTable.WAITING_FOR_SUBTASK_TO_FINISH;
 
+import java.math.BigInteger;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -457,10 +459,10 @@ public class ViewContentProvider implements IStructuredContentProvider, ITreeCon
 			p.addChild("1 " + variants);
 			return p;
 		}
-		final long number = new Configuration(model, false, ignoreAbstractFeatures).number(TIMEOUT_CONFIGURATION);
+		final BigInteger number = new Configuration(model, false, ignoreAbstractFeatures).number(TIMEOUT_CONFIGURATION);
 		String s = "";
-		if (number < 0) {
-			s += MORE_THAN + (-1 - number);
+		if (number.signum() < 0) {
+			s += MORE_THAN + number.negate().subtract(BigInteger.ONE);
 		} else {
 			s += number;
 		}
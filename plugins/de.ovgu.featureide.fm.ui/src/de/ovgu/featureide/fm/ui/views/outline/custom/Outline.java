@@ -459,6 +459,17 @@ public class Outline extends ViewPart implements ISelectionChangedListener, ITre
 		}
 	}
 
+	/**
+	 * Updates the label and the children of the given element, e.g., after its content was computed in the background. Must be called from the UI thread.
+	 *
+	 * @param element the element to refresh
+	 */
+	public void refresh(Object element) {
+		if ((viewer != null) && (viewer.getControl() != null) && !viewer.getControl().isDisposed()) {
+			viewer.refresh(element, true);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.eclipse.jface.viewers.ISelectionChangedListener#selectionChanged(org.eclipse.jface.viewers.SelectionChangedEvent)
@@ -0,0 +1,114 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the throughput of a {@link ConfigurationBuilder} and the latency of each stage of its pipeline. All methods are thread-safe.
+ *
+ * @author agent
+ */
+public class BuildStatistics {
+
+	/**
+	 * The stages a product passes after its configuration was generated.
+	 */
+	public enum Stage {
+		/**
+		 * Generation of the product's source files by the composer.
+		 */
+		COMPOSITION,
+		/**
+		 * Time a composed product waits for a free compilation worker.
+		 */
+		QUEUED_FOR_COMPILATION,
+		/**
+		 * Compilation of the product.
+		 */
+		COMPILATION,
+		/**
+		 * Execution of the product's tests.
+		 */
+		TESTING
+	}
+
+	private final AtomicLongArray counts = new AtomicLongArray(Stage.values().length);
+	private final AtomicLongArray durations = new AtomicLongArray(Stage.values().length);
+
+	private volatile long startTime = System.nanoTime();
+	private volatile long endTime = 0;
+
+	public void start() {
+		startTime = System.nanoTime();
+		endTime = 0;
+	}
+
+	public void stop() {
+		endTime = System.nanoTime();
+	}
+
+	/**
+	 * @param stage the finished stage
+	 * @param start the value of {@link System#nanoTime()} at the beginning of the stage
+	 */
+	public void record(Stage stage, long start) {
+		counts.incrementAndGet(stage.ordinal());
+		durations.addAndGet(stage.ordinal(), System.nanoTime() - start);
+	}
+
+	/**
+	 * @return the number of products that passed the given stage
+	 */
+	public long getCount(Stage stage) {
+		return counts.get(stage.ordinal());
+	}
+
+	/**
+	 * @return the average time in milliseconds a product spent in the given stage
+	 */
+	public double getAverageLatency(Stage stage) {
+		final long count = counts.get(stage.ordinal());
+		return count == 0 ? 0 : (durations.get(stage.ordinal()) / 1_000_000.0) / count;
+	}
+
+	/**
+	 * @return the number of composed products per second since the start
+	 */
+	public double getThroughput() {
+		final long end = endTime != 0 ? endTime : System.nanoTime();
+		final double seconds = (end - startTime) / 1_000_000_000.0;
+		return seconds <= 0 ? 0 : counts.get(Stage.COMPOSITION.ordinal()) / seconds;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Throughput: %.2f products/s", getThroughput()));
+		for (final Stage stage : Stage.values()) {
+			if (getCount(stage) > 0) {
+				sb.append(String.format(", %s: %.1f ms", stage.name().toLowerCase(), getAverageLatency(stage)));
+			}
+		}
+		return sb.toString();
+	}
+
+}
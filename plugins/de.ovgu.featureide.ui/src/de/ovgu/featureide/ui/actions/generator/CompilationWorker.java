@@ -0,0 +1,73 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator;
+
+import javax.annotation.CheckForNull;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+
+import de.ovgu.featureide.ui.actions.generator.BuildStatistics.Stage;
+
+/**
+ * Compiles and tests composed products of a {@link ConfigurationBuilder}. Each worker owns a {@link JavaCompiler} with its own output folder, which is
+ * also used by the worker's {@link TestRunner}. Thus, a worker must only process one product at a time.
+ *
+ * @author agent
+ */
+public class CompilationWorker {
+
+	private static final boolean JUNIT_INSTALLED = Platform.getBundle("org.junit") != null;
+
+	private final ConfigurationBuilder builder;
+	private final JavaCompiler compiler;
+
+	@CheckForNull
+	private final TestRunner testRunner;
+
+	/**
+	 * @param nr The number of the worker
+	 * @param builder The {@link ConfigurationBuilder} containing the worker
+	 */
+	public CompilationWorker(int nr, ConfigurationBuilder builder) {
+		this.builder = builder;
+		compiler = new JavaCompiler(nr, builder);
+		testRunner = (builder.runTests && JUNIT_INSTALLED) ? new TestRunner(compiler.tmp, builder.testResults, builder) : null;
+	}
+
+	/**
+	 * Compiles the given product and runs its tests.
+	 *
+	 * @param configuration The configuration of the composed product
+	 * @throws CoreException if the output folder cannot be cleaned
+	 */
+	public void build(BuilderConfiguration configuration) throws CoreException {
+		long start = System.nanoTime();
+		compiler.compile(configuration);
+		builder.statistics.record(Stage.COMPILATION, start);
+		if (testRunner != null) {
+			start = System.nanoTime();
+			testRunner.runTests(configuration);
+			builder.statistics.record(Stage.TESTING, start);
+		}
+	}
+
+}
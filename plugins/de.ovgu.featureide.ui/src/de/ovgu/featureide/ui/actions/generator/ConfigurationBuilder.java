@@ -21,13 +21,22 @@
 package de.ovgu.featureide.ui.actions.generator;
 
 import static de.ovgu.featureide.fm.core.localization.StringTable.COUNTING___;
+import static de.ovgu.featureide.fm.core.localization.StringTable.ERROR_IN_CONFIGURATION;
 import static de.ovgu.featureide.fm.core.localization.StringTable.INCLING;
 import static de.ovgu.featureide.fm.core.localization.StringTable.OF;
 import static de.ovgu.featureide.fm.core.localization.StringTable.RESTRICTION;
+import static de.ovgu.featureide.fm.core.localization.StringTable.YASA;
 
 import java.security.KeyStore.Builder;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.CheckForNull;
 
@@ -48,13 +57,15 @@ import org.eclipse.jdt.internal.core.JavaProject;
 
 import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
-import de.ovgu.featureide.fm.core.job.IJob.JobStatus;
+import de.ovgu.featureide.fm.core.job.IJob;
 import de.ovgu.featureide.fm.core.job.IRunner;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 import de.ovgu.featureide.fm.core.job.monitor.ProgressMonitor;
+import de.ovgu.featureide.fm.core.job.util.JobFinishListener;
 import de.ovgu.featureide.fm.core.localization.StringTable;
 import de.ovgu.featureide.ui.UIPlugin;
+import de.ovgu.featureide.ui.actions.generator.BuildStatistics.Stage;
 import de.ovgu.featureide.ui.actions.generator.configuration.AConfigurationGenerator;
 import de.ovgu.featureide.ui.actions.generator.configuration.AllConfigrationsGenerator;
 import de.ovgu.featureide.ui.actions.generator.configuration.CurrentConfigurationsGenerator;
@@ -62,6 +73,7 @@ import de.ovgu.featureide.ui.actions.generator.configuration.IncLingConfiguratio
 import de.ovgu.featureide.ui.actions.generator.configuration.ModuleConfigurationGenerator;
 import de.ovgu.featureide.ui.actions.generator.configuration.RandConfigurationGenerator;
 import de.ovgu.featureide.ui.actions.generator.configuration.SPLCAToolConfigurationGenerator;
+import de.ovgu.featureide.ui.actions.generator.configuration.YASAConfigurationGenerator;
 import de.ovgu.featureide.ui.actions.generator.sorter.AbstractConfigurationSorter;
 import de.ovgu.featureide.ui.actions.generator.sorter.InteractionSorter;
 import de.ovgu.featureide.ui.actions.generator.sorter.PriorizationSorter;
@@ -76,6 +88,11 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 
 	private static final UIPlugin LOGGER = UIPlugin.getDefault();
 
+	/**
+	 * The interval in milliseconds in which the progress is updated while waiting for a stage.
+	 */
+	private static final long STATUS_INTERVAL = 150;
+
 	public IFeatureProject featureProject;
 	private IFeatureModel featureModel;
 
@@ -115,29 +132,41 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 	private int built;
 
 	/**
-	 * This flag indicates that all jobs should be aborted.
+	 * Saves the time of start.
 	 */
-	boolean cancelGeneratorJobs = false;
+	protected long time;
 
 	/**
-	 * Saves the time of start.
+	 * <code>true</code>: all valid configurations should be built.<br> <code>false</code>: all configurations at the configurations folder should be built.
 	 */
-	protected long time;
+	BuildType buildType;
 
 	/**
-	 * This flag indicates that no more configurations will be added and the {@link Generator} jobs can finish.
+	 * This list contains all {@link Generator} jobs.
 	 */
-	boolean finish = false;
+	final List<Generator> generatorJobs = new CopyOnWriteArrayList<>();
 
 	/**
-	 * <code>true</code>: all valid configurations should be built.<br> <code>false</code>: all configurations at the configurations folder should be built.
+	 * Reaches zero when the configuration generator has finished.
 	 */
-	BuildType buildType;
+	private final CountDownLatch generationFinished = new CountDownLatch(1);
 
 	/**
-	 * This list contains all {@link Generator} jobs.
+	 * Reaches zero when all {@link Generator} jobs have finished.
 	 */
-	final List<Generator> generatorJobs = new ArrayList<>();
+	private CountDownLatch compositionFinished;
+
+	/**
+	 * Compiles and tests the composed products. Is {@code null} if the products are not compiled.
+	 */
+	private ThreadPoolExecutor compilationExecutor;
+
+	/**
+	 * The compilation workers that are currently not used by a compilation task.
+	 */
+	private BlockingQueue<CompilationWorker> idleCompilationWorkers;
+
+	final BuildStatistics statistics = new BuildStatistics();
 
 	public AbstractConfigurationSorter sorter;
 
@@ -153,19 +182,26 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 	 * @return The first entry
 	 */
 	@CheckForNull
-	public synchronized BuilderConfiguration getConfiguration() {
+	public BuilderConfiguration getConfiguration() {
 		return sorter.getConfiguration();
 	}
 
 	/**
-	 * Adds the given configuration to configurations.
+	 * Adds the given configuration to configurations. Blocks while the buffer of the sorter is full.
 	 *
 	 * @param configuration
 	 */
-	public synchronized void addConfiguration(BuilderConfiguration configuration) {
+	public void addConfiguration(BuilderConfiguration configuration) {
 		sorter.addConfiguration(configuration);
 	}
 
+	/**
+	 * @return the throughput and latencies of the current build
+	 */
+	public BuildStatistics getStatistics() {
+		return statistics;
+	}
+
 	// TODO revise long parameter list
 	/**
 	 * Starts the build process for valid or current configurations for the given feature project.
@@ -242,6 +278,8 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 		case T_WISE:
 			if (algorithm.equals(INCLING)) {
 				configurationBuilder = new IncLingConfigurationGenerator(this, featureModel, featureProject);
+			} else if (algorithm.equals(YASA)) {
+				configurationBuilder = new YASAConfigurationGenerator(this, featureModel, featureProject, t);
 			} else {
 				configurationBuilder = new SPLCAToolConfigurationGenerator(this, featureModel, featureProject, algorithm, t);
 			}
@@ -274,21 +312,29 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 					}
 
 					time = System.currentTimeMillis();
+					statistics.start();
 
+					final int numberOfProcessors = Runtime.getRuntime().availableProcessors();
+					if (!createNewProjects && hasJavaNature()) {
+						newCompilationWorkers(numberOfProcessors);
+					}
 					if (featureProject.getComposer().canGeneratInParallelJobs()) {
 						if (buildType != BuildType.ALL_CURRENT) {
-							newgeneratorJobs(Runtime.getRuntime().availableProcessors() * 2);
+							newgeneratorJobs(numberOfProcessors);
 						} else {
-							int contJobs = Runtime.getRuntime().availableProcessors() * 2;
-							if (configurationNumber < contJobs) {
-								contJobs = (int) configurationNumber;
-							}
-							newgeneratorJobs(contJobs);
+							newgeneratorJobs((int) Math.min(numberOfProcessors, configurationNumber));
 						}
 					} else {
 						newgeneratorJobs(1);
 					}
 					configurationBuilderJob = LongRunningWrapper.getRunner(configurationBuilder, "Create Configurations " + id++);
+					configurationBuilderJob.addJobFinishedListener(new JobFinishListener<Void>() {
+
+						@Override
+						public void jobFinished(IJob<Void> finishedJob) {
+							generationFinished.countDown();
+						}
+					});
 					configurationBuilderJob.schedule();
 					showStatistics(monitor);
 					if (!createNewProjects) {
@@ -298,86 +344,80 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 							LOGGER.logError(e);
 						}
 					}
+				} catch (final InterruptedException e) {
+					LOGGER.logError(e);
 				} finally {
-					configurationBuilderJob.cancel();
+					if (configurationBuilderJob != null) {
+						configurationBuilderJob.cancel();
+					}
 					cancelGenerationJobs();
 					for (final Thread g : generatorJobs) {
 						g.interrupt();
 					}
+					if (compilationExecutor != null) {
+						compilationExecutor.shutdownNow();
+					}
+					statistics.stop();
 					monitor.done();
 				}
 				return Status.OK_STATUS;
 			}
 
-			private void showStatistics(IProgressMonitor monitor) {
-				try {
-					while (configurationBuilderJob.getStatus() == JobStatus.NOT_STARTED) {
-						try {
-							Thread.sleep(150);
-						} catch (final InterruptedException e) {
-							LOGGER.logError(e);
-						}
-					}
-					while (configurationBuilderJob.getStatus() == JobStatus.RUNNING) {
-						monitor.setTaskName(getTaskName());
+			private void showStatistics(IProgressMonitor monitor) throws InterruptedException {
+				if (!await(generationFinished, monitor)) {
+					configurationBuilderJob.cancel();
+					return;
+				}
+
+				if (!sorter.isSorted()) {
+					final IMonitor workMonitor = new ProgressMonitor(getTaskName(), monitor);
+					configurationNumber = Math.min(configurationNumber, sorter.sortConfigurations(workMonitor));
+				}
+				finish();
+
+				((SubMonitor) monitor).setWorkRemaining((int) configurationNumber - built);
+				if (!await(compositionFinished, monitor)) {
+					return;
+				}
+				if (compilationExecutor != null) {
+					compilationExecutor.shutdown();
+					while (!compilationExecutor.awaitTermination(STATUS_INTERVAL, TimeUnit.MILLISECONDS)) {
 						if (monitor.isCanceled()) {
 							cancelGenerationJobs();
-							configurationBuilderJob.cancel();
 							return;
 						}
-						try {
-							Thread.sleep(150);
-						} catch (final InterruptedException e) {
-							LOGGER.logError(e);
-						}
-					}
-					System.err.println(configurationBuilderJob.getStatus());
-
-					if (!sorter.isSorted()) {
-						final IMonitor workMonitor = new ProgressMonitor(getTaskName(), monitor);
-						configurationNumber = Math.min(configurationNumber, sorter.sortConfigurations(workMonitor));
+						monitor.setTaskName(getTaskName());
 					}
-					finish();
+				}
+				statistics.stop();
 
-					((SubMonitor) monitor).setWorkRemaining((int) configurationNumber - built);
-					while (!generatorJobs.isEmpty()) {
-						try {
-							if (monitor.isCanceled()) {
-								cancelGenerationJobs();
-								break;
-							}
-							final Generator generator = generatorJobs.get(0);
-							if (generator == null) {
-								// generator can never be null, however see #416
-								generatorJobs.remove(0);
-							} else if (generator.getState() == Thread.State.TERMINATED) {
-								generatorJobs.remove(generator);
-								if (sorter.getBufferSize() != 0) {
-									createNewGenerator(generator.nr);
-								}
-							}
-							monitor.setTaskName(getTaskName());
-							Thread.sleep(150);
-						} catch (final InterruptedException e) {
-							LOGGER.logError(e);
-						} catch (final IndexOutOfBoundsException e) {
-							// nothing here
-						}
-					}
+				final long duration = System.currentTimeMillis() - time;
+				final long s = (duration / 1000) % 60;
+				final long min = (duration / (60 * 1000)) % 60;
+				final long h = duration / (60 * 60 * 1000);
+				final String t = h + "h " + (min < 10 ? "0" + min : min) + "min " + (s < 10 ? "0" + s : s) + "s.";
 
-					final long duration = System.currentTimeMillis() - time;
-					final long s = (duration / 1000) % 60;
-					final long min = (duration / (60 * 1000)) % 60;
-					final long h = duration / (60 * 60 * 1000);
-					final String t = h + "h " + (min < 10 ? "0" + min : min) + "min " + (s < 10 ? "0" + s : s) + "s.";
+				if (built > configurationNumber) {
+					built = (int) configurationNumber;
+				}
+				LOGGER.logInfo(built + (configurationNumber != 0 ? OF + configurationNumber : "") + " configurations built in " + t);
+				LOGGER.logInfo(statistics.toString());
+			}
 
-					if (built > configurationNumber) {
-						built = (int) configurationNumber;
+			/**
+			 * Waits for the given stage to finish, while updating the progress.
+			 *
+			 * @return {@code false} if the build was canceled
+			 */
+			private boolean await(CountDownLatch stage, IProgressMonitor monitor) throws InterruptedException {
+				while (!stage.await(STATUS_INTERVAL, TimeUnit.MILLISECONDS)) {
+					if (monitor.isCanceled()) {
+						cancelGenerationJobs();
+						return false;
 					}
-					LOGGER.logInfo(built + (configurationNumber != 0 ? OF + configurationNumber : "") + " configurations built in " + t);
-				} finally {
-					generatorJobs.clear();
+					monitor.setTaskName(getTaskName());
 				}
+				return true;
 			}
 
 		};
@@ -488,15 +528,23 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 		classpath = classpath.length() > 0 ? classpath.substring(1) : classpath;
 	}
 
+	private boolean hasJavaNature() {
+		try {
+			return featureProject.getProject().hasNature(Generator.JAVA_NATURE);
+		} catch (final CoreException e) {
+			LOGGER.logError(e);
+			return false;
+		}
+	}
+
 	/**
 	 * Creates new {@link Generator}s
 	 *
 	 * @param count The amount of Generators that will be created.
 	 */
 	private void newgeneratorJobs(int count) {
-		if (count < 1) {
-			return;
-		}
+		count = Math.max(1, count);
+		compositionFinished = new CountDownLatch(count);
 
 		if (count == 1) {
 			createNewGenerator(0);
@@ -519,18 +567,94 @@ public class ConfigurationBuilder implements IConfigurationBuilderBasics {
 		g.start();
 	}
 
+	/**
+	 * Notification that a {@link Generator} has terminated.
+	 */
+	void generatorFinished(Generator generator) {
+		generatorJobs.remove(generator);
+		compositionFinished.countDown();
+	}
+
+	/**
+	 * Creates the pool that compiles and tests the composed products. The pool accepts a bounded number of waiting products, such that the {@link Generator}s
+	 * block instead of composing further products while all workers are busy.
+	 *
+	 * @param count The amount of compilation workers
+	 */
+	private void newCompilationWorkers(int count) {
+		idleCompilationWorkers = new ArrayBlockingQueue<>(count);
+		for (int nr = 0; nr < count; nr++) {
+			idleCompilationWorkers.add(new CompilationWorker(nr, this));
+		}
+		compilationExecutor = new ThreadPoolExecutor(count, count, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(count << 1), new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable r) {
+				final Thread thread = new Thread(r, "Compiler");
+				thread.setDaemon(true);
+				return thread;
+			}
+		}, new RejectedExecutionHandler() {
+
+			@Override
+			public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+				if (!executor.isShutdown()) {
+					try {
+						executor.getQueue().put(r);
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Passes a composed product to the compilation workers. Blocks while all workers are busy and the queue of waiting products is full.
+	 *
+	 * @param configuration The configuration of the composed product
+	 */
+	void compile(final BuilderConfiguration configuration) {
+		if (compilationExecutor == null) {
+			builtConfiguration();
+			return;
+		}
+		final long queued = System.nanoTime();
+		compilationExecutor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				statistics.record(Stage.QUEUED_FOR_COMPILATION, queued);
+				final CompilationWorker worker;
+				try {
+					worker = idleCompilationWorkers.take();
+				} catch (final InterruptedException e) {
+					return;
+				}
+				try {
+					worker.build(configuration);
+					builtConfiguration();
+				} catch (final Exception e) {
+					LOGGER.logError(ERROR_IN_CONFIGURATION + configuration, e);
+				} finally {
+					idleCompilationWorkers.add(worker);
+				}
+			}
+		});
+	}
+
 	/**
 	 * This is called if the main job is canceled and all {@link Builder} and {@link JavaCompiler} should finish.
 	 */
 	public void cancelGenerationJobs() {
-		cancelGeneratorJobs = true;
+		sorter.cancel();
 	}
 
 	/**
 	 * This is called if the main job has finished and no more configurations will be added.
 	 */
 	public void finish() {
-		finish = true;
+		sorter.finish();
 	}
 
 	/**
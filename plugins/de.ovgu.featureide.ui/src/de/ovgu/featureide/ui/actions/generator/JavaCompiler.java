@@ -24,13 +24,28 @@ import static de.ovgu.featureide.fm.core.localization.StringTable.CANNOT_FIND_SY
 import static de.ovgu.featureide.fm.core.localization.StringTable.COMPILER;
 import static de.ovgu.featureide.fm.core.localization.StringTable.SYMBOL;
 
+import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Scanner;
-import java.util.TreeMap;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,19 +54,130 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.compiler.batch.BatchCompiler;
 
 import de.ovgu.featureide.ui.UIPlugin;
 
 /**
- * This {@link Job} compiles all configurations of the corresponding {@link Generator}
+ * Compiles the configurations of a {@link CompilationWorker}.
  *
  * @author Jens Meinicke
  */
 public class JavaCompiler implements IConfigurationBuilderBasics {
 
-	private final Generator generator;
+	private static final Pattern PROBLEM_PATTERN = Pattern.compile("\\S*\\s(\\w+)\\sin\\s(\\S.*[.]java)\\s[(]at line (\\d+)[)]");
+	private static final Pattern MESSAGE_PATTERN = Pattern.compile("\\w.*");
+	private static final Pattern PACKAGE_PATTERN = Pattern.compile("package\\s+([\\w.]+)\\s*;");
+	private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+	private static final Pattern COMMENT_OR_LITERAL_PATTERN =
+		Pattern.compile("//[^\\n]*|/\\*.*?\\*/|\"(?:\\\\.|[^\"\\\\])*\"|'(?:\\\\.|[^'\\\\])*'", Pattern.DOTALL);
+	private static final Pattern TYPE_DECLARATION_PATTERN = Pattern.compile("[{}]|(?<![\\w$.])(?:class|interface|enum)\\s+([A-Za-z_$][A-Za-z0-9_$]*)");
+
+	/**
+	 * If more than this fraction of all compilation units has to be compiled, the whole configuration is compiled from scratch.
+	 */
+	private static final double FULL_BUILD_RATIO = 0.5;
+
+	/**
+	 * A compiled source file of a configuration.
+	 */
+	private static class CompilationUnit {
+
+		private final String path;
+		private final byte[] hash;
+		/**
+		 * The names of all top-level types declared in this unit.
+		 */
+		private final Set<String> typeNames = new HashSet<>();
+		private final String packageName;
+		private final Set<String> identifiers = new HashSet<>();
+		private final List<CompilerProblem> problems = new ArrayList<>();
+
+		public CompilationUnit(String path, IFile file) {
+			this.path = path;
+			final String fileName = file.getName();
+			typeNames.add(fileName.substring(0, fileName.length() - ".java".length()));
+
+			byte[] content;
+			try {
+				content = Files.readAllBytes(file.getLocation().toFile().toPath());
+			} catch (final IOException e) {
+				UIPlugin.getDefault().logError(e);
+				content = new byte[0];
+			}
+			hash = getHash(content);
+
+			final String source = new String(content, StandardCharsets.UTF_8);
+			final Matcher packageMatcher = PACKAGE_PATTERN.matcher(source);
+			packageName = packageMatcher.find() ? packageMatcher.group(1) : "";
+			final Matcher identifierMatcher = IDENTIFIER_PATTERN.matcher(source);
+			while (identifierMatcher.find()) {
+				identifiers.add(identifierMatcher.group());
+			}
+			addTypeNames(COMMENT_OR_LITERAL_PATTERN.matcher(source).replaceAll(" "));
+		}
+
+		/**
+		 * Adds the names of all types that are declared outside of any braces, i.e., the public type and all secondary types.
+		 */
+		private void addTypeNames(String code) {
+			int depth = 0;
+			final Matcher matcher = TYPE_DECLARATION_PATTERN.matcher(code);
+			while (matcher.find()) {
+				final String token = matcher.group();
+				if ("{".equals(token)) {
+					depth++;
+				} else if ("}".equals(token)) {
+					depth--;
+				} else if (depth == 0) {
+					typeNames.add(matcher.group(1));
+				}
+			}
+		}
+
+		private static byte[] getHash(byte[] content) {
+			try {
+				return MessageDigest.getInstance("SHA-1").digest(content);
+			} catch (final NoSuchAlgorithmException e) {
+				// compare the whole content instead
+				return content;
+			}
+		}
+
+		public boolean hasErrors() {
+			for (final CompilerProblem problem : problems) {
+				if (!problem.warning) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+	/**
+	 * A problem reported by the compiler for a {@link CompilationUnit}.
+	 */
+	private static class CompilerProblem {
+
+		private final int line;
+		private final boolean warning;
+		private final String message;
+
+		public CompilerProblem(int line, boolean warning, String message) {
+			this.line = line;
+			this.warning = warning;
+			this.message = message;
+		}
+
+	}
+
+	private final ConfigurationBuilder builder;
+
+	/**
+	 * The compilation units of the last compiled configuration by their path relative to the configuration folder.
+	 */
+	private final Map<String, CompilationUnit> compilationUnits = new HashMap<>();
 
 	/**
 	 * The parent folder of the generated variants
@@ -61,12 +187,12 @@ public class JavaCompiler implements IConfigurationBuilderBasics {
 	/**
 	 *
 	 * @param nr The number of the compiler
-	 * @param generator The generator holding this compiler
+	 * @param builder The builder using this compiler
 	 */
-	public JavaCompiler(int nr, Generator generator) {
-		this.generator = generator;
+	public JavaCompiler(int nr, ConfigurationBuilder builder) {
+		this.builder = builder;
 
-		tmp = generator.builder.tmp.getFolder(COMPILER + nr);
+		tmp = builder.tmp.getFolder(COMPILER + nr);
 		if (!tmp.exists()) {
 			try {
 				tmp.create(true, true, null);
@@ -84,41 +210,146 @@ public class JavaCompiler implements IConfigurationBuilderBasics {
 	 * @throws CoreException
 	 */
 	protected void compile(BuilderConfiguration configuration) throws CoreException {
+		final IFolder configurationFolder = builder.folder.getFolder(configuration.getName());
 		try {
-			generator.builder.folder.getFolder(configuration.getName()).refreshLocal(IResource.DEPTH_INFINITE, null);
+			configurationFolder.refreshLocal(IResource.DEPTH_INFINITE, null);
 		} catch (final CoreException e) {
 			UIPlugin.getDefault().logError(e);
 		}
-		for (final IResource file : tmp.members()) {
-			file.delete(true, null);
-		}
-		compile(configuration.getName());
+		compile(configurationFolder, configuration.getName());
 	}
 
 	/**
-	 * Compiles the built configuration to create error markers. The binary files will be placed into an temporary folder.
+	 * Compiles the built configuration to create error markers. The binary files will be placed into an temporary folder.<br> Only compilation units that
+	 * differ from the previously compiled configuration are compiled, together with all units that may reference a type of a changed unit. All other class
+	 * files are kept from the previous compilation and their problems are reported again for the current configuration.
 	 *
+	 * @param configurationFolder The folder containing the built configuration
 	 * @param confName
+	 * @throws CoreException
 	 */
-	private void compile(String confName) {
-		final LinkedList<IFile> files = getJavaFiles(generator.builder.folder.getFolder(confName));
-		final LinkedList<String> options = new LinkedList<>();
-		for (final IFile file : files) {
-			options.add(setupPath(file));
+	private void compile(IFolder configurationFolder, String confName) throws CoreException {
+		final Map<String, IFile> files = new LinkedHashMap<>();
+		final Map<String, CompilationUnit> units = new HashMap<>();
+		for (final IFile file : getJavaFiles(configurationFolder)) {
+			final String path = file.getFullPath().makeRelativeTo(configurationFolder.getFullPath()).toString();
+			files.put(path, file);
+			final CompilationUnit unit = new CompilationUnit(path, file);
+			final CompilationUnit oldUnit = compilationUnits.get(path);
+			units.put(path, ((oldUnit != null) && Arrays.equals(oldUnit.hash, unit.hash)) ? oldUnit : unit);
+		}
+
+		// collect the types of all removed and changed units
+		final Set<String> changedTypes = new HashSet<>();
+		for (final CompilationUnit oldUnit : compilationUnits.values()) {
+			if (units.get(oldUnit.path) != oldUnit) {
+				changedTypes.addAll(oldUnit.typeNames);
+				deleteClassFiles(oldUnit);
+			}
 		}
-		options.add("-g");
-		options.add("-Xlint");
-		options.add("-source");
-		options.add("1.7");
-		options.add("-d");
-		options.add(setupPath(tmp.getRawLocation().toOSString()));
-		options.add("-classpath");
-		options.add(generator.builder.classpath);
-
-		final String output = process(options);
-		final LinkedList<IFile> errorFiles = parseJavacOutput(output, files, confName);
-		for (final IFile file : errorFiles) {
-			generator.builder.featureProject.getComposer().postCompile(null, file);
+		final List<String> compiledUnits = new ArrayList<>();
+		for (final CompilationUnit unit : units.values()) {
+			if (compilationUnits.get(unit.path) != unit) {
+				changedTypes.addAll(unit.typeNames);
+				compiledUnits.add(unit.path);
+			}
+		}
+		// add dependent units and units that could not be compiled before, as their class files may be missing
+		// the types of a recompiled unit may change as well (e.g., inherited members), thus repeat until no further unit depends on a changed type
+		boolean addedUnit = true;
+		while (addedUnit) {
+			addedUnit = false;
+			for (final CompilationUnit unit : units.values()) {
+				if ((compilationUnits.get(unit.path) == unit) && !compiledUnits.contains(unit.path)
+					&& (unit.hasErrors() || !Collections.disjoint(unit.identifiers, changedTypes))) {
+					deleteClassFiles(unit);
+					compiledUnits.add(unit.path);
+					addedUnit |= changedTypes.addAll(unit.typeNames);
+				}
+			}
+		}
+
+		final boolean fullBuild = compilationUnits.isEmpty() || (compiledUnits.size() > (units.size() * FULL_BUILD_RATIO));
+		if (fullBuild) {
+			for (final IResource file : tmp.members()) {
+				file.delete(true, null);
+			}
+			compiledUnits.clear();
+			compiledUnits.addAll(units.keySet());
+		}
+		compilationUnits.clear();
+		compilationUnits.putAll(units);
+
+		if (!compiledUnits.isEmpty()) {
+			final LinkedList<String> options = new LinkedList<>();
+			final Map<String, String> locations = new HashMap<>();
+			for (final String path : compiledUnits) {
+				final IFile file = files.get(path);
+				options.add(setupPath(file));
+				locations.put(file.getLocation().toOSString(), path);
+				units.get(path).problems.clear();
+			}
+			options.add("-g");
+			options.add("-Xlint");
+			options.add("-source");
+			options.add("1.7");
+			options.add("-d");
+			final String outputLocation = setupPath(tmp.getRawLocation().toOSString());
+			options.add(outputLocation);
+			options.add("-classpath");
+			if (fullBuild || builder.classpath.isEmpty()) {
+				options.add(fullBuild ? builder.classpath : outputLocation);
+			} else {
+				options.add(outputLocation + File.pathSeparator + builder.classpath);
+			}
+
+			final String output = process(options);
+			parseJavacOutput(output, locations, units);
+		}
+
+		// create the markers for all units of the current configuration
+		for (final Entry<String, IFile> entry : files.entrySet()) {
+			final IFile file = entry.getValue();
+			final List<CompilerProblem> problems = units.get(entry.getKey()).problems;
+			if (!problems.isEmpty()) {
+				for (final CompilerProblem problem : problems) {
+					final IMarker newMarker = file.createMarker(PROBLEM_MARKER);
+					if (newMarker.exists()) {
+						newMarker.setAttribute(IMarker.LINE_NUMBER, problem.line);
+						newMarker.setAttribute(IMarker.MESSAGE, confName + " " + problem.message);
+						newMarker.setAttribute(IMarker.SEVERITY, problem.warning ? IMarker.SEVERITY_WARNING : IMarker.SEVERITY_ERROR);
+					}
+				}
+				builder.featureProject.getComposer().postCompile(null, file);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the class files of the given compilation unit, including the files of its secondary, inner, and anonymous classes.
+	 */
+	private void deleteClassFiles(final CompilationUnit unit) {
+		final File packageFolder = new File(tmp.getRawLocation().toFile(), unit.packageName.replace('.', File.separatorChar));
+		final File[] classFiles = packageFolder.listFiles(new FilenameFilter() {
+
+			@Override
+			public boolean accept(File dir, String name) {
+				if (name.endsWith(".class")) {
+					for (final String typeName : unit.typeNames) {
+						if (name.equals(typeName + ".class") || name.startsWith(typeName + "$")) {
+							return true;
+						}
+					}
+				}
+				return false;
+			}
+		});
+		if (classFiles != null) {
+			for (final File classFile : classFiles) {
+				if (!classFile.delete()) {
+					UIPlugin.getDefault().logWarning("Could not delete " + classFile);
+				}
+			}
 		}
 	}
 
@@ -156,52 +387,35 @@ public class JavaCompiler implements IConfigurationBuilderBasics {
 	}
 
 	/**
-	 * Generates the problem markers from the given compiler output.
+	 * Reads the problems from the given compiler output and adds them to the corresponding compilation units.
 	 *
 	 * @param output The output from the compiler
-	 * @param files The compiled files
-	 * @param configurationName Name of the actual configuration
-	 * @return
+	 * @param locations The relative paths of the compiled units by their locations
+	 * @param units The compilation units by their relative paths
 	 */
-	public LinkedList<IFile> parseJavacOutput(String output, LinkedList<IFile> files, String configurationName) {
-		final LinkedList<IFile> errorFiles = new LinkedList<IFile>();
-		if (output.isEmpty()) {
-			return errorFiles;
-		}
-		final TreeMap<String, IFile> sourcePaths = new TreeMap<>();
-		for (final IFile file : files) {
-			sourcePaths.put(file.getLocation().toOSString(), file);
+	private void parseJavacOutput(String output, Map<String, String> locations, Map<String, CompilationUnit> units) {
+		if ((output == null) || output.isEmpty()) {
+			return;
 		}
-
 		try (Scanner scanner = new Scanner(output)) {
 			String currentLine;
 			while (scanner.hasNextLine()) {
 				currentLine = scanner.nextLine();
 				// \S*\s(\w+)\sin\s(\w:[\w,\\,.,\s]*.java)\s[(]at line (\d+)[)]
-				final Pattern pattern = Pattern.compile("\\S*\\s(\\w+)\\sin\\s(\\S.*[.]java)\\s[(]at line (\\d+)[)]");
-				final Matcher matcher = pattern.matcher(currentLine);
+				final Matcher matcher = PROBLEM_PATTERN.matcher(currentLine);
 				if (!matcher.find()) {
 					continue;
 				}
-				try {
-					final boolean contains = sourcePaths.containsKey(matcher.group(2));
-					if (!contains) {
-						continue;
-					}
-				} catch (final Exception e) {
-					UIPlugin.getDefault().logError(e);
+				final String path = locations.get(matcher.group(2));
+				if (path == null) {
 					continue;
 				}
 				final boolean warning = "WARNING".equals(matcher.group(1));
-				final IFile currentFile = sourcePaths.get(matcher.group(2));
 				final int line = Integer.parseInt(matcher.group(3));
 				// get error message in from the next lines
 				while (scanner.hasNextLine()) {
 					currentLine = scanner.nextLine();
-					final Pattern messagePattern = Pattern.compile("\\w.*");
-					final Matcher m = messagePattern.matcher(currentLine);
-					final boolean found = m.matches();
-					if (found) {
+					if (MESSAGE_PATTERN.matcher(currentLine).matches()) {
 						break;
 					}
 				}
@@ -215,22 +429,9 @@ public class JavaCompiler implements IConfigurationBuilderBasics {
 					|| errorMessage.contains(ERROR_IGNOR_DEPRECATION)) {
 					continue;
 				}
-				if (!errorFiles.contains(currentFile)) {
-					errorFiles.add(currentFile);
-				}
-				IMarker newMarker;
-				newMarker = currentFile.createMarker(PROBLEM_MARKER);
-				if (newMarker.exists()) {
-					newMarker.setAttribute(IMarker.LINE_NUMBER, line);
-					newMarker.setAttribute(IMarker.MESSAGE, configurationName + " " + errorMessage);
-					newMarker.setAttribute(IMarker.SEVERITY, warning ? IMarker.SEVERITY_WARNING : IMarker.SEVERITY_ERROR);
-				}
+				units.get(path).problems.add(new CompilerProblem(line, warning, errorMessage));
 			}
-		} catch (final CoreException e) {
-			UIPlugin.getDefault().logError(e);
 		}
-
-		return errorFiles;
 	}
 
 	@SuppressWarnings("unused")
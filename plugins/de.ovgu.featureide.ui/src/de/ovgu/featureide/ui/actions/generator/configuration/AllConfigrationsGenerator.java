@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.ui.actions.generator.configuration;
 
+import java.math.BigInteger;
 import java.util.LinkedList;
 
 import org.eclipse.core.runtime.jobs.Job;
@@ -66,7 +67,8 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 
 			@Override
 			public Boolean execute(IMonitor workMonitor) throws Exception {
-				builder.configurationNumber = Math.min(new Configuration(featureModel, false, false).number(1000000), builder.configurationNumber);
+				final BigInteger count = new Configuration(featureModel, false, false).number(1000000);
+				builder.configurationNumber = count.min(BigInteger.valueOf(builder.configurationNumber)).longValue();
 				if (builder.configurationNumber < 0) {
 					UIPlugin.getDefault().logWarning(StringTable.SATSOLVER_COMPUTATION_TIMEOUT);
 					builder.configurationNumber = Math.min(Integer.MAX_VALUE, builder.configurationNumber);
@@ -81,11 +83,6 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 	private Node rootNode;
 	private LinkedList<Node> children;
 
-	/**
-	 * The max size of <code>>configurations</code>
-	 */
-	private final int maxBufferSize = 5000;
-
 	@Override
 	public Void execute(IMonitor monitor) throws Exception {
 		try {
@@ -167,25 +164,8 @@ public class AllConfigrationsGenerator extends AConfigurationGenerator {
 					}
 				}
 
+				// blocks while the buffer of the builder is full
 				addConfiguration(configuration);
-
-				if (builder.sorter.getBufferSize() >= maxBufferSize) {
-					synchronized (this) {
-						while (builder.sorter.getBufferSize() >= maxBufferSize) {
-							try {
-								monitor.checkCancel();
-							} catch (final MethodCancelException e) {
-								number.cancel();
-								return;
-							}
-							try {
-								wait(1000);
-							} catch (final InterruptedException e) {
-								UIPlugin.getDefault().logError(e);
-							}
-						}
-					}
-				}
 			}
 			return;
 		}
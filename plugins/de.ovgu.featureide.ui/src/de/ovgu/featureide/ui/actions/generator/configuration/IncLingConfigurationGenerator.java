@@ -58,14 +58,21 @@ public class IncLingConfigurationGenerator extends AConfigurationGenerator {
 	}
 
 	private void callConfigurationGenerator(IFeatureModel fm, int solutionCount, IMonitor monitor) {
+		final SatInstance satInstance = createSatInstance(fm);
+		final PairWiseConfigurationGenerator gen = getGenerator(satInstance, solutionCount);
+		exec(satInstance, gen, monitor);
+	}
+
+	/**
+	 * Creates the formula of the given feature model, whose variables are the concrete features.
+	 */
+	protected SatInstance createSatInstance(IFeatureModel fm) {
 		final AdvancedNodeCreator advancedNodeCreator = new AdvancedNodeCreator(fm, new AbstractFeatureFilter());
 		advancedNodeCreator.setCnfType(CNFType.Regular);
 		advancedNodeCreator.setIncludeBooleanValues(false);
 
 		final Node createNodes = advancedNodeCreator.createNodes();
-		final SatInstance satInstance = new SatInstance(createNodes, Functional.toList(FeatureUtils.getConcreteFeatureNames(fm)));
-		final PairWiseConfigurationGenerator gen = getGenerator(satInstance, solutionCount);
-		exec(satInstance, gen, monitor);
+		return new SatInstance(createNodes, Functional.toList(FeatureUtils.getConcreteFeatureNames(fm)));
 	}
 
 	protected PairWiseConfigurationGenerator getGenerator(SatInstance solver, int solutionCount) {
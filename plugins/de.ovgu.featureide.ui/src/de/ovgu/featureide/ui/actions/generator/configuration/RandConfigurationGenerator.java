@@ -20,17 +20,29 @@
  */
 package de.ovgu.featureide.ui.actions.generator.configuration;
 
+import java.util.List;
+
 import org.prop4j.analyses.PairWiseConfigurationGenerator;
 import org.prop4j.analyses.RandomConfigurationGenerator;
+import org.prop4j.analyses.UniformRandomConfigurationGenerator;
+import org.prop4j.solver.DecisionDNNF;
 import org.prop4j.solver.SatInstance;
 
 import de.ovgu.featureide.core.IFeatureProject;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.configuration.CompiledFormulaCache;
+import de.ovgu.featureide.fm.core.configuration.ConfigurationPropagator;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.functional.Functional.IConsumer;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
 import de.ovgu.featureide.ui.actions.generator.ConfigurationBuilder;
 
 /**
- * Creates random configurations.
+ * Creates random configurations.<br> If the feature model can be compiled, the configurations are drawn uniformly at random and passed to the builder as
+ * soon as they are found. Otherwise, the randomized solver is used.
  *
+ * @see UniformRandomConfigurationGenerator
  * @see RandomConfigurationGenerator
  *
  * @author Jens Meinicke
@@ -41,6 +53,37 @@ public class RandConfigurationGenerator extends IncLingConfigurationGenerator {
 		super(builder, featureModel, featureProject);
 	}
 
+	@Override
+	public Void execute(IMonitor monitor) throws Exception {
+		final SatInstance satInstance = createSatInstance(featureModel);
+		final DecisionDNNF compiledFormula =
+			CompiledFormulaCache.getInstance().getCompiledFormula(featureModel, satInstance, ConfigurationPropagator.COMPILATION_TIMEOUT);
+		if (compiledFormula == null) {
+			return super.execute(monitor);
+		}
+
+		final UniformRandomConfigurationGenerator generator = new UniformRandomConfigurationGenerator(compiledFormula, maxConfigs());
+		final IMonitor generatorMonitor = monitor.subTask(1);
+		generatorMonitor.setIntermediateFunction(new IConsumer<Object>() {
+
+			@Override
+			public void invoke(Object result) {
+				if (result instanceof int[]) {
+					configuration.resetValues();
+					for (final String selection : satInstance.convertToString((int[]) result)) {
+						configuration.setManual(selection, Selection.SELECTED);
+					}
+					addConfiguration(configuration);
+				}
+			}
+		});
+		final List<int[]> configurations = LongRunningWrapper.runMethod(generator, generatorMonitor);
+		if (configurations != null) {
+			builder.configurationNumber = configurations.size();
+		}
+		return null;
+	}
+
 	@Override
 	protected PairWiseConfigurationGenerator getGenerator(SatInstance satInstance, int solutionCount) {
 		return new RandomConfigurationGenerator(satInstance, solutionCount);
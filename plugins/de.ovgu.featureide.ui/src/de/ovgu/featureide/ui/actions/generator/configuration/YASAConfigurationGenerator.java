@@ -0,0 +1,87 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.ui.actions.generator.configuration;
+
+import org.prop4j.Node;
+import org.prop4j.analyses.TWiseConfigurationGenerator;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.core.IFeatureProject;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.filter.AbstractFeatureFilter;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.functional.Functional.IConsumer;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.ui.actions.generator.ConfigurationBuilder;
+
+/**
+ * Creates t-wise configurations with the streaming sampling algorithm YASA. Each configuration is passed to the builder as soon as it is completed.
+ *
+ * @see TWiseConfigurationGenerator
+ *
+ * @author agent
+ */
+public class YASAConfigurationGenerator extends AConfigurationGenerator {
+
+	private final int t;
+
+	public YASAConfigurationGenerator(ConfigurationBuilder builder, IFeatureModel featureModel, IFeatureProject featureProject, int t) {
+		super(builder, featureModel, featureProject);
+		this.t = t;
+	}
+
+	@Override
+	public Void execute(IMonitor monitor) throws Exception {
+		final AdvancedNodeCreator advancedNodeCreator = new AdvancedNodeCreator(featureModel, new AbstractFeatureFilter());
+		advancedNodeCreator.setCnfType(CNFType.Regular);
+		advancedNodeCreator.setIncludeBooleanValues(false);
+
+		final Node createNodes = advancedNodeCreator.createNodes();
+		final SatInstance satInstance = new SatInstance(createNodes, Functional.toList(FeatureUtils.getConcreteFeatureNames(featureModel)));
+		final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(satInstance, t, maxConfigs());
+		generator.setKeepConfigurations(false);
+
+		final IMonitor generatorMonitor = monitor.subTask(1);
+		generatorMonitor.setIntermediateFunction(new IConsumer<Object>() {
+
+			@Override
+			public void invoke(Object result) {
+				if (result instanceof org.prop4j.analyses.IPairWiseConfigurationGenerator.Configuration) {
+					configuration.resetValues();
+					for (final String selection : satInstance
+							.convertToString(((org.prop4j.analyses.IPairWiseConfigurationGenerator.Configuration) result).getModel())) {
+						configuration.setManual(selection, Selection.SELECTED);
+					}
+					addConfiguration(configuration);
+				}
+			}
+		});
+		LongRunningWrapper.runMethod(generator, generatorMonitor);
+		builder.configurationNumber = generator.getNumberOfConfigurations();
+		return null;
+	}
+
+}
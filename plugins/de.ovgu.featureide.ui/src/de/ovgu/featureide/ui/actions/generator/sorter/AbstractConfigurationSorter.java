@@ -35,6 +35,8 @@ import de.ovgu.featureide.ui.actions.generator.BuilderConfiguration;
  */
 public class AbstractConfigurationSorter {
 
+	public static final int DEFAULT_BUFFER_CAPACITY = 5000;
+
 	/**
 	 * This list contains all found configurations to built.<br> Use <code>getConfiguration()</code> and <code>setConfiguration(c)</code> for synchronizing.
 	 */
@@ -44,13 +46,36 @@ public class AbstractConfigurationSorter {
 
 	protected boolean sorted = true;
 
+	/**
+	 * The maximal number of buffered configurations. Only applies if the configurations are already sorted, as sorting requires all configurations.
+	 */
+	private int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+
+	/**
+	 * This flag indicates that no more configurations will be added.
+	 */
+	private boolean finished = false;
+
+	/**
+	 * This flag indicates that no more configurations should be added or taken.
+	 */
+	private boolean canceled = false;
+
+	/**
+	 * This flag indicates that sorted configurations are released while the remaining configurations are still sorted.
+	 */
+	private boolean streaming = false;
+
 	public AbstractConfigurationSorter(final IFeatureModel featureModel) {
 		concreteFeatures = FeatureUtils.extractConcreteFeaturesAsStringList(featureModel);// TODO move to implementations
 	}
 
 	public int sortConfigurations(final IMonitor monitor) {
 		final int numberOfConfigurations = sort(monitor);
-		sorted = true;
+		synchronized (this) {
+			sorted = true;
+			notifyAll();
+		}
 		return numberOfConfigurations;
 	}
 
@@ -58,12 +83,93 @@ public class AbstractConfigurationSorter {
 		return configurations.size();
 	}
 
+	/**
+	 * Adds a configuration to the buffer. If the buffer is full, this method blocks until a configuration is taken.
+	 *
+	 * @param configuration the configuration to add
+	 */
 	public synchronized void addConfiguration(BuilderConfiguration configuration) {
-		configurations.add(configuration);
+		while (sorted && !canceled && (configurations.size() >= bufferCapacity)) {
+			try {
+				wait();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if (!canceled) {
+			configurations.add(configuration);
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Takes the next configuration from the buffer. Blocks until a configuration is available or no more configurations will be added.
+	 *
+	 * @return the next configuration or {@code null} if all configurations were taken or the sorter was canceled
+	 * @throws InterruptedException if the current thread was interrupted while waiting
+	 */
+	public synchronized BuilderConfiguration takeConfiguration() throws InterruptedException {
+		while (!canceled && ((!sorted && !streaming) || (configurations.isEmpty() && !(sorted && finished)))) {
+			wait();
+		}
+		if (canceled || configurations.isEmpty()) {
+			return null;
+		}
+		final BuilderConfiguration configuration = configurations.pop();
+		notifyAll();
+		return configuration;
+	}
+
+	/**
+	 * Signals that no more configurations will be added.
+	 */
+	public synchronized void finish() {
+		finished = true;
+		notifyAll();
+	}
+
+	/**
+	 * Releases all threads waiting for the buffer. Afterwards, configurations are neither added nor taken.
+	 */
+	public synchronized void cancel() {
+		canceled = true;
+		notifyAll();
+	}
+
+	/**
+	 * Allows implementations to hand out configurations while sorting.<br> Afterwards, the buffer only contains the configurations passed to
+	 * {@link #release(BuilderConfiguration)}.
+	 *
+	 * @return all configurations added so far
+	 */
+	protected synchronized LinkedList<BuilderConfiguration> startStreaming() {
+		final LinkedList<BuilderConfiguration> unsortedConfigurations = configurations;
+		configurations = new LinkedList<BuilderConfiguration>();
+		streaming = true;
+		notifyAll();
+		return unsortedConfigurations;
+	}
+
+	/**
+	 * Appends an already sorted configuration to the buffer, so it can be taken before the sorting is finished.
+	 *
+	 * @param configuration the next configuration in sorted order
+	 */
+	protected synchronized void release(BuilderConfiguration configuration) {
+		if (!canceled) {
+			configurations.add(configuration);
+			notifyAll();
+		}
+	}
+
+	public synchronized void setBufferCapacity(int bufferCapacity) {
+		this.bufferCapacity = bufferCapacity;
+		notifyAll();
 	}
 
 	public synchronized BuilderConfiguration getConfiguration() {
-		if (!sorted || configurations.isEmpty()) {
+		if ((!sorted && !streaming) || configurations.isEmpty()) {
 			return null;
 		}
 		return configurations.pop();
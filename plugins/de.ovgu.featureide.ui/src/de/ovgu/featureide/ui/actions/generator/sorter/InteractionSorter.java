@@ -21,13 +21,10 @@
 package de.ovgu.featureide.ui.actions.generator.sorter;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
@@ -37,7 +34,10 @@ import de.ovgu.featureide.ui.UIPlugin;
 import de.ovgu.featureide.ui.actions.generator.BuilderConfiguration;
 
 /**
- * Sorts Configurations by interactions they cover.
+ * Sorts Configurations by interactions they cover.<br> Each interaction of up to t concrete features is identified by a unique number, which is
+ * computed from the combination of its features and their selection. Covered interactions are stored in a bit set. The configuration covering the most
+ * uncovered interactions is chosen lazily: the number of uncovered interactions of a configuration can only decrease, so it is only recomputed for the
+ * configuration with the greatest previous value.
  *
  * @author Jens Meinicke
  */
@@ -45,12 +45,89 @@ public class InteractionSorter extends AbstractConfigurationSorter {
 
 	private static final UIPlugin LOGGER = UIPlugin.getDefault();
 
-	private final int t;
+	/**
+	 * A configuration with an upper bound for the number of interactions that it additionally covers.
+	 */
+	private static class RankedConfiguration {
+
+		private final BuilderConfiguration configuration;
+		private final boolean[] selection;
+		private long gain;
+
+		public RankedConfiguration(BuilderConfiguration configuration, boolean[] selection, long gain) {
+			this.configuration = configuration;
+			this.selection = selection;
+			this.gain = gain;
+		}
+
+	}
+
+	/**
+	 * Orders configurations by their gain (descending) and their name (ascending).
+	 */
+	private static final Comparator<RankedConfiguration> RANK_COMPARATOR = new Comparator<RankedConfiguration>() {
+
+		@Override
+		public int compare(RankedConfiguration o1, RankedConfiguration o2) {
+			final int result = Long.compare(o2.gain, o1.gain);
+			return (result != 0) ? result : o1.configuration.getName().compareTo(o2.configuration.getName());
+		}
+	};
+
+	/**
+	 * A bit set for long indices, which only allocates memory for pages that contain a set bit.
+	 */
+	private static class PagedBitSet {
+
+		private static final int PAGE_BITS = 18;
+		private static final long PAGE_MASK = (1L << PAGE_BITS) - 1;
 
-	private final Map<BuilderConfiguration, Set<Interaction>> interactions = new HashMap<BuilderConfiguration, Set<Interaction>>();
+		private final long[][] pages;
+
+		public PagedBitSet(long size) {
+			pages = new long[(int) ((size >>> PAGE_BITS) + 1)][];
+		}
+
+		public boolean get(long index) {
+			final long[] page = pages[(int) (index >>> PAGE_BITS)];
+			return (page != null) && ((page[(int) ((index & PAGE_MASK) >>> 6)] & (1L << index)) != 0);
+		}
+
+		public void set(long index) {
+			final int pageIndex = (int) (index >>> PAGE_BITS);
+			long[] page = pages[pageIndex];
+			if (page == null) {
+				page = new long[1 << (PAGE_BITS - 6)];
+				pages[pageIndex] = page;
+			}
+			page[(int) ((index & PAGE_MASK) >>> 6)] |= 1L << index;
+		}
+
+	}
+
+	private final int t;
 
 	private final boolean skippConfigurations;
 
+	/**
+	 * The number of configurations that are not sorted yet.
+	 */
+	private volatile int unsortedConfigurations = 0;
+
+	private int numberOfFeatures;
+
+	/**
+	 * Binomial coefficients: <code>binomial[n][k]</code> is the number of combinations of k out of n features.
+	 */
+	private long[][] binomial;
+
+	/**
+	 * The first interaction number for each interaction size.
+	 */
+	private long[] offsets;
+
+	private PagedBitSet coveredInteractions;
+
 	public InteractionSorter(final int t, final IFeatureModel featureModel, final boolean skippConfigurations) {
 		super(featureModel);
 		super.sorted = false;
@@ -59,162 +136,139 @@ public class InteractionSorter extends AbstractConfigurationSorter {
 	}
 
 	/**
-	 * Sorts Configurations by interactions they cover.
+	 * Sorts Configurations by interactions they cover. Each configuration is released as soon as its position is known.
 	 *
 	 * @return number of configurations
 	 */
 	@Override
 	public int sort(final IMonitor monitor) {
-		for (final BuilderConfiguration c : configurations) {
+		final List<String> features = new ArrayList<>(concreteFeatures);
+		numberOfFeatures = features.size();
+		initInteractionNumbers();
+
+		final LinkedList<BuilderConfiguration> unsorted = startStreaming();
+		unsortedConfigurations = unsorted.size();
+		final long maxGain = offsets[offsets.length - 1];
+		final PriorityQueue<RankedConfiguration> queue = new PriorityQueue<>(Math.max(1, unsorted.size()), RANK_COMPARATOR);
+		while (!unsorted.isEmpty()) {
 			try {
 				monitor.checkCancel();
 			} catch (final MethodCancelException e) {
-				configurations.clear();
-				return 0;
+				return cancelSorting();
+			}
+			final BuilderConfiguration c = unsorted.pop();
+			final Set<String> selectedFeatures = c.getSelectedFeatureNames();
+			final boolean[] selection = new boolean[numberOfFeatures];
+			for (int i = 0; i < numberOfFeatures; i++) {
+				selection[i] = selectedFeatures.contains(features.get(i));
 			}
-			interactions.put(c, new HashSet<Interaction>(concreteFeatures.size() * (10 ^ t)));
-			getInteractions(interactions.get(c), c.getSelectedFeatureNames(), new ArrayList<String>(0), new ArrayList<String>(0), 1, null);
+			queue.add(new RankedConfiguration(c, selection, maxGain));
 			monitor.worked();
 		}
 
-		final LinkedList<BuilderConfiguration> sorted = new LinkedList<BuilderConfiguration>();
-		while (!interactions.isEmpty()) {
+		int numberOfConfigurations = 0;
+		while (!queue.isEmpty()) {
 			try {
 				monitor.checkCancel();
 			} catch (final MethodCancelException e) {
-				configurations.clear();
-				return 0;
+				return cancelSorting();
 			}
 
-			final BuilderConfiguration mostCovering = getMostCoveringConfiguration(interactions);
-			final Set<Interaction> coveredInteractions = interactions.get(mostCovering);
-			if (coveredInteractions.isEmpty()) {
+			final RankedConfiguration mostCovering = queue.poll();
+			mostCovering.gain = cover(mostCovering.selection, 0, 0, 0, 0, false);
+			final RankedConfiguration next = queue.peek();
+			if ((next != null) && (RANK_COMPARATOR.compare(mostCovering, next) > 0)) {
+				// the bound was too optimistic, try again with the updated gain
+				queue.add(mostCovering);
+				continue;
+			}
+			if (mostCovering.gain == 0) {
+				queue.add(mostCovering);
 				if (skippConfigurations) {
-					LOGGER.logInfo(interactions.size() + " solutions skipped because interactions are already covered!");
+					LOGGER.logInfo(queue.size() + " solutions skipped because interactions are already covered!");
 				} else {
-					sorted.addAll(interactions.keySet());
+					while (!queue.isEmpty()) {
+						release(queue.poll().configuration);
+						numberOfConfigurations++;
+					}
 				}
-				interactions.clear();
+				unsortedConfigurations = 0;
 				break;
 			}
-			sorted.add(mostCovering);
-			interactions.remove(mostCovering);
-			for (final Set<Interaction> interaction : interactions.values()) {
-				interaction.removeAll(coveredInteractions);
-			}
+			cover(mostCovering.selection, 0, 0, 0, 0, true);
+			unsortedConfigurations = queue.size();
+			release(mostCovering.configuration);
+			numberOfConfigurations++;
 			monitor.worked();
 		}
-		configurations = sorted;
-		return configurations.size();
+		coveredInteractions = null;
+		return numberOfConfigurations;
+	}
+
+	private int cancelSorting() {
+		synchronized (this) {
+			configurations.clear();
+		}
+		unsortedConfigurations = 0;
+		coveredInteractions = null;
+		return 0;
 	}
 
 	@Override
 	public int getBufferSize() {
-		return interactions.size() + configurations.size();
+		return unsortedConfigurations + configurations.size();
 	}
 
 	/**
-	 * Gets the configuration that covers the most interactions that are left.<br> Basically, the configurations with the greatest set of interactions.
+	 * Computes the binomial coefficients and the offsets used to number the interactions.<br> An interaction of k features with the indices
+	 * <code>f<sub>1</sub> &lt; ... &lt; f<sub>k</sub></code> has the number
+	 * <code>offsets[k] + (rank &lt;&lt; k | signs)</code>, where <code>rank = binomial[f<sub>1</sub>][1] + ... + binomial[f<sub>k</sub>][k]</code> and
+	 * <code>signs</code> contains one bit per feature denoting whether it is selected.
 	 */
-	private BuilderConfiguration getMostCoveringConfiguration(final Map<BuilderConfiguration, Set<Interaction>> interactions) {
-		BuilderConfiguration mostCovering = null;
-		int longest = -1;
-		for (final BuilderConfiguration config : interactions.keySet()) {
-			final int size = interactions.get(config).size();
-			if (size > longest) {
-				longest = size;
-				mostCovering = config;
-			} else if (size == longest) {
-				if (mostCovering.getName().compareTo(config.getName()) > 0) {
-					mostCovering = config;
-				}
+	private void initInteractionNumbers() {
+		binomial = new long[numberOfFeatures + 1][t + 1];
+		for (int n = 0; n <= numberOfFeatures; n++) {
+			binomial[n][0] = 1;
+			for (int k = 1; k <= Math.min(n, t); k++) {
+				binomial[n][k] = binomial[n - 1][k - 1] + binomial[n - 1][k];
 			}
 		}
-		return mostCovering;
+		offsets = new long[t + 2];
+		for (int k = 1; k <= t; k++) {
+			offsets[k + 1] = offsets[k] + (binomial[numberOfFeatures][k] << k);
+		}
+		coveredInteractions = new PagedBitSet(offsets[t + 1]);
 	}
 
 	/**
-	 * Calculate the interactions of one configuration.
+	 * Counts the interactions of a configuration that are not covered yet.
 	 *
-	 * @param interactions The set where the interactions are stored
-	 * @param configSelectedFeatures The selected feature of the current configuration
-	 * @param selectedFeatures The selected features of the current interaction
-	 * @param unselectedFeatures The unselected feature of the current interaction
-	 * @param t The current size of the interaction
-	 * @param lastFeature A marker for the last feature
+	 * @param selection The selection of all concrete features of the configuration
+	 * @param start The index of the first feature that can be added to the current interaction
+	 * @param k The size of the current interaction
+	 * @param rank The rank of the feature combination of the current interaction
+	 * @param signs The selection of the features of the current interaction
+	 * @param mark Whether the uncovered interactions should be marked as covered
+	 * @return the number of interactions that were not covered
 	 */
-	private void getInteractions(final Set<Interaction> interactions, final Set<String> configSelectedFeatures, final List<String> selectedFeatures,
-			final List<String> unselectedFeatures, final int t, final String lastFeature) {
-		if (t > this.t) {
-			return;
-		}
-
-		boolean marker = lastFeature == null;
-		for (final String feature : concreteFeatures) {
-			if (!marker && feature.equals(lastFeature)) {
-				// skip all features until the feature of the last iteration is found
-				marker = true;
-				continue;
-			}
-			if (marker) {
-				List<String> selected = selectedFeatures;
-				List<String> unselected = unselectedFeatures;
-
-				if (configSelectedFeatures.contains(feature)) {
-					// CASE selected
-					selected = new ArrayList<String>(t);
-					selected.addAll(selectedFeatures);
-					selected.add(feature);
-					selected = Collections.unmodifiableList(selected);
-				} else {
-					// CASE unselected
-					unselected = new ArrayList<String>(t);
-					unselected.addAll(unselectedFeatures);
-					unselected.add(feature);
-					unselected = Collections.unmodifiableList(unselected);
+	private long cover(final boolean[] selection, final int start, final int k, final long rank, final long signs, final boolean mark) {
+		long uncovered = 0;
+		final int size = k + 1;
+		for (int feature = start; feature < numberOfFeatures; feature++) {
+			final long newRank = rank + binomial[feature][size];
+			final long newSigns = (signs << 1) | (selection[feature] ? 1 : 0);
+			final long interaction = offsets[size] + ((newRank << size) | newSigns);
+			if (!coveredInteractions.get(interaction)) {
+				uncovered++;
+				if (mark) {
+					coveredInteractions.set(interaction);
 				}
-				interactions.add(new Interaction(selected, unselected));
-				getInteractions(interactions, configSelectedFeatures, selected, unselected, t + 1, feature);
 			}
-		}
-	}
-
-	private class Interaction {
-
-		private final Collection<String> selectedFeatures;
-		private final Collection<String> unselectedFeatures;
-		private final int hashCode;
-
-		/**
-		 * Represents an interaction between n selected features and m unselected features.
-		 */
-		Interaction(final Collection<String> selectedFeatures, final Collection<String> unselectedFeatures) {
-			this.selectedFeatures = selectedFeatures;
-			this.unselectedFeatures = unselectedFeatures;
-
-			// TODO _Sebastian Revise Hash Function
-			int hash = 0;
-			for (final String feature : selectedFeatures) {
-				hash = (hash * 3) + feature.hashCode();
+			if (size < t) {
+				uncovered += cover(selection, feature + 1, size, newRank, newSigns, mark);
 			}
-			for (final String feature : unselectedFeatures) {
-				hash += (hash * 7) + feature.hashCode();
-			}
-			hashCode = hash;
-		}
-
-		@Override
-		public boolean equals(final Object obj) {
-			if (obj.hashCode() != hashCode()) {
-				return false;
-			}
-			return selectedFeatures.equals(((Interaction) obj).selectedFeatures) && unselectedFeatures.equals(((Interaction) obj).unselectedFeatures);
-		}
-
-		@Override
-		public int hashCode() {
-			return hashCode;
 		}
+		return uncovered;
 	}
 
 }
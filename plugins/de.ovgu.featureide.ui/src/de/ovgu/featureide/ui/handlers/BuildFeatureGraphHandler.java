@@ -20,6 +20,7 @@
  */
 package de.ovgu.featureide.ui.handlers;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.LinkedList;
@@ -34,11 +35,11 @@ import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
 import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
 import de.ovgu.featureide.fm.core.functional.Functional;
 import de.ovgu.featureide.fm.core.io.FeatureGraphFormat;
-import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
 import de.ovgu.featureide.fm.core.job.IJob;
 import de.ovgu.featureide.fm.core.job.IRunner;
 import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
 import de.ovgu.featureide.fm.core.job.util.JobFinishListener;
+import de.ovgu.featureide.ui.UIPlugin;
 import de.ovgu.featureide.ui.handlers.base.AFeatureProjectHandler;
 
 public class BuildFeatureGraphHandler extends AFeatureProjectHandler {
@@ -62,7 +63,11 @@ public class BuildFeatureGraphHandler extends AFeatureProjectHandler {
 
 				@Override
 				public void jobFinished(IJob<IFeatureGraph> finishedJob) {
-					SimpleFileHandler.save(path, finishedJob.getResults(), new FeatureGraphFormat());
+					try {
+						FeatureGraphFormat.save(path, finishedJob.getResults());
+					} catch (final IOException e) {
+						UIPlugin.getDefault().logError(e);
+					}
 				}
 			});
 			runner.schedule();
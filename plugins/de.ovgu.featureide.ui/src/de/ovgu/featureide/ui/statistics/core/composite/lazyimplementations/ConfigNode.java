@@ -23,6 +23,8 @@ package de.ovgu.featureide.ui.statistics.core.composite.lazyimplementations;
 import static de.ovgu.featureide.fm.core.localization.StringTable.CALCULATING;
 import static de.ovgu.featureide.fm.core.localization.StringTable.MORE_THAN;
 
+import java.math.BigInteger;
+
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.configuration.Configuration;
 import de.ovgu.featureide.fm.core.job.IRunner;
@@ -61,9 +63,9 @@ public class ConfigNode extends Parent {
 					return "1";
 				}
 
-				final long number = new Configuration(innerModel, false, ignoreAbstract).number(timeout);
+				final BigInteger number = new Configuration(innerModel, false, ignoreAbstract).number(timeout);
 
-				return ((number < 0) ? MORE_THAN + (-number - 1) : String.valueOf(number));
+				return ((number.signum() < 0) ? MORE_THAN + number.negate().subtract(BigInteger.ONE) : number.toString());
 			}
 
 			@Override
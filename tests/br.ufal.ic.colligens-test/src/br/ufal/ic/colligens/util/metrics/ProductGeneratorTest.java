@@ -0,0 +1,117 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package br.ufal.ic.colligens.util.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.ExtensionManager.NoSuchExtensionException;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.io.guidsl.GuidslFormat;
+
+/**
+ * Tests the lazy derivation of products in {@link ProductGenerator}.
+ *
+ * @author agent
+ */
+public class ProductGeneratorTest {
+
+	@Test
+	public void testAllProducts() {
+		final Set<Set<String>> products = getProducts(new ProductGenerator(), "A", "B", "C");
+		assertEquals(8, products.size());
+		for (final Set<String> product : products) {
+			assertTrue(Arrays.asList("A", "B", "C").containsAll(product));
+		}
+	}
+
+	@Test
+	public void testNoDirectives() {
+		assertEquals(Collections.singleton(Collections.<String> emptySet()), getProducts(new ProductGenerator()));
+	}
+
+	@Test
+	public void testMaximumNumberOfProducts() {
+		final ProductGenerator generator = new ProductGenerator();
+		generator.setMaximumNumberOfProducts(3);
+		assertEquals(3, getProducts(generator, "A", "B", "C").size());
+		generator.setMaximumNumberOfProducts(8);
+		assertEquals(8, getProducts(generator, "A", "B", "C").size());
+	}
+
+	@Test
+	public void testFeatureModel() throws NoSuchExtensionException {
+		final GuidslFormat format = new GuidslFormat();
+		final IFeatureModel featureModel = FMFactoryManager.getDefaultFactoryForFormat(format).createFeatureModel();
+		if (format.read(featureModel, "S : [A] [B] :: _S; %% A implies not B;").containsError()) {
+			fail();
+		}
+
+		// X is no feature of the model and can be defined freely
+		final Set<Set<String>> products = getProducts(new ProductGenerator(featureModel), "A", "B", "X");
+		assertEquals(6, products.size());
+		for (final Set<String> product : products) {
+			assertFalse(product.toString(), product.contains("A") && product.contains("B"));
+		}
+	}
+
+	@Test
+	public void testIterator() {
+		final Iterable<Set<String>> products = new ProductGenerator().getProducts(new HashSet<>(Arrays.asList("A")));
+		for (int i = 0; i < 2; i++) {
+			final Iterator<Set<String>> iterator = products.iterator();
+			assertTrue(iterator.hasNext());
+			assertTrue(iterator.hasNext());
+			iterator.next();
+			iterator.next();
+			assertFalse(iterator.hasNext());
+			try {
+				iterator.next();
+				fail();
+			} catch (final NoSuchElementException e) {}
+		}
+	}
+
+	/**
+	 * @return the derived products, checking that no product is derived twice
+	 */
+	private static Set<Set<String>> getProducts(ProductGenerator generator, String... directives) {
+		final Set<Set<String>> products = new LinkedHashSet<>();
+		for (final Set<String> product : generator.getProducts(new LinkedHashSet<>(Arrays.asList(directives)))) {
+			assertTrue("Duplicate product " + product, products.add(product));
+		}
+		return products;
+	}
+
+}
@@ -0,0 +1,214 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.attributes.computations.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.attributes.base.IFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.DoubleFeatureAttribute;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeature;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeatureModel;
+import de.ovgu.featureide.fm.attributes.base.impl.ExtendedFeatureModelFactory;
+import de.ovgu.featureide.fm.attributes.base.impl.LongFeatureAttribute;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureStructure;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.configuration.Configuration;
+import de.ovgu.featureide.fm.core.configuration.Selection;
+
+/**
+ * Tests for {@link AttributeEstimator}.
+ *
+ * @author agent
+ */
+public class AttributeEstimatorTest {
+
+	private static final String COST = "Cost";
+	private static final String WEIGHT = "Weight";
+	private static final double DELTA = 0.000001;
+
+	private final ExtendedFeatureModelFactory factory = ExtendedFeatureModelFactory.getInstance();
+
+	@BeforeClass
+	public static void registerFactory() {
+		FMFactoryManager.getInstance().addExtension(ExtendedFeatureModelFactory.getInstance());
+	}
+
+	private ExtendedFeature addFeature(ExtendedFeatureModel featureModel, ExtendedFeature parent, String name, boolean mandatory, long cost) {
+		final ExtendedFeature feature = factory.createFeature(featureModel, name);
+		featureModel.addFeature(feature);
+		if (parent == null) {
+			featureModel.getStructure().setRoot(feature.getStructure());
+		} else {
+			parent.getStructure().addChild(feature.getStructure());
+		}
+		feature.getStructure().setMandatory(mandatory);
+		feature.addAttribute(new LongFeatureAttribute(feature, COST, "", cost, false, false));
+		return feature;
+	}
+
+	/**
+	 * Root (and) with A (mandatory, 5), B (optional, 3, or: B1 (2), B2 (-1)), C (optional, 0, alternative: C1 (4), C2 (1)), and D (optional, -2).
+	 */
+	private ExtendedFeatureModel createFeatureModel() {
+		final ExtendedFeatureModel featureModel = factory.createFeatureModel();
+		final ExtendedFeature root = addFeature(featureModel, null, "Root", true, 0);
+		final ExtendedFeature a = addFeature(featureModel, root, "A", true, 5);
+		a.addAttribute(new DoubleFeatureAttribute(a, WEIGHT, "", 1.5, false, false));
+		final ExtendedFeature b = addFeature(featureModel, root, "B", false, 3);
+		b.getStructure().setOr();
+		addFeature(featureModel, b, "B1", false, 2);
+		addFeature(featureModel, b, "B2", false, -1);
+		final ExtendedFeature c = addFeature(featureModel, root, "C", false, 0);
+		c.getStructure().setAlternative();
+		addFeature(featureModel, c, "C1", false, 4);
+		addFeature(featureModel, c, "C2", false, 1);
+		addFeature(featureModel, root, "D", false, -2);
+		return featureModel;
+	}
+
+	@Test
+	public void testEmptySelection() {
+		final Configuration configuration = new Configuration(createFeatureModel(), false);
+		final AttributeEstimator estimator = new AttributeEstimator(configuration);
+
+		assertEquals(3, estimator.getMinimum(COST), DELTA);
+		assertEquals(14, estimator.getMaximum(COST), DELTA);
+		assertEquals(1.5, estimator.getMinimum(WEIGHT), DELTA);
+		assertEquals(1.5, estimator.getMaximum(WEIGHT), DELTA);
+		assertEquals(0, estimator.getMaximum("Unknown"), DELTA);
+		assertEquals(2, estimator.getAttributeNames().size());
+	}
+
+	@Test
+	public void testPartialSelection() {
+		final Configuration configuration = new Configuration(createFeatureModel(), false);
+		configuration.getSelectablefeature("B").setManual(Selection.SELECTED);
+		configuration.getSelectablefeature("C2").setManual(Selection.SELECTED);
+		configuration.getSelectablefeature("D").setManual(Selection.UNSELECTED);
+		final AttributeEstimator estimator = new AttributeEstimator(configuration);
+
+		assertEquals(7, estimator.getMinimum(COST), DELTA);
+		assertEquals(11, estimator.getMaximum(COST), DELTA);
+		assertEquals(4, estimator.getSelectedSum(COST), DELTA);
+	}
+
+	@Test
+	public void testUpdateFeature() {
+		final Configuration configuration = new Configuration(createFeatureModel(), false);
+		configuration.getSelectablefeature("B").setManual(Selection.SELECTED);
+		configuration.getSelectablefeature("C2").setManual(Selection.SELECTED);
+		configuration.getSelectablefeature("D").setManual(Selection.UNSELECTED);
+		final AttributeEstimator estimator = new AttributeEstimator(configuration);
+
+		final IFeature c2 = configuration.getFeatureModel().getFeature("C2");
+		((ExtendedFeature) c2).getAttributes().get(0).setValue(10L);
+		estimator.update(c2);
+
+		assertEquals(7, estimator.getMinimum(COST), DELTA);
+		assertEquals(20, estimator.getMaximum(COST), DELTA);
+		assertEquals(13, estimator.getSelectedSum(COST), DELTA);
+	}
+
+	@Test
+	public void testStructureChanges() {
+		final Configuration configuration = new Configuration(createFeatureModel(), false);
+		final IFeatureModel featureModel = configuration.getFeatureModel();
+		assertEquals(14, AttributeEstimator.getEstimator(configuration).getMaximum(COST), DELTA);
+
+		featureModel.getFeature("D").getStructure().setMandatory(true);
+		assertEstimation(configuration, 3, 12);
+
+		featureModel.getFeature("C").getStructure().setAnd();
+		assertEstimation(configuration, 3, 13);
+
+		featureModel.getFeature("C").getStructure().setAlternative();
+		assertEstimation(configuration, 3, 12);
+
+		final IFeatureStructure b2 = featureModel.getFeature("B2").getStructure();
+		b2.getParent().removeChild(b2);
+		featureModel.getFeature("C").getStructure().addChild(b2);
+		assertEstimation(configuration, 2, 12);
+	}
+
+	private static void assertEstimation(Configuration configuration, double minimum, double maximum) {
+		final AttributeEstimator expected = new AttributeEstimator(configuration);
+		assertEquals(minimum, expected.getMinimum(COST), DELTA);
+		assertEquals(maximum, expected.getMaximum(COST), DELTA);
+
+		final AttributeEstimator estimator = AttributeEstimator.getEstimator(configuration);
+		assertEquals(minimum, estimator.getMinimum(COST), DELTA);
+		assertEquals(maximum, estimator.getMaximum(COST), DELTA);
+	}
+
+	@Test
+	public void testIncrementalUpdate() {
+		final Random random = new Random(1);
+		for (int n = 0; n < 20; n++) {
+			final ExtendedFeatureModel featureModel = factory.createFeatureModel();
+			final List<ExtendedFeature> features = new ArrayList<>();
+			features.add(addFeature(featureModel, null, "F0", true, 0));
+			for (int i = 1; i < 40; i++) {
+				final ExtendedFeature parent = features.get(random.nextInt(features.size()));
+				features.add(addFeature(featureModel, parent, "F" + i, random.nextBoolean(), random.nextInt(21) - 10));
+			}
+			for (final ExtendedFeature feature : features) {
+				switch (random.nextInt(3)) {
+				case 0:
+					feature.getStructure().setOr();
+					break;
+				case 1:
+					feature.getStructure().setAlternative();
+					break;
+				default:
+					break;
+				}
+			}
+			final Configuration configuration = new Configuration(featureModel, false);
+			final AttributeEstimator estimator = new AttributeEstimator(configuration);
+			for (int step = 0; step < 30; step++) {
+				final ExtendedFeature feature = features.get(random.nextInt(features.size()));
+				if (random.nextBoolean()) {
+					final Selection[] selections = Selection.values();
+					configuration.getSelectablefeature(feature.getName()).setManual(selections[random.nextInt(selections.length)]);
+				} else {
+					final IFeatureAttribute attribute = feature.getAttributes().get(0);
+					attribute.setValue((long) (random.nextInt(21) - 10));
+				}
+				estimator.update();
+
+				final AttributeEstimator expected = new AttributeEstimator(configuration);
+				assertEquals(expected.getMinimum(COST), estimator.getMinimum(COST), DELTA);
+				assertEquals(expected.getMaximum(COST), estimator.getMaximum(COST), DELTA);
+				assertEquals(expected.getSelectedSum(COST), estimator.getSelectedSum(COST), DELTA);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.analyses.FeatureModelAnalysis;
+import org.prop4j.analyses.IncrementalFeatureModelAnalysis;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent;
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent.EventType;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.functional.Functional;
+import de.ovgu.featureide.fm.core.io.guidsl.GuidslFormat;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests that {@link IncrementalFeatureModelAnalysis} computes the same results as {@link FeatureModelAnalysis} while the feature model is edited.
+ *
+ * @author agent
+ */
+public class TIncrementalFeatureModelAnalysis {
+
+	private IFeatureModel fm;
+	private IncrementalFeatureModelAnalysis incrementalAnalysis;
+
+	@Before
+	public void setModel() throws Exception {
+		final GuidslFormat format = new GuidslFormat();
+		fm = FMFactoryManager.getDefaultFactoryForFormat(format).createFeatureModel();
+		if (format.read(fm, "S : [A] [B] C [D] [H] :: _S; C : E | F | G :: _C; %% A implies C; S implies D; D iff F; H implies not H; A or not A;")
+				.containsError()) {
+			fail();
+		}
+		incrementalAnalysis = new IncrementalFeatureModelAnalysis(fm);
+	}
+
+	@Test
+	public void testInitial() {
+		final HashMap<Object, Object> result = compare();
+		assertEquals(ConstraintAttribute.REDUNDANT, result.get(fm.getConstraints().get(0)));
+		assertEquals(ConstraintAttribute.TAUTOLOGY, result.get(fm.getConstraints().get(4)));
+		assertEquals(FeatureStatus.FALSE_OPTIONAL, result.get(fm.getFeature("D")));
+		assertEquals(FeatureStatus.DEAD, result.get(fm.getFeature("E")));
+		assertEquals(FeatureStatus.DEAD, result.get(fm.getFeature("H")));
+	}
+
+	@Test
+	public void testUnchanged() {
+		compare();
+		compare();
+	}
+
+	@Test
+	public void testConstraintChanges() {
+		compare();
+		addConstraint(new Implies(new Literal("B"), new Literal("A")));
+		compare();
+		addConstraint(new Implies(new Literal("A"), new Literal("B")));
+		compare();
+		fm.removeConstraint(0);
+		compare();
+		fm.removeConstraint(fm.getConstraintCount() - 1);
+		compare();
+	}
+
+	@Test
+	public void testStructureChanges() {
+		compare();
+		fm.getFeature("A").getStructure().setMandatory(true);
+		compare();
+		fm.getFeature("C").getStructure().changeToOr();
+		compare();
+		fm.getFeature("A").getStructure().setMandatory(false);
+		compare();
+	}
+
+	@Test
+	public void testRenaming() {
+		compare();
+		rename("D", "X");
+		rename("A", "D");
+		final HashMap<Object, Object> result = compare();
+		assertEquals(FeatureStatus.FALSE_OPTIONAL, result.get(fm.getFeature("X")));
+		assertEquals(ConstraintAttribute.REDUNDANT, result.get(fm.getConstraints().get(0)));
+	}
+
+	@Test
+	public void testVoidModel() {
+		compare();
+		final IConstraint constraint = addConstraint(new Not(new Literal("S")));
+		assertFalse(isValid(compare()));
+		fm.removeConstraint(constraint);
+		assertTrue(isValid(compare()));
+		addConstraint(new Or(new Literal("E"), new Literal("H")));
+		assertFalse(isValid(compare()));
+	}
+
+	@Test
+	public void testTransformedTautology() {
+		compare();
+		final Node complex = new Or(new And(new Literal("A"), new Literal("B"), new Literal("E")), new And(new Literal("D"), new Literal("F"), new Literal("G")),
+				new And(new Literal("H"), new Literal("C"), new Literal("B")), new And(new Literal("A", false), new Literal("D", false), new Literal("H", false)));
+		final IConstraint constraint = addConstraint(new Or(complex, new Not(complex.clone())));
+		assertEquals(ConstraintAttribute.TAUTOLOGY, compare().get(constraint));
+	}
+
+	private IConstraint addConstraint(Node node) {
+		final IConstraint constraint = FMFactoryManager.getFactory(fm).createConstraint(fm, node);
+		fm.addConstraint(constraint);
+		return constraint;
+	}
+
+	private void rename(String oldName, String newName) {
+		fm.getRenamingsManager().renameFeature(oldName, newName);
+		incrementalAnalysis.propertyChange(new FeatureIDEEvent(fm, EventType.FEATURE_NAME_CHANGED, oldName, newName));
+	}
+
+	private boolean isValid(HashMap<Object, Object> result) {
+		return result.get(fm.getStructure().getRoot().getFeature()) != FeatureStatus.DEAD;
+	}
+
+	private HashMap<Object, Object> compare() {
+		final FeatureModelAnalysis analysis = new FeatureModelAnalysis(fm);
+		final HashMap<Object, Object> expected = new HashMap<>(LongRunningWrapper.runMethod(analysis));
+		final List<String> expectedCore = getNames(analysis.getCoreFeatures());
+		final List<String> expectedDead = getNames(analysis.getDeadFeatures());
+		final List<String> expectedFalseOptional = getNames(analysis.getFalseOptionalFeatures());
+		final List<String> expectedConstraints = getConstraintFeatures();
+
+		final HashMap<Object, Object> actual = LongRunningWrapper.runMethod(incrementalAnalysis);
+		for (final Entry<Object, Object> entry : expected.entrySet()) {
+			assertEquals(entry.getKey().toString(), entry.getValue(), actual.get(entry.getKey()));
+		}
+		assertEquals(expected.keySet(), actual.keySet());
+		assertEquals(analysis.isValid(), incrementalAnalysis.isValid());
+		assertEquals(expectedCore, getNames(incrementalAnalysis.getCoreFeatures()));
+		assertEquals(expectedDead, getNames(incrementalAnalysis.getDeadFeatures()));
+		assertEquals(expectedFalseOptional, getNames(incrementalAnalysis.getFalseOptionalFeatures()));
+		assertEquals(expectedConstraints, getConstraintFeatures());
+		return actual;
+	}
+
+	private static List<String> getNames(Collection<IFeature> features) {
+		return (features == null) ? null : Functional.toList(FeatureUtils.extractFeatureNames(features));
+	}
+
+	private List<String> getConstraintFeatures() {
+		final List<String> result = new ArrayList<>();
+		for (final IConstraint constraint : fm.getConstraints()) {
+			result.add(constraint.getConstraintAttribute() + " " + getNames(constraint.getDeadFeatures()) + " "
+				+ getNames(constraint.getFalseOptional()));
+		}
+		return result;
+	}
+
+}
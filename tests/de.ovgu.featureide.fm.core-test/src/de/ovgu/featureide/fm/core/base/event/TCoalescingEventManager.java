@@ -0,0 +1,139 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.base.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.base.event.FeatureIDEEvent.EventType;
+
+/**
+ * Tests for {@link CoalescingEventManager}.
+ *
+ * @author agent
+ */
+public class TCoalescingEventManager {
+
+	private static class RecordingListener implements IEventListener {
+
+		protected final List<FeatureIDEEvent> events = Collections.synchronizedList(new ArrayList<FeatureIDEEvent>());
+
+		@Override
+		public void propertyChange(FeatureIDEEvent event) {
+			events.add(event);
+		}
+	}
+
+	private static class RecordingBatchListener extends RecordingListener implements IBatchEventListener {
+
+		private final List<List<FeatureIDEEvent>> batches = Collections.synchronizedList(new ArrayList<List<FeatureIDEEvent>>());
+
+		@Override
+		public void propertyChange(List<FeatureIDEEvent> events) {
+			batches.add(new ArrayList<>(events));
+		}
+	}
+
+	@Test
+	public void testCoalescing() {
+		final CoalescingEventManager eventManager = new CoalescingEventManager();
+		eventManager.setWindow(TimeUnit.HOURS.toMillis(1));
+		final RecordingListener listener = new RecordingListener();
+		eventManager.addListener(listener);
+
+		final Object source1 = "source1";
+		final Object source2 = "source2";
+		for (int i = 0; i < 100; i++) {
+			eventManager.fireEvent(new FeatureIDEEvent(source1, EventType.STRUCTURE_CHANGED, i, i + 1));
+			eventManager.fireEvent(new FeatureIDEEvent(source1, EventType.FEATURE_ADD, null, i));
+		}
+		eventManager.fireEvent(new FeatureIDEEvent(source2, EventType.STRUCTURE_CHANGED));
+		assertTrue(listener.events.isEmpty());
+
+		eventManager.flush();
+		assertEquals(102, listener.events.size());
+		for (int i = 0; i < 99; i++) {
+			assertEquals(EventType.FEATURE_ADD, listener.events.get(i).getEventType());
+			assertEquals(i, listener.events.get(i).getNewValue());
+		}
+		// the merged event replaces the last event of its type and source
+		final FeatureIDEEvent coalescedEvent = listener.events.get(99);
+		assertEquals(EventType.STRUCTURE_CHANGED, coalescedEvent.getEventType());
+		assertEquals(source1, coalescedEvent.getSource());
+		assertEquals(0, coalescedEvent.getOldValue());
+		assertEquals(100, coalescedEvent.getNewValue());
+		assertEquals(99, listener.events.get(100).getNewValue());
+		assertEquals(source2, listener.events.get(101).getSource());
+	}
+
+	@Test
+	public void testBatchListener() {
+		final CoalescingEventManager eventManager = new CoalescingEventManager();
+		eventManager.setWindow(TimeUnit.HOURS.toMillis(1));
+		eventManager.setCoalescedEventTypes(Collections.<EventType> emptySet());
+		final RecordingBatchListener listener = new RecordingBatchListener();
+		eventManager.addListener(listener);
+
+		for (int i = 0; i < 10; i++) {
+			eventManager.fireEvent(new FeatureIDEEvent(null, EventType.MODEL_DATA_CHANGED));
+		}
+		eventManager.flush();
+		eventManager.flush();
+		assertEquals(1, listener.batches.size());
+		assertEquals(10, listener.batches.get(0).size());
+		assertTrue(listener.events.isEmpty());
+	}
+
+	@Test
+	public void testAsynchronousDispatch() throws InterruptedException {
+		final CoalescingEventManager eventManager = new CoalescingEventManager();
+		eventManager.setWindow(100);
+		final CountDownLatch latch = new CountDownLatch(1);
+		final Thread firingThread = Thread.currentThread();
+		final List<Thread> dispatchThreads = new ArrayList<>();
+		eventManager.addListener(new IEventListener() {
+
+			@Override
+			public void propertyChange(FeatureIDEEvent event) {
+				dispatchThreads.add(Thread.currentThread());
+				// registering a listener while dispatching must not block
+				eventManager.addListener(new RecordingListener());
+				latch.countDown();
+			}
+		});
+
+		eventManager.fireEvent(new FeatureIDEEvent(null, EventType.MODEL_DATA_CHANGED));
+		eventManager.fireEvent(new FeatureIDEEvent(null, EventType.MODEL_DATA_CHANGED));
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		eventManager.flush();
+		assertEquals(1, dispatchThreads.size());
+		assertTrue(dispatchThreads.get(0) != firingThread);
+	}
+
+}
@@ -0,0 +1,92 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+
+/**
+ * Tests the compiled backend of the {@link ConfigurationPropagator} against the default SAT backend.
+ *
+ * @author agent
+ */
+public class TCompiledConfiguration extends AbstractConfigurationTest {
+
+	@Override
+	IFeatureModel loadModel() {
+		return loadGUIDSL("S : [A] [B] C [D] :: _S; C : E | F | G :: _C; %% A implies not E; B implies G; D iff F;");
+	}
+
+	@Test
+	public void testNoSelection() {
+		compare();
+	}
+
+	@Test
+	public void testSelection() {
+		compare("A");
+		compare("B");
+		compare("A", "B");
+		compare("D");
+		compare("A", "D");
+	}
+
+	@Test
+	public void testNumber() {
+		final Configuration c = createCompiled();
+		assertEquals(new Configuration(fm).number(), c.number());
+		c.setManual("A", Selection.SELECTED);
+		assertEquals(3, c.number().longValue());
+	}
+
+	@Test
+	public void testValidity() {
+		final Configuration c = createCompiled();
+		assertFalse(c.isValid());
+		assertTrue(c.canBeValid());
+		c.setManual("A", Selection.SELECTED);
+		c.setManual("D", Selection.SELECTED);
+		assertTrue(c.canBeValid());
+	}
+
+	private Configuration createCompiled() {
+		return new Configuration(fm, Configuration.PARAM_PROPAGATE | Configuration.PARAM_IGNOREABSTRACT | Configuration.PARAM_COMPILED);
+	}
+
+	private void compare(String... selectedFeatures) {
+		final Configuration satConfiguration = new Configuration(fm);
+		final Configuration compiledConfiguration = createCompiled();
+		for (final String feature : selectedFeatures) {
+			satConfiguration.setManual(feature, Selection.SELECTED);
+			compiledConfiguration.setManual(feature, Selection.SELECTED);
+		}
+		for (final SelectableFeature feature : satConfiguration.getFeatures()) {
+			assertEquals(feature.getName(), feature.getSelection(), compiledConfiguration.getSelectablefeature(feature.getName()).getSelection());
+		}
+		assertEquals(satConfiguration.number(), compiledConfiguration.number());
+	}
+
+}
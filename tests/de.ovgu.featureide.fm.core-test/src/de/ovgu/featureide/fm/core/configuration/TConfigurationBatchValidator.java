@@ -0,0 +1,118 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.ConfigFormatManager;
+import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link ConfigurationBatchValidator}.
+ *
+ * @author agent
+ */
+public class TConfigurationBatchValidator extends AbstractConfigurationTest {
+
+	private static final List<String> FEATURES = Arrays.asList("A", "B", "C");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Override
+	IFeatureModel loadModel() {
+		return loadXML("<and abstract=\"true\" name=\"S\"><feature name=\"A\"/><feature name=\"B\"/><feature name=\"C\"/></and>",
+				"<rule><imp><var>A</var><var>B</var></imp></rule>");
+	}
+
+	private List<Path> writeConfigurations(String... contents) throws IOException {
+		final List<Path> paths = new ArrayList<>();
+		int i = 0;
+		for (final String content : contents) {
+			final File file = folder.newFile("config" + i++ + ".config");
+			paths.add(Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8)));
+		}
+		return paths;
+	}
+
+	private SelectionMatrix validate(List<Path> paths, List<String> features, int numberOfThreads) {
+		final ConfigurationBatchValidator validator = new ConfigurationBatchValidator(fm, paths, features);
+		validator.setNumberOfThreads(numberOfThreads);
+		return LongRunningWrapper.runMethod(validator);
+	}
+
+	@Test
+	public void testValidity() throws IOException {
+		final List<Path> paths = writeConfigurations("A\nB\n", "A\n", "C\n", "", "B\nD\n", "A\nC\n");
+		for (final int numberOfThreads : new int[] { 1, 4 }) {
+			final SelectionMatrix matrix = validate(paths, FEATURES, numberOfThreads);
+			assertEquals(paths.size(), matrix.getNumberOfConfigurations());
+			for (int row = 0; row < paths.size(); row++) {
+				final Configuration configuration = new Configuration(fm, false, false);
+				final int numberOfProblems = SimpleFileHandler.load(paths.get(row), configuration, ConfigFormatManager.getInstance()).size();
+				assertEquals(paths.get(row).toString(), configuration.isValid(), matrix.isValid(row));
+				assertEquals(numberOfProblems, matrix.getProblems(row).size());
+			}
+			assertTrue(matrix.isValid(0));
+			assertFalse(matrix.isValid(1));
+			assertFalse(matrix.isValid(5));
+			assertEquals(1, matrix.getProblems(4).size());
+		}
+	}
+
+	@Test
+	public void testSelections() throws IOException {
+		final SelectionMatrix matrix = validate(writeConfigurations("A\nB\n", "B\n", "B\nD\n"), FEATURES, 2);
+		assertTrue(matrix.isSelected(0, 0));
+		assertTrue(matrix.isSelected(0, 1));
+		assertFalse(matrix.isSelected(1, 0));
+		assertFalse(matrix.isSelected(2, 2));
+		assertEquals(Arrays.asList("C"), matrix.getUnusedFeatures());
+		assertEquals(Arrays.asList("B"), matrix.getFalseOptionalFeatures());
+	}
+
+	@Test
+	public void testNoConfigurations() {
+		final SelectionMatrix matrix = validate(Collections.<Path> emptyList(), FEATURES, 2);
+		assertEquals(0, matrix.getNumberOfConfigurations());
+		assertTrue(matrix.getUnusedFeatures().isEmpty());
+		assertTrue(matrix.getFalseOptionalFeatures().isEmpty());
+	}
+
+}
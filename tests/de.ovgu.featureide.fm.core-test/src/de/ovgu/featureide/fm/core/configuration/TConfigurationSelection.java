@@ -44,14 +44,14 @@ public class TConfigurationSelection extends AbstractConfigurationTest {
 		final Configuration c = new Configuration(fm, true);
 		c.setManual("C", Selection.SELECTED);
 		assertTrue(c.isValid());
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
 	public void testSelection2() {
 		final Configuration c = new Configuration(fm, true);
 		assertTrue(c.isValid());
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
@@ -60,7 +60,7 @@ public class TConfigurationSelection extends AbstractConfigurationTest {
 		c.setManual("A", Selection.SELECTED);
 		c.setManual("C", Selection.SELECTED);
 		assertTrue(c.isValid());
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 	}
 
 	@Test
@@ -68,7 +68,7 @@ public class TConfigurationSelection extends AbstractConfigurationTest {
 		final Configuration c = new Configuration(fm, true);
 		c.setManual("A", Selection.SELECTED);
 		assertTrue(c.isValid());
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 	}
 
 	@Test
@@ -43,14 +43,14 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 	public void testOnlyRoot() {
 		final IFeatureModel fm = loadXML("<feature mandatory=\"true\" name=\"S\"/>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 	}
 
 	@Test
 	public void testVoidOnlyRoot() {
 		final IFeatureModel fm = loadXML("<feature mandatory=\"true\" name=\"S\"/>", "<rule><not><var>S</var></not></rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(0, c.number());
+		assertEquals(0, c.number().longValue());
 	}
 
 	@Test
@@ -58,28 +58,28 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<and mandatory=\"true\" name=\"S\"><feature mandatory=\"true\" name=\"a\"/></and>", "<rule><not><var>a</var></not></rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(0, c.number());
+		assertEquals(0, c.number().longValue());
 	}
 
 	@Test
 	public void testOnlyMandatory() {
 		final IFeatureModel fm = loadXML("	<and mandatory=\"true\" name=\"S\">	<feature mandatory=\"true\" name=\"A\"/></and>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 	}
 
 	@Test
 	public void testOnlyOptional() {
 		final IFeatureModel fm = loadXML("	<and mandatory=\"true\" name=\"S\">	<feature mandatory=\"false\" name=\"A\"/></and>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
 	public void testAndGroup() {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\"><feature mandatory=\"true\" name=\"A\"/><feature name=\"B\"/></and>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
@@ -87,7 +87,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<or mandatory=\"true\" name=\"S\"><feature mandatory=\"true\" name=\"A\"/><feature mandatory=\"true\" name=\"B\"/></or>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(3, c.number());
+		assertEquals(3, c.number().longValue());
 	}
 
 	// mandatory true/false shouldnt matter in OR group
@@ -96,7 +96,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<or mandatory=\"true\" name=\"S\"><feature mandatory=\"false\" name=\"A\"/><feature mandatory=\"false\" name=\"B\"/></or>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(3, c.number());
+		assertEquals(3, c.number().longValue());
 	}
 
 	@Test
@@ -104,7 +104,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<alt mandatory=\"true\" name=\"S\"><feature mandatory=\"true\" name=\"A\"/><feature mandatory=\"true\" name=\"B\"/></alt>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
@@ -112,21 +112,21 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm = loadXML(
 				"<alt mandatory=\"true\" name=\"S\"><feature mandatory=\"true\" name=\"A\"/><feature mandatory=\"true\" name=\"B\"/><feature mandatory=\"true\" name=\"C\"/></alt>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(3, c.number());
+		assertEquals(3, c.number().longValue());
 	}
 
 	@Test
 	public void testAbstract() {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\"><feature abstract=\"true\" name=\"C\"/></and>");
 		final Configuration c = new Configuration(fm, true, true);
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
 	public void testAbstract2() {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\"><feature abstract=\"true\" name=\"C\"/></and>");
 		final Configuration c = new Configuration(fm, true, false);
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 	}
 
 	@Test
@@ -134,7 +134,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<and mandatory=\"true\" name=\"S\"><feature abstract=\"true\" name=\"A\"/><feature name=\"B\"/><feature name=\"C\"/></and>");
 		final Configuration c = new Configuration(fm, true, false);
-		assertEquals(4, c.number());
+		assertEquals(4, c.number().longValue());
 	}
 
 	@Test
@@ -142,7 +142,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<and mandatory=\"true\" name=\"S\"><feature abstract=\"true\" name=\"A\"/><feature name=\"B\"/><feature name=\"C\"/></and>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(8, c.number());
+		assertEquals(8, c.number().longValue());
 	}
 
 	// TODO: replace selection strategy for hidden features
@@ -151,7 +151,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<and mandatory=\"true\" name=\"S\"><feature mandatory=\"false\" name=\"A\"/><feature hidden=\"true\" name=\"B\"/></and>");
 		final Configuration c = new Configuration(fm);
-		final long x = c.number();
+		final long x = c.number().longValue();
 		assertEquals(2, x);
 	}
 
@@ -160,21 +160,21 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\">" + "<feature name=\"A\"/>" + "<feature hidden=\"true\" name=\"B\"/>" + "</and>",
 				"<rule>" + "<eq>" + "<var>A</var>" + "<var>B</var>" + "</eq>" + "</rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
 	public void testWithSimplePositiveConstraint() {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\"><feature name=\"A\"/></and>", "<rule><var>A</var></rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 	}
 
 	@Test
 	public void testWithSimpleNegationConstraint() {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\"><feature name=\"A\"/></and>", "<rule><not><var>A</var></not></rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 
 	}
 
@@ -183,7 +183,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm = loadXML("<and mandatory=\"true\" name=\"S\"><feature mandatory=\"true\" name=\"A\"/><feature name=\"B\"/></and>",
 				"<rule><imp><var>A</var><var>B</var></imp></rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(1, c.number());
+		assertEquals(1, c.number().longValue());
 
 	}
 
@@ -193,7 +193,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 			loadXML("<and mandatory=\"true\" name=\"S\"><feature name=\"A\"/><feature name=\"B\"/><feature name=\"C\"/><feature name=\"D\"/></and>",
 					"<rule><disj><var>A</var><imp><var>B</var><eq><var>C</var><not><var>D</var></not></eq></imp></disj></rule>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(14, c.number());
+		assertEquals(14, c.number().longValue());
 
 	}
 
@@ -202,21 +202,21 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<and name=\"S\">" + "<feature name=\"A\"/>" + "<feature mandatory=\"true\" name=\"B\"/>" + "<feature name=\"C\"/>" + "</and>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(4, c.number());
+		assertEquals(4, c.number().longValue());
 	}
 
 	@Test
 	public void testCombination2() {
 		final IFeatureModel fm = loadXML("<or name=\"S\">" + "<feature name=\"A\"/>" + "<feature name=\"B\"/>" + "<feature name=\"C\"/>" + "</or>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(7, c.number());
+		assertEquals(7, c.number().longValue());
 	}
 
 	@Test
 	public void testCombination3() {
 		final IFeatureModel fm = loadXML("<alt name=\"S\">" + "<feature name=\"A\"/>" + "<feature name=\"B\"/>" + "<feature name=\"C\"/>" + "</alt>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(3, c.number());
+		assertEquals(3, c.number().longValue());
 	}
 
 	@Test
@@ -224,7 +224,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm = loadXML("<and name=\"S\">" + "<feature name=\"A\"/>" + "<feature mandatory=\"true\" name=\"B\"/>"
 			+ "<feature abstract=\"true\" name=\"C\"/>" + "</and>");
 		final Configuration c = new Configuration(fm, true, false);
-		assertEquals(2, c.number());
+		assertEquals(2, c.number().longValue());
 	}
 
 	@Test
@@ -232,7 +232,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<or name=\"S\">" + "<feature name=\"A\"/>" + "<feature name=\"B\"/>" + "<feature abstract=\"true\" name=\"C\"/>" + "</or>");
 		final Configuration c = new Configuration(fm, true, false);
-		assertEquals(4, c.number());
+		assertEquals(4, c.number().longValue());
 	}
 
 	@Test
@@ -240,7 +240,7 @@ public class TNumberOfConfigurations extends AbstractConfigurationTest {
 		final IFeatureModel fm =
 			loadXML("<alt name=\"S\">" + "<feature name=\"A\"/>" + "<feature name=\"B\"/>" + "<feature abstract=\"true\" name=\"C\"/>" + "</alt>");
 		final Configuration c = new Configuration(fm);
-		assertEquals(3, c.number());
+		assertEquals(3, c.number().longValue());
 	}
 
 }
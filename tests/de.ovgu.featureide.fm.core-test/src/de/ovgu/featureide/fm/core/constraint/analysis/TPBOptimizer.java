@@ -0,0 +1,194 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.constraint.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelFactory;
+import de.ovgu.featureide.fm.core.base.impl.DefaultFeatureModelFactory;
+import de.ovgu.featureide.fm.core.constraint.analysis.PBOptimizer.Result;
+import de.ovgu.featureide.fm.core.constraint.analysis.PBOptimizer.Solution;
+
+/**
+ * Tests for {@link PBOptimizer}.
+ *
+ * @author agent
+ */
+public class TPBOptimizer {
+
+	private static final long TIMEOUT = 10000;
+
+	private static final List<String> NONE = Collections.emptyList();
+
+	private final IFeatureModelFactory factory = DefaultFeatureModelFactory.getInstance();
+
+	private final Map<String, Long> weights = new HashMap<>();
+
+	private IFeature addFeature(IFeatureModel featureModel, IFeature parent, String name, boolean mandatory, long weight) {
+		final IFeature feature = factory.createFeature(featureModel, name);
+		featureModel.addFeature(feature);
+		if (parent == null) {
+			featureModel.getStructure().setRoot(feature.getStructure());
+		} else {
+			parent.getStructure().addChild(feature.getStructure());
+		}
+		feature.getStructure().setMandatory(mandatory);
+		weights.put(name, weight);
+		return feature;
+	}
+
+	/**
+	 * Root (and) with A (mandatory, 5), B (optional, 3, or: B1 (2), B2 (-1)), C (optional, 0, alternative: C1 (4), C2 (1)), and D (optional, -2).
+	 */
+	private IFeatureModel createFeatureModel() {
+		final IFeatureModel featureModel = factory.createFeatureModel();
+		final IFeature root = addFeature(featureModel, null, "Root", true, 0);
+		addFeature(featureModel, root, "A", true, 5);
+		final IFeature b = addFeature(featureModel, root, "B", false, 3);
+		b.getStructure().setOr();
+		addFeature(featureModel, b, "B1", false, 2);
+		addFeature(featureModel, b, "B2", false, -1);
+		final IFeature c = addFeature(featureModel, root, "C", false, 0);
+		c.getStructure().setAlternative();
+		addFeature(featureModel, c, "C1", false, 4);
+		addFeature(featureModel, c, "C2", false, 1);
+		addFeature(featureModel, root, "D", false, -2);
+		return featureModel;
+	}
+
+	private static long getValue(Solution solution, Map<String, Long> weights) {
+		long value = 0;
+		for (final String feature : solution.getSelectedFeatures()) {
+			value += weights.get(feature);
+		}
+		return value;
+	}
+
+	@Test
+	public void testMinimize() {
+		final PBOptimizer optimizer = new PBOptimizer(createFeatureModel());
+		final Result result = optimizer.minimize(weights, NONE, NONE, 3, TIMEOUT);
+
+		assertTrue(result.isOptimal());
+		assertFalse(result.isTimeoutReached());
+		assertEquals(3, result.getBound());
+		assertEquals(3, result.getSolutions().size());
+		final long[] expectedValues = { 3, 4, 5 };
+		for (int i = 0; i < expectedValues.length; i++) {
+			final Solution solution = result.getSolutions().get(i);
+			assertTrue(solution.isOptimal());
+			assertEquals(expectedValues[i], solution.getValue());
+			assertEquals(expectedValues[i], getValue(solution, weights));
+		}
+	}
+
+	@Test
+	public void testRepeatedCalls() {
+		final PBOptimizer optimizer = new PBOptimizer(createFeatureModel());
+		for (int i = 0; i < 3; i++) {
+			final Result minimum = optimizer.minimize(weights, NONE, NONE, 3, TIMEOUT);
+			assertTrue(minimum.isOptimal());
+			assertEquals(3, minimum.getBound());
+			assertEquals(3, minimum.getSolutions().size());
+			assertEquals(5, minimum.getSolutions().get(2).getValue());
+
+			final Result maximum = optimizer.maximize(weights, NONE, NONE, 1, TIMEOUT);
+			assertTrue(maximum.isOptimal());
+			assertEquals(14, maximum.getBound());
+		}
+	}
+
+	@Test
+	public void testMaximizeWithConstraint() {
+		final IFeatureModel featureModel = createFeatureModel();
+		featureModel.addConstraint(factory.createConstraint(featureModel, new Implies(new Literal("C1"), new Literal("D"))));
+		final PBOptimizer optimizer = new PBOptimizer(featureModel);
+		final Result result = optimizer.maximize(weights, NONE, NONE, 1, TIMEOUT);
+
+		assertTrue(result.isOptimal());
+		assertEquals(12, result.getBound());
+		assertEquals(1, result.getSolutions().size());
+		assertEquals(12, result.getSolutions().get(0).getValue());
+		assertEquals(Arrays.asList("A", "B", "B1", "C", "C1", "D", "Root"), sorted(result.getSolutions().get(0).getSelectedFeatures()));
+	}
+
+	@Test
+	public void testPartialConfiguration() {
+		final PBOptimizer optimizer = new PBOptimizer(createFeatureModel());
+		final Result result = optimizer.minimize(weights, Arrays.asList("B2"), Arrays.asList("D"), 1, TIMEOUT);
+
+		assertTrue(result.isOptimal());
+		assertEquals(7, result.getSolutions().get(0).getValue());
+
+		// the optimizer does not keep assumptions or solutions of previous calls
+		assertEquals(3, optimizer.minimize(weights, NONE, NONE, 1, TIMEOUT).getBound());
+	}
+
+	@Test
+	public void testUnsatisfiable() {
+		final PBOptimizer optimizer = new PBOptimizer(createFeatureModel());
+		final Result result = optimizer.minimize(weights, Arrays.asList("C1", "C2"), NONE, 1, TIMEOUT);
+
+		assertFalse(result.isSatisfiable());
+		assertFalse(result.isTimeoutReached());
+	}
+
+	@Test
+	public void testTimeout() {
+		final PBOptimizer optimizer = new PBOptimizer(createFeatureModel());
+		final Result result = optimizer.minimize(weights, NONE, NONE, 1, 0);
+
+		assertFalse(result.isSatisfiable());
+		assertTrue(result.isTimeoutReached());
+	}
+
+	@Test
+	public void testIsCompatible() {
+		final IFeatureModel featureModel = createFeatureModel();
+		final PBOptimizer optimizer = new PBOptimizer(featureModel);
+		assertTrue(optimizer.isCompatible());
+
+		featureModel.getFeature("D").getStructure().setMandatory(true);
+		assertFalse(optimizer.isCompatible());
+	}
+
+	private static List<String> sorted(List<String> list) {
+		final List<String> sortedList = new ArrayList<>(list);
+		Collections.sort(sortedList);
+		return sortedList;
+	}
+
+}
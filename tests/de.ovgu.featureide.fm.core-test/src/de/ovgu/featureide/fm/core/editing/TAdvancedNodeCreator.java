@@ -0,0 +1,109 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.prop4j.Node;
+
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.ModelType;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.RemoverType;
+import de.ovgu.featureide.fm.core.io.guidsl.GuidslFormat;
+
+/**
+ * Tests that {@link AdvancedNodeCreator} removes features with each {@link RemoverType}.
+ *
+ * @author agent
+ */
+public class TAdvancedNodeCreator {
+
+	private static final List<String> REMOVED_FEATURES = Arrays.asList("C", "F", "H");
+
+	private IFeatureModel fm;
+
+	@Before
+	public void setModel() throws Exception {
+		final GuidslFormat format = new GuidslFormat();
+		fm = FMFactoryManager.getDefaultFactoryForFormat(format).createFeatureModel();
+		if (format.read(fm, "S : [A] [B] C [D] [H] :: _S; C : E | F | G :: _C; %% A implies F; B implies not G; D iff F or H;").containsError()) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testDefaultRemoverType() {
+		assertEquals(RemoverType.Elimination, new AdvancedNodeCreator(fm).getRemoverType());
+	}
+
+	@Test
+	public void testMinimumClauseRemover() {
+		testRemoverType(RemoverType.MinimumClause);
+	}
+
+	@Test
+	public void testEliminationRemover() {
+		testRemoverType(RemoverType.Elimination);
+	}
+
+	private void testRemoverType(RemoverType removerType) {
+		final Node cnf = AdvancedNodeCreator.createRegularCNF(fm);
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(fm, REMOVED_FEATURES, CNFType.Regular, ModelType.All, false);
+		nodeCreator.setRemoverType(removerType);
+		final Node slicedCnf = nodeCreator.createNodes();
+		final List<String> keptFeatures = new ArrayList<>(FeatureUtils.getFeatureNames(fm));
+		keptFeatures.removeAll(REMOVED_FEATURES);
+
+		for (final String feature : REMOVED_FEATURES) {
+			assertFalse(slicedCnf.getContainedFeatures().contains(feature));
+		}
+
+		// each assignment of the kept features must satisfy the sliced formula iff it can be extended to an assignment satisfying the original formula
+		final Map<Object, Boolean> assignment = new HashMap<>();
+		for (int kept = 0; kept < (1 << keptFeatures.size()); kept++) {
+			for (int i = 0; i < keptFeatures.size(); i++) {
+				assignment.put(keptFeatures.get(i), ((kept >> i) & 1) != 0);
+			}
+			boolean expected = false;
+			for (int removed = 0; !expected && (removed < (1 << REMOVED_FEATURES.size())); removed++) {
+				for (int i = 0; i < REMOVED_FEATURES.size(); i++) {
+					assignment.put(REMOVED_FEATURES.get(i), ((removed >> i) & 1) != 0);
+				}
+				expected = cnf.getValue(assignment);
+			}
+			assertEquals(assignment.toString(), expected, slicedCnf.getValue(assignment));
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+
+import de.ovgu.featureide.fm.core.editing.remove.DeprecatedFeature;
+import de.ovgu.featureide.fm.core.editing.remove.EliminationCostHeuristic;
+import de.ovgu.featureide.fm.core.editing.remove.EliminationFeatureRemover;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link EliminationFeatureRemover}.
+ *
+ * @author agent
+ */
+public class TEliminationFeatureRemover {
+
+	private static final int NUMBER_OF_VARIABLES = 10;
+
+	@Test
+	public void testChain() {
+		final Node cnf = new And(new Or(new Literal("A", false), new Literal("B")), new Or(new Literal("B", false), new Literal("C")),
+				new Or(new Literal("C", false), new Literal("D")));
+		final Node slicedCnf = slice(cnf, Arrays.asList("B", "C"));
+		assertEquals(1, slicedCnf.getChildren().length);
+		assertEquals(new Or(new Literal("A", false), new Literal("D")), slicedCnf.getChildren()[0]);
+	}
+
+	@Test
+	public void testRedundantResolvents() {
+		final Node cnf = new And(new Or(new Literal("A", false), new Literal("B")), new Or(new Literal("B", false), new Literal("C")),
+				new Or(new Literal("A", false), new Literal("C")));
+		final Node slicedCnf = slice(cnf, Arrays.asList("B"));
+		assertEquals(1, slicedCnf.getChildren().length);
+		assertEquals(new Or(new Literal("A", false), new Literal("C")), slicedCnf.getChildren()[0]);
+	}
+
+	@Test
+	public void testRandomFormulas() {
+		final Random random = new Random(0);
+		final List<String> dirtyFeatures = new ArrayList<>();
+		for (int i = 0; i < (NUMBER_OF_VARIABLES / 2); i++) {
+			dirtyFeatures.add("V" + i);
+		}
+		for (int i = 0; i < 100; i++) {
+			final Node[] clauses = new Node[10 + random.nextInt(20)];
+			for (int j = 0; j < clauses.length; j++) {
+				final Node[] literals = new Node[1 + random.nextInt(3)];
+				for (int k = 0; k < literals.length; k++) {
+					// each variable must occur in the formula
+					final int variable = ((k == 0) && (j < NUMBER_OF_VARIABLES)) ? j : random.nextInt(NUMBER_OF_VARIABLES);
+					literals[k] = new Literal("V" + variable, random.nextBoolean());
+				}
+				clauses[j] = new Or(literals);
+			}
+			final Node cnf = new And(clauses);
+			testProjection(cnf, slice(cnf, dirtyFeatures), dirtyFeatures.size());
+		}
+	}
+
+	@Test
+	public void testHeuristic() {
+		final DeprecatedFeature[] map = new DeprecatedFeature[4];
+		for (int i = 1; i < map.length; i++) {
+			map[i] = new DeprecatedFeature("V" + i, i);
+		}
+		for (int i = 0; i < 3; i++) {
+			map[1].incPositive();
+			map[1].incNegative();
+		}
+		map[2].incPositive();
+		map[2].incPositive();
+		map[3].incPositive();
+		map[3].incNegative();
+
+		final EliminationCostHeuristic heuristic = new EliminationCostHeuristic(map, 3);
+		map[2].incNegative();
+		map[2].incNegative();
+		map[2].incNegative();
+		heuristic.update(map[2]);
+		assertEquals("V3", heuristic.next().getFeature());
+		assertEquals("V2", heuristic.next().getFeature());
+		assertEquals("V1", heuristic.next().getFeature());
+		assertEquals(false, heuristic.hasNext());
+	}
+
+	private static Node slice(Node cnf, List<String> dirtyFeatures) {
+		final EliminationFeatureRemover remover = new EliminationFeatureRemover(cnf, dirtyFeatures, false, true);
+		return remover.createNewClauseList(LongRunningWrapper.runMethod(remover));
+	}
+
+	/**
+	 * Checks that each assignment of the remaining variables satisfies the sliced formula iff it can be extended to an assignment satisfying the original
+	 * formula.
+	 */
+	private static void testProjection(Node cnf, Node slicedCnf, int numberOfDirtyVariables) {
+		final Map<Object, Boolean> assignment = new HashMap<>();
+		for (int clean = 0; clean < (1 << (NUMBER_OF_VARIABLES - numberOfDirtyVariables)); clean++) {
+			for (int i = numberOfDirtyVariables; i < NUMBER_OF_VARIABLES; i++) {
+				assignment.put("V" + i, ((clean >> (i - numberOfDirtyVariables)) & 1) != 0);
+			}
+			boolean expected = false;
+			for (int dirty = 0; !expected && (dirty < (1 << numberOfDirtyVariables)); dirty++) {
+				for (int i = 0; i < numberOfDirtyVariables; i++) {
+					assignment.put("V" + i, ((dirty >> i) & 1) != 0);
+				}
+				expected = cnf.getValue(assignment);
+			}
+			assertEquals(cnf + " / " + slicedCnf, expected, slicedCnf.getValue(assignment));
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.editing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.FMFactoryManager;
+import de.ovgu.featureide.fm.core.io.guidsl.GuidslFormat;
+
+/**
+ * Tests for {@link FeatureModelFormulaCache}.
+ *
+ * @author agent
+ */
+public class TFeatureModelFormulaCache {
+
+	private IFeatureModel fm;
+
+	@Before
+	public void setModel() throws Exception {
+		final GuidslFormat format = new GuidslFormat();
+		fm = FMFactoryManager.getDefaultFactoryForFormat(format).createFeatureModel();
+		if (format.read(fm, "S : [A] [B] C :: _S; C : E | F :: _C; %% A implies C; B implies not A;").containsError()) {
+			fail();
+		}
+	}
+
+	@Test
+	public void testUnchanged() {
+		final FeatureModelFormula formula = getFormula();
+		assertSame(formula, getFormula());
+		assertEquals(2, formula.getConstraintCNFs().size());
+		assertEquals(formula.getVariables().size(), formula.getSatInstance().getNumberOfVariables());
+	}
+
+	@Test
+	public void testConstraintChanges() {
+		final FeatureModelFormula formula1 = getFormula();
+		fm.addConstraint(FMFactoryManager.getFactory(fm).createConstraint(fm, new Implies(new Literal("E"), new Literal("B"))));
+		final FeatureModelFormula formula2 = getFormula();
+		assertNotSame(formula1, formula2);
+		assertTrue(formula2.getVersion() > formula1.getVersion());
+		assertSame(formula1.getStructureCNF(), formula2.getStructureCNF());
+		assertSame(formula1.getConstraintCNF(0), formula2.getConstraintCNF(0));
+		assertSame(formula1.getConstraintCNF(1), formula2.getConstraintCNF(1));
+		assertEquals(3, formula2.getConstraintCNFs().size());
+
+		fm.removeConstraint(0);
+		final FeatureModelFormula formula3 = getFormula();
+		assertSame(formula2.getConstraintCNF(1), formula3.getConstraintCNF(0));
+		assertEquals(2, formula3.getConstraintCNFs().size());
+	}
+
+	@Test
+	public void testStructureChanges() {
+		final FeatureModelFormula formula1 = getFormula();
+		fm.getFeature("A").getStructure().setMandatory(true);
+		final FeatureModelFormula formula2 = getFormula();
+		assertNotSame(formula1.getStructureCNF(), formula2.getStructureCNF());
+		assertSame(formula1.getConstraintCNF(0), formula2.getConstraintCNF(0));
+	}
+
+	@Test
+	public void testRenaming() {
+		final FeatureModelFormula formula1 = getFormula();
+		fm.getRenamingsManager().renameFeature("A", "X");
+		final FeatureModelFormula formula2 = getFormula();
+		assertTrue(formula1.getVariables().contains("A"));
+		assertFalse(formula2.getVariables().contains("A"));
+		assertTrue(formula2.getVariables().contains("X"));
+		assertTrue(formula2.getConstraintCNF(0).getContainedFeatures().contains("X"));
+		assertTrue(formula1.getConstraintCNF(0).getContainedFeatures().contains("A"));
+	}
+
+	@Test
+	public void testTautology() {
+		assertTrue(FeatureModelFormula.isTautology(new Implies(new Literal("A"), new Literal("A")).toRegularCNF()));
+		assertFalse(FeatureModelFormula.isTautology(new Implies(new Literal("A"), new Literal("B")).toRegularCNF()));
+		assertFalse(FeatureModelFormula.isTautology(getFormula().getConstraintCNF(1)));
+	}
+
+	private FeatureModelFormula getFormula() {
+		return FeatureModelFormulaCache.getInstance().getFormula(fm);
+	}
+
+}
@@ -0,0 +1,188 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.prop4j.And;
+import org.prop4j.Or;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.conf.AFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.IFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.MappedFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.MatrixFeatureGraph;
+import de.ovgu.featureide.fm.core.conf.SparseFeatureGraph;
+
+/**
+ * Tests the sparse feature graph and the binary format of {@link FeatureGraphFormat}.
+ *
+ * @author agent
+ */
+public class TFeatureGraphFormat {
+
+	private static final byte[] EDGE_TYPES = { AFeatureGraph.EDGE_NONE, AFeatureGraph.EDGE_00Q, AFeatureGraph.EDGE_00, AFeatureGraph.EDGE_01Q,
+		AFeatureGraph.EDGE_01, AFeatureGraph.EDGE_10Q, AFeatureGraph.EDGE_10, AFeatureGraph.EDGE_11Q, AFeatureGraph.EDGE_11 };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSparseGraph() {
+		final SatInstance satInstance = createSatInstance(40);
+		final int[] index = createIndex(satInstance.getNumberOfVariables());
+		final MatrixFeatureGraph matrixGraph = new MatrixFeatureGraph(satInstance, index);
+		final SparseFeatureGraph sparseGraph = new SparseFeatureGraph(satInstance, index);
+		assertEquals(matrixGraph.getSize(), sparseGraph.getSize());
+		final Random random = new Random(0);
+		for (int k = 0; k < 5000; k++) {
+			final int from = random.nextInt(matrixGraph.getSize());
+			final int to = random.nextInt(matrixGraph.getSize());
+			final byte edgeType = getRandomEdgeType(random, matrixGraph.getEdge(from, to));
+			assertEquals(matrixGraph.setEdge(from, to, edgeType), sparseGraph.setEdge(from, to, edgeType));
+		}
+		assertEqualGraphs(matrixGraph, sparseGraph);
+		sparseGraph.trimToSize();
+		assertEqualGraphs(matrixGraph, sparseGraph);
+		assertEqualGraphs(matrixGraph, new SparseFeatureGraph(matrixGraph));
+		assertEqualGraphs(matrixGraph, new SparseFeatureGraph(sparseGraph));
+	}
+
+	@Test
+	public void testBinaryFormat() throws IOException, ClassNotFoundException {
+		final SatInstance satInstance = createSatInstance(30);
+		final MatrixFeatureGraph matrixGraph = new MatrixFeatureGraph(satInstance, createIndex(satInstance.getNumberOfVariables()));
+		final Random random = new Random(1);
+		for (int k = 0; k < 300; k++) {
+			final int from = random.nextInt(matrixGraph.getSize());
+			final int to = random.nextInt(matrixGraph.getSize());
+			matrixGraph.setEdge(from, to, getRandomEdgeType(random, matrixGraph.getEdge(from, to)));
+		}
+
+		final Path path = folder.newFile("model.fg").toPath();
+		FeatureGraphFormat.save(path, matrixGraph);
+		final MappedFeatureGraph mappedGraph = FeatureGraphFormat.load(path);
+		assertEqualGraphs(matrixGraph, mappedGraph);
+		for (int i = 0; i < satInstance.getNumberOfVariables(); i++) {
+			final String name = (String) satInstance.getVariableObject(i + 1);
+			assertEquals(matrixGraph.getFeatureIndex(name), mappedGraph.getFeatureIndex(name));
+			for (int j = 0; j < satInstance.getNumberOfVariables(); j++) {
+				assertEquals(matrixGraph.getValueInternal(i, j, true), mappedGraph.getValueInternal(i, j, true));
+				assertEquals(matrixGraph.getValueInternal(i, j, false), mappedGraph.getValueInternal(i, j, false));
+			}
+		}
+
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOutputStream)) {
+			out.writeObject(mappedGraph);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))) {
+			final Object serializedGraph = in.readObject();
+			assertTrue(serializedGraph instanceof SparseFeatureGraph);
+			assertEqualGraphs(matrixGraph, (IFeatureGraph) serializedGraph);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongFormat() throws IOException {
+		final Path path = folder.newFile("model.fg").toPath();
+		Files.write(path, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24 });
+		FeatureGraphFormat.load(path);
+	}
+
+	@Test(expected = IOException.class)
+	public void testEdgeCountOverflow() throws IOException {
+		final Path path = folder.newFile("model.fg").toPath();
+		final ByteBuffer buffer = ByteBuffer.allocate(24);
+		buffer.putInt(FeatureGraphFormat.MAGIC_NUMBER).putInt(FeatureGraphFormat.VERSION).putInt(0).putInt(0).putInt(Integer.MAX_VALUE).putInt(0);
+		Files.write(path, buffer.array());
+		FeatureGraphFormat.load(path);
+	}
+
+	private static void assertEqualGraphs(IFeatureGraph expected, IFeatureGraph actual) {
+		assertEquals(expected.getSize(), actual.getSize());
+		assertArrayEquals(expected.getIndex(), actual.getIndex());
+		for (int i = 0; i < expected.getSize(); i++) {
+			for (int j = 0; j < expected.getSize(); j++) {
+				assertEquals(expected.getEdge(i, j), actual.getEdge(i, j));
+				assertEquals(expected.getValue(i, j, true), actual.getValue(i, j, true));
+				assertEquals(expected.getValue(i, j, false), actual.getValue(i, j, false));
+			}
+		}
+	}
+
+	private static byte getRandomEdgeType(Random random, byte oldValue) {
+		while (true) {
+			final byte edgeType = EDGE_TYPES[random.nextInt(EDGE_TYPES.length)];
+			if (((edgeType == AFeatureGraph.EDGE_NONE) && (random.nextInt(10) != 0))
+				|| ((edgeType == AFeatureGraph.EDGE_00) && AFeatureGraph.isEdge(oldValue, AFeatureGraph.EDGE_01))
+				|| ((edgeType == AFeatureGraph.EDGE_01) && AFeatureGraph.isEdge(oldValue, AFeatureGraph.EDGE_00))
+				|| ((edgeType == AFeatureGraph.EDGE_10) && AFeatureGraph.isEdge(oldValue, AFeatureGraph.EDGE_11))
+				|| ((edgeType == AFeatureGraph.EDGE_11) && AFeatureGraph.isEdge(oldValue, AFeatureGraph.EDGE_10))) {
+				continue;
+			}
+			return edgeType;
+		}
+	}
+
+	private static SatInstance createSatInstance(int numberOfVariables) {
+		final List<String> variables = new ArrayList<>();
+		for (int i = 0; i < numberOfVariables; i++) {
+			variables.add("F" + i);
+		}
+		return new SatInstance(new And(new Or(variables.get(0), variables.get(1))), variables);
+	}
+
+	/**
+	 * Marks every fifth variable as core or dead.
+	 */
+	private static int[] createIndex(int numberOfVariables) {
+		final int[] index = new int[numberOfVariables];
+		int count = 0;
+		for (int i = 0; i < numberOfVariables; i++) {
+			if ((i % 5) == 4) {
+				index[i] = ((i % 10) == 4) ? -1 : -2;
+				count++;
+			} else {
+				index[i] = i - count;
+			}
+		}
+		return index;
+	}
+
+}
@@ -0,0 +1,118 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package de.ovgu.featureide.fm.core.job;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.SatSolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.base.IConstraint;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.IFeatureModelFactory;
+import de.ovgu.featureide.fm.core.base.impl.DefaultFeatureModelFactory;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests for {@link SliceFeatureModelJob}.
+ *
+ * @author agent
+ */
+public class TSliceFeatureModelJob {
+
+	private final IFeatureModelFactory factory = DefaultFeatureModelFactory.getInstance();
+
+	/**
+	 * Root (and) with the optional features A to I and a constraint whose distributed CNF has 81 clauses, such that it is Tseitin-encoded.
+	 */
+	private IFeatureModel createFeatureModel() {
+		final IFeatureModel featureModel = factory.createFeatureModel();
+		final IFeature root = factory.createFeature(featureModel, "Root");
+		featureModel.addFeature(root);
+		featureModel.getStructure().setRoot(root.getStructure());
+		for (char name = 'A'; name <= 'I'; name++) {
+			final IFeature feature = factory.createFeature(featureModel, String.valueOf(name));
+			featureModel.addFeature(feature);
+			root.getStructure().addChild(feature.getStructure());
+			feature.getStructure().setMandatory(false);
+		}
+		final Node constraint = new Or(new And(new Literal("A"), new Literal("B"), new Literal("C")),
+				new And(new Literal("D"), new Literal("E"), new Literal("F")), new And(new Literal("G"), new Literal("H"), new Literal("I")),
+				new And(new Literal("A", false), new Literal("D", false), new Literal("G", false)));
+		featureModel.addConstraint(factory.createConstraint(featureModel, constraint));
+		return featureModel;
+	}
+
+	private IFeatureModel slice(IFeatureModel featureModel, Collection<String> featureNames) {
+		final SliceFeatureModelJob job = new SliceFeatureModelJob(new SliceFeatureModelJob.Arguments(null, featureModel, featureNames, false));
+		return job.sliceModel(featureModel, featureNames, new NullMonitor());
+	}
+
+	private static void assertOnlyFeatures(IFeatureModel slicedModel) {
+		for (final IConstraint constraint : slicedModel.getConstraints()) {
+			for (final Object variable : constraint.getNode().getContainedFeatures()) {
+				assertTrue(variable.toString(), (variable instanceof String) && (slicedModel.getFeature((String) variable) != null));
+			}
+		}
+	}
+
+	private static boolean isSatisfiable(IFeatureModel featureModel, Literal... assumptions) throws TimeoutException {
+		return new SatSolver(AdvancedNodeCreator.createRegularCNF(featureModel), 1000).isSatisfiable(assumptions);
+	}
+
+	@Test
+	public void testKeepAllFeatures() throws TimeoutException {
+		final IFeatureModel featureModel = createFeatureModel();
+		final List<String> featureNames = new ArrayList<>();
+		for (final IFeature feature : featureModel.getFeatures()) {
+			featureNames.add(feature.getName());
+		}
+		final IFeatureModel slicedModel = slice(featureModel, featureNames);
+
+		assertOnlyFeatures(slicedModel);
+		assertTrue(isSatisfiable(slicedModel, new Literal("A", false), new Literal("D", false), new Literal("G", false)));
+		assertTrue(!isSatisfiable(slicedModel, new Literal("A"), new Literal("D"), new Literal("G"), new Literal("B", false), new Literal("E", false),
+				new Literal("H", false)));
+	}
+
+	@Test
+	public void testRemoveFeature() throws TimeoutException {
+		final IFeatureModel featureModel = createFeatureModel();
+		final IFeatureModel slicedModel = slice(featureModel, Arrays.asList("Root", "A", "B", "C", "D", "E", "F", "G", "H"));
+
+		assertOnlyFeatures(slicedModel);
+		assertTrue(!isSatisfiable(slicedModel, new Literal("A"), new Literal("D"), new Literal("B", false), new Literal("E", false),
+				new Literal("H", false)));
+	}
+
+}
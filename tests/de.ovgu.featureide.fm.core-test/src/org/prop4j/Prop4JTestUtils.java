@@ -0,0 +1,136 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.prop4j.solver.ClauseStore;
+import org.prop4j.solver.SatInstance;
+
+/**
+ * Shared fixtures for tests of the propositional formulas, solvers and analyses.
+ *
+ * @author agent
+ */
+public final class Prop4JTestUtils {
+
+	private Prop4JTestUtils() {}
+
+	/**
+	 * Creates a random formula in conjunctive normal form.
+	 *
+	 * @param random the source of randomness
+	 * @param variables the variables to draw the literals from
+	 * @param numberOfClauses the number of clauses
+	 * @param minClauseLength the minimal number of literals per clause
+	 * @param maxClauseLength the maximal number of literals per clause
+	 * @return a conjunction of disjunctions of literals
+	 */
+	public static Node createRandomClauses(Random random, List<?> variables, int numberOfClauses, int minClauseLength, int maxClauseLength) {
+		final Node[] clauses = new Node[numberOfClauses];
+		for (int i = 0; i < numberOfClauses; i++) {
+			final int length = minClauseLength == maxClauseLength ? minClauseLength : minClauseLength + random.nextInt((maxClauseLength - minClauseLength) + 1);
+			final Node[] literals = new Node[length];
+			for (int j = 0; j < literals.length; j++) {
+				literals[j] = new Literal(variables.get(random.nextInt(variables.size())), random.nextBoolean());
+			}
+			clauses[i] = new Or(literals);
+		}
+		return new And(clauses);
+	}
+
+	/**
+	 * Creates a random formula of arbitrary structure, using all kinds of connectives.
+	 *
+	 * @param random the source of randomness
+	 * @param variables the variables to draw the literals from
+	 * @param depth the maximal nesting depth
+	 * @return the formula
+	 */
+	public static Node createRandomFormula(Random random, List<?> variables, int depth) {
+		if (depth == 0) {
+			return new Literal(variables.get(random.nextInt(variables.size())), random.nextBoolean());
+		}
+		final Node[] children = new Node[2 + random.nextInt(2)];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = createRandomFormula(random, variables, random.nextInt(depth));
+		}
+		switch (random.nextInt(8)) {
+		case 0:
+			return new And(children);
+		case 1:
+			return new Or(children);
+		case 2:
+			return new Not(children[0]);
+		case 3:
+			return new Implies(children[0], children[1]);
+		case 4:
+			return new Equals(children[0], children[1]);
+		case 5:
+			return new AtMost(random.nextInt(children.length + 1), children);
+		case 6:
+			return new AtLeast(random.nextInt(children.length + 1), children);
+		default:
+			return new Choose(random.nextInt(children.length + 1), children);
+		}
+	}
+
+	/**
+	 * Enumerates all solutions of the given instance by brute force. Only suitable for small numbers of variables.
+	 *
+	 * @param satInstance the instance
+	 * @return all satisfying assignments, each containing one literal per variable
+	 */
+	public static List<int[]> getAllSolutions(SatInstance satInstance) {
+		final ClauseStore clauses = satInstance.getClauses();
+		final int n = satInstance.getNumberOfVariables();
+		final List<int[]> solutions = new ArrayList<>();
+		assignmentLoop: for (int assignment = 0; assignment < (1 << n); assignment++) {
+			final int[] model = new int[n];
+			for (int i = 0; i < n; i++) {
+				model[i] = ((assignment >>> i) & 1) == 1 ? i + 1 : -(i + 1);
+			}
+			clauseLoop: for (int i = 0; i < clauses.size(); i++) {
+				for (final int literal : clauses.getClause(i)) {
+					if (model[Math.abs(literal) - 1] == literal) {
+						continue clauseLoop;
+					}
+				}
+				continue assignmentLoop;
+			}
+			solutions.add(model);
+		}
+		return solutions;
+	}
+
+	public static boolean containsModel(List<int[]> models, int[] configuration) {
+		for (final int[] model : models) {
+			if (Arrays.equals(model, configuration)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
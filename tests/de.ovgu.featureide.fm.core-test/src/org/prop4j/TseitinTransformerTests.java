@@ -0,0 +1,152 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.prop4j.Prop4JTestUtils.createRandomFormula;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.solver.ModelCounter;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Tests for {@link TseitinTransformer}.
+ *
+ * @author agent
+ */
+public class TseitinTransformerTests {
+
+	private static final List<String> VARIABLES = Arrays.asList("A", "B", "C", "D", "E", "F");
+
+	@Test
+	public void testEstimate() {
+		assertEquals(7, TseitinTransformer.estimateClauses(new Choose(1, "A", "B", "C", "D"), true));
+		assertEquals(7, new Choose(1, "A", "B", "C", "D").toRegularCNF().getChildren().length);
+		assertEquals(4, TseitinTransformer.estimateClauses(new Or(new And("A", "B"), new And("C", "D")), true));
+		assertEquals(2, TseitinTransformer.estimateClauses(new Or(new And("A", "B"), new And("C", "D")), false));
+		assertEquals(Integer.MAX_VALUE, TseitinTransformer.estimateClauses(new Choose(1, new And("A", "B"), "C"), true));
+	}
+
+	@Test
+	public void testSmallFormula() {
+		final Node formula = new Implies(new And("A", "B"), new Or("C", "D"));
+		final String formulaString = formula.toString();
+		final Node cnf = TseitinTransformer.toRegularCNF(formula);
+		assertEquals(formula.clone().toRegularCNF().toString(), cnf.toString());
+		assertEquals(formulaString, formula.toString());
+	}
+
+	@Test
+	public void testLargeFormula() throws TimeoutException {
+		final Object[] variables = new Object[40];
+		for (int i = 0; i < variables.length; i++) {
+			variables[i] = "V" + i;
+		}
+		final Node formula = new Equals(new Choose(2, variables), new Or(new And("V0", "V1"), new And("V2", "V3"), new And("V4", "V5")));
+		final Node cnf = TseitinTransformer.toRegularCNF(formula);
+		assertTrue(cnf.getChildren().length < 10000);
+
+		final SatInstance satInstance = new SatInstance(cnf, Arrays.asList(variables));
+		final ModelCounter modelCounter = new ModelCounter(satInstance);
+		assertEquals(BigInteger.ONE, modelCounter.countSolutions(getAssignment(satInstance, variables, "V0", "V1")));
+		assertEquals(BigInteger.ZERO, modelCounter.countSolutions(getAssignment(satInstance, variables, "V0", "V2")));
+		assertEquals(BigInteger.ONE, modelCounter.countSolutions(getAssignment(satInstance, variables, "V0")));
+		assertEquals(BigInteger.ZERO, modelCounter.countSolutions(getAssignment(satInstance, variables, "V2", "V3", "V4")));
+	}
+
+	@Test
+	public void testAuxiliaryVariables() {
+		final Node cnf = transform(new Or(new And("A", "B"), new And("C", "D")));
+		final SatInstance satInstance = new SatInstance(cnf, VARIABLES);
+		assertEquals(VARIABLES.size() + 2, satInstance.getNumberOfVariables());
+		assertFalse(satInstance.isAuxiliary(satInstance.getVariable("A")));
+		assertTrue(satInstance.isAuxiliary(VARIABLES.size() + 1));
+
+		final int[] model = new int[satInstance.getNumberOfVariables()];
+		for (int i = 0; i < model.length; i++) {
+			model[i] = i + 1;
+		}
+		assertEquals(VARIABLES, satInstance.convertToString(model));
+		assertEquals(VARIABLES.size(), satInstance.convertToLiterals(model).size());
+	}
+
+	@Test
+	public void testComplexFormulas() throws TimeoutException {
+		testFormula(new Equals(new Or("A", new And("B", "C")), new Implies("D", new Not("E"))));
+		testFormula(new Not(new Equals(new Equals("A", "B"), new Equals(new Not("B"), "C"))));
+		testFormula(new And(new Choose(2, "A", "B", "C", "D"), new Or(new AtMost(1, "A", "E", "F"), new AtLeast(2, "B", "C", "F"))));
+		testFormula(new Or(new Not(new Choose(0, "A", "B")), new Choose(3, "C", "D", "E"), new And("A", new Not("A"))));
+		testFormula(new Implies(new AtLeast(3, "A", new Or("B", "C"), new Equals("D", "E"), "F"), new AtMost(0, "A", "B")));
+		testFormula(new And(new Or("A", "B"), new Not(new Or("A", "B"))));
+	}
+
+	@Test
+	public void testRandomFormulas() throws TimeoutException {
+		final Random random = new Random(0);
+		for (int i = 0; i < 100; i++) {
+			testFormula(createRandomFormula(random, VARIABLES, 3));
+		}
+	}
+
+	/**
+	 * Checks that the Tseitin transformation of the formula has exactly one solution for each solution of the formula.
+	 */
+	private static void testFormula(Node formula) throws TimeoutException {
+		final SatInstance expected = new SatInstance(formula.clone().toRegularCNF(), VARIABLES);
+		final SatInstance actual = new SatInstance(transform(formula), VARIABLES);
+		final ModelCounter expectedCounter = new ModelCounter(expected);
+		final ModelCounter actualCounter = new ModelCounter(actual);
+		assertEquals(formula.toString(), expectedCounter.countSolutions(), actualCounter.countSolutions());
+
+		final int[] assignment = new int[VARIABLES.size()];
+		for (int bits = 0; bits < (1 << assignment.length); bits++) {
+			for (int i = 0; i < assignment.length; i++) {
+				assignment[i] = ((bits & (1 << i)) != 0) ? i + 1 : -(i + 1);
+			}
+			assertEquals(formula.toString(), expectedCounter.countSolutions(assignment), actualCounter.countSolutions(assignment));
+		}
+	}
+
+	private static Node transform(Node formula) {
+		final TseitinTransformer transformer = new TseitinTransformer();
+		transformer.setMaxDistributedClauses(-1);
+		return transformer.transform(formula);
+	}
+
+	private static int[] getAssignment(SatInstance satInstance, Object[] variables, String... selectedVariables) {
+		final List<String> selected = Arrays.asList(selectedVariables);
+		final int[] assignment = new int[variables.length];
+		for (int i = 0; i < variables.length; i++) {
+			final int variable = satInstance.getVariable(variables[i]);
+			assignment[i] = selected.contains(variables[i]) ? variable : -variable;
+		}
+		return assignment;
+	}
+
+}
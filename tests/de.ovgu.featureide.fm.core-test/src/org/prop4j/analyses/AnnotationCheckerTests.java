@@ -0,0 +1,131 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Equals;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.analyses.AnnotationChecker.AnnotationStatus;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Tests for {@link AnnotationChecker}.
+ *
+ * @author agent
+ */
+public class AnnotationCheckerTests {
+
+	private static final Node FEATURE_MODEL = new And(new Implies("A", "B"), new Or("B", "C"), new Implies("C", new Not("D")));
+
+	private static final List<Node> NO_CONTEXT = Collections.emptyList();
+
+	@Test
+	public void testExpression() throws TimeoutException {
+		final AnnotationChecker checker = new AnnotationChecker(FEATURE_MODEL);
+		assertFalse(checker.isVoid());
+		assertEquals(AnnotationStatus.CONTRADICTION, checker.check(new And("E", new Not("E")), NO_CONTEXT));
+		assertEquals(AnnotationStatus.TAUTOLOGY, checker.check(new Or("E", new Not("E")), NO_CONTEXT));
+		assertEquals(AnnotationStatus.TAUTOLOGY, checker.check(new Equals("E", "E"), NO_CONTEXT));
+		assertEquals(AnnotationStatus.NORMAL, checker.check(new Literal("E"), NO_CONTEXT));
+	}
+
+	@Test
+	public void testFeatureModel() throws TimeoutException {
+		final AnnotationChecker checker = new AnnotationChecker(FEATURE_MODEL);
+		assertEquals(AnnotationStatus.DEAD, checker.check(new And("C", "D"), NO_CONTEXT));
+		assertEquals(AnnotationStatus.SUPERFLUOUS, checker.check(new Or("B", "C"), NO_CONTEXT));
+		assertEquals(AnnotationStatus.NORMAL, checker.check(new Literal("A"), NO_CONTEXT));
+		assertEquals(AnnotationStatus.NORMAL, checker.check(new Implies("A", "D"), NO_CONTEXT));
+	}
+
+	@Test
+	public void testContext() throws TimeoutException {
+		final AnnotationChecker checker = new AnnotationChecker(FEATURE_MODEL);
+		assertEquals(AnnotationStatus.SUPERFLUOUS, checker.check(new Literal("B"), Arrays.<Node> asList(new Literal("A"))));
+		assertEquals(AnnotationStatus.DEAD, checker.check(new Literal("D"), Arrays.<Node> asList(new Literal("E"), new Not("B"))));
+		assertEquals(AnnotationStatus.NORMAL, checker.check(new Literal("D"), Arrays.<Node> asList(new Literal("E"))));
+		assertEquals(AnnotationStatus.NORMAL, checker.check(new Literal("B"), NO_CONTEXT));
+	}
+
+	@Test
+	public void testCache() throws TimeoutException {
+		final AnnotationChecker checker = new AnnotationChecker(FEATURE_MODEL);
+		assertEquals(AnnotationStatus.SUPERFLUOUS, checker.check(new Or("B", "C"), Arrays.<Node> asList(new Literal("A"), new Literal("E"))));
+		assertEquals(1, checker.getNumberOfCachedResults());
+		assertEquals(AnnotationStatus.SUPERFLUOUS, checker.check(new Or("C", "B"), Arrays.<Node> asList(new Literal("E"), new Literal("A"))));
+		assertEquals(1, checker.getNumberOfCachedResults());
+		assertEquals(AnnotationStatus.SUPERFLUOUS, checker.check(new Or("C", "B"), NO_CONTEXT));
+		assertEquals(2, checker.getNumberOfCachedResults());
+	}
+
+	@Test
+	public void testVoidFeatureModel() throws TimeoutException {
+		final AnnotationChecker checker = new AnnotationChecker(new And(new Or("A"), new Or(new Not("A"))));
+		assertTrue(checker.isVoid());
+		assertEquals(AnnotationStatus.VOID, checker.check(new Literal("B"), NO_CONTEXT));
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		final AnnotationChecker checker = new AnnotationChecker(FEATURE_MODEL);
+		final List<Callable<AnnotationStatus>> tasks = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			final Node expression = ((i % 2) == 0) ? new And("C", "D") : new Implies("A", "D");
+			final List<Node> context = Arrays.<Node> asList(new Literal("F" + (i % 10)));
+			tasks.add(new Callable<AnnotationStatus>() {
+
+				@Override
+				public AnnotationStatus call() throws Exception {
+					return checker.check(expression, context);
+				}
+			});
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<AnnotationStatus>> results = executor.invokeAll(tasks);
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(((i % 2) == 0) ? AnnotationStatus.DEAD : AnnotationStatus.NORMAL, results.get(i).get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(10, checker.getNumberOfCachedResults());
+	}
+
+}
@@ -0,0 +1,134 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.prop4j.analyses.PairWiseConfigurationGenerator.Configuration;
+import org.prop4j.solver.DecisionDNNF;
+import org.prop4j.solver.DecisionDNNFCompiler;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.Commons;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator;
+import de.ovgu.featureide.fm.core.editing.AdvancedNodeCreator.CNFType;
+import de.ovgu.featureide.fm.core.filter.AbstractFeatureFilter;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * This is a benchmark comparing the {@link UniformRandomConfigurationGenerator} with the {@link RandomConfigurationGenerator}. For both generators, the
+ * number of configurations per second and the mean deviation of the frequency of each selected feature from its exact frequency in all valid configurations
+ * is printed. Only the deviation of the uniform generator is checked.
+ *
+ * @author agent
+ */
+public class BUniformRandomConfigurationGenerator {
+
+	private static final int NUMBER_OF_CONFIGURATIONS = 1000;
+
+	private static final double MAX_DEVIATION = 0.05;
+
+	@Test(timeout = 60000)
+	public final void BCompareBerkeleyDB() throws TimeoutException {
+		compare("berkeley_db_model.xml");
+	}
+
+	@Test(timeout = 60000)
+	public final void BCompare100() throws TimeoutException {
+		compare("100-100.xml");
+	}
+
+	private static void compare(String fileName) throws TimeoutException {
+		final IFeatureModel featureModel = Commons.loadBenchmarkFeatureModelFromFile(fileName);
+		final AdvancedNodeCreator nodeCreator = new AdvancedNodeCreator(featureModel, new AbstractFeatureFilter());
+		nodeCreator.setCnfType(CNFType.Regular);
+		nodeCreator.setIncludeBooleanValues(false);
+		final SatInstance satInstance = new SatInstance(nodeCreator.createNodes(), FeatureUtils.extractConcreteFeaturesAsStringList(featureModel));
+		final DecisionDNNF compiledFormula = new DecisionDNNFCompiler(satInstance).compile();
+		final double[] expectedFrequencies = getExpectedFrequencies(compiledFormula);
+
+		long start = System.nanoTime();
+		final UniformRandomConfigurationGenerator uniformGenerator = new UniformRandomConfigurationGenerator(compiledFormula, NUMBER_OF_CONFIGURATIONS);
+		uniformGenerator.setSeed(0);
+		final List<int[]> uniformSample = LongRunningWrapper.runMethod(uniformGenerator);
+		final long uniformTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		final RandomConfigurationGenerator randomGenerator = new RandomConfigurationGenerator(satInstance, NUMBER_OF_CONFIGURATIONS);
+		LongRunningWrapper.runMethod(randomGenerator);
+		final List<int[]> randomSample = new ArrayList<>();
+		for (final Configuration configuration : randomGenerator.q) {
+			randomSample.add(configuration.getModel());
+		}
+		final long randomTime = System.nanoTime() - start;
+
+		final double uniformDeviation = getMeanDeviation(expectedFrequencies, uniformSample);
+		final double randomDeviation = getMeanDeviation(expectedFrequencies, randomSample);
+		System.out.println(fileName + ": uniform " + getThroughput(uniformSample, uniformTime) + " configurations/s, deviation " + uniformDeviation + "; random "
+			+ getThroughput(randomSample, randomTime) + " configurations/s, deviation " + randomDeviation);
+		assertTrue(Double.toString(uniformDeviation), uniformDeviation < MAX_DEVIATION);
+	}
+
+	/**
+	 * @return for each variable the fraction of all solutions in which it is selected
+	 */
+	private static double[] getExpectedFrequencies(DecisionDNNF compiledFormula) {
+		final int numberOfVariables = compiledFormula.getSatInstance().getNumberOfVariables();
+		final BigDecimal numberOfSolutions = new BigDecimal(compiledFormula.countSolutions(new int[0]));
+		final double[] frequencies = new double[numberOfVariables];
+		for (int i = 0; i < numberOfVariables; i++) {
+			final BigInteger count = compiledFormula.countSolutions(new int[] { i + 1 });
+			frequencies[i] = new BigDecimal(count).divide(numberOfSolutions, MathContext.DECIMAL64).doubleValue();
+		}
+		return frequencies;
+	}
+
+	private static double getMeanDeviation(double[] expectedFrequencies, List<int[]> sample) {
+		final int[] selections = new int[expectedFrequencies.length];
+		for (final int[] configuration : sample) {
+			for (final int literal : configuration) {
+				if (literal > 0) {
+					selections[literal - 1]++;
+				}
+			}
+		}
+		double deviation = 0;
+		for (int i = 0; i < expectedFrequencies.length; i++) {
+			deviation += Math.abs(((double) selections[i] / sample.size()) - expectedFrequencies[i]);
+		}
+		return deviation / expectedFrequencies.length;
+	}
+
+	private static long getThroughput(List<int[]> sample, long nanoTime) {
+		return (sample.size() * 1_000_000_000L) / Math.max(1, nanoTime);
+	}
+
+}
@@ -0,0 +1,146 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.prop4j.Prop4JTestUtils.createRandomClauses;
+import static org.prop4j.Prop4JTestUtils.getAllSolutions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Or;
+import org.prop4j.analyses.ParallelImplicationAnalysis.ICandidateFilter;
+import org.prop4j.solver.BasicSolver;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.ContradictionException;
+
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link ParallelImplicationAnalysis}.
+ *
+ * @author agent
+ */
+public class ParallelImplicationAnalysisTests {
+
+	private static final List<String> VARIABLES = Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H");
+
+	private static final ICandidateFilter ALL = new ICandidateFilter() {
+
+		@Override
+		public boolean isCandidate(int literal, int otherVariable) {
+			return true;
+		}
+	};
+
+	@Test
+	public void testImplications() throws ContradictionException {
+		final Random random = new Random(0);
+		for (int i = 0; i < 50; i++) {
+			final SatInstance satInstance = new SatInstance(createRandomClauses(random, VARIABLES, 4 + random.nextInt(8), 1, 3), VARIABLES);
+			final List<int[]> solutions = getAllSolutions(satInstance);
+			if (solutions.isEmpty()) {
+				continue;
+			}
+			final byte[] core = getCore(solutions);
+			for (final int numberOfThreads : new int[] { 1, 3 }) {
+				final int[][] implications = run(satInstance, core, ALL, numberOfThreads);
+				for (int j = 0; j < VARIABLES.size(); j++) {
+					for (final int x : new int[] { j + 1, -(j + 1) }) {
+						if (core[j] != 0) {
+							assertNull(implications[ParallelImplicationAnalysis.getIndex(x)]);
+						} else {
+							assertEquals(Arrays.toString(getImplications(solutions, core, x)),
+									Arrays.toString(implications[ParallelImplicationAnalysis.getIndex(x)]));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFilter() throws ContradictionException {
+		final SatInstance satInstance = new SatInstance(new And(new Or(new Literal("A", false), new Literal("B")),
+				new Or(new Literal("A", false), new Literal("C")), new Or(new Literal("B", false), new Literal("D"))), VARIABLES);
+		final byte[] core = new byte[VARIABLES.size()];
+		final int[][] implications = run(satInstance, core, new ICandidateFilter() {
+
+			@Override
+			public boolean isCandidate(int literal, int otherVariable) {
+				return otherVariable != 2;
+			}
+		}, 2);
+		assertEquals("[2, 4]", Arrays.toString(implications[ParallelImplicationAnalysis.getIndex(1)]));
+		assertEquals("[4]", Arrays.toString(implications[ParallelImplicationAnalysis.getIndex(2)]));
+		assertEquals("[]", Arrays.toString(implications[ParallelImplicationAnalysis.getIndex(-2)]));
+	}
+
+	private static int[][] run(SatInstance satInstance, byte[] core, ICandidateFilter filter, int numberOfThreads) throws ContradictionException {
+		final ParallelImplicationAnalysis analysis = new ParallelImplicationAnalysis(new BasicSolver(satInstance), core, filter);
+		analysis.setNumberOfThreads(numberOfThreads);
+		return LongRunningWrapper.runMethod(analysis);
+	}
+
+	private static int[] getImplications(List<int[]> solutions, byte[] core, int x) {
+		final int[] result = new int[VARIABLES.size()];
+		int resultSize = 0;
+		variableLoop: for (int j = Math.abs(x); j < VARIABLES.size(); j++) {
+			if (core[j] != 0) {
+				continue;
+			}
+			int value = 0;
+			for (final int[] solution : solutions) {
+				if (solution[Math.abs(x) - 1] == x) {
+					if (value == 0) {
+						value = solution[j];
+					} else if (value != solution[j]) {
+						continue variableLoop;
+					}
+				}
+			}
+			result[resultSize++] = value;
+		}
+		return Arrays.copyOf(result, resultSize);
+	}
+
+	private static byte[] getCore(List<int[]> solutions) {
+		final byte[] core = new byte[VARIABLES.size()];
+		for (int i = 0; i < core.length; i++) {
+			final int value = solutions.get(0)[i];
+			core[i] = (byte) (value > 0 ? 1 : -1);
+			for (final int[] solution : solutions) {
+				if (solution[i] != value) {
+					core[i] = 0;
+					break;
+				}
+			}
+		}
+		return core;
+	}
+
+}
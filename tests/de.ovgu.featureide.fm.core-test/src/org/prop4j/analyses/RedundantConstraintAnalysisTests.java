@@ -0,0 +1,90 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.prop4j.Prop4JTestUtils.createRandomClauses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Tests for {@link RedundantConstraintAnalysis}.
+ *
+ * @author agent
+ */
+public class RedundantConstraintAnalysisTests {
+
+	private static final List<String> VARIABLES = Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L");
+
+	@Test
+	public void testEquivalentConstraints() {
+		final Node structure = new And(new Implies("B", "A"), new Implies("C", "A"));
+		final boolean[] redundant = analyze(structure, 1, new Implies("A", "B"), new Or(new Not("A"), "B"), new Implies("B", "A"));
+		assertEquals(Arrays.toString(new boolean[] { true, false, true }), Arrays.toString(redundant));
+	}
+
+	@Test
+	public void testUnitConstraints() {
+		final Node structure = new And(new Implies("B", "A"));
+		final boolean[] redundant = analyze(structure, 1, new Not("C"), new Implies("C", "B"), new Not("B"));
+		assertEquals(Arrays.toString(new boolean[] { true, false, false }), Arrays.toString(redundant));
+	}
+
+	@Test
+	public void testNumberOfThreads() {
+		final Random random = new Random(0);
+		for (int i = 0; i < 20; i++) {
+			final Node structure = createRandomClauses(random, VARIABLES, 8, 2, 3);
+			final Node[] constraints = new Node[24];
+			for (int j = 0; j < constraints.length; j++) {
+				constraints[j] = createRandomClauses(random, VARIABLES, 1 + random.nextInt(2), 2, 3);
+			}
+			final boolean[] expected = analyze(structure, 1, constraints);
+			assertEquals(Arrays.toString(expected), Arrays.toString(analyze(structure, 2, constraints)));
+			assertEquals(Arrays.toString(expected), Arrays.toString(analyze(structure, 5, constraints)));
+			assertEquals(Arrays.toString(expected), Arrays.toString(analyze(structure, 32, constraints)));
+		}
+	}
+
+	private static boolean[] analyze(Node structure, int numberOfThreads, Node... constraints) {
+		final List<Node> cnfs = new ArrayList<>();
+		for (final Node constraint : constraints) {
+			cnfs.add(constraint.toRegularCNF());
+		}
+		final RedundantConstraintAnalysis analysis = new RedundantConstraintAnalysis(new SatInstance(structure.toRegularCNF(), VARIABLES), cnfs);
+		analysis.setNumberOfThreads(numberOfThreads);
+		return LongRunningWrapper.runMethod(analysis);
+	}
+
+}
@@ -0,0 +1,149 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.prop4j.Prop4JTestUtils.containsModel;
+import static org.prop4j.Prop4JTestUtils.createRandomClauses;
+import static org.prop4j.Prop4JTestUtils.getAllSolutions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Or;
+import org.prop4j.analyses.IPairWiseConfigurationGenerator.Configuration;
+import org.prop4j.solver.SatInstance;
+
+import de.ovgu.featureide.fm.core.functional.Functional.IConsumer;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests for {@link TWiseConfigurationGenerator}.
+ *
+ * @author agent
+ */
+public class TWiseConfigurationGeneratorTests {
+
+	private static final List<String> VARIABLES = Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H", "I", "J");
+
+	@Test
+	public void testCoverage() {
+		final Random random = new Random(0);
+		for (int i = 0; i < 10; i++) {
+			final SatInstance satInstance = new SatInstance(createRandomClauses(random, VARIABLES, 12, 1, 3), VARIABLES);
+			final List<int[]> solutions = getAllSolutions(satInstance);
+			for (int t = 1; t <= TWiseConfigurationGenerator.MAX_T; t++) {
+				for (final int maxOpenConfigurations : new int[] { 1, 4, TWiseConfigurationGenerator.DEFAULT_MAX_OPEN_CONFIGURATIONS }) {
+					final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(satInstance, t, Integer.MAX_VALUE);
+					generator.setMaxOpenConfigurations(maxOpenConfigurations);
+					final List<int[]> sample = run(generator);
+					if (solutions.isEmpty()) {
+						assertTrue(sample.isEmpty());
+					} else {
+						for (final int[] configuration : sample) {
+							assertTrue(containsModel(solutions, configuration));
+						}
+						checkCoverage(solutions, sample, t);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testStreaming() {
+		final SatInstance satInstance = new SatInstance(createRandomClauses(new Random(1), VARIABLES, 8, 1, 3), VARIABLES);
+		final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(satInstance, 2, Integer.MAX_VALUE);
+		generator.setMaxOpenConfigurations(1);
+		generator.setKeepConfigurations(false);
+		final List<int[]> sample = run(generator);
+		assertEquals(generator.getNumberOfConfigurations(), sample.size());
+		assertTrue(generator.getConfigurations().isEmpty());
+		checkCoverage(getAllSolutions(satInstance), sample, 2);
+	}
+
+	@Test
+	public void testMaxNumber() {
+		final SatInstance satInstance = new SatInstance(new And(new Or("A", "B")), VARIABLES);
+		final TWiseConfigurationGenerator generator = new TWiseConfigurationGenerator(satInstance, 3, 2);
+		assertEquals(2, run(generator).size());
+		assertEquals(2, generator.getConfigurations().size());
+		assertEquals(2, generator.getQ().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidT() {
+		new TWiseConfigurationGenerator(new SatInstance(new And(new Or("A", "B")), VARIABLES), TWiseConfigurationGenerator.MAX_T + 1, 1);
+	}
+
+	private static List<int[]> run(TWiseConfigurationGenerator generator) {
+		final List<int[]> sample = new ArrayList<>();
+		final NullMonitor monitor = new NullMonitor();
+		monitor.setIntermediateFunction(new IConsumer<Object>() {
+
+			@Override
+			public void invoke(Object t) {
+				sample.add(((Configuration) t).getModel());
+			}
+		});
+		LongRunningWrapper.runMethod(generator, monitor);
+		return sample;
+	}
+
+	private static void checkCoverage(List<int[]> solutions, List<int[]> sample, int t) {
+		final int[] combination = new int[t];
+		checkCoverage(solutions, sample, combination, 0, 0);
+	}
+
+	private static void checkCoverage(List<int[]> solutions, List<int[]> sample, int[] tuple, int position, int start) {
+		if (position == tuple.length) {
+			if (containsTuple(solutions, tuple)) {
+				assertTrue(Arrays.toString(tuple), containsTuple(sample, tuple));
+			}
+			return;
+		}
+		for (int i = start; i < VARIABLES.size(); i++) {
+			tuple[position] = i + 1;
+			checkCoverage(solutions, sample, tuple, position + 1, i + 1);
+			tuple[position] = -(i + 1);
+			checkCoverage(solutions, sample, tuple, position + 1, i + 1);
+		}
+	}
+
+	private static boolean containsTuple(List<int[]> models, int[] tuple) {
+		modelLoop: for (final int[] model : models) {
+			for (final int literal : tuple) {
+				if (model[Math.abs(literal) - 1] != literal) {
+					continue modelLoop;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+}
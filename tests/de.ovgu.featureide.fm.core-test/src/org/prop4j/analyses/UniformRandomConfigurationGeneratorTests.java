@@ -0,0 +1,178 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.analyses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.prop4j.Prop4JTestUtils.containsModel;
+import static org.prop4j.Prop4JTestUtils.getAllSolutions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Choose;
+import org.prop4j.Implies;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.prop4j.solver.DecisionDNNF;
+import org.prop4j.solver.DecisionDNNFCompiler;
+import org.prop4j.solver.SatInstance;
+import org.sat4j.specs.TimeoutException;
+
+import de.ovgu.featureide.fm.core.functional.Functional.IConsumer;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+import de.ovgu.featureide.fm.core.job.monitor.NullMonitor;
+
+/**
+ * Tests for {@link UniformRandomConfigurationGenerator}.
+ *
+ * @author agent
+ */
+public class UniformRandomConfigurationGeneratorTests {
+
+	private static final List<String> VARIABLES = Arrays.asList("A", "B", "C", "D", "E", "F", "G");
+
+	private static final Node FORMULA = new And(new Implies("A", "B"), new Choose(2, "B", "C", "D"), new Implies("E", new Not("C")), new Or("E", "F"));
+
+	@Test
+	public void testValidity() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(FORMULA.toRegularCNF(), VARIABLES);
+		final List<int[]> solutions = getAllSolutions(satInstance);
+		final UniformRandomConfigurationGenerator generator = createGenerator(satInstance, 200, 0);
+		generator.setAllowDuplicates(true);
+		final List<int[]> sample = LongRunningWrapper.runMethod(generator);
+		assertEquals(200, sample.size());
+		for (final int[] configuration : sample) {
+			assertTrue(Arrays.toString(configuration), containsModel(solutions, configuration));
+		}
+	}
+
+	@Test
+	public void testUniformity() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(FORMULA.toRegularCNF(), VARIABLES);
+		final List<int[]> solutions = getAllSolutions(satInstance);
+		final int numberOfSamples = 1000 * solutions.size();
+		final UniformRandomConfigurationGenerator generator = createGenerator(satInstance, numberOfSamples, 0);
+		generator.setAllowDuplicates(true);
+		final List<int[]> sample = LongRunningWrapper.runMethod(generator);
+
+		final int[] frequencies = new int[solutions.size()];
+		for (final int[] configuration : sample) {
+			for (int i = 0; i < solutions.size(); i++) {
+				if (Arrays.equals(solutions.get(i), configuration)) {
+					frequencies[i]++;
+				}
+			}
+		}
+		// chi-squared test with a significance level far below 0.001
+		double chiSquared = 0;
+		for (final int frequency : frequencies) {
+			chiSquared += ((frequency - 1000.0) * (frequency - 1000.0)) / 1000.0;
+		}
+		assertTrue("chi-squared: " + chiSquared, chiSquared < (solutions.size() * 3));
+	}
+
+	@Test
+	public void testReproducibility() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(FORMULA.toRegularCNF(), VARIABLES);
+		final UniformRandomConfigurationGenerator sequentialGenerator = createGenerator(satInstance, 500, 42);
+		sequentialGenerator.setAllowDuplicates(true);
+		sequentialGenerator.setNumberOfThreads(1);
+		final UniformRandomConfigurationGenerator parallelGenerator = createGenerator(satInstance, 500, 42);
+		parallelGenerator.setAllowDuplicates(true);
+		parallelGenerator.setNumberOfThreads(4);
+		assertEquals(toString(LongRunningWrapper.runMethod(sequentialGenerator)), toString(LongRunningWrapper.runMethod(parallelGenerator)));
+	}
+
+	@Test
+	public void testDistinctConfigurations() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(FORMULA.toRegularCNF(), VARIABLES);
+		final List<int[]> solutions = getAllSolutions(satInstance);
+		final List<int[]> sample = LongRunningWrapper.runMethod(createGenerator(satInstance, Integer.MAX_VALUE, 1));
+		assertEquals(solutions.size(), sample.size());
+		assertEquals(solutions.size(), new HashSet<>(toString(sample)).size());
+
+		assertEquals(3, LongRunningWrapper.runMethod(createGenerator(satInstance, 3, 1)).size());
+	}
+
+	@Test
+	public void testStreaming() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(FORMULA.toRegularCNF(), VARIABLES);
+		final UniformRandomConfigurationGenerator generator = createGenerator(satInstance, 10, 2);
+		final List<int[]> streamedSample = new ArrayList<>();
+		final NullMonitor monitor = new NullMonitor();
+		monitor.setIntermediateFunction(new IConsumer<Object>() {
+
+			@Override
+			public void invoke(Object t) {
+				streamedSample.add((int[]) t);
+			}
+		});
+		final List<int[]> sample = LongRunningWrapper.runMethod(generator, monitor);
+		assertEquals(toString(sample), toString(streamedSample));
+	}
+
+	@Test
+	public void testAssumptions() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(FORMULA.toRegularCNF(), VARIABLES);
+		final int a = satInstance.getVariable("A");
+		final int c = satInstance.getVariable("C");
+		final UniformRandomConfigurationGenerator generator = createGenerator(satInstance, 50, 3);
+		generator.setAllowDuplicates(true);
+		generator.setAssumptions(new int[] { a });
+		for (final int[] configuration : LongRunningWrapper.runMethod(generator)) {
+			assertEquals(a, configuration[a - 1]);
+		}
+
+		generator.setAssumptions(new int[] { a, c, -satInstance.getVariable("D") });
+		final Set<String> sample = new HashSet<>(toString(LongRunningWrapper.runMethod(generator)));
+		assertEquals(2, sample.size());
+	}
+
+	@Test
+	public void testContradiction() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(new And(new Or("A"), new Or(new Not("A"))).toRegularCNF());
+		assertArrayEquals(new Object[0], LongRunningWrapper.runMethod(createGenerator(satInstance, 10, 0)).toArray());
+	}
+
+	private static UniformRandomConfigurationGenerator createGenerator(SatInstance satInstance, int maxNumber, long seed) throws TimeoutException {
+		final DecisionDNNF compiledFormula = new DecisionDNNFCompiler(satInstance).compile();
+		final UniformRandomConfigurationGenerator generator = new UniformRandomConfigurationGenerator(compiledFormula, maxNumber);
+		generator.setSeed(seed);
+		return generator;
+	}
+
+	private static List<String> toString(List<int[]> sample) {
+		final List<String> result = new ArrayList<>(sample.size());
+		for (final int[] configuration : sample) {
+			result.add(Arrays.toString(configuration));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,113 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.sat4j.specs.ContradictionException;
+
+/**
+ * Tests for {@link ClauseStore} and {@link VariableDictionary}.
+ *
+ * @author agent
+ */
+public class ClauseStoreTests {
+
+	@Test
+	public void testVariableDictionary() {
+		final VariableDictionary dictionary = new VariableDictionary(2);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i + 1, dictionary.add("V" + i));
+		}
+		assertEquals(100, dictionary.size());
+		assertEquals(100, dictionary.getMaxIndex());
+		assertEquals(42, dictionary.getIndex("V41"));
+		assertEquals("V41", dictionary.getVariable(-42));
+		assertEquals(0, dictionary.getIndex("X"));
+		assertNull(dictionary.getVariable(101));
+		assertTrue(dictionary.contains("V99"));
+		assertFalse(dictionary.contains("X"));
+	}
+
+	@Test
+	public void testFromCNF() {
+		final VariableDictionary dictionary = new VariableDictionary();
+		dictionary.add("A");
+		dictionary.add("B");
+		dictionary.add("C");
+		final Node cnf = new And(new Or("A", new Literal("B", false)), new Literal("C", false), new Or("A", "B", "C"));
+		final ClauseStore clauses = ClauseStore.fromCNF(cnf, dictionary);
+		assertEquals(3, clauses.size());
+		assertEquals(6, clauses.getNumberOfLiterals());
+		assertEquals(Arrays.toString(new int[] { 1, -2 }), Arrays.toString(clauses.getClause(0)));
+		assertEquals(Arrays.toString(new int[] { -3 }), Arrays.toString(clauses.getClause(1)));
+		assertEquals(3, clauses.getClauseLength(2));
+		assertEquals(2, clauses.getLiteral(2, 1));
+		assertEquals(new And(new Or("A", new Literal("B", false)), new Or(new Literal("C", false)), new Or("A", "B", "C")), clauses.toCNF(dictionary));
+	}
+
+	@Test
+	public void testAdd() {
+		final ClauseStore clauses = new ClauseStore(1, 1);
+		for (int i = 1; i <= 50; i++) {
+			assertEquals(i - 1, clauses.add(i, -i - 1, i + 2));
+		}
+		assertEquals(50, clauses.size());
+		assertEquals(150, clauses.getNumberOfLiterals());
+		assertEquals(Arrays.toString(new int[] { 50, -51, 52 }), Arrays.toString(clauses.getClause(49)));
+		final int[] clause = clauses.getClause(0);
+		clause[0] = 7;
+		assertEquals(1, clauses.getLiteral(0, 0));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testUnknownVariable() {
+		final VariableDictionary dictionary = new VariableDictionary();
+		dictionary.add("A");
+		ClauseStore.fromCNF(new And(new Or("A", "B")), dictionary);
+	}
+
+	@Test
+	public void testSatInstanceFromClauses() throws ContradictionException {
+		final VariableDictionary dictionary = new VariableDictionary();
+		dictionary.add("A");
+		dictionary.add("B");
+		final ClauseStore clauses = new ClauseStore();
+		clauses.add(1, 2);
+		clauses.add(-1);
+		final SatInstance satInstance = new SatInstance(clauses, dictionary);
+		assertEquals(2, satInstance.getNumberOfVariables());
+		assertEquals(new And(new Or("A", "B"), new Or(new Literal("A", false))), satInstance.getCnf());
+		final int[] model = new BasicSolver(satInstance).findModel();
+		assertEquals(Arrays.toString(new int[] { -1, 2 }), Arrays.toString(model));
+	}
+
+}
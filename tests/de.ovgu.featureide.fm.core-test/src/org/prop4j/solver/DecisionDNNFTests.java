@@ -0,0 +1,114 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Choose;
+import org.prop4j.Equals;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Tests for {@link DecisionDNNF} and {@link DecisionDNNFCompiler}.
+ *
+ * @author agent
+ */
+public class DecisionDNNFTests {
+
+	@Test
+	public void testContradiction() throws TimeoutException {
+		final DecisionDNNF compiledFormula = compile(new And(new Or("A"), new Or(new Literal("A", false))));
+		assertFalse(compiledFormula.isSatisfiable(new int[0]));
+		assertEquals(BigInteger.ZERO, compiledFormula.countSolutions(new int[0]));
+		assertEquals(0, compiledFormula.getImpliedLiterals(new int[0]).length);
+	}
+
+	@Test
+	public void testCount() throws TimeoutException {
+		testFormula(new And(new Implies("A", "B"), new Implies("B", "C"), new Or("A", "D")));
+		testFormula(new And(new Equals("A", new Or("B", "C")), new Implies("C", new Not("D")), new Or("D", "E", "F")));
+		testFormula(new And(new Choose(2, "A", "B", "C", "D"), new Implies("A", "E"), new Implies("E", new Not("B")), new Or("F", "C")));
+		testFormula(new And(new Equals("A", "B"), new Equals("C", "D"), new Or("A", "C"), new Or(new Not("B"), new Not("D"))));
+	}
+
+	@Test
+	public void testAssumptions() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(new And(new Implies("A", "B"), new Or("B", "C")).toRegularCNF());
+		final DecisionDNNF compiledFormula = new DecisionDNNFCompiler(satInstance).compile();
+		final int a = satInstance.getVariable("A");
+		final int b = satInstance.getVariable("B");
+		assertEquals(BigInteger.valueOf(5), compiledFormula.countSolutions(new int[0]));
+		assertEquals(BigInteger.valueOf(2), compiledFormula.countSolutions(new int[] { a }));
+		assertEquals(BigInteger.valueOf(1), compiledFormula.countSolutions(new int[] { -b }));
+		assertTrue(compiledFormula.isSatisfiable(new int[] { -b }));
+		assertFalse(compiledFormula.isSatisfiable(new int[] { a, -b }));
+		assertFalse(compiledFormula.isSatisfiable(new int[] { a, -a }));
+	}
+
+	@Test
+	public void testImpliedLiterals() throws TimeoutException {
+		final SatInstance satInstance =
+			new SatInstance(new And(new Implies("A", "B"), new Implies("B", "C"), new Implies("C", new Not("D")), new Or("C", "E")).toRegularCNF());
+		final DecisionDNNF compiledFormula = new DecisionDNNFCompiler(satInstance).compile();
+		final int a = satInstance.getVariable("A");
+		final int b = satInstance.getVariable("B");
+		final int c = satInstance.getVariable("C");
+		final int d = satInstance.getVariable("D");
+		final int e = satInstance.getVariable("E");
+		assertEquals(0, compiledFormula.getImpliedLiterals(new int[0]).length);
+		assertImpliedLiterals(compiledFormula, new int[] { a }, b, c, -d);
+		assertImpliedLiterals(compiledFormula, new int[] { d }, -a, -b, -c, e);
+		assertImpliedLiterals(compiledFormula, new int[] { a, d });
+	}
+
+	private static void assertImpliedLiterals(DecisionDNNF compiledFormula, int[] assumptions, int... expectedLiterals) {
+		final int[] impliedLiterals = compiledFormula.getImpliedLiterals(assumptions);
+		Arrays.sort(impliedLiterals);
+		Arrays.sort(expectedLiterals);
+		assertArrayEquals(expectedLiterals, impliedLiterals);
+	}
+
+	private static void testFormula(Node formula) throws TimeoutException {
+		final Node cnf = formula.toRegularCNF();
+		final SatInstance satInstance = new SatInstance(cnf);
+		final BigInteger expected = new ModelCounter(satInstance).countSolutions();
+		assertEquals(BigInteger.valueOf(cnf.getSatisfyingAssignments().size()), expected);
+		assertEquals(expected, new DecisionDNNFCompiler(satInstance).compile().countSolutions(new int[0]));
+	}
+
+	private static DecisionDNNF compile(Node cnf) throws TimeoutException {
+		return new DecisionDNNFCompiler(new SatInstance(cnf)).compile();
+	}
+
+}
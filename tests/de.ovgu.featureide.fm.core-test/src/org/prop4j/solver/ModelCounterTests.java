@@ -0,0 +1,109 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Choose;
+import org.prop4j.Equals;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+import org.prop4j.Or;
+import org.sat4j.specs.TimeoutException;
+
+/**
+ * Tests for {@link ModelCounter}.
+ *
+ * @author agent
+ */
+public class ModelCounterTests {
+
+	@Test
+	public void testSingleVariable() throws TimeoutException {
+		assertEquals(BigInteger.ONE, count(new And(new Or("A"))));
+	}
+
+	@Test
+	public void testContradiction() throws TimeoutException {
+		assertEquals(BigInteger.ZERO, count(new And(new Or("A"), new Or(new Literal("A", false)))));
+	}
+
+	@Test
+	public void testUnconstrainedVariables() throws TimeoutException {
+		final List<String> variables = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			variables.add("V" + i);
+		}
+		final SatInstance satInstance = new SatInstance(new And(new Or("V0", "V1")), variables);
+		assertEquals(BigInteger.valueOf(3).shiftLeft(98), new ModelCounter(satInstance).countSolutions());
+	}
+
+	@Test
+	public void testIndependentComponents() throws TimeoutException {
+		final List<Node> clauses = new ArrayList<>();
+		for (int i = 0; i < 80; i++) {
+			clauses.add(new Or("A" + i, "B" + i));
+		}
+		assertEquals(BigInteger.valueOf(3).pow(80), count(new And(clauses.toArray(new Node[0]))));
+	}
+
+	@Test
+	public void testAlternative() throws TimeoutException {
+		assertEquals(BigInteger.valueOf(4), count(new Choose(1, "A", "B", "C", "D").toRegularCNF()));
+	}
+
+	@Test
+	public void testComplexFormulas() throws TimeoutException {
+		testFormula(new And(new Implies("A", "B"), new Implies("B", "C"), new Or("A", "D")));
+		testFormula(new And(new Equals("A", new Or("B", "C")), new Implies("C", new Not("D")), new Or("D", "E", "F")));
+		testFormula(new And(new Choose(2, "A", "B", "C", "D"), new Implies("A", "E"), new Implies("E", new Not("B")), new Or("F", "C")));
+		testFormula(new And(new Equals("A", "B"), new Equals("C", "D"), new Or("A", "C"), new Or(new Not("B"), new Not("D"))));
+	}
+
+	@Test
+	public void testAssumptions() throws TimeoutException {
+		final SatInstance satInstance = new SatInstance(new And(new Implies("A", "B"), new Or("B", "C")).toRegularCNF());
+		final ModelCounter modelCounter = new ModelCounter(satInstance);
+		assertEquals(BigInteger.valueOf(5), modelCounter.countSolutions());
+		assertEquals(BigInteger.valueOf(2), modelCounter.countSolutions(new int[] { satInstance.getVariable("A") }));
+		assertEquals(BigInteger.valueOf(1), modelCounter.countSolutions(new int[] { -satInstance.getVariable("B") }));
+		assertEquals(BigInteger.ZERO, modelCounter.countSolutions(new int[] { satInstance.getVariable("A"), -satInstance.getVariable("B") }));
+		assertEquals(BigInteger.valueOf(5), modelCounter.countSolutions());
+	}
+
+	private static void testFormula(Node formula) throws TimeoutException {
+		final Node cnf = formula.toRegularCNF();
+		assertEquals(BigInteger.valueOf(cnf.getSatisfyingAssignments().size()), count(cnf));
+	}
+
+	private static BigInteger count(Node cnf) throws TimeoutException {
+		return new ModelCounter(new SatInstance(cnf)).countSolutions();
+	}
+
+}
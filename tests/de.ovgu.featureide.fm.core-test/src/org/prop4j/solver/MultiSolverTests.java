@@ -0,0 +1,108 @@
+/* FeatureIDE - A Framework for Feature-Oriented Software Development
+ * Copyright (C) 2005-2017  FeatureIDE team, University of Magdeburg, Germany
+ *
+ * This file is part of FeatureIDE.
+ *
+ * FeatureIDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FeatureIDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FeatureIDE.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * See http://featureide.cs.ovgu.de/ for further information.
+ */
+package org.prop4j.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.prop4j.Prop4JTestUtils.createRandomClauses;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.prop4j.And;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Or;
+import org.prop4j.solver.ISatSolver.SatResult;
+import org.sat4j.specs.ContradictionException;
+
+/**
+ * Tests for {@link MultiSolver}.
+ *
+ * @author agent
+ */
+public class MultiSolverTests {
+
+	private static final int NUMBER_OF_VARIABLES = 40;
+
+	@Test
+	public void testRandomFormulas() throws ContradictionException {
+		final Random random = new Random(0);
+		final List<String> variables = getVariables();
+		for (int i = 0; i < 10; i++) {
+			final SatInstance satInstance = new SatInstance(createRandomClauses(random, variables, 160, 3, 3), variables);
+			final BasicSolver basicSolver = new BasicSolver(satInstance);
+			final MultiSolver multiSolver = new MultiSolver(satInstance, 4);
+			for (int j = 0; j < 50; j++) {
+				final int literal = (random.nextInt(NUMBER_OF_VARIABLES) + 1) * (random.nextBoolean() ? 1 : -1);
+				basicSolver.assignmentPush(literal);
+				multiSolver.assignmentPush(literal);
+				final SatResult result = multiSolver.isSatisfiable();
+				assertEquals(basicSolver.isSatisfiable(), result);
+				if (result == SatResult.TRUE) {
+					checkModel(satInstance, multiSolver);
+				} else {
+					basicSolver.assignmentClear(0);
+					multiSolver.assignmentClear(0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAddClauses() throws ContradictionException {
+		final SatInstance satInstance = new SatInstance(new And(new Or("A", "B"), new Or(new Literal("A", false), "C")));
+		final MultiSolver multiSolver = new MultiSolver(satInstance, 3);
+		assertNotNull(multiSolver.findModel());
+		multiSolver.addClauses(new And(new Or(new Literal("B", false)), new Or(new Literal("C", false))));
+		assertNull(multiSolver.findModel());
+		assertEquals(3, multiSolver.clone().getNumberOfSolvers());
+	}
+
+	private static void checkModel(SatInstance satInstance, ISatSolver solver) {
+		final int[] model = solver.getModel();
+		assertNotNull(model);
+		for (final Node clause : satInstance.getCnf().getChildren()) {
+			boolean satisfied = false;
+			for (final Node literal : clause.getChildren()) {
+				final int variable = satInstance.getSignedVariable((Literal) literal);
+				satisfied |= model[Math.abs(variable) - 1] == variable;
+			}
+			assertTrue(satisfied);
+		}
+		for (final int literal : solver.getAssignmentArray(0, solver.getAssignment().size())) {
+			assertEquals(literal, model[Math.abs(literal) - 1]);
+		}
+	}
+
+	private static List<String> getVariables() {
+		final List<String> variables = new ArrayList<>(NUMBER_OF_VARIABLES);
+		for (int i = 0; i < NUMBER_OF_VARIABLES; i++) {
+			variables.add("V" + i);
+		}
+		return variables;
+	}
+
+}